@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/4
+ * @description: 自适应批量大小控制器（AIMD）。
+ * <p>
+ * 每个分片执行完成后上报耗时与是否失败：
+ * <ul>
+ *     <li>成功且耗时不超过目标延迟：批量大小加性增长 {@code additiveStep}</li>
+ *     <li>失败或耗时超过目标延迟：批量大小乘性减小为 {@code decreaseFactor} 倍</li>
+ * </ul>
+ * 批量大小始终限制在 [min, max] 之间。同一个实例可以在多次执行之间复用，
+ * 这样调好的批量大小会随着下游（DB / RPC）的负载变化持续调整，无需重新发布。
+ * <p>
+ * 引入 Micrometer 时自动注册 nebula.batch.* 指标，以名字作为标签；同名实例以最后创建的为准，见 {@link MicrometerBatchSizerMetrics}。
+ */
+@Slf4j
+public class AdaptiveBatchSizer {
+    
+    /**
+     * 延迟指数加权平均的平滑系数
+     */
+    private static final double EWMA_ALPHA = 0.2;
+    
+    private final String name;
+    
+    private final int minBatchSize;
+    
+    private final int maxBatchSize;
+    
+    private final long targetLatencyNanos;
+    
+    private final int additiveStep;
+    
+    private final double decreaseFactor;
+    
+    private volatile int currentBatchSize;
+    
+    private volatile double latencyEwmaNanos;
+    
+    private final LongAdder completedBatches = new LongAdder();
+    
+    private final LongAdder failedBatches = new LongAdder();
+    
+    private AdaptiveBatchSizer(Builder builder) {
+        this.name = builder.name;
+        this.minBatchSize = builder.minBatchSize;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.targetLatencyNanos = builder.targetLatencyNanos;
+        this.additiveStep = builder.additiveStep;
+        this.decreaseFactor = builder.decreaseFactor;
+        this.currentBatchSize = Math.max(minBatchSize, Math.min(maxBatchSize, builder.initialBatchSize));
+    }
+    
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+    
+    /**
+     * 下一个分片应使用的批量大小
+     */
+    public int getCurrentBatchSize() {
+        return currentBatchSize;
+    }
+    
+    /**
+     * 上报一个分片的执行结果，并据此调整批量大小。
+     *
+     * @param batchSize    该分片实际大小
+     * @param latencyNanos 该分片执行耗时（纳秒）
+     * @param failed       是否执行失败
+     */
+    public synchronized void onBatchComplete(int batchSize, long latencyNanos, boolean failed) {
+        completedBatches.increment();
+        double ewma = latencyEwmaNanos;
+        latencyEwmaNanos = ewma == 0 ? latencyNanos : ewma + EWMA_ALPHA * (latencyNanos - ewma);
+        
+        int current = currentBatchSize;
+        int next;
+        if (failed || latencyNanos > targetLatencyNanos) {
+            if (failed) {
+                failedBatches.increment();
+            }
+            // 以实际执行的分片大小为基准减小，避免迟到的旧分片反复打压已经下调过的值
+            next = Math.max(minBatchSize, (int) (Math.min(current, batchSize) * decreaseFactor));
+        } else if (batchSize >= current) {
+            // 只有按当前大小执行完的分片才能驱动增长，相当于每一"代"分片增长一次
+            next = Math.min(maxBatchSize, current + additiveStep);
+        } else {
+            next = current;
+        }
+        if (next != current) {
+            currentBatchSize = next;
+            if (log.isDebugEnabled()) {
+                log.debug("Adaptive batch size [{}] changed {} -> {} (latency={}ms, failed={})",
+                        name, current, next, TimeUnit.NANOSECONDS.toMillis(latencyNanos), failed);
+            }
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+    
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+    
+    public long getCompletedBatches() {
+        return completedBatches.sum();
+    }
+    
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+    
+    /**
+     * 分片执行耗时的指数加权平均值（毫秒）
+     */
+    public double getLatencyEwmaMillis() {
+        return latencyEwmaNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("AdaptiveBatchSizer[%s: size=%d, range=[%d,%d], latencyEwma=%.1fms, completed=%d, failed=%d]",
+                name, currentBatchSize, minBatchSize, maxBatchSize, getLatencyEwmaMillis(),
+                getCompletedBatches(), getFailedBatches());
+    }
+    
+    public static class Builder {
+        
+        private final String name;
+        
+        private int minBatchSize = 10;
+        
+        private int maxBatchSize = 5000;
+        
+        private int initialBatchSize = 100;
+        
+        private long targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(500);
+        
+        private int additiveStep = 10;
+        
+        private double decreaseFactor = 0.5;
+        
+        private Builder(String name) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Adaptive batch sizer name cannot be empty.");
+            }
+            this.name = name;
+        }
+        
+        public Builder setBatchSizeRange(int minBatchSize, int maxBatchSize) {
+            if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+                throw new IllegalArgumentException("Batch size range must satisfy 0 < min <= max.");
+            }
+            this.minBatchSize = minBatchSize;
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+        
+        public Builder setInitialBatchSize(int initialBatchSize) {
+            if (initialBatchSize > 0) {
+                this.initialBatchSize = initialBatchSize;
+            }
+            return this;
+        }
+        
+        public Builder setTargetLatency(long targetLatency, TimeUnit timeUnit) {
+            if (targetLatency > 0 && timeUnit != null) {
+                this.targetLatencyNanos = timeUnit.toNanos(targetLatency);
+            }
+            return this;
+        }
+        
+        public Builder setAdditiveStep(int additiveStep) {
+            if (additiveStep > 0) {
+                this.additiveStep = additiveStep;
+            }
+            return this;
+        }
+        
+        public Builder setDecreaseFactor(double decreaseFactor) {
+            if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+                throw new IllegalArgumentException("Decrease factor must be between 0 and 1.");
+            }
+            this.decreaseFactor = decreaseFactor;
+            return this;
+        }
+        
+        public AdaptiveBatchSizer build() {
+            AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(this);
+            if (ThreadPoolMetrics.isMicrometerPresent()) {
+                MicrometerBatchSizerMetrics.bind(sizer);
+            }
+            return sizer;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/21
+ * @description: 分阶段流水线（读取 → 转换 → 写入）。
+ * <p>
+ * 每个阶段有独立的并行度与批量大小，阶段之间通过有界队列连接：
+ * <ul>
+ *     <li>下游处理不过来时上游阻塞在队列上（背压），内存中只保留各队列容量内的数据</li>
+ *     <li>各阶段同时工作，整体吞吐取决于最慢的阶段，而不是各阶段耗时之和</li>
+ *     <li>任一阶段抛出异常时取消整个流水线，{@link Execution#await()} 抛出该异常</li>
+ * </ul>
+ * 批量为机会式：worker 取到第一个元素后把队列中已有的元素一并取出，最多 batchSize 个。
+ * 并行度大于 1 的阶段不保证顺序。
+ * <pre>{@code
+ * BatchPipeline.from("user-sync", idPages)
+ *         .stage("fetch", 4, 1, pages -> userClient.fetch(pages.get(0)))
+ *         .stage("transform", 2, 500, users -> users.stream().map(UserDO::of).collect(Collectors.toList()))
+ *         .sink("write", 2, 1000, rows -> CollectionBatchExecutor.batchCRUD(loadOld(rows), rows, UserDO::getId,
+ *                 userMapper::insertBatch, userMapper::updateBatch, userMapper::deleteBatch))
+ *         .run();
+ * }</pre>
+ * 阶段的 worker 是长期阻塞在队列上的专用线程，因此不放在共享线程池中执行，避免占满共享线程池。
+ *
+ * @param <T> 当前阶段输出的元素类型
+ */
+@Slf4j
+public final class BatchPipeline<T> {
+    
+    /**
+     * 默认的阶段输入队列容量
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    
+    private static final Object POISON = new Object();
+    
+    private final String name;
+    
+    private final Iterator<?> source;
+    
+    private final List<StageSpec> stages;
+    
+    private BatchPipeline(String name, Iterator<?> source, List<StageSpec> stages) {
+        this.name = name;
+        this.source = source;
+        this.stages = stages;
+    }
+    
+    /**
+     * 以迭代器作为数据源创建流水线，迭代器在单独的线程中被消费，可以是分页查询等惰性数据源
+     */
+    public static <T> BatchPipeline<T> from(String name, Iterator<T> source) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Pipeline name cannot be empty.");
+        }
+        return new BatchPipeline<>(name, Objects.requireNonNull(source, "source"), new ArrayList<>());
+    }
+    
+    public static <T> BatchPipeline<T> from(String name, Iterable<T> source) {
+        return from(name, Objects.requireNonNull(source, "source").iterator());
+    }
+    
+    /**
+     * 添加一个转换阶段，输入队列容量为 {@value #DEFAULT_QUEUE_CAPACITY}
+     *
+     * @param stageName   阶段名称，用于线程名与统计
+     * @param parallelism 并行度
+     * @param batchSize   每批最多处理的元素数
+     * @param batchTask   批量转换函数
+     */
+    public <R> BatchPipeline<R> stage(String stageName, int parallelism, int batchSize,
+                                      Function<List<T>, List<R>> batchTask) {
+        return stage(stageName, parallelism, batchSize, DEFAULT_QUEUE_CAPACITY, batchTask);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <R> BatchPipeline<R> stage(String stageName, int parallelism, int batchSize, int queueCapacity,
+                                      Function<List<T>, List<R>> batchTask) {
+        Objects.requireNonNull(batchTask, "batchTask");
+        addStage(stageName, parallelism, batchSize, queueCapacity, (Function<List<Object>, List<Object>>) (Function<?, ?>) batchTask);
+        return (BatchPipeline<R>) this;
+    }
+    
+    /**
+     * 添加终止阶段，返回可执行的流水线
+     */
+    public Plan sink(String stageName, int parallelism, int batchSize, Consumer<List<T>> consumer) {
+        return sink(stageName, parallelism, batchSize, DEFAULT_QUEUE_CAPACITY, consumer);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public Plan sink(String stageName, int parallelism, int batchSize, int queueCapacity, Consumer<List<T>> consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        Consumer<List<Object>> sink = (Consumer<List<Object>>) (Consumer<?>) consumer;
+        addStage(stageName, parallelism, batchSize, queueCapacity, batch -> {
+            sink.accept(batch);
+            return null;
+        });
+        return new Plan(name, source, Collections.unmodifiableList(new ArrayList<>(stages)));
+    }
+    
+    private void addStage(String stageName, int parallelism, int batchSize, int queueCapacity,
+                          Function<List<Object>, List<Object>> batchTask) {
+        if (stageName == null || stageName.isBlank()) {
+            throw new IllegalArgumentException("Stage name cannot be empty.");
+        }
+        if (parallelism <= 0 || batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Parallelism, batch size and queue capacity must be greater than 0.");
+        }
+        stages.add(new StageSpec(stageName, parallelism, batchSize, queueCapacity, batchTask));
+    }
+    
+    private static final class StageSpec {
+        
+        private final String name;
+        
+        private final int parallelism;
+        
+        private final int batchSize;
+        
+        private final int queueCapacity;
+        
+        private final Function<List<Object>, List<Object>> batchTask;
+        
+        private StageSpec(String name, int parallelism, int batchSize, int queueCapacity,
+                          Function<List<Object>, List<Object>> batchTask) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.batchSize = batchSize;
+            this.queueCapacity = queueCapacity;
+            this.batchTask = batchTask;
+        }
+    }
+    
+    /**
+     * 定义完成、可执行的流水线。每次 {@link #start()} 都会创建一组新的 worker，但数据源只能被消费一次。
+     */
+    public static final class Plan {
+        
+        private final String name;
+        
+        private final Iterator<?> source;
+        
+        private final List<StageSpec> stages;
+        
+        private Plan(String name, Iterator<?> source, List<StageSpec> stages) {
+            this.name = name;
+            this.source = source;
+            this.stages = stages;
+        }
+        
+        /**
+         * 异步启动流水线
+         */
+        public Execution start() {
+            Execution execution = new Execution(name, source, stages);
+            execution.start();
+            return execution;
+        }
+        
+        /**
+         * 启动并等待流水线执行完成
+         */
+        public void run() {
+            start().await();
+        }
+    }
+    
+    /**
+     * 一次运行中的流水线
+     */
+    public static final class Execution {
+        
+        private final String name;
+        
+        private final Iterator<?> source;
+        
+        private final List<StageSpec> stages;
+        
+        private final List<BlockingQueue<Object>> queues = new ArrayList<>();
+        
+        private final List<AtomicInteger> runningProducers = new ArrayList<>();
+        
+        private final List<LongAdder> processed = new ArrayList<>();
+        
+        private final List<Thread> threads = new ArrayList<>();
+        
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        
+        private final CountDownLatch finished;
+        
+        private volatile boolean cancelled;
+        
+        private Execution(String name, Iterator<?> source, List<StageSpec> stages) {
+            this.name = name;
+            this.source = source;
+            this.stages = stages;
+            int workers = 1;
+            for (StageSpec stage : stages) {
+                queues.add(new ArrayBlockingQueue<>(stage.queueCapacity));
+                processed.add(new LongAdder());
+                workers += stage.parallelism;
+            }
+            // 第 i 个队列的生产者：数据源线程或上一个阶段的所有 worker
+            runningProducers.add(new AtomicInteger(1));
+            for (int i = 1; i < stages.size(); i++) {
+                runningProducers.add(new AtomicInteger(stages.get(i - 1).parallelism));
+            }
+            this.finished = new CountDownLatch(workers);
+        }
+        
+        private void start() {
+            threads.add(new ThreadFactoryImpl(name + "-source-").newThread(this::runSource));
+            for (int i = 0; i < stages.size(); i++) {
+                StageSpec stage = stages.get(i);
+                ThreadFactoryImpl threadFactory = new ThreadFactoryImpl(name + "-" + stage.name + "-");
+                int index = i;
+                for (int w = 0; w < stage.parallelism; w++) {
+                    threads.add(threadFactory.newThread(() -> runStage(index)));
+                }
+            }
+            threads.forEach(Thread::start);
+        }
+        
+        private void runSource() {
+            BlockingQueue<Object> out = queues.get(0);
+            try {
+                while (!cancelled && source.hasNext()) {
+                    out.put(source.next());
+                }
+                if (!cancelled) {
+                    producerDone(0);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                finished.countDown();
+            }
+        }
+        
+        private void runStage(int index) {
+            StageSpec stage = stages.get(index);
+            BlockingQueue<Object> in = queues.get(index);
+            BlockingQueue<Object> out = index + 1 < queues.size() ? queues.get(index + 1) : null;
+            try {
+                boolean end = false;
+                while (!end && !cancelled) {
+                    List<Object> batch = new ArrayList<>(Math.min(stage.batchSize, stage.queueCapacity));
+                    batch.add(in.take());
+                    if (stage.batchSize > 1) {
+                        in.drainTo(batch, stage.batchSize - 1);
+                    }
+                    int poison = batch.indexOf(POISON);
+                    if (poison >= 0) {
+                        // 毒丸之后不会再有数据，放回队列通知同阶段的其他 worker
+                        batch.subList(poison, batch.size()).clear();
+                        in.put(POISON);
+                        end = true;
+                    }
+                    if (batch.isEmpty()) {
+                        continue;
+                    }
+                    List<Object> result = stage.batchTask.apply(batch);
+                    processed.get(index).add(batch.size());
+                    if (out != null && result != null) {
+                        for (Object item : result) {
+                            out.put(item);
+                        }
+                    }
+                }
+                if (end && out != null && !cancelled) {
+                    producerDone(index + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                finished.countDown();
+            }
+        }
+        
+        private void producerDone(int queueIndex) throws InterruptedException {
+            if (runningProducers.get(queueIndex).decrementAndGet() == 0) {
+                queues.get(queueIndex).put(POISON);
+            }
+        }
+        
+        private void fail(Throwable t) {
+            if (failure.compareAndSet(null, t)) {
+                log.error("Pipeline [{}] failed, cancelling all stages", name, t);
+                cancel();
+            }
+        }
+        
+        /**
+         * 取消流水线，中断所有阶段的 worker
+         */
+        public void cancel() {
+            cancelled = true;
+            Thread current = Thread.currentThread();
+            for (Thread thread : threads) {
+                if (thread != current) {
+                    thread.interrupt();
+                }
+            }
+        }
+        
+        /**
+         * 等待流水线执行完成。
+         *
+         * @throws RuntimeException      某个阶段执行失败，cause 为原始异常
+         * @throws CancellationException 流水线被取消
+         */
+        public void await() {
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for pipeline " + name);
+            }
+            checkResult();
+        }
+        
+        /**
+         * 在指定时间内等待流水线执行完成
+         *
+         * @return 是否已执行完成，超时返回 false（流水线继续执行）
+         */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!finished.await(timeout, unit)) {
+                return false;
+            }
+            checkResult();
+            return true;
+        }
+        
+        private void checkResult() {
+            Throwable t = failure.get();
+            if (t != null) {
+                throw new RuntimeException(t);
+            }
+            if (cancelled) {
+                throw new CancellationException("Pipeline " + name + " was cancelled");
+            }
+        }
+        
+        public boolean isDone() {
+            return finished.getCount() == 0;
+        }
+        
+        /**
+         * 各阶段已处理的元素数
+         */
+        public Map<String, Long> getProcessedCounts() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (int i = 0; i < stages.size(); i++) {
+                counts.put(stages.get(i).name, processed.get(i).sum());
+            }
+            return counts;
+        }
+        
+        /**
+         * 各阶段输入队列中等待的元素数，持续偏大的阶段即为瓶颈
+         */
+        public Map<String, Integer> getQueueSizes() {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            for (int i = 0; i < stages.size(); i++) {
+                sizes.put(stages.get(i).name, queues.get(i).size());
+            }
+            return sizes;
+        }
+        
+        @Override
+        public String toString() {
+            return "BatchPipeline.Execution[" + name + ": processed=" + getProcessedCounts() + ", queued=" + getQueueSizes() + "]";
+        }
+    }
+}
@@ -22,6 +22,8 @@ import com.nebula.base.utils.DataUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -30,6 +32,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -48,12 +51,7 @@ public class CollectionBatchExecutor {
     private static final ExecutorService DEFAULT_EXECUTOR;
     
     static {
-        DEFAULT_EXECUTOR = ThreadPoolBuilder
-                .ioBoundBuilder()
-                .setThreadNamePrefix("parallel-batch-")
-                .setMaximumPoolSize(20)
-                .setQueueSize(10000)
-                .build(100, 20);
+        DEFAULT_EXECUTOR = ThreadPoolBuilder.defaultIoExecutor("collection-batch-");
         
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             DEFAULT_EXECUTOR.shutdownNow();
@@ -126,6 +124,20 @@ public class CollectionBatchExecutor {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 流式执行批量任务，最多 maxInFlight 个分片同时执行，结果逐个分片回调，使用默认线程池。
+     *
+     * @see ParallelBatchExecutor#executeStreaming(List, int, int, boolean, Function, Consumer, ExecutorService)
+     */
+    public static <T, R> void executeStreaming(List<T> sourceData,
+                                               int batchSize,
+                                               int maxInFlight,
+                                               boolean ordered,
+                                               Function<List<T>, List<R>> batchTask,
+                                               Consumer<List<R>> resultConsumer) {
+        ParallelBatchExecutor.executeStreaming(sourceData, batchSize, maxInFlight, ordered, batchTask, resultConsumer, DEFAULT_EXECUTOR);
+    }
+    
     private static <T> List<List<T>> partition(List<T> list, int batchSize) {
         return Lists.partition(list, batchSize);
     }
@@ -209,6 +221,279 @@ public class CollectionBatchExecutor {
         return new DiffResult<>(toAdd, toUpdate, toDelete);
     }
     
+    /**
+     * {@link #diff(Collection, Collection, Function)} 的 long 主键特化版本。
+     * 旧数据放入开放寻址的原始类型哈希表，不对主键装箱，适合千万级以 long id 为主键的数据比对。
+     *
+     * @param oldCollection 旧数据集合
+     * @param newCollection 新数据集合
+     * @param keyExtractor  提取 long 主键的函数
+     * @return DiffResult<T> 包含差异列表的结果对象
+     */
+    public static <T> DiffResult<T> diffByLongKey(
+                                                  Collection<T> oldCollection,
+                                                  Collection<T> newCollection,
+                                                  ToLongFunction<T> keyExtractor) {
+        Collection<T> oldList = oldCollection == null ? Collections.emptyList() : oldCollection;
+        Collection<T> newList = newCollection == null ? Collections.emptyList() : newCollection;
+        
+        LongObjectHashMap<T> oldMap = new LongObjectHashMap<>(oldList.size());
+        for (T oldItem : oldList) {
+            oldMap.putIfAbsent(keyExtractor.applyAsLong(oldItem), oldItem);
+        }
+        
+        List<T> toAdd = new ArrayList<>();
+        List<T> toUpdate = new ArrayList<>();
+        for (T newItem : newList) {
+            T oldItem = oldMap.match(keyExtractor.applyAsLong(newItem));
+            if (oldItem == null) {
+                toAdd.add(newItem);
+            } else if (!newItem.equals(oldItem)) {
+                toUpdate.add(newItem);
+            }
+        }
+        
+        List<T> toDelete = new ArrayList<>();
+        oldMap.forEachUnmatched(toDelete::add);
+        return new DiffResult<>(toAdd, toUpdate, toDelete);
+    }
+    
+    /**
+     * 流式比对两个按主键升序排列的数据源（归并连接），差异按批回调，两侧数据都不需要整体加载到内存。
+     * 适合直接比对两个按主键排序的数据库游标 / 文件。
+     *
+     * @param oldSorted      按主键严格升序的旧数据
+     * @param newSorted      按主键严格升序的新数据
+     * @param keyExtractor   提取主键的函数
+     * @param batchSize      回调的批量大小
+     * @param addConsumer    处理新增列表的消费者
+     * @param updateConsumer 处理更新列表的消费者（新数据）
+     * @param deleteConsumer 处理删除列表的消费者（旧数据）
+     * @throws IllegalArgumentException 任意一侧主键不是严格升序
+     */
+    public static <T, K extends Comparable<? super K>> void streamingDiff(
+                                                                          Iterator<T> oldSorted,
+                                                                          Iterator<T> newSorted,
+                                                                          Function<T, K> keyExtractor,
+                                                                          int batchSize,
+                                                                          Consumer<List<T>> addConsumer,
+                                                                          Consumer<List<T>> updateConsumer,
+                                                                          Consumer<List<T>> deleteConsumer) {
+        streamingDiff(oldSorted, newSorted, keyExtractor, Comparator.naturalOrder(), batchSize,
+                addConsumer, updateConsumer, deleteConsumer);
+    }
+    
+    /**
+     * 使用自定义主键排序规则的流式比对。
+     *
+     * @see #streamingDiff(Iterator, Iterator, Function, int, Consumer, Consumer, Consumer)
+     */
+    public static <T, K> void streamingDiff(
+                                            Iterator<T> oldSorted,
+                                            Iterator<T> newSorted,
+                                            Function<T, K> keyExtractor,
+                                            Comparator<? super K> keyComparator,
+                                            int batchSize,
+                                            Consumer<List<T>> addConsumer,
+                                            Consumer<List<T>> updateConsumer,
+                                            Consumer<List<T>> deleteConsumer) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0.");
+        }
+        SortedCursor<T, K> oldCursor = new SortedCursor<>(oldSorted, keyExtractor, keyComparator, "old");
+        SortedCursor<T, K> newCursor = new SortedCursor<>(newSorted, keyExtractor, keyComparator, "new");
+        BatchBuffer<T> toAdd = new BatchBuffer<>(batchSize, addConsumer);
+        BatchBuffer<T> toUpdate = new BatchBuffer<>(batchSize, updateConsumer);
+        BatchBuffer<T> toDelete = new BatchBuffer<>(batchSize, deleteConsumer);
+        
+        while (oldCursor.hasCurrent() && newCursor.hasCurrent()) {
+            int cmp = keyComparator.compare(oldCursor.key, newCursor.key);
+            if (cmp < 0) {
+                toDelete.add(oldCursor.current);
+                oldCursor.advance();
+            } else if (cmp > 0) {
+                toAdd.add(newCursor.current);
+                newCursor.advance();
+            } else {
+                if (!newCursor.current.equals(oldCursor.current)) {
+                    toUpdate.add(newCursor.current);
+                }
+                oldCursor.advance();
+                newCursor.advance();
+            }
+        }
+        while (oldCursor.hasCurrent()) {
+            toDelete.add(oldCursor.current);
+            oldCursor.advance();
+        }
+        while (newCursor.hasCurrent()) {
+            toAdd.add(newCursor.current);
+            newCursor.advance();
+        }
+        toAdd.flush();
+        toUpdate.flush();
+        toDelete.flush();
+    }
+    
+    /**
+     * 按主键哈希分区后并行比对，适合内存中的超大集合，使用默认线程池。
+     * 结果与 {@link #diff(Collection, Collection, Function)} 相同，但各列表中元素的顺序按分区拼接。
+     *
+     * @param partitions 分区数
+     */
+    public static <T, K> DiffResult<T> parallelDiff(
+                                                    Collection<T> oldCollection,
+                                                    Collection<T> newCollection,
+                                                    Function<T, K> keyExtractor,
+                                                    int partitions) {
+        return parallelDiff(oldCollection, newCollection, keyExtractor, partitions, DEFAULT_EXECUTOR);
+    }
+    
+    public static <T, K> DiffResult<T> parallelDiff(
+                                                    Collection<T> oldCollection,
+                                                    Collection<T> newCollection,
+                                                    Function<T, K> keyExtractor,
+                                                    int partitions,
+                                                    ExecutorService executor) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be greater than 0.");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null.");
+        }
+        Collection<T> oldList = oldCollection == null ? Collections.emptyList() : oldCollection;
+        Collection<T> newList = newCollection == null ? Collections.emptyList() : newCollection;
+        if (partitions == 1) {
+            return diff(oldList, newList, keyExtractor);
+        }
+        
+        List<List<T>> oldPartitions = partitionByKey(oldList, keyExtractor, partitions);
+        List<List<T>> newPartitions = partitionByKey(newList, keyExtractor, partitions);
+        List<CompletableFuture<DiffResult<T>>> futures = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            List<T> oldPart = oldPartitions.get(i);
+            List<T> newPart = newPartitions.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> diff(oldPart, newPart, keyExtractor), executor));
+        }
+        
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException(e.getCause());
+        }
+        List<T> toAdd = new ArrayList<>();
+        List<T> toUpdate = new ArrayList<>();
+        List<T> toDelete = new ArrayList<>();
+        for (CompletableFuture<DiffResult<T>> future : futures) {
+            DiffResult<T> part = future.join();
+            toAdd.addAll(part.getToAdd());
+            toUpdate.addAll(part.getToUpdate());
+            toDelete.addAll(part.getToDelete());
+        }
+        return new DiffResult<>(toAdd, toUpdate, toDelete);
+    }
+    
+    private static <T, K> List<List<T>> partitionByKey(Collection<T> items, Function<T, K> keyExtractor, int partitions) {
+        List<List<T>> result = new ArrayList<>(partitions);
+        int expected = items.size() / partitions + 1;
+        for (int i = 0; i < partitions; i++) {
+            result.add(new ArrayList<>(expected));
+        }
+        for (T item : items) {
+            K key = keyExtractor.apply(item);
+            int h = key == null ? 0 : key.hashCode();
+            // 与 HashMap 相同的扰动，避免低位相同的 key 集中到同一分区
+            h ^= h >>> 16;
+            result.get(Math.floorMod(h, partitions)).add(item);
+        }
+        return result;
+    }
+    
+    /**
+     * 有序数据源上的游标，同时校验主键严格递增
+     */
+    private static final class SortedCursor<T, K> {
+        
+        private final Iterator<T> iterator;
+        
+        private final Function<T, K> keyExtractor;
+        
+        private final Comparator<? super K> keyComparator;
+        
+        private final String side;
+        
+        private T current;
+        
+        private K key;
+        
+        private boolean hasCurrent;
+        
+        private SortedCursor(Iterator<T> iterator, Function<T, K> keyExtractor, Comparator<? super K> keyComparator, String side) {
+            this.iterator = iterator == null ? Collections.emptyIterator() : iterator;
+            this.keyExtractor = keyExtractor;
+            this.keyComparator = keyComparator;
+            this.side = side;
+            advance();
+        }
+        
+        private boolean hasCurrent() {
+            return hasCurrent;
+        }
+        
+        private void advance() {
+            if (!iterator.hasNext()) {
+                hasCurrent = false;
+                current = null;
+                return;
+            }
+            T next = iterator.next();
+            K nextKey = keyExtractor.apply(next);
+            if (hasCurrent && keyComparator.compare(key, nextKey) >= 0) {
+                throw new IllegalArgumentException("The " + side + " source is not strictly sorted by key: "
+                        + key + " is followed by " + nextKey);
+            }
+            current = next;
+            key = nextKey;
+            hasCurrent = true;
+        }
+    }
+    
+    private static final class BatchBuffer<T> {
+        
+        private final int batchSize;
+        
+        private final Consumer<List<T>> consumer;
+        
+        private List<T> buffer;
+        
+        private BatchBuffer(int batchSize, Consumer<List<T>> consumer) {
+            this.batchSize = batchSize;
+            this.consumer = consumer;
+        }
+        
+        private void add(T item) {
+            if (consumer == null) {
+                return;
+            }
+            if (buffer == null) {
+                buffer = new ArrayList<>(batchSize);
+            }
+            buffer.add(item);
+            if (buffer.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        private void flush() {
+            if (buffer != null && !buffer.isEmpty()) {
+                List<T> batch = buffer;
+                buffer = null;
+                consumer.accept(batch);
+            }
+        }
+    }
+    
     /**
      * 根据比对结果，执行相应的增删改操作。
      * 此版本接受需要删除的【完整对象列表】。
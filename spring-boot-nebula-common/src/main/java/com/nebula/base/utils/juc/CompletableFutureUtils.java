@@ -59,18 +59,16 @@ public class CompletableFutureUtils {
         
         private static final ExecutorService EXECUTOR = buildDefaultExecutor();
         private static ExecutorService buildDefaultExecutor() {
-            ExecutorService pool = ThreadPoolBuilder
-                    .ioBoundBuilder()
-                    .setThreadNamePrefix("database-query-")
-                    .setMaximumPoolSize(20)
-                    .setQueueSize(10000)
-                    .build(100, 20);
+            ExecutorService pool = ThreadPoolBuilder.defaultIoExecutor("database-query-");
             Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(pool, 5, TimeUnit.SECONDS)));
             return pool;
         }
     }
     
-    private static ExecutorService defaultExecutor() {
+    /**
+     * 工具类共用的默认 IO 线程池，同包内的组件未指定线程池时也使用它，避免各自再创建常驻线程池
+     */
+    static ExecutorService defaultExecutor() {
         return DefaultExecutorHolder.EXECUTOR;
     }
     
@@ -116,6 +114,35 @@ public class CompletableFutureUtils {
         return startAsync(supplier, defaultExecutor());
     }
     
+    /**
+     * 对冲请求：调用点近期延迟的 p95 内未返回时再发起一次相同的请求，取先返回的结果并取消另一个，使用默认线程池。
+     * 只能用于幂等的读请求，预算与分位数可通过 {@link HedgedCallSite#of(String)} 调整。
+     *
+     * @param callSite 调用点名称，延迟统计与对冲预算按调用点隔离
+     * @param supplier 请求
+     */
+    public static <T> CompletableFuture<T> supplyHedged(String callSite, Supplier<T> supplier) {
+        return supplyHedged(callSite, supplier, defaultExecutor());
+    }
+    
+    public static <T> CompletableFuture<T> supplyHedged(String callSite, Supplier<T> supplier, Executor executor) {
+        return HedgedCallSite.of(callSite).submit(supplier, executor);
+    }
+    
+    /**
+     * 打开一个扇出 scope，使用默认线程池。
+     *
+     * @param timeout 整体延迟预算，嵌套使用时不超过外层剩余预算
+     * @see FanOutScope
+     */
+    public static FanOutScope openScope(long timeout, TimeUnit unit) {
+        return new FanOutScope(timeout, unit, defaultExecutor());
+    }
+    
+    public static FanOutScope openScope(long timeout, TimeUnit unit, Executor executor) {
+        return new FanOutScope(timeout, unit, executor);
+    }
+    
     /**
      * @deprecated 返回类型依赖 io.vavr（已标记 optional，不再传递依赖）。
      *             请改用 {@link #allSupplyAndGetResults}，或自行声明 io.vavr:vavr 依赖后继续使用本方法。
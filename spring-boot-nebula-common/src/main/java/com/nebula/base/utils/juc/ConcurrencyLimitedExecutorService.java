@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author : wh
+ * @date : 2025/7/8
+ * @description: 用信号量限制并发度的执行器包装。
+ * <p>
+ * 与有界队列不同，任务提交永远不会被拒绝：每个任务先在自己的线程中等待许可，再执行业务逻辑。
+ * 配合虚拟线程使用时，等待许可的线程几乎没有开销，信号量只负责保护下游不被打满。
+ */
+class ConcurrencyLimitedExecutorService extends AbstractExecutorService {
+    
+    private final ExecutorService delegate;
+    
+    private final Semaphore permits;
+    
+    private final int maxConcurrency;
+    
+    private final String name;
+    
+    /**
+     * 只用于在关闭时移除指标，不记录任务耗时
+     */
+    private volatile ThreadPoolMetricsRecorder recorder = ThreadPoolMetricsRecorder.NOOP;
+    
+    ConcurrencyLimitedExecutorService(ExecutorService delegate, int maxConcurrency, String name) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be greater than 0.");
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.name = name;
+    }
+    
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon(command);
+                return;
+            }
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+    
+    /**
+     * 等待许可时被中断（执行器被 shutdownNow）的任务不能悄悄丢掉，否则调用方拿到的 Future 永远不会完成：
+     * CompletableFuture 的异步任务在中断状态下直接执行，由业务逻辑响应中断后以异常完成；
+     * submit 产生的 Future 取消；其他任务抛出 {@link RejectedExecutionException}
+     */
+    private void abandon(Runnable command) {
+        if (command instanceof CompletableFuture.AsynchronousCompletionTask) {
+            command.run();
+        } else if (command instanceof Future<?> future) {
+            future.cancel(false);
+        } else {
+            throw new RejectedExecutionException(name + " was interrupted while waiting for a concurrency permit");
+        }
+    }
+    
+    void setMetricsRecorder(ThreadPoolMetricsRecorder recorder) {
+        this.recorder = recorder != null ? recorder : ThreadPoolMetricsRecorder.NOOP;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 当前正在执行（已持有许可）的任务数
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+    
+    /**
+     * 正在等待许可的任务数（估计值）
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+    
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    /**
+     * 没有终止回调，关闭时即移除指标
+     */
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+        recorder.close();
+    }
+    
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = delegate.shutdownNow();
+        recorder.close();
+        return pending;
+    }
+    
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+    
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s[maxConcurrency=%d, active=%d, waiting=%d]",
+                name, maxConcurrency, getActiveCount(), getWaitingCount());
+    }
+}
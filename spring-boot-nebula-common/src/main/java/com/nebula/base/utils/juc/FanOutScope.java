@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import com.nebula.base.exception.CompletableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/15
+ * @description: 带截止时间传递的结构化并发扇出。
+ * <p>
+ * 与 {@link CompletableFutureUtils#allSupplyAndGetResults} 整组超时即失败不同，这里每个子任务有自己的截止时间与兜底值，
+ * {@link #join()} 最多等待到最晚的截止时间，超时或失败的子任务使用兜底值并在结果中标记，适合在固定延迟预算内渲染部分数据的聚合接口。
+ * <ul>
+ *     <li>超时的子任务会被取消并中断执行线程，不会继续占用线程池</li>
+ *     <li>子任务执行期间可通过 {@link #remainingNanos()} 获取剩余预算，嵌套打开的 scope 自动受外层截止时间约束</li>
+ * </ul>
+ * <pre>{@code
+ * try (FanOutScope scope = CompletableFutureUtils.openScope(300, TimeUnit.MILLISECONDS)) {
+ *     FanOutScope.Slot<User> user = scope.fork("user", () -> userService.get(id), null);
+ *     FanOutScope.Slot<List<Order>> orders = scope.fork("orders", () -> orderService.list(id),
+ *             200, TimeUnit.MILLISECONDS, Collections.emptyList());
+ *     FanOutScope.Result result = scope.join();
+ *     return new Page(user.get(), orders.get(), result.getTimedOutSlots());
+ * }
+ * }</pre>
+ */
+@Slf4j
+public class FanOutScope implements AutoCloseable {
+    
+    /**
+     * 当前线程所在子任务的截止时间（System.nanoTime），不在子任务中时为 null
+     */
+    private static final ThreadLocal<Long> CURRENT_DEADLINE = new ThreadLocal<>();
+    
+    private final long deadlineNanos;
+    
+    private final Executor executor;
+    
+    private final List<Slot<?>> slots = new ArrayList<>();
+    
+    private boolean joined;
+    
+    FanOutScope(long timeout, TimeUnit unit, Executor executor) {
+        if (timeout <= 0 || unit == null) {
+            throw new IllegalArgumentException("Scope timeout must be greater than 0.");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Long inherited = CURRENT_DEADLINE.get();
+        // 嵌套扇出不能超过外层剩余预算
+        this.deadlineNanos = inherited != null && inherited - deadline < 0 ? inherited : deadline;
+    }
+    
+    /**
+     * 当前子任务剩余的时间预算（纳秒），可用于设置下游 JDBC / RPC 超时；不在扇出子任务中时返回 {@link Long#MAX_VALUE}
+     */
+    public static long remainingNanos() {
+        Long deadline = CURRENT_DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : Math.max(0, deadline - System.nanoTime());
+    }
+    
+    /**
+     * 提交一个子任务，截止时间与 scope 相同
+     */
+    public <T> Slot<T> fork(String name, Supplier<T> supplier, T fallback) {
+        return fork(name, supplier, deadlineNanos, fallback);
+    }
+    
+    /**
+     * 提交一个子任务，使用自己的超时时间（不会超过 scope 的截止时间）
+     */
+    public <T> Slot<T> fork(String name, Supplier<T> supplier, long timeout, TimeUnit unit, T fallback) {
+        if (timeout <= 0 || unit == null) {
+            throw new IllegalArgumentException("Slot timeout must be greater than 0.");
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return fork(name, supplier, deadline - deadlineNanos < 0 ? deadline : deadlineNanos, fallback);
+    }
+    
+    private <T> Slot<T> fork(String name, Supplier<T> supplier, long slotDeadline, T fallback) {
+        Objects.requireNonNull(supplier, "supplier");
+        if (joined) {
+            throw new IllegalStateException("Cannot fork after the scope has been joined.");
+        }
+        Slot<T> slot = new Slot<>(name != null ? name : "slot-" + slots.size(), slotDeadline, fallback,
+                new FutureTask<>(() -> callWithDeadline(supplier, slotDeadline)));
+        slots.add(slot);
+        try {
+            executor.execute(slot.task);
+        } catch (RejectedExecutionException e) {
+            slot.fail(e);
+        }
+        return slot;
+    }
+    
+    private static <T> T callWithDeadline(Supplier<T> supplier, long deadline) {
+        Long previous = CURRENT_DEADLINE.get();
+        CURRENT_DEADLINE.set(deadline);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_DEADLINE.remove();
+            } else {
+                CURRENT_DEADLINE.set(previous);
+            }
+        }
+    }
+    
+    /**
+     * 等待所有子任务完成或到达各自的截止时间，超时的子任务被取消并中断。
+     *
+     * @return 各子任务的完成情况
+     * @throws CompletableException 等待过程中当前线程被中断
+     */
+    public Result join() throws CompletableException {
+        joined = true;
+        for (Slot<?> slot : slots) {
+            try {
+                slot.await();
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new CompletableException("Fan-out interrupted.", e);
+            }
+        }
+        return new Result(slots);
+    }
+    
+    /**
+     * 取消所有未完成的子任务
+     */
+    @Override
+    public void close() {
+        joined = true;
+        cancelAll();
+    }
+    
+    private void cancelAll() {
+        for (Slot<?> slot : slots) {
+            slot.task.cancel(true);
+        }
+    }
+    
+    public enum SlotState {
+        /**
+         * 尚未 join
+         */
+        PENDING,
+        SUCCESS,
+        TIMED_OUT,
+        FAILED
+    }
+    
+    /**
+     * 一个子任务的结果槽位，join 之后可读取
+     */
+    public static class Slot<T> {
+        
+        private final String name;
+        
+        private final long deadlineNanos;
+        
+        private final T fallback;
+        
+        private final FutureTask<T> task;
+        
+        private volatile SlotState state = SlotState.PENDING;
+        
+        private volatile T value;
+        
+        private volatile Throwable cause;
+        
+        private Slot(String name, long deadlineNanos, T fallback, FutureTask<T> task) {
+            this.name = name;
+            this.deadlineNanos = deadlineNanos;
+            this.fallback = fallback;
+            this.task = task;
+        }
+        
+        private void await() throws InterruptedException {
+            if (state != SlotState.PENDING) {
+                return;
+            }
+            try {
+                value = task.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                state = SlotState.SUCCESS;
+            } catch (TimeoutException | CancellationException e) {
+                task.cancel(true);
+                value = fallback;
+                state = SlotState.TIMED_OUT;
+                log.debug("Fan-out slot [{}] timed out, using fallback", name);
+            } catch (ExecutionException e) {
+                fail(e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        
+        private void fail(Throwable t) {
+            cause = t;
+            value = fallback;
+            state = SlotState.FAILED;
+            log.warn("Fan-out slot [{}] failed, using fallback: {}", name, t.toString());
+        }
+        
+        /**
+         * 子任务结果；超时、失败时返回兜底值
+         */
+        public T get() {
+            if (state == SlotState.PENDING) {
+                throw new IllegalStateException("Slot [" + name + "] is read before the scope is joined.");
+            }
+            return value;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public SlotState getState() {
+            return state;
+        }
+        
+        /**
+         * 失败原因，仅 FAILED 状态下非空
+         */
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+    
+    /**
+     * 扇出的整体结果
+     */
+    public static class Result {
+        
+        private final List<String> timedOutSlots = new ArrayList<>();
+        
+        private final List<String> failedSlots = new ArrayList<>();
+        
+        private Result(List<Slot<?>> slots) {
+            for (Slot<?> slot : slots) {
+                if (slot.state == SlotState.TIMED_OUT) {
+                    timedOutSlots.add(slot.name);
+                } else if (slot.state == SlotState.FAILED) {
+                    failedSlots.add(slot.name);
+                }
+            }
+        }
+        
+        /**
+         * 所有子任务是否都在截止时间内成功完成
+         */
+        public boolean isComplete() {
+            return timedOutSlots.isEmpty() && failedSlots.isEmpty();
+        }
+        
+        public List<String> getTimedOutSlots() {
+            return Collections.unmodifiableList(timedOutSlots);
+        }
+        
+        public List<String> getFailedSlots() {
+            return Collections.unmodifiableList(failedSlots);
+        }
+    }
+}
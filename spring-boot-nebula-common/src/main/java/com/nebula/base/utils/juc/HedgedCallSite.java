@@ -0,0 +1,367 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @author : wh
+ * @date : 2025/7/17
+ * @description: 对冲请求（hedged request）的调用点统计与策略。
+ * <p>
+ * 同一个调用点的请求超过该调用点近期延迟的 p95 仍未返回时，再发起一次相同的请求，取先返回的结果。
+ * 原请求先返回时中断对冲请求；对冲请求先返回时原请求不中断，继续执行完以记录其真实延迟。
+ * 延迟窗口只记录原请求的延迟：记录获胜者的延迟会让 p95 偏低，对冲越多越低。
+ * 继续执行的原请求数不超过对冲请求数，受预算限制。
+ * 额外请求受预算限制：每次调用积累 {@code budget} 个额度，每次对冲消耗 1 个，因此对冲请求数不超过调用数的 budget 比例。
+ * 只能用于幂等的读请求。
+ *
+ * @see CompletableFutureUtils#supplyHedged(String, Supplier)
+ */
+public class HedgedCallSite {
+    
+    private static final ConcurrentMap<String, HedgedCallSite> CALL_SITES = new ConcurrentHashMap<>();
+    
+    /**
+     * 延迟采样窗口大小
+     */
+    private static final int WINDOW_SIZE = 1024;
+    
+    /**
+     * 样本数达到该值之前使用初始对冲延迟
+     */
+    private static final int MIN_SAMPLES = 20;
+    
+    /**
+     * 每记录多少个样本重新计算一次分位数
+     */
+    private static final int RECOMPUTE_INTERVAL = 32;
+    
+    /**
+     * 额度上限，避免长时间无对冲后突发大量额外请求
+     */
+    private static final double MAX_CREDITS = 10;
+    
+    private final String name;
+    
+    private volatile double budget = 0.05;
+    
+    private volatile double percentile = 0.95;
+    
+    private volatile long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    private volatile long initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(50);
+    
+    private final long[] window = new long[WINDOW_SIZE];
+    
+    private long samples;
+    
+    private double credits;
+    
+    private volatile long hedgeDelayNanos = -1;
+    
+    private final LongAdder calls = new LongAdder();
+    
+    private final LongAdder fired = new LongAdder();
+    
+    private final LongAdder won = new LongAdder();
+    
+    private final LongAdder throttled = new LongAdder();
+    
+    private HedgedCallSite(String name) {
+        this.name = name;
+    }
+    
+    /**
+     * 获取（不存在时创建）指定调用点，首次创建时在 Micrometer 存在的情况下注册指标
+     */
+    public static HedgedCallSite of(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Hedge call site name cannot be empty.");
+        }
+        return CALL_SITES.computeIfAbsent(name, n -> {
+            HedgedCallSite callSite = new HedgedCallSite(n);
+            if (ThreadPoolMetrics.isMicrometerPresent()) {
+                MicrometerHedgeMetrics.bind(callSite);
+            }
+            return callSite;
+        });
+    }
+    
+    /**
+     * 允许的额外负载比例，默认 0.05（5%）
+     */
+    public HedgedCallSite setBudget(double budget) {
+        if (budget < 0 || budget > 1) {
+            throw new IllegalArgumentException("Hedge budget must be between 0 and 1.");
+        }
+        this.budget = budget;
+        return this;
+    }
+    
+    /**
+     * 触发对冲的延迟分位数，默认 0.95
+     */
+    public HedgedCallSite setPercentile(double percentile) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Hedge percentile must be between 0 and 1.");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+    
+    /**
+     * 样本不足时使用的对冲延迟，默认 50ms
+     */
+    public HedgedCallSite setInitialDelay(long delay, TimeUnit unit) {
+        if (delay > 0 && unit != null) {
+            this.initialDelayNanos = unit.toNanos(delay);
+        }
+        return this;
+    }
+    
+    /**
+     * 对冲延迟下限，默认 1ms
+     */
+    public HedgedCallSite setMinDelay(long delay, TimeUnit unit) {
+        if (delay >= 0 && unit != null) {
+            this.minDelayNanos = unit.toNanos(delay);
+        }
+        return this;
+    }
+    
+    <T> CompletableFuture<T> submit(Supplier<T> supplier, Executor executor) {
+        Objects.requireNonNull(supplier, "supplier");
+        Objects.requireNonNull(executor, "executor");
+        calls.increment();
+        synchronized (this) {
+            credits = Math.min(MAX_CREDITS, credits + budget);
+        }
+        return new Hedge<>(supplier, executor).start();
+    }
+    
+    private synchronized boolean tryAcquireCredit() {
+        if (credits >= 1) {
+            credits -= 1;
+            return true;
+        }
+        return false;
+    }
+    
+    private synchronized void recordLatency(long latencyNanos) {
+        window[(int) (samples % WINDOW_SIZE)] = latencyNanos;
+        samples++;
+        if (samples >= MIN_SAMPLES && samples % RECOMPUTE_INTERVAL == 0 || samples == MIN_SAMPLES) {
+            int size = (int) Math.min(samples, WINDOW_SIZE);
+            long[] sorted = Arrays.copyOf(window, size);
+            Arrays.sort(sorted);
+            hedgeDelayNanos = sorted[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+        }
+    }
+    
+    /**
+     * 当前的对冲延迟（纳秒）
+     */
+    public long getHedgeDelayNanos() {
+        long delay = hedgeDelayNanos;
+        return Math.max(minDelayNanos, delay < 0 ? initialDelayNanos : delay);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getCalls() {
+        return calls.sum();
+    }
+    
+    /**
+     * 已发起的对冲请求数
+     */
+    public long getFired() {
+        return fired.sum();
+    }
+    
+    /**
+     * 对冲请求先于原请求返回的次数
+     */
+    public long getWon() {
+        return won.sum();
+    }
+    
+    /**
+     * 到达对冲延迟但因预算不足未发起对冲的次数
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("HedgedCallSite[%s: delay=%.1fms, calls=%d, fired=%d, won=%d, throttled=%d]",
+                name, getHedgeDelayNanos() / 1e6, getCalls(), getFired(), getWon(), getThrottled());
+    }
+    
+    /**
+     * 一次对冲调用：最多两个尝试，第一个成功的结果获胜
+     */
+    private final class Hedge<T> {
+        
+        private final Supplier<T> supplier;
+        
+        private final Executor executor;
+        
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        
+        private final long startNanos = System.nanoTime();
+        
+        private FutureTask<T> primary;
+        
+        private FutureTask<T> hedge;
+        
+        private ScheduledFuture<?> timer;
+        
+        private int pending;
+        
+        private boolean decided;
+        
+        private boolean hedgeWon;
+        
+        private Throwable lastFailure;
+        
+        private Hedge(Supplier<T> supplier, Executor executor) {
+            this.supplier = supplier;
+            this.executor = executor;
+        }
+        
+        private CompletableFuture<T> start() {
+            result.whenComplete((r, ex) -> cancelAll());
+            synchronized (this) {
+                primary = launch(false);
+                if (primary != null && !result.isDone()) {
+                    timer = NebulaScheduler.get().schedule(this::fireHedge, getHedgeDelayNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            return result;
+        }
+        
+        private FutureTask<T> launch(boolean isHedge) {
+            FutureTask<T> task = new FutureTask<>(isHedge ? supplier::get : this::callPrimary) {
+                
+                @Override
+                protected void done() {
+                    onAttemptDone(this, isHedge);
+                }
+            };
+            pending++;
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                pending--;
+                if (!isHedge) {
+                    result.completeExceptionally(e);
+                }
+                return null;
+            }
+            return task;
+        }
+        
+        /**
+         * 原请求正常返回时记录其延迟；被中断（调用方取消）时提前返回的耗时不能代表真实延迟
+         */
+        private T callPrimary() {
+            T value = supplier.get();
+            if (!Thread.currentThread().isInterrupted()) {
+                recordLatency(System.nanoTime() - startNanos);
+            }
+            return value;
+        }
+        
+        private void fireHedge() {
+            synchronized (this) {
+                if (result.isDone() || hedge != null) {
+                    return;
+                }
+                if (!tryAcquireCredit()) {
+                    throttled.increment();
+                    return;
+                }
+                fired.increment();
+                hedge = launch(true);
+            }
+        }
+        
+        private void onAttemptDone(FutureTask<T> task, boolean isHedge) {
+            if (task.isCancelled()) {
+                return;
+            }
+            try {
+                T value = task.get();
+                synchronized (this) {
+                    if (decided || result.isDone()) {
+                        return;
+                    }
+                    decided = true;
+                    hedgeWon = isHedge;
+                }
+                // 先计数再完成，调用方拿到结果时统计已经更新
+                if (isHedge) {
+                    won.increment();
+                }
+                result.complete(value);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                boolean failNow;
+                synchronized (this) {
+                    pending--;
+                    lastFailure = cause;
+                    // 另一个尝试仍在执行，或对冲尚未触发时失败则直接失败（对冲只针对慢请求，不针对错误）
+                    failNow = pending == 0;
+                }
+                if (failNow) {
+                    result.completeExceptionally(lastFailure);
+                }
+            }
+        }
+        
+        private synchronized void cancelAll() {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            if (primary != null) {
+                primary.cancel(!hedgeWon);
+            }
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+}
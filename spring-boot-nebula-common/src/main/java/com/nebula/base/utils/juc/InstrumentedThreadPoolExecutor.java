@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/10
+ * @description: 可观测的线程池。
+ * <p>
+ * 在标准 {@link ThreadPoolExecutor} 之上记录任务排队时间、执行时间与拒绝次数，
+ * 由 {@link ThreadPoolBuilder} 构建的线程池默认都是该类型，并自动注册到 {@link ThreadPoolRegistry}；
+ * classpath 中存在 Micrometer 时自动注册到 {@code Metrics.globalRegistry}，以线程名前缀作为 pool 标签。
+ */
+@Slf4j
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+    
+    private final String poolName;
+    
+    private final LongAdder rejectedCount = new LongAdder();
+    
+    private volatile ThreadPoolMetricsRecorder recorder = ThreadPoolMetricsRecorder.NOOP;
+    
+    private volatile PoolSizeTuner tuner;
+    
+    public InstrumentedThreadPoolExecutor(int corePoolSize,
+                                          int maximumPoolSize,
+                                          long keepAliveTime,
+                                          TimeUnit unit,
+                                          BlockingQueue<Runnable> workQueue,
+                                          ThreadFactory threadFactory,
+                                          RejectedExecutionHandler handler,
+                                          String poolName) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        this.poolName = poolName;
+        super.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(handler));
+    }
+    
+    public String getPoolName() {
+        return poolName;
+    }
+    
+    /**
+     * 累计被拒绝的任务数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+    
+    public void setMetricsRecorder(ThreadPoolMetricsRecorder recorder) {
+        this.recorder = recorder != null ? recorder : ThreadPoolMetricsRecorder.NOOP;
+    }
+    
+    /**
+     * 开启自动调优：按实测的阻塞/计算时间比周期性调整线程数
+     */
+    void startSelfTuning(int minPoolSize, int maxPoolSize, long interval, TimeUnit unit) {
+        if (!PoolSizeTuner.isSupported()) {
+            log.warn("Thread CPU time is not supported by this JVM, self-tuning of [{}] is disabled", poolName);
+            return;
+        }
+        PoolSizeTuner newTuner = new PoolSizeTuner(this, poolName, minPoolSize, maxPoolSize);
+        this.tuner = newTuner;
+        newTuner.start(interval, unit);
+    }
+    
+    /**
+     * 停止自动调优，保持当前线程数
+     */
+    public void stopSelfTuning() {
+        PoolSizeTuner current = tuner;
+        if (current != null) {
+            tuner = null;
+            current.stop();
+        }
+    }
+    
+    public boolean isSelfTuning() {
+        return tuner != null;
+    }
+    
+    /**
+     * 最近一个调优周期实测的阻塞/计算时间比（W/C），未开启自动调优或尚无数据时为 -1
+     */
+    public double getBlockingRatio() {
+        PoolSizeTuner current = tuner;
+        return current != null ? current.getBlockingRatio() : -1;
+    }
+    
+    PoolSizeTuner getTuner() {
+        return tuner;
+    }
+    
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        super.execute(new TimedTask(command));
+    }
+    
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedTask task) {
+            task.startNanos = System.nanoTime();
+            recorder.recordQueueWait(task.startNanos - task.submitNanos);
+            if (tuner != null) {
+                task.startCpuNanos = PoolSizeTuner.currentThreadCpuTime();
+            }
+        }
+    }
+    
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        if (r instanceof TimedTask task) {
+            long wallNanos = System.nanoTime() - task.startNanos;
+            recorder.recordExecution(wallNanos);
+            PoolSizeTuner current = tuner;
+            if (current != null && task.startCpuNanos >= 0) {
+                current.record(wallNanos, PoolSizeTuner.currentThreadCpuTime() - task.startCpuNanos);
+            }
+        }
+        super.afterExecute(r, t);
+    }
+    
+    @Override
+    protected void terminated() {
+        super.terminated();
+        stopSelfTuning();
+        ThreadPoolRegistry.unregister(poolName, this);
+        recorder.close();
+    }
+    
+    /**
+     * 返回未执行的原始任务，而不是内部的计时包装
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = super.shutdownNow();
+        List<Runnable> unwrapped = new ArrayList<>(pending.size());
+        for (Runnable r : pending) {
+            unwrapped.add(r instanceof TimedTask task ? task.delegate : r);
+        }
+        return unwrapped;
+    }
+    
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(handler));
+    }
+    
+    /**
+     * 返回用户配置的拒绝策略，而不是内部的计数包装
+     */
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        RejectedExecutionHandler handler = super.getRejectedExecutionHandler();
+        return handler instanceof CountingRejectedExecutionHandler counting ? counting.delegate : handler;
+    }
+    
+    private static final class TimedTask implements Runnable {
+        
+        private final Runnable delegate;
+        
+        private final long submitNanos = System.nanoTime();
+        
+        private long startNanos;
+        
+        private long startCpuNanos = -1;
+        
+        private TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void run() {
+            delegate.run();
+        }
+        
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+    
+    private final class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        
+        private final RejectedExecutionHandler delegate;
+        
+        private CountingRejectedExecutionHandler(RejectedExecutionHandler delegate) {
+            if (delegate == null) {
+                throw new NullPointerException();
+            }
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            rejectedCount.increment();
+            recorder.recordRejected();
+            delegate.rejectedExecution(r, executor);
+        }
+    }
+}
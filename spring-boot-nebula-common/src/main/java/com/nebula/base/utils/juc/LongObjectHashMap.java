@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.function.Consumer;
+
+/**
+ * @author : wh
+ * @date : 2025/7/19
+ * @description: long 作为 key 的开放寻址（线性探测）哈希表，避免 {@code HashMap<Long, V>} 的装箱与 Entry 对象开销。
+ * <p>
+ * 仅支持 diff 所需的操作：插入（key 已存在时保留旧值）、按 key 标记命中、遍历未命中的值。不是线程安全的。
+ */
+final class LongObjectHashMap<V> {
+    
+    private static final float LOAD_FACTOR = 0.5f;
+    
+    private long[] keys;
+    
+    private Object[] values;
+    
+    /**
+     * 槽位是否被占用，key 为 0 也是合法值，因此不能用 0 作为空槽标记
+     */
+    private boolean[] used;
+    
+    private boolean[] matched;
+    
+    private int mask;
+    
+    private int size;
+    
+    private int resizeThreshold;
+    
+    LongObjectHashMap(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.min(1 << 30, Math.max(4, (long) Math.ceil(expectedSize / LOAD_FACTOR))));
+        allocate(capacity);
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        matched = new boolean[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+    
+    private static int tableSizeFor(int n) {
+        int highest = Integer.highestOneBit(n);
+        return highest == n ? n : highest << 1;
+    }
+    
+    /**
+     * 乘以黄金分割常数打散后再取低位，降低连续 id 的聚集
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * 插入键值对，key 已存在时保留旧值
+     *
+     * @return 是否插入成功
+     */
+    boolean putIfAbsent(long key, V value) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+    
+    private int indexOf(long key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+    
+    /**
+     * 标记 key 已命中并返回其值；key 不存在或已被标记过时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    V match(long key) {
+        int slot = indexOf(key);
+        if (slot < 0 || matched[slot]) {
+            return null;
+        }
+        matched[slot] = true;
+        return (V) values[slot];
+    }
+    
+    /**
+     * 遍历所有未被标记命中的值
+     */
+    @SuppressWarnings("unchecked")
+    void forEachUnmatched(Consumer<V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i] && !matched[i]) {
+                consumer.accept((V) values[i]);
+            }
+        }
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+        boolean[] oldMatched = matched;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                used[slot] = true;
+                matched[slot] = oldMatched[i];
+            }
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "LongObjectHashMap[size=" + size + ", capacity=" + keys.length + "]";
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/23
+ * @description: 合并单 key 查询的微批处理器（DataLoader 模式）。
+ * <p>
+ * 在 maxDelay 时间窗口内或累计 maxBatchSize 个 key 时，把多次 {@link #load(Object)} 合并为一次批量查询，
+ * 相同的 key 只查询一次，查询完成后分别完成每个调用方的 CompletableFuture。
+ * 批量查询默认在 {@link CompletableFutureUtils} 共用的 IO 线程池上执行，调用方代码无需改成批量接口。
+ * <pre>{@code
+ * MicroBatcher<Long, User> userLoader = MicroBatcher.builder("user", userMapper::selectByIds)
+ *         .setMaxBatchSize(200)
+ *         .setMaxDelay(5, TimeUnit.MILLISECONDS)
+ *         .build();
+ * User user = userLoader.load(id).join();
+ * }</pre>
+ *
+ * @param <K> key 类型，需正确实现 equals / hashCode
+ * @param <V> value 类型
+ */
+@Slf4j
+public class MicroBatcher<K, V> {
+    
+    private final String name;
+    
+    private final Function<List<K>, Map<K, V>> batchLoader;
+    
+    private final int maxBatchSize;
+    
+    private final long maxDelayNanos;
+    
+    private final Executor executor;
+    
+    private final Object lock = new Object();
+    
+    private LinkedHashMap<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    
+    private ScheduledFuture<?> flushTimer;
+    
+    private final LongAdder requestedKeys = new LongAdder();
+    
+    private final LongAdder loadedKeys = new LongAdder();
+    
+    private final LongAdder batches = new LongAdder();
+    
+    private MicroBatcher(Builder<K, V> builder) {
+        this.name = builder.name;
+        this.batchLoader = builder.batchLoader;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxDelayNanos = builder.maxDelayNanos;
+        this.executor = builder.executor != null ? builder.executor : CompletableFutureUtils.defaultExecutor();
+    }
+    
+    /**
+     * @param name        名称，用于日志与统计
+     * @param batchLoader 批量查询函数，返回 key 到 value 的映射，缺失的 key 对应的结果为 null
+     */
+    public static <K, V> Builder<K, V> builder(String name, Function<List<K>, Map<K, V>> batchLoader) {
+        return new Builder<>(name, batchLoader);
+    }
+    
+    /**
+     * 加载单个 key，结果在所在批次查询完成后返回
+     */
+    public CompletableFuture<V> load(K key) {
+        Objects.requireNonNull(key, "key");
+        requestedKeys.increment();
+        CompletableFuture<V> future;
+        Map<K, CompletableFuture<V>> batch = null;
+        synchronized (lock) {
+            future = pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(key, future);
+                if (pending.size() >= maxBatchSize) {
+                    batch = takePending();
+                } else if (pending.size() == 1) {
+                    flushTimer = NebulaScheduler.get().schedule(this::flush, maxDelayNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+        // 相同 key 共享同一次查询，返回副本避免某个调用方 cancel 影响其他调用方
+        return future.copy();
+    }
+    
+    /**
+     * 立即分发当前窗口内的所有 key，不等待 maxDelay
+     */
+    public void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+    
+    private Map<K, CompletableFuture<V>> takePending() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (flushTimer != null) {
+            flushTimer.cancel(false);
+            flushTimer = null;
+        }
+        return batch;
+    }
+    
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        try {
+            executor.execute(() -> loadBatch(batch));
+        } catch (RejectedExecutionException e) {
+            batch.values().forEach(f -> f.completeExceptionally(e));
+        }
+    }
+    
+    private void loadBatch(Map<K, CompletableFuture<V>> batch) {
+        batches.increment();
+        loadedKeys.add(batch.size());
+        Map<K, V> result;
+        try {
+            result = batchLoader.apply(new ArrayList<>(batch.keySet()));
+        } catch (Throwable t) {
+            log.warn("Micro batch [{}] failed to load {} keys", name, batch.size(), t);
+            batch.values().forEach(f -> f.completeExceptionally(t));
+            return;
+        }
+        batch.forEach((key, future) -> future.complete(result == null ? null : result.get(key)));
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 调用方请求的 key 总数
+     */
+    public long getRequestedKeys() {
+        return requestedKeys.sum();
+    }
+    
+    /**
+     * 去重后实际查询的 key 总数
+     */
+    public long getLoadedKeys() {
+        return loadedKeys.sum();
+    }
+    
+    /**
+     * 已执行的批量查询次数
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("MicroBatcher[%s: requested=%d, loaded=%d, batches=%d]",
+                name, getRequestedKeys(), getLoadedKeys(), getBatches());
+    }
+    
+    public static class Builder<K, V> {
+        
+        private final String name;
+        
+        private final Function<List<K>, Map<K, V>> batchLoader;
+        
+        private int maxBatchSize = 100;
+        
+        private long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        
+        private Executor executor;
+        
+        private Builder(String name, Function<List<K>, Map<K, V>> batchLoader) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Micro batcher name cannot be empty.");
+            }
+            if (batchLoader == null) {
+                throw new IllegalArgumentException("Batch loader cannot be null.");
+            }
+            this.name = name;
+            this.batchLoader = batchLoader;
+        }
+        
+        /**
+         * 单批最多的 key 数，达到后立即分发，默认 100
+         */
+        public Builder<K, V> setMaxBatchSize(int maxBatchSize) {
+            if (maxBatchSize <= 0) {
+                throw new IllegalArgumentException("Max batch size must be greater than 0.");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+        
+        /**
+         * 第一个 key 到达后最多等待的时间，默认 10ms
+         */
+        public Builder<K, V> setMaxDelay(long maxDelay, TimeUnit timeUnit) {
+            if (maxDelay > 0 && timeUnit != null) {
+                this.maxDelayNanos = timeUnit.toNanos(maxDelay);
+            }
+            return this;
+        }
+        
+        /**
+         * 执行批量查询的线程池，默认使用 {@link CompletableFutureUtils} 共用的 IO 线程池
+         */
+        public Builder<K, V> setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+        
+        public MicroBatcher<K, V> build() {
+            return new MicroBatcher<>(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author : wh
+ * @date : 2025/7/4
+ * @description: 基于 Micrometer 的自适应批量指标，所有指标以 {@code sizer=名字} 作为标签。
+ * <ul>
+ *     <li>nebula.batch.size：下一个分片使用的批量大小</li>
+ *     <li>nebula.batch.latency：分片耗时的指数加权平均值（毫秒）</li>
+ *     <li>nebula.batch.completed：已执行（含失败）的分片数</li>
+ *     <li>nebula.batch.failed：失败的分片数</li>
+ * </ul>
+ * 每个名字只保留最近创建的实例：同名实例再次注册时先移除旧指标，指标强引用当前实例，不会因旧实例被回收而变为 NaN。
+ * 只能在确认 Micrometer 存在后引用，见 {@link ThreadPoolMetrics#isMicrometerPresent()}。
+ */
+final class MicrometerBatchSizerMetrics {
+    
+    static final String PREFIX = "nebula.batch.";
+    
+    /**
+     * 名字到当前绑定的实例及其指标，同时保证 FunctionCounter 弱引用的实例不被回收
+     */
+    private static final Map<String, Binding> BINDINGS = new ConcurrentHashMap<>();
+    
+    private MicrometerBatchSizerMetrics() {
+    }
+    
+    static void bind(AdaptiveBatchSizer sizer) {
+        MeterRegistry registry = Metrics.globalRegistry;
+        BINDINGS.compute(sizer.getName(), (name, previous) -> {
+            if (previous != null) {
+                previous.meters.forEach(registry::remove);
+            }
+            return new Binding(sizer, register(registry, sizer));
+        });
+    }
+    
+    private static List<Meter> register(MeterRegistry registry, AdaptiveBatchSizer sizer) {
+        Tags tags = Tags.of("sizer", sizer.getName());
+        return List.of(
+                Gauge.builder(PREFIX + "size", sizer, AdaptiveBatchSizer::getCurrentBatchSize)
+                        .tags(tags).strongReference(true).description("Batch size used for the next partition").register(registry),
+                Gauge.builder(PREFIX + "latency", sizer, AdaptiveBatchSizer::getLatencyEwmaMillis)
+                        .tags(tags).strongReference(true).description("EWMA of partition latency in milliseconds").register(registry),
+                FunctionCounter.builder(PREFIX + "completed", sizer, AdaptiveBatchSizer::getCompletedBatches)
+                        .tags(tags).description("Partitions completed, including failed ones").register(registry),
+                FunctionCounter.builder(PREFIX + "failed", sizer, AdaptiveBatchSizer::getFailedBatches)
+                        .tags(tags).description("Partitions that failed").register(registry));
+    }
+    
+    private static final class Binding {
+        
+        private final AdaptiveBatchSizer sizer;
+        
+        private final List<Meter> meters;
+        
+        private Binding(AdaptiveBatchSizer sizer, List<Meter> meters) {
+            this.sizer = sizer;
+            this.meters = meters;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * @author : wh
+ * @date : 2025/7/17
+ * @description: 基于 Micrometer 的对冲请求指标，所有指标以 {@code callSite=调用点名字} 作为标签。
+ * <ul>
+ *     <li>nebula.hedge.calls：调用次数</li>
+ *     <li>nebula.hedge.fired：发起的对冲请求数</li>
+ *     <li>nebula.hedge.won：对冲请求先返回的次数</li>
+ *     <li>nebula.hedge.throttled：预算不足未发起对冲的次数</li>
+ *     <li>nebula.hedge.delay：当前对冲延迟（毫秒）</li>
+ * </ul>
+ * 只能在确认 Micrometer 存在后引用，见 {@link ThreadPoolMetrics#isMicrometerPresent()}。
+ */
+final class MicrometerHedgeMetrics {
+    
+    static final String PREFIX = "nebula.hedge.";
+    
+    private MicrometerHedgeMetrics() {
+    }
+    
+    static void bind(HedgedCallSite callSite) {
+        MeterRegistry registry = Metrics.globalRegistry;
+        Tags tags = Tags.of("callSite", callSite.getName());
+        FunctionCounter.builder(PREFIX + "calls", callSite, HedgedCallSite::getCalls)
+                .tags(tags).description("Hedged calls").register(registry);
+        FunctionCounter.builder(PREFIX + "fired", callSite, HedgedCallSite::getFired)
+                .tags(tags).description("Hedge attempts fired").register(registry);
+        FunctionCounter.builder(PREFIX + "won", callSite, HedgedCallSite::getWon)
+                .tags(tags).description("Hedge attempts that finished first").register(registry);
+        FunctionCounter.builder(PREFIX + "throttled", callSite, HedgedCallSite::getThrottled)
+                .tags(tags).description("Hedges skipped because the budget was exhausted").register(registry);
+        Gauge.builder(PREFIX + "delay", callSite, c -> c.getHedgeDelayNanos() / 1e6)
+                .tags(tags).description("Current hedge delay in milliseconds").register(registry);
+    }
+}
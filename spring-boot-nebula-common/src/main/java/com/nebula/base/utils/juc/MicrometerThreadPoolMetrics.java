@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author : wh
+ * @date : 2025/7/10
+ * @description: 基于 Micrometer 的线程池指标，所有指标以 {@code pool=线程名前缀} 和 {@code poolId=编号} 作为标签。
+ * 编号取同一前缀下存活线程池未占用的最小值，线程池终止时归还：单个线程池的编号始终为 0，重启后保持不变，
+ * 反复创建销毁的短命线程池也只复用少数几个编号，不会不断产生新的时间序列。
+ * 线程名前缀相同的多个线程池各自拥有一组指标，一个线程池终止时只移除自己的指标；按前缀聚合时对 poolId 求和即可。
+ * <ul>
+ *     <li>nebula.threadpool.queue.size：队列中等待的任务数</li>
+ *     <li>nebula.threadpool.active：正在执行任务的线程数</li>
+ *     <li>nebula.threadpool.pool.size：当前线程数</li>
+ *     <li>nebula.threadpool.completed：已完成的任务数</li>
+ *     <li>nebula.threadpool.rejected：被拒绝的任务数</li>
+ *     <li>nebula.threadpool.queue.wait：任务排队时间</li>
+ *     <li>nebula.threadpool.execution：任务执行时间</li>
+ * </ul>
+ * 两个 Timer 默认只发布次数、总时间和最大值，百分位直方图需要通过
+ * {@link ThreadPoolBuilder.AbstractThreadPoolBuilder#setPublishHistogram(boolean)} 开启。
+ * 只能由 {@link ThreadPoolMetrics} 在确认 Micrometer 存在后引用。
+ */
+final class MicrometerThreadPoolMetrics implements ThreadPoolMetricsRecorder {
+    
+    static final String PREFIX = "nebula.threadpool.";
+    
+    /**
+     * 每个前缀下存活线程池占用的编号
+     */
+    private static final Map<String, BitSet> LIVE_POOL_IDS = new HashMap<>();
+    
+    private final MeterRegistry registry;
+    
+    private final List<Meter> meters = new ArrayList<>();
+    
+    private final PoolId poolId;
+    
+    private final Timer queueWaitTimer;
+    
+    private final Timer executionTimer;
+    
+    private final Counter rejectedCounter;
+    
+    private MicrometerThreadPoolMetrics(MeterRegistry registry, InstrumentedThreadPoolExecutor executor, boolean publishHistogram) {
+        this.registry = registry;
+        this.poolId = PoolId.acquire(executor.getPoolName());
+        Tags tags = poolId.tags();
+        meters.add(Gauge.builder(PREFIX + "queue.size", executor, e -> e.getQueue().size())
+                .tags(tags).description("Tasks waiting in the queue").register(registry));
+        meters.add(Gauge.builder(PREFIX + "active", executor, ThreadPoolExecutor::getActiveCount)
+                .tags(tags).description("Threads actively executing tasks").register(registry));
+        meters.add(Gauge.builder(PREFIX + "pool.size", executor, ThreadPoolExecutor::getPoolSize)
+                .tags(tags).description("Current number of threads in the pool").register(registry));
+        meters.add(FunctionCounter.builder(PREFIX + "completed", executor, ThreadPoolExecutor::getCompletedTaskCount)
+                .tags(tags).description("Tasks completed").register(registry));
+        this.rejectedCounter = Counter.builder(PREFIX + "rejected")
+                .tags(tags).description("Tasks rejected by the pool").register(registry);
+        this.queueWaitTimer = Timer.builder(PREFIX + "queue.wait")
+                .tags(tags).description("Time tasks spent waiting in the queue")
+                .publishPercentileHistogram(publishHistogram).register(registry);
+        this.executionTimer = Timer.builder(PREFIX + "execution")
+                .tags(tags).description("Time tasks spent executing")
+                .publishPercentileHistogram(publishHistogram).register(registry);
+        meters.add(rejectedCounter);
+        meters.add(queueWaitTimer);
+        meters.add(executionTimer);
+    }
+    
+    static ThreadPoolMetricsRecorder bind(InstrumentedThreadPoolExecutor executor, boolean publishHistogram) {
+        return new MicrometerThreadPoolMetrics(Metrics.globalRegistry, executor, publishHistogram);
+    }
+    
+    static ThreadPoolMetricsRecorder bind(ConcurrencyLimitedExecutorService executor) {
+        MeterRegistry registry = Metrics.globalRegistry;
+        PoolId poolId = PoolId.acquire(executor.getName());
+        Tags tags = poolId.tags();
+        List<Meter> meters = List.of(
+                Gauge.builder(PREFIX + "active", executor, ConcurrencyLimitedExecutorService::getActiveCount)
+                        .tags(tags).description("Tasks holding a concurrency permit").register(registry),
+                Gauge.builder(PREFIX + "queue.size", executor, ConcurrencyLimitedExecutorService::getWaitingCount)
+                        .tags(tags).description("Tasks waiting for a concurrency permit").register(registry));
+        return new ThreadPoolMetricsRecorder() {
+            
+            @Override
+            public void close() {
+                poolId.release(() -> meters.forEach(registry::remove));
+            }
+        };
+    }
+    
+    @Override
+    public void recordQueueWait(long nanos) {
+        queueWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void recordExecution(long nanos) {
+        executionTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void recordRejected() {
+        rejectedCounter.increment();
+    }
+    
+    @Override
+    public void close() {
+        poolId.release(() -> meters.forEach(registry::remove));
+    }
+    
+    /**
+     * 线程池占用的编号，只归还一次，避免重复关闭时释放掉已被其他线程池复用的编号
+     */
+    private static final class PoolId {
+        
+        private final String poolName;
+        
+        private final int id;
+        
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private PoolId(String poolName, int id) {
+            this.poolName = poolName;
+            this.id = id;
+        }
+        
+        static PoolId acquire(String poolName) {
+            synchronized (LIVE_POOL_IDS) {
+                BitSet ids = LIVE_POOL_IDS.computeIfAbsent(poolName, k -> new BitSet());
+                int id = ids.nextClearBit(0);
+                ids.set(id);
+                return new PoolId(poolName, id);
+            }
+        }
+        
+        Tags tags() {
+            return Tags.of("pool", poolName, "poolId", String.valueOf(id));
+        }
+        
+        /**
+         * 先移除指标再归还编号，保证复用编号的线程池注册时旧指标已经不存在
+         */
+        void release(Runnable removeMeters) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            removeMeters.run();
+            synchronized (LIVE_POOL_IDS) {
+                BitSet ids = LIVE_POOL_IDS.get(poolName);
+                ids.clear(id);
+                if (ids.isEmpty()) {
+                    LIVE_POOL_IDS.remove(poolName);
+                }
+            }
+        }
+    }
+}
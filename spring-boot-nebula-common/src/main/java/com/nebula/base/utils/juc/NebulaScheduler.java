@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * @author : wh
+ * @date : 2025/7/12
+ * @description: 工具包内部共享的守护调度线程，用于线程池调优等轻量级周期任务。
+ * 调度任务必须足够短小，不能在调度线程中执行阻塞操作。
+ */
+final class NebulaScheduler {
+    
+    private NebulaScheduler() {
+    }
+    
+    static ScheduledExecutorService get() {
+        return Holder.SCHEDULER;
+    }
+    
+    private static class Holder {
+        
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+        
+        private static ScheduledExecutorService createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryImpl("nebula-scheduler-", true));
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -19,14 +19,21 @@ package com.nebula.base.utils.juc;
 
 import com.google.common.collect.Lists;
 import com.nebula.base.utils.DataUtils;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -42,12 +49,7 @@ public class ParallelBatchExecutor {
     private static final ExecutorService DEFAULT_EXECUTOR;
     
     static {
-        DEFAULT_EXECUTOR = ThreadPoolBuilder
-                .ioBoundBuilder()
-                .setThreadNamePrefix("parallel-batch-")
-                .setMaximumPoolSize(20)
-                .setQueueSize(10000)
-                .build(100, 20);
+        DEFAULT_EXECUTOR = ThreadPoolBuilder.defaultIoExecutor("parallel-batch-");
         
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             DEFAULT_EXECUTOR.shutdownNow();
@@ -113,8 +115,204 @@ public class ParallelBatchExecutor {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 流式执行批量任务，使用默认线程池。
+     *
+     * @see #executeStreaming(List, int, int, boolean, Function, Consumer, ExecutorService)
+     */
+    public static <T, R> void executeStreaming(List<T> sourceData,
+                                               int batchSize,
+                                               int maxInFlight,
+                                               boolean ordered,
+                                               Function<List<T>, List<R>> batchTask,
+                                               Consumer<List<R>> resultConsumer) {
+        executeStreaming(sourceData, batchSize, maxInFlight, ordered, batchTask, resultConsumer, DEFAULT_EXECUTOR);
+    }
+    
+    /**
+     * 流式执行批量任务：同一时刻最多只有 maxInFlight 个分片在线程池中执行（背压），
+     * 每个分片完成后立即把结果交给 resultConsumer，不再把全部结果汇总到一个 List 中。
+     * 峰值内存与提交到线程池的任务数只与窗口大小有关，与输入规模无关。
+     * <p>
+     * resultConsumer 始终在调用线程中串行回调，无需考虑线程安全。
+     * 任一分片或 resultConsumer 失败时，取消窗口内其余分片并抛出异常。
+     *
+     * @param sourceData     源数据列表，执行期间不应被修改
+     * @param batchSize      批量大小
+     * @param maxInFlight    最大并发分片数（窗口大小）
+     * @param ordered        true 按分片顺序回调；false 按完成顺序回调
+     * @param batchTask      批量任务函数
+     * @param resultConsumer 分片结果消费者
+     * @param executor       执行线程池
+     */
+    public static <T, R> void executeStreaming(List<T> sourceData,
+                                               int batchSize,
+                                               int maxInFlight,
+                                               boolean ordered,
+                                               Function<List<T>, List<R>> batchTask,
+                                               Consumer<List<R>> resultConsumer,
+                                               ExecutorService executor) {
+        if (DataUtils.isEmpty(sourceData)) {
+            return;
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0.");
+        }
+        // 分片是源列表的视图，不复制数据，窗口外的分片不会占用额外内存
+        runWindowed(partition(sourceData, batchSize).iterator(), maxInFlight, ordered, batchTask, resultConsumer, executor);
+    }
+    
+    /**
+     * 自适应批量执行，使用默认线程池，按输入顺序汇总返回结果。
+     *
+     * @see #executeAdaptiveStreaming(List, AdaptiveBatchSizer, int, boolean, Function, Consumer, ExecutorService)
+     */
+    public static <T, R> List<R> executeAdaptive(List<T> sourceData,
+                                                 AdaptiveBatchSizer sizer,
+                                                 int maxInFlight,
+                                                 Function<List<T>, List<R>> batchTask) {
+        return executeAdaptive(sourceData, sizer, maxInFlight, batchTask, DEFAULT_EXECUTOR);
+    }
+    
+    /**
+     * 自适应批量执行，按输入顺序汇总返回结果。
+     *
+     * @see #executeAdaptiveStreaming(List, AdaptiveBatchSizer, int, boolean, Function, Consumer, ExecutorService)
+     */
+    public static <T, R> List<R> executeAdaptive(List<T> sourceData,
+                                                 AdaptiveBatchSizer sizer,
+                                                 int maxInFlight,
+                                                 Function<List<T>, List<R>> batchTask,
+                                                 ExecutorService executor) {
+        if (DataUtils.isEmpty(sourceData)) {
+            return Collections.emptyList();
+        }
+        List<R> results = new ArrayList<>(sourceData.size());
+        executeAdaptiveStreaming(sourceData, sizer, maxInFlight, true, batchTask, results::addAll, executor);
+        return results;
+    }
+    
+    /**
+     * 自适应批量流式执行：每个分片的大小在提交时由 {@link AdaptiveBatchSizer} 决定，
+     * 分片完成后把耗时与是否失败反馈给 sizer，批量大小随下游表现在 [min, max] 之间动态调整。
+     * 窗口、背压与回调语义同 {@link #executeStreaming(List, int, int, boolean, Function, Consumer, ExecutorService)}。
+     *
+     * @param sourceData     源数据列表，执行期间不应被修改
+     * @param sizer          批量大小控制器，可在多次执行之间复用
+     * @param maxInFlight    最大并发分片数（窗口大小）
+     * @param ordered        true 按分片顺序回调；false 按完成顺序回调
+     * @param batchTask      批量任务函数
+     * @param resultConsumer 分片结果消费者
+     * @param executor       执行线程池
+     */
+    public static <T, R> void executeAdaptiveStreaming(List<T> sourceData,
+                                                       AdaptiveBatchSizer sizer,
+                                                       int maxInFlight,
+                                                       boolean ordered,
+                                                       Function<List<T>, List<R>> batchTask,
+                                                       Consumer<List<R>> resultConsumer,
+                                                       ExecutorService executor) {
+        if (DataUtils.isEmpty(sourceData)) {
+            return;
+        }
+        if (sizer == null || batchTask == null) {
+            throw new IllegalArgumentException("Batch sizer and batch task cannot be null.");
+        }
+        Function<List<T>, List<R>> measuredTask = partition -> {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                List<R> result = batchTask.apply(partition);
+                failed = false;
+                return result;
+            } finally {
+                sizer.onBatchComplete(partition.size(), System.nanoTime() - start, failed);
+            }
+        };
+        runWindowed(new AdaptivePartitionIterator<>(sourceData, sizer), maxInFlight, ordered, measuredTask, resultConsumer, executor);
+    }
+    
+    /**
+     * 滑动窗口执行：调用线程负责提交分片与回调结果，窗口满时阻塞等待，形成背压。
+     */
+    static <T, R> void runWindowed(Iterator<List<T>> partitions,
+                                   int maxInFlight,
+                                   boolean ordered,
+                                   Function<List<T>, List<R>> batchTask,
+                                   Consumer<List<R>> resultConsumer,
+                                   ExecutorService executor) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight partitions must be greater than 0.");
+        }
+        if (batchTask == null || resultConsumer == null || executor == null) {
+            throw new IllegalArgumentException("Batch task, result consumer and executor cannot be null.");
+        }
+        
+        Deque<CompletableFuture<List<R>>> window = new ArrayDeque<>(maxInFlight);
+        BlockingQueue<CompletableFuture<List<R>>> completed = new LinkedBlockingQueue<>();
+        try {
+            while (partitions.hasNext() || !window.isEmpty()) {
+                while (partitions.hasNext() && window.size() < maxInFlight) {
+                    List<T> partition = partitions.next();
+                    CompletableFuture<List<R>> future = CompletableFuture.supplyAsync(() -> batchTask.apply(partition), executor);
+                    if (!ordered) {
+                        future.whenComplete((r, e) -> completed.offer(future));
+                    }
+                    window.addLast(future);
+                }
+                CompletableFuture<List<R>> next = ordered ? window.peekFirst() : completed.take();
+                List<R> result = next.join();
+                window.remove(next);
+                resultConsumer.accept(result);
+            }
+        } catch (CompletionException e) {
+            window.forEach(f -> f.cancel(true));
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            window.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Interrupted while waiting for batch results.", e);
+        } catch (RuntimeException | Error e) {
+            window.forEach(f -> f.cancel(true));
+            throw e;
+        }
+    }
+    
     private static <T> List<List<T>> partition(List<T> list, int batchSize) {
         return Lists.partition(list, batchSize);
     }
     
+    /**
+     * 惰性切分：每次取下一个分片时才读取 sizer 的当前批量大小，使调整能立即作用于后续分片。
+     */
+    private static class AdaptivePartitionIterator<T> implements Iterator<List<T>> {
+        
+        private final List<T> source;
+        
+        private final AdaptiveBatchSizer sizer;
+        
+        private int cursor;
+        
+        AdaptivePartitionIterator(List<T> source, AdaptiveBatchSizer sizer) {
+            this.source = source;
+            this.sizer = sizer;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return cursor < source.size();
+        }
+        
+        @Override
+        public List<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int end = Math.min(source.size(), cursor + sizer.getCurrentBatchSize());
+            List<T> partition = source.subList(cursor, end);
+            cursor = end;
+            return partition;
+        }
+    }
+    
 }
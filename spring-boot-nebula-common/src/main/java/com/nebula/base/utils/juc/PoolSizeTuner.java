@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/12
+ * @description: 根据实测的阻塞/计算时间比自动调整线程池大小。
+ * <p>
+ * 每个任务执行前后分别采样线程 CPU 时间与墙钟时间，W = 墙钟时间 - CPU 时间，C = CPU 时间，
+ * 每个调优周期按 Ncpu * (1 + W/C) 计算目标核心线程数，并限制在 [minPoolSize, maxPoolSize] 之间。
+ * 为避免抖动，每次只向目标值移动一半；最大线程数与核心线程数保持构建时的比例。
+ */
+@Slf4j
+final class PoolSizeTuner implements Runnable {
+    
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * 一个周期内样本数不足时不做调整
+     */
+    static final int MIN_SAMPLES = 20;
+    
+    private final ThreadPoolExecutor executor;
+    
+    private final String name;
+    
+    private final int minPoolSize;
+    
+    private final int maxPoolSize;
+    
+    private final double headroom;
+    
+    private final LongAdder wallNanos = new LongAdder();
+    
+    private final LongAdder cpuNanos = new LongAdder();
+    
+    private final LongAdder samples = new LongAdder();
+    
+    private volatile double blockingRatio = -1;
+    
+    private volatile ScheduledFuture<?> future;
+    
+    PoolSizeTuner(ThreadPoolExecutor executor, String name, int minPoolSize, int maxPoolSize) {
+        if (minPoolSize <= 0 || maxPoolSize < minPoolSize) {
+            throw new IllegalArgumentException("Self-tuning pool size range must satisfy 0 < min <= max.");
+        }
+        this.executor = executor;
+        this.name = name;
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.headroom = Math.max(1.0, (double) executor.getMaximumPoolSize() / Math.max(1, executor.getCorePoolSize()));
+    }
+    
+    /**
+     * 当前 JVM 是否支持并开启了线程 CPU 时间统计
+     */
+    static boolean isSupported() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+    }
+    
+    static long currentThreadCpuTime() {
+        return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+    
+    void record(long taskWallNanos, long taskCpuNanos) {
+        wallNanos.add(taskWallNanos);
+        cpuNanos.add(Math.min(taskCpuNanos, taskWallNanos));
+        samples.increment();
+    }
+    
+    void start(long interval, TimeUnit unit) {
+        future = NebulaScheduler.get().scheduleWithFixedDelay(this, interval, interval, unit);
+    }
+    
+    void stop() {
+        ScheduledFuture<?> f = future;
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+    
+    @Override
+    public void run() {
+        if (executor.isShutdown()) {
+            stop();
+            return;
+        }
+        try {
+            tune();
+        } catch (Exception e) {
+            // 调度线程是共享的，异常不能向外抛出导致后续周期被取消
+            log.warn("Self-tuning thread pool [{}] failed", name, e);
+        }
+    }
+    
+    /**
+     * 执行一次调优，返回调整后的核心线程数
+     */
+    int tune() {
+        long count = samples.sumThenReset();
+        long wall = wallNanos.sumThenReset();
+        long cpu = cpuNanos.sumThenReset();
+        int current = executor.getCorePoolSize();
+        if (count < MIN_SAMPLES || wall <= 0) {
+            return current;
+        }
+        double ratio = (double) (wall - cpu) / Math.max(cpu, 1);
+        blockingRatio = ratio;
+        int target = (int) Math.max(minPoolSize, Math.min(maxPoolSize, Math.round(CPU_COUNT * (1 + ratio))));
+        int step = (target - current) / 2;
+        int next = step == 0 ? target : current + step;
+        if (next != current) {
+            int max = (int) Math.max(next, Math.min(maxPoolSize, Math.ceil(next * headroom)));
+            ThreadPoolRegistry.applyPoolSize(executor, next, max);
+            log.info("Self-tuning thread pool [{}] resized core {} -> {}, max={} (W/C={})",
+                    name, current, next, max, String.format("%.2f", ratio));
+        }
+        return next;
+    }
+    
+    /**
+     * 最近一个周期实测的阻塞/计算时间比，尚无数据时为 -1
+     */
+    double getBlockingRatio() {
+        return blockingRatio;
+    }
+}
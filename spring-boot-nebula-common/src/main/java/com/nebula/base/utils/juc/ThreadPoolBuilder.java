@@ -19,19 +19,44 @@ package com.nebula.base.utils.juc;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * @author : wh
  * @date : 2023/11/18 11:27
  * @description:
  */
+@Slf4j
 public class ThreadPoolBuilder {
     
+    /**
+     * 与 Spring Boot 保持一致的虚拟线程开关
+     */
+    public static final String VIRTUAL_THREAD_ENABLED_PROPERTY = "spring.threads.virtual.enabled";
+    
+    /**
+     * 默认线程池使用虚拟线程时的最大并发度
+     */
+    static final int DEFAULT_VIRTUAL_MAX_CONCURRENCY = 256;
+    
+    /**
+     * {@link IOThreadPoolBuilder#enableSelfTuning()} 默认的核心线程数调整范围
+     */
+    static final int DEFAULT_SELF_TUNING_MIN_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    
+    static final int DEFAULT_SELF_TUNING_MAX_POOL_SIZE = DEFAULT_SELF_TUNING_MIN_POOL_SIZE * 12;
+    
+    /**
+     * 显式设置的虚拟线程开关，null 表示从系统属性 / 环境变量读取
+     */
+    private static volatile Boolean virtualThreadEnabled;
+    
     /**
      * 获取 CPU 密集型任务的线程池构建器。
      * 这种线程池的核心线程数通常设置为 CPU 核心数，以减少上下文切换。
@@ -53,6 +78,59 @@ public class ThreadPoolBuilder {
         return new IOThreadPoolBuilder();
     }
     
+    /**
+     * 获取虚拟线程执行器构建器（JDK 21+）。
+     * 每个任务一个虚拟线程，用信号量而非有界队列限制并发度；JDK 17 上自动回退到平台线程池。
+     *
+     * @return VirtualThreadPoolBuilder 实例
+     */
+    public static VirtualThreadPoolBuilder virtualThreadBuilder() {
+        return new VirtualThreadPoolBuilder();
+    }
+    
+    /**
+     * 显式开启或关闭虚拟线程，优先级高于 {@value #VIRTUAL_THREAD_ENABLED_PROPERTY} 系统属性。
+     * 需在默认线程池首次使用之前调用才会对其生效。
+     */
+    public static void setVirtualThreadEnabled(boolean enabled) {
+        virtualThreadEnabled = enabled;
+    }
+    
+    /**
+     * 是否启用虚拟线程：开关已打开且当前 JVM 支持虚拟线程。
+     * 开关依次读取 {@link #setVirtualThreadEnabled(boolean)}、系统属性 {@value #VIRTUAL_THREAD_ENABLED_PROPERTY}
+     * 与环境变量 {@code SPRING_THREADS_VIRTUAL_ENABLED}。
+     */
+    public static boolean isVirtualThreadEnabled() {
+        Boolean enabled = virtualThreadEnabled;
+        if (enabled == null) {
+            String value = System.getProperty(VIRTUAL_THREAD_ENABLED_PROPERTY);
+            if (value == null) {
+                value = System.getenv("SPRING_THREADS_VIRTUAL_ENABLED");
+            }
+            enabled = Boolean.parseBoolean(value);
+        }
+        return enabled && VirtualThreadSupport.isSupported();
+    }
+    
+    /**
+     * 各工具类内置的 IO 默认线程池：启用虚拟线程时使用虚拟线程 + 信号量限流，
+     * 否则使用原有配置的平台线程池。不开启自动调优，保持原有的线程数。
+     */
+    static ExecutorService defaultIoExecutor(String threadNamePrefix) {
+        if (isVirtualThreadEnabled()) {
+            return virtualThreadBuilder()
+                    .setThreadNamePrefix(threadNamePrefix)
+                    .setMaxConcurrency(DEFAULT_VIRTUAL_MAX_CONCURRENCY)
+                    .build();
+        }
+        return ioBoundBuilder()
+                .setThreadNamePrefix(threadNamePrefix)
+                .setMaximumPoolSize(20)
+                .setQueueSize(10000)
+                .build(100, 20);
+    }
+    
     /**
      * @param <T>
      */
@@ -76,6 +154,8 @@ public class ThreadPoolBuilder {
         
         protected TimeUnit timeUnit = TimeUnit.SECONDS;
         
+        protected boolean publishHistogram = false;
+        
         @SuppressWarnings("unchecked")
         protected T self() {
             return (T) this;
@@ -120,6 +200,14 @@ public class ThreadPoolBuilder {
             return self();
         }
         
+        /**
+         * 排队时间和执行时间是否发布百分位直方图。直方图每个线程池会多出几十个时间序列，默认关闭
+         */
+        public T setPublishHistogram(boolean publishHistogram) {
+            this.publishHistogram = publishHistogram;
+            return self();
+        }
+        
         /**
          * 创建并返回配置好的 ThreadPoolExecutor 实例。
          *
@@ -136,14 +224,18 @@ public class ThreadPoolBuilder {
                     ? new LinkedBlockingQueue<>()
                     : new ArrayBlockingQueue<>(this.queueSize);
             
-            return new ThreadPoolExecutor(
+            InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(
                     corePoolSize,
                     maxPoolSize,
                     this.keepAliveTime,
                     this.timeUnit,
                     queue,
                     threadFactory,
-                    this.rejectHandler);
+                    this.rejectHandler,
+                    this.threadNamePrefix);
+            ThreadPoolMetrics.bind(executor, this.publishHistogram);
+            ThreadPoolRegistry.register(this.threadNamePrefix, executor);
+            return executor;
         }
     }
     
@@ -177,6 +269,48 @@ public class ThreadPoolBuilder {
      */
     public static class IOThreadPoolBuilder extends AbstractThreadPoolBuilder<IOThreadPoolBuilder> {
         
+        private int selfTuningMinPoolSize;
+        
+        private int selfTuningMaxPoolSize;
+        
+        private long tuningInterval = 30;
+        
+        private TimeUnit tuningTimeUnit = TimeUnit.SECONDS;
+        
+        /**
+         * 开启自动调优，核心线程数在 [CPU 核数, CPU 核数 * 12] 之间调整
+         */
+        public IOThreadPoolBuilder enableSelfTuning() {
+            return enableSelfTuning(DEFAULT_SELF_TUNING_MIN_POOL_SIZE, DEFAULT_SELF_TUNING_MAX_POOL_SIZE);
+        }
+        
+        /**
+         * 开启自动调优：运行期间按实测的阻塞/计算时间比周期性重新计算核心线程数与最大线程数，
+         * {@code build(waitTime, computeTime)} 的估计值只作为初始值。
+         *
+         * @param minPoolSize 核心线程数下限
+         * @param maxPoolSize 核心线程数上限
+         */
+        public IOThreadPoolBuilder enableSelfTuning(int minPoolSize, int maxPoolSize) {
+            if (minPoolSize <= 0 || maxPoolSize < minPoolSize) {
+                throw new IllegalArgumentException("Self-tuning pool size range must satisfy 0 < min <= max.");
+            }
+            this.selfTuningMinPoolSize = minPoolSize;
+            this.selfTuningMaxPoolSize = maxPoolSize;
+            return this;
+        }
+        
+        /**
+         * 自动调优周期，默认 30 秒
+         */
+        public IOThreadPoolBuilder setTuningInterval(long interval, TimeUnit timeUnit) {
+            if (interval > 0 && timeUnit != null) {
+                this.tuningInterval = interval;
+                this.tuningTimeUnit = timeUnit;
+            }
+            return this;
+        }
+        
         /**
          * 根据任务的 IO 等待时间与 CPU 计算时间的比率，计算核心线程数。
          * 公式：Ncpu * (1 + W/C)
@@ -198,7 +332,72 @@ public class ThreadPoolBuilder {
          * @return ThreadPoolExecutor
          */
         public ThreadPoolExecutor build(int waitTime, int computeTime) {
-            return build(getCorePoolSize(waitTime, computeTime));
+            int corePoolSize = getCorePoolSize(waitTime, computeTime);
+            if (selfTuningMaxPoolSize <= 0) {
+                return build(corePoolSize);
+            }
+            corePoolSize = Math.max(selfTuningMinPoolSize, Math.min(selfTuningMaxPoolSize, corePoolSize));
+            InstrumentedThreadPoolExecutor executor = (InstrumentedThreadPoolExecutor) build(corePoolSize);
+            executor.startSelfTuning(selfTuningMinPoolSize, selfTuningMaxPoolSize, tuningInterval, tuningTimeUnit);
+            return executor;
+        }
+    }
+    
+    /**
+     * 虚拟线程执行器构建器。
+     */
+    public static class VirtualThreadPoolBuilder {
+        
+        private String threadNamePrefix = "virtual-thread-";
+        
+        private int maxConcurrency = DEFAULT_VIRTUAL_MAX_CONCURRENCY;
+        
+        private boolean daemon = false;
+        
+        public VirtualThreadPoolBuilder setThreadNamePrefix(String threadNamePrefix) {
+            if (threadNamePrefix != null && !threadNamePrefix.trim().isEmpty()) {
+                this.threadNamePrefix = threadNamePrefix;
+            }
+            return this;
+        }
+        
+        /**
+         * 同时执行的最大任务数，超出的任务在各自的虚拟线程中等待许可
+         */
+        public VirtualThreadPoolBuilder setMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency > 0) {
+                this.maxConcurrency = maxConcurrency;
+            }
+            return this;
+        }
+        
+        /**
+         * 回退为平台线程池时是否使用守护线程，虚拟线程始终是守护线程
+         */
+        public VirtualThreadPoolBuilder setDaemon(boolean daemon) {
+            this.daemon = daemon;
+            return this;
+        }
+        
+        /**
+         * 构建执行器。JDK 21+ 返回虚拟线程执行器；
+         * JDK 17 回退为最大线程数为 maxConcurrency 的 IO 密集型平台线程池。
+         *
+         * @return ExecutorService 实例
+         */
+        public ExecutorService build() {
+            if (!VirtualThreadSupport.isSupported()) {
+                log.info("Virtual threads are not supported by this JVM, [{}] falls back to a platform thread pool", threadNamePrefix);
+                return ioBoundBuilder()
+                        .setThreadNamePrefix(threadNamePrefix)
+                        .setDaemon(daemon)
+                        .setMaximumPoolSize(maxConcurrency)
+                        .build(100, 20);
+            }
+            ConcurrencyLimitedExecutorService executor = new ConcurrencyLimitedExecutorService(
+                    VirtualThreadSupport.newThreadPerTaskExecutor(threadNamePrefix), maxConcurrency, threadNamePrefix);
+            ThreadPoolMetrics.bind(executor);
+            return executor;
         }
     }
     
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/10
+ * @description: 线程池指标注册入口。
+ * <p>
+ * Micrometer 是可选依赖，只有在 classpath 中存在时才会加载 {@link MicrometerThreadPoolMetrics}，
+ * 否则所有注册都是空操作。
+ */
+@Slf4j
+final class ThreadPoolMetrics {
+    
+    private static final boolean MICROMETER_PRESENT = isPresent("io.micrometer.core.instrument.Metrics");
+    
+    private ThreadPoolMetrics() {
+    }
+    
+    static boolean isMicrometerPresent() {
+        return MICROMETER_PRESENT;
+    }
+    
+    static void bind(InstrumentedThreadPoolExecutor executor) {
+        bind(executor, false);
+    }
+    
+    static void bind(InstrumentedThreadPoolExecutor executor, boolean publishHistogram) {
+        if (MICROMETER_PRESENT) {
+            executor.setMetricsRecorder(MicrometerThreadPoolMetrics.bind(executor, publishHistogram));
+        }
+    }
+    
+    static void bind(ConcurrencyLimitedExecutorService executor) {
+        if (MICROMETER_PRESENT) {
+            executor.setMetricsRecorder(MicrometerThreadPoolMetrics.bind(executor));
+        }
+    }
+    
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, ThreadPoolMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.debug("Micrometer not found, thread pool metrics are disabled");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+/**
+ * @author : wh
+ * @date : 2025/7/10
+ * @description: {@link InstrumentedThreadPoolExecutor} 的指标记录器，屏蔽具体的监控实现。
+ */
+public interface ThreadPoolMetricsRecorder {
+    
+    /**
+     * 不做任何记录的实现，未引入 Micrometer 时使用
+     */
+    ThreadPoolMetricsRecorder NOOP = new ThreadPoolMetricsRecorder() {
+    };
+    
+    /**
+     * 任务在队列中的等待时间
+     */
+    default void recordQueueWait(long nanos) {
+    }
+    
+    /**
+     * 任务的执行时间
+     */
+    default void recordExecution(long nanos) {
+    }
+    
+    /**
+     * 任务被拒绝
+     */
+    default void recordRejected() {
+    }
+    
+    /**
+     * 线程池终止，释放已注册的指标
+     */
+    default void close() {
+    }
+}
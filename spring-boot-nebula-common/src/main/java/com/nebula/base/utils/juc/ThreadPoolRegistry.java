@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/12
+ * @description: 线程池注册表。
+ * <p>
+ * {@link ThreadPoolBuilder} 构建的线程池按线程名前缀自动注册，线程池终止后自动移除，
+ * 运维可以通过 {@link #resize(String, int, int)}（例如 actuator 端点）在不重启的情况下调整线程数。
+ * 名称重复时后注册的线程池覆盖先注册的。
+ */
+@Slf4j
+public final class ThreadPoolRegistry {
+    
+    private static final ConcurrentMap<String, ThreadPoolExecutor> POOLS = new ConcurrentHashMap<>();
+    
+    private ThreadPoolRegistry() {
+    }
+    
+    public static void register(String name, ThreadPoolExecutor executor) {
+        if (name == null || name.isBlank() || executor == null) {
+            throw new IllegalArgumentException("Pool name and executor cannot be empty.");
+        }
+        ThreadPoolExecutor previous = POOLS.put(name, executor);
+        if (previous != null && previous != executor && !previous.isShutdown()) {
+            log.debug("Thread pool [{}] is registered more than once, the latest one wins", name);
+        }
+    }
+    
+    static void unregister(String name, ThreadPoolExecutor executor) {
+        POOLS.remove(name, executor);
+    }
+    
+    public static ThreadPoolExecutor get(String name) {
+        return POOLS.get(name);
+    }
+    
+    /**
+     * 按名称排序的所有已注册线程池
+     */
+    public static Map<String, ThreadPoolExecutor> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(POOLS));
+    }
+    
+    /**
+     * 调整指定线程池的核心线程数与最大线程数。
+     * 对开启了自动调优的线程池，手动调整后将停止自动调优，以运维指定的值为准。
+     *
+     * @param name            线程池名称（线程名前缀）
+     * @param corePoolSize    核心线程数
+     * @param maximumPoolSize 最大线程数
+     */
+    public static void resize(String name, int corePoolSize, int maximumPoolSize) {
+        ThreadPoolExecutor executor = POOLS.get(name);
+        if (executor == null) {
+            throw new IllegalArgumentException("Thread pool not found: " + name);
+        }
+        if (executor instanceof InstrumentedThreadPoolExecutor instrumented) {
+            instrumented.stopSelfTuning();
+        }
+        applyPoolSize(executor, corePoolSize, maximumPoolSize);
+        log.info("Thread pool [{}] resized to core={}, max={}", name, corePoolSize, maximumPoolSize);
+    }
+    
+    /**
+     * 按正确的顺序同时修改核心线程数与最大线程数，避免中间状态出现 core > max。
+     */
+    static void applyPoolSize(ThreadPoolExecutor executor, int corePoolSize, int maximumPoolSize) {
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || maximumPoolSize < corePoolSize) {
+            throw new IllegalArgumentException("Pool size must satisfy 0 <= core <= max and max > 0.");
+        }
+        if (corePoolSize > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maximumPoolSize);
+            executor.setCorePoolSize(corePoolSize);
+        } else {
+            executor.setCorePoolSize(corePoolSize);
+            executor.setMaximumPoolSize(maximumPoolSize);
+        }
+    }
+}
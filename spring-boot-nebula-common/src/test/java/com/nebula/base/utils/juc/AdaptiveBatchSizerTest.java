@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/4
+ * @description:
+ */
+class AdaptiveBatchSizerTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+    
+    private AdaptiveBatchSizer newSizer() {
+        return AdaptiveBatchSizer.builder("test")
+                .setBatchSizeRange(10, 200)
+                .setInitialBatchSize(50)
+                .setAdditiveStep(10)
+                .setDecreaseFactor(0.5)
+                .setTargetLatency(100, TimeUnit.MILLISECONDS)
+                .build();
+    }
+    
+    @Test
+    @DisplayName("低于目标延迟时加性增长，且不超过上限")
+    void testAdditiveIncrease() {
+        AdaptiveBatchSizer sizer = newSizer();
+        sizer.onBatchComplete(50, FAST, false);
+        assertEquals(60, sizer.getCurrentBatchSize());
+        for (int i = 0; i < 100; i++) {
+            sizer.onBatchComplete(sizer.getCurrentBatchSize(), FAST, false);
+        }
+        assertEquals(200, sizer.getCurrentBatchSize());
+    }
+    
+    @Test
+    @DisplayName("超过目标延迟或失败时乘性减小，且不低于下限")
+    void testMultiplicativeDecrease() {
+        AdaptiveBatchSizer sizer = newSizer();
+        sizer.onBatchComplete(50, SLOW, false);
+        assertEquals(25, sizer.getCurrentBatchSize());
+        sizer.onBatchComplete(25, FAST, true);
+        assertEquals(12, sizer.getCurrentBatchSize());
+        sizer.onBatchComplete(12, SLOW, false);
+        assertEquals(10, sizer.getCurrentBatchSize());
+        assertEquals(1, sizer.getFailedBatches());
+        assertEquals(3, sizer.getCompletedBatches());
+    }
+    
+    @Test
+    @DisplayName("旧的小分片成功完成不会驱动增长")
+    void testStaleSmallBatchDoesNotIncrease() {
+        AdaptiveBatchSizer sizer = newSizer();
+        sizer.onBatchComplete(30, FAST, false);
+        assertEquals(50, sizer.getCurrentBatchSize());
+    }
+    
+    @Test
+    @DisplayName("自适应执行：结果完整有序，慢任务使批量大小收敛到下限附近")
+    void testExecuteAdaptive() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AdaptiveBatchSizer sizer = AdaptiveBatchSizer.builder("adaptive")
+                    .setBatchSizeRange(5, 100)
+                    .setInitialBatchSize(80)
+                    .setTargetLatency(30, TimeUnit.MILLISECONDS)
+                    .build();
+            // 每个元素耗时 1ms，批量超过 30 个即超过目标延迟
+            Function<List<Integer>, List<Integer>> task = batch -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(batch.size());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return batch;
+            };
+            List<Integer> data = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+            List<Integer> results = ParallelBatchExecutor.executeAdaptive(data, sizer, 4, task, executor);
+            assertEquals(data, results);
+            assertTrue(sizer.getCurrentBatchSize() <= 40, "batch size did not shrink: " + sizer);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("非法区间参数抛出异常")
+    void testInvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> AdaptiveBatchSizer.builder("x").setBatchSizeRange(0, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> AdaptiveBatchSizer.builder("x").setBatchSizeRange(20, 10));
+    }
+    
+    @Test
+    @DisplayName("批量大小、延迟与分片计数通过 Micrometer 暴露")
+    void testMetricsTrackSizer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            AdaptiveBatchSizer sizer = AdaptiveBatchSizer.builder("metrics-test")
+                    .setBatchSizeRange(10, 200)
+                    .setInitialBatchSize(50)
+                    .setAdditiveStep(10)
+                    .setTargetLatency(100, TimeUnit.MILLISECONDS)
+                    .build();
+            assertEquals(50, registry.get("nebula.batch.size").tag("sizer", "metrics-test").gauge().value());
+            
+            sizer.onBatchComplete(50, FAST, false);
+            sizer.onBatchComplete(60, FAST, true);
+            assertEquals(sizer.getCurrentBatchSize(),
+                    registry.get("nebula.batch.size").tag("sizer", "metrics-test").gauge().value());
+            assertEquals(sizer.getLatencyEwmaMillis(),
+                    registry.get("nebula.batch.latency").tag("sizer", "metrics-test").gauge().value());
+            assertEquals(2, registry.get("nebula.batch.completed").tag("sizer", "metrics-test").functionCounter().count());
+            assertEquals(1, registry.get("nebula.batch.failed").tag("sizer", "metrics-test").functionCounter().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+    
+    @Test
+    @DisplayName("同名实例重新注册时指标切换到最新实例")
+    void testMetricsRebindSameName() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            AdaptiveBatchSizer.builder("metrics-rebind").setBatchSizeRange(10, 200).setInitialBatchSize(50).build();
+            AdaptiveBatchSizer latest = AdaptiveBatchSizer.builder("metrics-rebind")
+                    .setBatchSizeRange(10, 200)
+                    .setInitialBatchSize(80)
+                    .build();
+            System.gc();
+            
+            assertEquals(1, registry.find("nebula.batch.size").tag("sizer", "metrics-rebind").gauges().size());
+            assertEquals(80, registry.get("nebula.batch.size").tag("sizer", "metrics-rebind").gauge().value());
+            latest.onBatchComplete(80, FAST, true);
+            assertEquals(1, registry.get("nebula.batch.failed").tag("sizer", "metrics-rebind").functionCounter().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/21
+ * @description:
+ */
+class BatchPipelineTest {
+    
+    @Test
+    @DisplayName("多阶段处理全部数据，批量大小不超过配置")
+    void testAllItemsProcessed() {
+        List<Integer> source = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        Queue<Integer> written = new ConcurrentLinkedQueue<>();
+        AtomicInteger maxBatch = new AtomicInteger();
+        
+        BatchPipeline.Execution execution = BatchPipeline.from("all-items", source)
+                .stage("double", 4, 100, batch -> {
+                    maxBatch.accumulateAndGet(batch.size(), Math::max);
+                    return batch.stream().map(i -> i * 2).collect(Collectors.toList());
+                })
+                .stage("format", 2, 50, batch -> batch.stream().map(String::valueOf).collect(Collectors.toList()))
+                .sink("write", 2, 500, batch -> batch.forEach(s -> written.add(Integer.parseInt(s))))
+                .start();
+        execution.await();
+        
+        assertEquals(10_000, written.size());
+        assertEquals(source.stream().mapToLong(i -> i * 2L).sum(), written.stream().mapToLong(Integer::longValue).sum());
+        assertTrue(maxBatch.get() <= 100);
+        assertEquals(10_000L, execution.getProcessedCounts().get("write"));
+        assertTrue(execution.isDone());
+    }
+    
+    @Test
+    @DisplayName("各阶段重叠执行，耗时接近最慢阶段而不是各阶段之和")
+    void testStagesOverlap() {
+        List<Integer> source = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+        long start = System.nanoTime();
+        BatchPipeline.from("overlap", source)
+                .stage("read", 1, 1, batch -> sleepAndReturn(batch, 50))
+                .stage("transform", 1, 1, batch -> sleepAndReturn(batch, 50))
+                .sink("write", 1, 1, batch -> sleepAndReturn(batch, 50))
+                .run();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 串行需要 3 * 10 * 50 = 1500ms，流水线约 (10 + 2) * 50 = 600ms
+        assertTrue(elapsed < 1200, "elapsed " + elapsed + "ms");
+    }
+    
+    @Test
+    @DisplayName("下游阻塞时上游被有界队列限流，取消后 await 抛出 CancellationException")
+    void testBackpressureAndCancel() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        Iterator<Integer> infinite = new Iterator<>() {
+            
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Integer next() {
+                return produced.incrementAndGet();
+            }
+        };
+        CountDownLatch block = new CountDownLatch(1);
+        BatchPipeline.Execution execution = BatchPipeline.from("backpressure", infinite)
+                .stage("identity", 1, 1, 4, batch -> batch)
+                .sink("blocked", 1, 1, 4, batch -> {
+                    try {
+                        block.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .start();
+        
+        assertFalse(execution.await(300, TimeUnit.MILLISECONDS));
+        // 两个容量为 4 的队列，加上每个线程手中最多一个元素
+        assertTrue(produced.get() <= 12, "produced " + produced.get());
+        
+        execution.cancel();
+        assertThrows(CancellationException.class, execution::await);
+    }
+    
+    @Test
+    @DisplayName("任一阶段失败时取消整个流水线并抛出原始异常")
+    void testErrorPropagation() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        Iterator<Integer> infinite = IntStream.iterate(0, i -> i + 1).iterator();
+        BatchPipeline.Plan plan = BatchPipeline.from("failing", infinite)
+                .stage("explode", 2, 10, batch -> {
+                    if (batch.contains(1000)) {
+                        throw boom;
+                    }
+                    return batch;
+                })
+                .sink("drain", 1, 100, batch -> {
+                });
+        RuntimeException ex = assertThrows(RuntimeException.class, plan::run);
+        assertSame(boom, ex.getCause());
+    }
+    
+    @Test
+    @DisplayName("非法参数")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> BatchPipeline.from(" ", List.of(1)));
+        assertThrows(IllegalArgumentException.class, () -> BatchPipeline.from("invalid", List.of(1)).stage("s", 0, 1, batch -> batch));
+        assertThrows(IllegalArgumentException.class, () -> BatchPipeline.from("invalid", List.of(1)).sink("s", 1, 0, batch -> {
+        }));
+    }
+    
+    private static <T> List<T> sleepAndReturn(List<T> batch, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return batch;
+    }
+}
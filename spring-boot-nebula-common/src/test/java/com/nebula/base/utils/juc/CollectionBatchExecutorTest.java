@@ -18,7 +18,9 @@
 package com.nebula.base.utils.juc;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
@@ -289,4 +291,71 @@ class CollectionBatchExecutorTest {
         assertFalse(result3.hasChanges());
     }
     
-}
\ No newline at end of file
+    @Test
+    @DisplayName("long 主键特化版本与通用 diff 结果一致")
+    void shouldDiffByLongKey() {
+        TestItem itemToDelete = new TestItem(2L, "B");
+        List<TestItem> oldList = List.of(new TestItem(0L, "zero"), new TestItem(1L, "A"), itemToDelete);
+        TestItem itemUpdated = new TestItem(1L, "A-updated");
+        TestItem itemToAdd = new TestItem(3L, "C");
+        List<TestItem> newList = List.of(new TestItem(0L, "zero"), itemUpdated, itemToAdd);
+        
+        CollectionBatchExecutor.DiffResult<TestItem> result = CollectionBatchExecutor.diffByLongKey(oldList, newList, TestItem::getId);
+        
+        assertEquals(List.of(itemToAdd), result.getToAdd());
+        assertEquals(List.of(itemUpdated), result.getToUpdate());
+        assertEquals(List.of(itemToDelete), result.getToDelete());
+        assertFalse(CollectionBatchExecutor.diffByLongKey(null, null, TestItem::getId).hasChanges());
+    }
+    
+    @Test
+    @DisplayName("流式归并比对按批回调增删改")
+    void shouldStreamingDiffSortedSources() {
+        List<TestItem> oldList = IntStream.range(0, 10).mapToObj(i -> new TestItem((long) i * 2, "v")).collect(Collectors.toList());
+        // 新数据：偶数 id 0~8 保留、10 修改、12~18 删除，奇数 id 1~9 新增
+        List<TestItem> newList = IntStream.range(0, 11)
+                .mapToObj(i -> i < 10 ? new TestItem((long) i, i % 2 == 0 ? "v" : "n") : new TestItem(10L, "changed"))
+                .collect(Collectors.toList());
+        
+        List<List<TestItem>> adds = new ArrayList<>();
+        List<TestItem> updates = new ArrayList<>();
+        List<TestItem> deletes = new ArrayList<>();
+        CollectionBatchExecutor.streamingDiff(oldList.iterator(), newList.iterator(), TestItem::getId, 2,
+                adds::add, updates::addAll, deletes::addAll);
+        
+        CollectionBatchExecutor.DiffResult<TestItem> expected = CollectionBatchExecutor.diff(oldList, newList, TestItem::getId);
+        assertEquals(expected.getToAdd(), adds.stream().flatMap(List::stream).collect(Collectors.toList()));
+        assertTrue(adds.stream().allMatch(batch -> batch.size() <= 2));
+        assertEquals(expected.getToUpdate(), updates);
+        assertEquals(List.of(10L), updates.stream().map(TestItem::getId).collect(Collectors.toList()));
+        assertEquals(expected.getToDelete().size(), deletes.size());
+        assertTrue(deletes.containsAll(expected.getToDelete()));
+    }
+    
+    @Test
+    @DisplayName("流式比对的数据源未按主键严格升序时抛出异常")
+    void shouldRejectUnsortedSource() {
+        List<TestItem> unsorted = List.of(new TestItem(2L, "B"), new TestItem(1L, "A"));
+        assertThrows(IllegalArgumentException.class, () -> CollectionBatchExecutor.streamingDiff(
+                unsorted.iterator(), Collections.<TestItem>emptyIterator(), TestItem::getId, 10, null, null, l -> {
+                }));
+    }
+    
+    @Test
+    @DisplayName("分区并行比对与单线程比对结果一致")
+    void shouldParallelDiff() {
+        List<TestItem> oldList = IntStream.range(0, 10_000).mapToObj(i -> new TestItem((long) i, "v")).collect(Collectors.toList());
+        List<TestItem> newList = IntStream.range(5_000, 15_000)
+                .mapToObj(i -> new TestItem((long) i, i % 10 == 0 ? "changed" : "v"))
+                .collect(Collectors.toList());
+        
+        CollectionBatchExecutor.DiffResult<TestItem> expected = CollectionBatchExecutor.diff(oldList, newList, TestItem::getId);
+        CollectionBatchExecutor.DiffResult<TestItem> actual = CollectionBatchExecutor.parallelDiff(oldList, newList, TestItem::getId, 8, executorService);
+        
+        assertEquals(new HashSet<>(expected.getToAdd()), new HashSet<>(actual.getToAdd()));
+        assertEquals(new HashSet<>(expected.getToUpdate()), new HashSet<>(actual.getToUpdate()));
+        assertEquals(new HashSet<>(expected.getToDelete()), new HashSet<>(actual.getToDelete()));
+        assertEquals(5_000, actual.getToDelete().size());
+    }
+    
+}
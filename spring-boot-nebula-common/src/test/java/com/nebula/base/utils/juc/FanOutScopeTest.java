@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/15
+ * @description:
+ */
+class FanOutScopeTest {
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("超时的子任务返回兜底值并被标记，其余子任务正常返回")
+    void testPartialResult() {
+        long start = System.nanoTime();
+        try (FanOutScope scope = CompletableFutureUtils.openScope(2, TimeUnit.SECONDS, executor)) {
+            FanOutScope.Slot<String> fast = scope.fork("fast", () -> "ok", "fallback");
+            FanOutScope.Slot<String> slow = scope.fork("slow", () -> sleepAndGet(5000, "late"), 100, TimeUnit.MILLISECONDS, "fallback");
+            FanOutScope.Result result = scope.join();
+            
+            assertEquals("ok", fast.get());
+            assertEquals("fallback", slow.get());
+            assertEquals(FanOutScope.SlotState.TIMED_OUT, slow.getState());
+            assertEquals(List.of("slow"), result.getTimedOutSlots());
+            assertFalse(result.isComplete());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "只应等待慢任务自己的截止时间");
+    }
+    
+    @Test
+    @DisplayName("超时的子任务被中断，不会继续占用线程")
+    void testLateTaskInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (FanOutScope scope = CompletableFutureUtils.openScope(50, TimeUnit.MILLISECONDS, executor)) {
+            scope.fork("blocking", () -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }, null);
+            scope.join();
+        }
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    @DisplayName("失败的子任务返回兜底值并保留异常")
+    void testFailedSlot() {
+        try (FanOutScope scope = CompletableFutureUtils.openScope(1, TimeUnit.SECONDS, executor)) {
+            IllegalStateException boom = new IllegalStateException("boom");
+            FanOutScope.Slot<Integer> slot = scope.fork("failing", () -> {
+                throw boom;
+            }, -1);
+            FanOutScope.Result result = scope.join();
+            assertEquals(-1, slot.get());
+            assertEquals(boom, slot.getCause());
+            assertEquals(List.of("failing"), result.getFailedSlots());
+        }
+    }
+    
+    @Test
+    @DisplayName("嵌套扇出继承外层剩余预算，超时后内层子任务被中断")
+    void testDeadlinePropagation() throws Exception {
+        AtomicLong nestedRemaining = new AtomicLong();
+        CountDownLatch innerInterrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try (FanOutScope scope = CompletableFutureUtils.openScope(200, TimeUnit.MILLISECONDS, executor)) {
+            scope.fork("outer", () -> {
+                // 内层申请 10 秒，但会被截断为外层剩余的预算
+                try (FanOutScope nested = CompletableFutureUtils.openScope(10, TimeUnit.SECONDS, executor)) {
+                    nested.fork("inner", () -> {
+                        nestedRemaining.set(FanOutScope.remainingNanos());
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            innerInterrupted.countDown();
+                        }
+                        return null;
+                    }, null);
+                    nested.join();
+                }
+                return "outer";
+            }, "fallback");
+            scope.join();
+        }
+        assertTrue(innerInterrupted.await(2, TimeUnit.SECONDS));
+        assertTrue(nestedRemaining.get() <= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertEquals(Long.MAX_VALUE, FanOutScope.remainingNanos());
+    }
+    
+    @Test
+    @DisplayName("join 之前读取结果或 join 之后继续 fork 抛出异常")
+    void testIllegalUsage() {
+        try (FanOutScope scope = CompletableFutureUtils.openScope(1, TimeUnit.SECONDS, executor)) {
+            FanOutScope.Slot<String> slot = scope.fork("a", () -> "a", null);
+            assertThrows(IllegalStateException.class, slot::get);
+            scope.join();
+            assertThrows(IllegalStateException.class, () -> scope.fork("b", () -> "b", null));
+        }
+        assertThrows(IllegalArgumentException.class, () -> CompletableFutureUtils.openScope(0, TimeUnit.SECONDS));
+    }
+    
+    private static String sleepAndGet(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/17
+ * @description:
+ */
+class HedgedCallSiteTest {
+    
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("原请求慢时发起对冲，对冲结果获胜，原请求不中断并继续执行完")
+    void testHedgeWins() throws Exception {
+        HedgedCallSite callSite = HedgedCallSite.of("hedge-wins").setBudget(1).setInitialDelay(20, TimeUnit.MILLISECONDS);
+        // 预先积累额度
+        for (int i = 0; i < 2; i++) {
+            CompletableFutureUtils.supplyHedged("hedge-wins", () -> "warm", executor).get();
+        }
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch primaryFinished = new CountDownLatch(1);
+        AtomicBoolean primaryInterrupted = new AtomicBoolean();
+        CompletableFuture<String> future = CompletableFutureUtils.supplyHedged("hedge-wins", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.set(true);
+                }
+                primaryFinished.countDown();
+                return "slow";
+            }
+            return "fast";
+        }, executor);
+        
+        assertEquals("fast", future.get(2, TimeUnit.SECONDS));
+        assertEquals(1, callSite.getFired());
+        assertEquals(1, callSite.getWon());
+        assertTrue(primaryFinished.await(2, TimeUnit.SECONDS));
+        assertFalse(primaryInterrupted.get());
+    }
+    
+    @Test
+    @DisplayName("对冲延迟按原请求的延迟计算，而不是获胜者的延迟")
+    void testDelayTracksPrimaryLatency() throws Exception {
+        HedgedCallSite callSite = HedgedCallSite.of("hedge-primary").setBudget(1).setInitialDelay(10, TimeUnit.MILLISECONDS);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        CountDownLatch primariesFinished = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            AtomicInteger attempts = new AtomicInteger();
+            futures.add(CompletableFutureUtils.supplyHedged("hedge-primary", () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    sleep(100);
+                    primariesFinished.countDown();
+                    return "slow";
+                }
+                return "fast";
+            }, executor));
+        }
+        for (CompletableFuture<String> future : futures) {
+            future.get(2, TimeUnit.SECONDS);
+        }
+        assertTrue(callSite.getWon() > 0);
+        assertTrue(primariesFinished.await(2, TimeUnit.SECONDS));
+        
+        // 获胜者的延迟只有 10ms 左右，原请求约 100ms
+        assertTrue(callSite.getHedgeDelayNanos() >= TimeUnit.MILLISECONDS.toNanos(90), callSite.toString());
+    }
+    
+    @Test
+    @DisplayName("预算耗尽时不发起对冲")
+    void testBudgetThrottles() throws Exception {
+        HedgedCallSite callSite = HedgedCallSite.of("hedge-budget").setBudget(0).setInitialDelay(5, TimeUnit.MILLISECONDS);
+        AtomicInteger attempts = new AtomicInteger();
+        String value = CompletableFutureUtils.supplyHedged("hedge-budget", () -> {
+            attempts.incrementAndGet();
+            sleep(50);
+            return "ok";
+        }, executor).get(2, TimeUnit.SECONDS);
+        assertEquals("ok", value);
+        assertEquals(1, attempts.get());
+        assertEquals(0, callSite.getFired());
+        assertEquals(1, callSite.getThrottled());
+    }
+    
+    @Test
+    @DisplayName("对冲延迟跟随调用点的 p95 延迟")
+    void testAdaptiveDelay() throws Exception {
+        HedgedCallSite callSite = HedgedCallSite.of("hedge-delay").setBudget(0).setInitialDelay(1, TimeUnit.SECONDS);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), callSite.getHedgeDelayNanos());
+        for (int i = 0; i < 40; i++) {
+            CompletableFutureUtils.supplyHedged("hedge-delay", () -> "ok", executor).get();
+        }
+        assertTrue(callSite.getHedgeDelayNanos() < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(40, callSite.getCalls());
+    }
+    
+    @Test
+    @DisplayName("原请求失败时直接失败，不触发对冲")
+    void testFailureIsNotHedged() {
+        HedgedCallSite callSite = HedgedCallSite.of("hedge-failure").setBudget(1);
+        IllegalStateException boom = new IllegalStateException("boom");
+        CompletableFuture<String> future = CompletableFutureUtils.supplyHedged("hedge-failure", () -> {
+            throw boom;
+        }, executor);
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertSame(boom, ex.getCause());
+        assertEquals(0, callSite.getFired());
+    }
+    
+    @Test
+    @DisplayName("非法参数")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> HedgedCallSite.of(" "));
+        assertThrows(IllegalArgumentException.class, () -> HedgedCallSite.of("hedge-invalid").setBudget(1.5));
+        assertThrows(IllegalArgumentException.class, () -> HedgedCallSite.of("hedge-invalid").setPercentile(1));
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/10
+ * @description:
+ */
+class InstrumentedThreadPoolExecutorTest {
+    
+    private SimpleMeterRegistry registry;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+    
+    @Test
+    @DisplayName("自动注册指标，并记录排队与执行时间")
+    void testMetricsRegistered() throws Exception {
+        assertTrue(ThreadPoolBuilder.cpuBoundBuilder().build() instanceof InstrumentedThreadPoolExecutor);
+        InstrumentedThreadPoolExecutor executor = singleThreadPool("metrics-test-", 10);
+        
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                sleep(20);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        
+        Timer execution = registry.find("nebula.threadpool.execution").tag("pool", "metrics-test-").timer();
+        Timer queueWait = registry.find("nebula.threadpool.queue.wait").tag("pool", "metrics-test-").timer();
+        assertNotNull(execution);
+        assertNotNull(queueWait);
+        // afterExecute 在 countDown 之后才执行，稍作等待
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(3, execution.count());
+        assertEquals(3, queueWait.count());
+        // 单线程串行执行，后提交的任务至少排队了一个任务的执行时间
+        assertTrue(queueWait.max(TimeUnit.MILLISECONDS) >= 15);
+        
+        // 线程池终止后指标被移除
+        assertNull(registry.find("nebula.threadpool.queue.size").tag("pool", "metrics-test-").gauge());
+    }
+    
+    @Test
+    @DisplayName("被拒绝的任务计入 rejected，且 getRejectedExecutionHandler 返回原始策略")
+    void testRejectedCounted() throws Exception {
+        InstrumentedThreadPoolExecutor executor = singleThreadPool("reject-test-", 1);
+        CountDownLatch block = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(block));
+            executor.execute(() -> await(block));
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+            
+            assertEquals(1, executor.getRejectedCount());
+            assertEquals(1.0, registry.get("nebula.threadpool.rejected").tag("pool", "reject-test-").counter().count());
+            assertEquals(1.0, registry.get("nebula.threadpool.queue.size").tag("pool", "reject-test-").gauge().value());
+            assertEquals(1.0, registry.get("nebula.threadpool.active").tag("pool", "reject-test-").gauge().value());
+            assertTrue(executor.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy);
+        } finally {
+            block.countDown();
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("shutdownNow 返回原始任务而不是内部包装")
+    void testShutdownNowUnwrapsTasks() {
+        InstrumentedThreadPoolExecutor executor = singleThreadPool("shutdown-test-", 10);
+        CountDownLatch block = new CountDownLatch(1);
+        Runnable pending = () -> {
+        };
+        executor.execute(() -> await(block));
+        executor.execute(pending);
+        
+        List<Runnable> remaining = executor.shutdownNow();
+        block.countDown();
+        assertEquals(1, remaining.size());
+        assertSame(pending, remaining.get(0));
+    }
+    
+    @Test
+    @DisplayName("前缀相同的线程池各自注册指标，终止一个不影响另一个")
+    void testPoolsSharingPrefixKeepOwnMeters() throws Exception {
+        InstrumentedThreadPoolExecutor first = singleThreadPool("shared-test-", 10);
+        InstrumentedThreadPoolExecutor second = singleThreadPool("shared-test-", 10);
+        CountDownLatch block = new CountDownLatch(1);
+        try {
+            second.execute(() -> await(block));
+            assertEquals(2, registry.find("nebula.threadpool.active").tag("pool", "shared-test-").gauges().size());
+            
+            first.shutdown();
+            assertTrue(first.awaitTermination(5, TimeUnit.SECONDS));
+            
+            assertEquals(1, registry.find("nebula.threadpool.active").tag("pool", "shared-test-").gauges().size());
+            assertEquals(1.0, registry.get("nebula.threadpool.active").tag("pool", "shared-test-").gauge().value());
+        } finally {
+            block.countDown();
+            second.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("线程池终止后归还编号，新线程池复用而不是产生新的时间序列")
+    void testPoolIdReusedAfterTermination() throws Exception {
+        InstrumentedThreadPoolExecutor first = singleThreadPool("reuse-test-", 10);
+        InstrumentedThreadPoolExecutor second = singleThreadPool("reuse-test-", 10);
+        assertNotNull(registry.find("nebula.threadpool.active").tags("pool", "reuse-test-", "poolId", "0").gauge());
+        assertNotNull(registry.find("nebula.threadpool.active").tags("pool", "reuse-test-", "poolId", "1").gauge());
+        
+        first.shutdown();
+        assertTrue(first.awaitTermination(5, TimeUnit.SECONDS));
+        InstrumentedThreadPoolExecutor third = singleThreadPool("reuse-test-", 10);
+        try {
+            assertEquals(2, registry.find("nebula.threadpool.active").tag("pool", "reuse-test-").gauges().size());
+            assertNotNull(registry.find("nebula.threadpool.active").tags("pool", "reuse-test-", "poolId", "0").gauge());
+        } finally {
+            second.shutdown();
+            third.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("百分位直方图默认关闭，可通过构建器开启")
+    void testHistogramIsOptIn() {
+        Map<String, Boolean> histograms = new ConcurrentHashMap<>();
+        registry.config().meterFilter(new MeterFilter() {
+            
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals("nebula.threadpool.execution")) {
+                    histograms.put(id.getTag("pool"), Boolean.TRUE.equals(config.isPercentileHistogram()));
+                }
+                return config;
+            }
+        });
+        ExecutorService plain = ThreadPoolBuilder.ioBoundBuilder().setThreadNamePrefix("plain-histogram-").build(1, 1);
+        ExecutorService histogram = ThreadPoolBuilder.ioBoundBuilder().setThreadNamePrefix("histogram-test-")
+                .setPublishHistogram(true).build(1, 1);
+        try {
+            assertEquals(Boolean.FALSE, histograms.get("plain-histogram-"));
+            assertEquals(Boolean.TRUE, histograms.get("histogram-test-"));
+        } finally {
+            plain.shutdown();
+            histogram.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("并发限制执行器关闭后移除指标")
+    void testConcurrencyLimitedMetricsRemovedOnShutdown() {
+        ConcurrencyLimitedExecutorService executor = new ConcurrencyLimitedExecutorService(
+                Executors.newCachedThreadPool(new ThreadFactoryImpl("limited-test-", true)), 2, "limited-test-");
+        ThreadPoolMetrics.bind(executor);
+        assertNotNull(registry.find("nebula.threadpool.active").tag("pool", "limited-test-").gauge());
+        
+        executor.shutdown();
+        
+        assertNull(registry.find("nebula.threadpool.active").tag("pool", "limited-test-").gauge());
+        assertNull(registry.find("nebula.threadpool.queue.size").tag("pool", "limited-test-").gauge());
+    }
+    
+    private static InstrumentedThreadPoolExecutor singleThreadPool(String poolName, int queueSize) {
+        InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ThreadFactoryImpl(poolName, true),
+                new ThreadPoolExecutor.AbortPolicy(), poolName);
+        ThreadPoolMetrics.bind(executor);
+        return executor;
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/19
+ * @description:
+ */
+class LongObjectHashMapTest {
+    
+    @Test
+    @DisplayName("插入触发扩容后仍能查到所有 key，包括 0 与负数")
+    void testPutAndGetWithRehash() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(1);
+        for (long key = -500; key < 500; key++) {
+            assertTrue(map.putIfAbsent(key, "v" + key));
+        }
+        assertEquals(1000, map.size());
+        for (long key = -500; key < 500; key++) {
+            assertEquals("v" + key, map.get(key));
+        }
+        assertNull(map.get(10_000));
+    }
+    
+    @Test
+    @DisplayName("key 已存在时保留旧值")
+    void testPutIfAbsentKeepsExisting() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        assertTrue(map.putIfAbsent(1, "first"));
+        assertFalse(map.putIfAbsent(1, "second"));
+        assertEquals("first", map.get(1));
+        assertEquals(1, map.size());
+    }
+    
+    @Test
+    @DisplayName("每个 key 只能命中一次，未命中的值可被遍历")
+    void testMatchAndUnmatched() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(16);
+        for (long key = 0; key < 10; key++) {
+            map.putIfAbsent(key * 1_000_000_007L, "v" + key);
+        }
+        assertEquals("v3", map.match(3 * 1_000_000_007L));
+        assertNull(map.match(3 * 1_000_000_007L));
+        assertNull(map.match(42));
+        
+        List<String> unmatched = new ArrayList<>();
+        map.forEachUnmatched(unmatched::add);
+        Set<String> expected = new HashSet<>();
+        for (long key = 0; key < 10; key++) {
+            if (key != 3) {
+                expected.add("v" + key);
+            }
+        }
+        assertEquals(expected, new HashSet<>(unmatched));
+    }
+}
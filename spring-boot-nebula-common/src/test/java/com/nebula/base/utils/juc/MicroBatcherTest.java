@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/23
+ * @description:
+ */
+class MicroBatcherTest {
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    
+    private final Queue<List<Integer>> loadedBatches = new ConcurrentLinkedQueue<>();
+    
+    private final Function<List<Integer>, Map<Integer, String>> loader = keys -> {
+        loadedBatches.add(keys);
+        return keys.stream().filter(k -> k >= 0).collect(Collectors.toMap(Function.identity(), k -> "v" + k));
+    };
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("时间窗口内的单 key 查询合并为一次批量查询，重复 key 只查询一次")
+    void testCoalesceAndDeduplicate() {
+        MicroBatcher<Integer, String> batcher = MicroBatcher.builder("coalesce", loader)
+                .setMaxDelay(50, TimeUnit.MILLISECONDS)
+                .setExecutor(executor)
+                .build();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.load(i % 5));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("v" + (i % 5), futures.get(i).join());
+        }
+        assertEquals(1, loadedBatches.size());
+        assertEquals(List.of(0, 1, 2, 3, 4), loadedBatches.peek());
+        assertEquals(10, batcher.getRequestedKeys());
+        assertEquals(5, batcher.getLoadedKeys());
+        assertEquals(1, batcher.getBatches());
+    }
+    
+    @Test
+    @DisplayName("未指定线程池时使用 CompletableFutureUtils 共用的线程池，不再单独创建")
+    void testDefaultExecutorIsShared() {
+        MicroBatcher<Integer, String> batcher = MicroBatcher.builder("default-executor",
+                (List<Integer> keys) -> keys.stream().collect(Collectors.toMap(Function.identity(), k -> Thread.currentThread().getName())))
+                .setMaxDelay(1, TimeUnit.MILLISECONDS)
+                .build();
+        
+        String thread = batcher.load(1).orTimeout(2, TimeUnit.SECONDS).join();
+        assertTrue(thread.startsWith("database-query-"), thread);
+    }
+    
+    @Test
+    @DisplayName("达到 maxBatchSize 时立即分发，不等待时间窗口")
+    void testMaxBatchSize() {
+        MicroBatcher<Integer, String> batcher = MicroBatcher.builder("max-size", loader)
+                .setMaxBatchSize(3)
+                .setMaxDelay(10, TimeUnit.SECONDS)
+                .setExecutor(executor)
+                .build();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(batcher.load(i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).orTimeout(2, TimeUnit.SECONDS).join();
+        assertEquals(2, loadedBatches.size());
+        assertTrue(loadedBatches.stream().allMatch(batch -> batch.size() == 3));
+    }
+    
+    @Test
+    @DisplayName("批量结果中缺失的 key 返回 null，查询失败时所有调用方都失败")
+    void testMissingKeyAndFailure() {
+        MicroBatcher<Integer, String> batcher = MicroBatcher.builder("missing", loader)
+                .setExecutor(executor)
+                .build();
+        assertNull(batcher.load(-1).join());
+        
+        IllegalStateException boom = new IllegalStateException("boom");
+        MicroBatcher<Integer, String> failing = MicroBatcher.<Integer, String>builder("failing", keys -> {
+            throw boom;
+        }).setExecutor(executor).build();
+        CompletableFuture<String> f1 = failing.load(1);
+        CompletableFuture<String> f2 = failing.load(2);
+        assertSame(boom, assertThrows(CompletionException.class, f1::join).getCause());
+        assertSame(boom, assertThrows(CompletionException.class, f2::join).getCause());
+    }
+    
+    @Test
+    @DisplayName("某个调用方取消不影响等待同一 key 的其他调用方")
+    void testCancelIsolated() {
+        MicroBatcher<Integer, String> batcher = MicroBatcher.builder("cancel", loader)
+                .setMaxDelay(50, TimeUnit.MILLISECONDS)
+                .setExecutor(executor)
+                .build();
+        CompletableFuture<String> cancelled = batcher.load(7);
+        CompletableFuture<String> other = batcher.load(7);
+        cancelled.cancel(true);
+        assertEquals("v7", other.join());
+    }
+    
+    @Test
+    @DisplayName("非法参数")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> MicroBatcher.builder(" ", loader));
+        assertThrows(IllegalArgumentException.class, () -> MicroBatcher.builder("invalid", null));
+        assertThrows(IllegalArgumentException.class, () -> MicroBatcher.builder("invalid", loader).setMaxBatchSize(0));
+    }
+}
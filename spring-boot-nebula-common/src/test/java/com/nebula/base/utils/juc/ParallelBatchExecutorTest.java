@@ -18,11 +18,13 @@
 package com.nebula.base.utils.juc;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -32,6 +34,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -154,4 +157,63 @@ class ParallelBatchExecutorTest {
         assertThrows(IllegalArgumentException.class, () -> ParallelBatchExecutor.execute(data, 1, null, executorService));
     }
     
+    @Test
+    @DisplayName("🌊 [Streaming] 有序模式按分片顺序回调结果")
+    void testExecuteStreaming_Ordered() {
+        List<Integer> data = IntStream.range(0, 95).boxed().collect(Collectors.toList());
+        List<String> results = new ArrayList<>();
+        ParallelBatchExecutor.executeStreaming(data, 10, 3, true, slowTask, results::addAll, executorService);
+        List<String> expected = data.stream().map(i -> "Processed:" + i).collect(Collectors.toList());
+        assertEquals(expected, results);
+    }
+    
+    @Test
+    @DisplayName("🌊 [Streaming] 同时执行的分片数不超过窗口大小")
+    void testExecuteStreaming_BoundedInFlight() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Function<List<Integer>, List<Integer>> task = batch -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return batch;
+        };
+        List<Integer> data = IntStream.range(0, 200).boxed().collect(Collectors.toList());
+        AtomicInteger total = new AtomicInteger();
+        ParallelBatchExecutor.executeStreaming(data, 10, 2, false, task, r -> total.addAndGet(r.size()), executorService);
+        assertEquals(200, total.get());
+        assertTrue(peak.get() <= 2, "in-flight partitions exceeded window: " + peak.get());
+    }
+    
+    @Test
+    @DisplayName("🛑 [Streaming] 分片失败时抛出异常且不再回调")
+    void testExecuteStreaming_TaskFailure() {
+        List<Integer> data = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+        List<List<Integer>> consumed = new ArrayList<>();
+        Function<List<Integer>, List<Integer>> task = batch -> {
+            if (batch.contains(20)) {
+                throw new IllegalStateException("boom");
+            }
+            return batch;
+        };
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> ParallelBatchExecutor.executeStreaming(data, 10, 2, true, task, consumed::add, executorService));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertFalse(consumed.stream().anyMatch(b -> b.contains(20)));
+    }
+    
+    @Test
+    @DisplayName("🛑 [Validation] 窗口大小为0时抛出异常")
+    void testExecuteStreaming_InvalidWindow() {
+        List<Integer> data = List.of(1, 2, 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelBatchExecutor.executeStreaming(data, 1, 0, true, slowTask, r -> {
+                }, executorService));
+    }
+    
 }
\ No newline at end of file
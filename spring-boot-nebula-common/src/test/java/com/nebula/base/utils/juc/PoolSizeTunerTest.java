@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/12
+ * @description:
+ */
+class PoolSizeTunerTest {
+    
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 8, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(10), new ThreadFactoryImpl("tuner-test-", true));
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    private static void feed(PoolSizeTuner tuner, int count, long wallNanos, long cpuNanos) {
+        for (int i = 0; i < count; i++) {
+            tuner.record(wallNanos, cpuNanos);
+        }
+    }
+    
+    @Test
+    @DisplayName("阻塞时间占比高时扩容，每次向目标值移动一半，最大线程数保持原有比例")
+    void testGrowOnBlocking() {
+        PoolSizeTuner tuner = new PoolSizeTuner(executor, "tuner-test-", 1, 1000);
+        // W/C = 9，目标 Ncpu * 10
+        feed(tuner, PoolSizeTuner.MIN_SAMPLES, 100, 10);
+        int target = CPU_COUNT * 10;
+        int expected = 4 + (target - 4) / 2;
+        assertEquals(expected, tuner.tune());
+        assertEquals(expected, executor.getCorePoolSize());
+        assertEquals(expected * 2, executor.getMaximumPoolSize());
+        assertEquals(9.0, tuner.getBlockingRatio(), 0.001);
+    }
+    
+    @Test
+    @DisplayName("纯 CPU 任务收缩到 Ncpu，并受上下限约束")
+    void testShrinkWithinBounds() {
+        PoolSizeTuner tuner = new PoolSizeTuner(executor, "tuner-test-", 2, 3);
+        for (int i = 0; i < 10; i++) {
+            feed(tuner, PoolSizeTuner.MIN_SAMPLES, 100, 100);
+            tuner.tune();
+        }
+        int expected = Math.max(2, Math.min(3, CPU_COUNT));
+        assertEquals(expected, executor.getCorePoolSize());
+        assertTrue(executor.getMaximumPoolSize() >= executor.getCorePoolSize());
+    }
+    
+    @Test
+    @DisplayName("样本不足时不调整，且每个周期的样本会被清空")
+    void testNotEnoughSamples() {
+        PoolSizeTuner tuner = new PoolSizeTuner(executor, "tuner-test-", 1, 1000);
+        feed(tuner, PoolSizeTuner.MIN_SAMPLES - 1, 100, 1);
+        assertEquals(4, tuner.tune());
+        feed(tuner, 1, 100, 1);
+        assertEquals(4, tuner.tune());
+        assertEquals(-1, tuner.getBlockingRatio(), 0.001);
+    }
+    
+    @Test
+    @DisplayName("真实任务的阻塞时间被采样并驱动扩容")
+    void testSampledFromExecutor() throws Exception {
+        InstrumentedThreadPoolExecutor pool = (InstrumentedThreadPoolExecutor) ThreadPoolBuilder.ioBoundBuilder()
+                .setThreadNamePrefix("tuner-sampled-test-")
+                .enableSelfTuning(1, 1000)
+                .setTuningInterval(1, TimeUnit.HOURS)
+                .build(0, 1);
+        try {
+            if (!pool.isSelfTuning()) {
+                return;
+            }
+            for (int i = 0; i < PoolSizeTuner.MIN_SAMPLES; i++) {
+                pool.submit(() -> {
+                    Thread.sleep(5);
+                    return null;
+                }).get();
+            }
+            // afterExecute 在 Future 完成之后执行，等待最后一个样本记录完成
+            Thread.sleep(50);
+            int before = pool.getCorePoolSize();
+            assertTrue(pool.getTuner().tune() > before);
+            assertTrue(pool.getBlockingRatio() > 1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
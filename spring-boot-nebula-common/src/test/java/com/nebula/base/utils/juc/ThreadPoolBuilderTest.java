@@ -18,14 +18,21 @@
 package com.nebula.base.utils.juc;
 
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -122,6 +129,98 @@ class ThreadPoolBuilderTest {
         executor.shutdown();
     }
     
+    @Test
+    @DisplayName("虚拟线程 - 构建的执行器可以正常执行任务（JDK 17 回退到平台线程池）")
+    void testVirtualThreadBuilder_Build() throws InterruptedException {
+        ExecutorService executor = ThreadPoolBuilder.virtualThreadBuilder()
+                .setThreadNamePrefix("vt-test-")
+                .setMaxConcurrency(4)
+                .build();
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(() -> {
+            assertTrue(Thread.currentThread().getName().startsWith("vt-test-"), "线程名称前缀不匹配");
+            latch.countDown();
+        });
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "任务未在规定时间内执行");
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("虚拟线程 - 信号量限制同时执行的任务数")
+    void testConcurrencyLimitedExecutor_LimitsConcurrency() throws InterruptedException {
+        ExecutorService delegate = Executors.newCachedThreadPool();
+        ConcurrencyLimitedExecutorService executor = new ConcurrencyLimitedExecutorService(delegate, 3, "limited-");
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS), "任务未在规定时间内执行");
+        assertTrue(peak.get() <= 3, "并发数超过限制: " + peak.get());
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("虚拟线程 - shutdownNow 时等待许可的任务不会让 Future 悬挂")
+    void testConcurrencyLimitedExecutor_ShutdownNowCompletesWaitingFutures() throws Exception {
+        ConcurrencyLimitedExecutorService executor = new ConcurrencyLimitedExecutorService(Executors.newCachedThreadPool(), 1, "limited-");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch block = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            await(block);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> supplied = CompletableFuture.supplyAsync(() -> {
+            await(block);
+            return Thread.currentThread().isInterrupted() ? "interrupted" : "ran";
+        }, executor);
+        Future<?> submitted = executor.submit(() -> "never");
+        while (executor.getWaitingCount() < 2) {
+            Thread.sleep(5);
+        }
+        
+        executor.shutdownNow();
+        
+        assertEquals("interrupted", supplied.get(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, () -> submitted.get(5, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    @DisplayName("虚拟线程 - 显式关闭开关后默认线程池使用平台线程")
+    void testVirtualThreadSwitch_Disabled() {
+        ThreadPoolBuilder.setVirtualThreadEnabled(false);
+        assertFalse(ThreadPoolBuilder.isVirtualThreadEnabled());
+        ExecutorService executor = ThreadPoolBuilder.defaultIoExecutor("switch-test-");
+        assertTrue(executor instanceof ThreadPoolExecutor);
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("自动调优需要显式开启，默认线程池保持原有线程数")
+    void testSelfTuningIsOptIn() {
+        ThreadPoolBuilder.setVirtualThreadEnabled(false);
+        InstrumentedThreadPoolExecutor defaultPool = (InstrumentedThreadPoolExecutor) ThreadPoolBuilder.defaultIoExecutor("tuning-default-");
+        InstrumentedThreadPoolExecutor tuned = (InstrumentedThreadPoolExecutor) ThreadPoolBuilder.ioBoundBuilder()
+                .setThreadNamePrefix("tuning-enabled-")
+                .enableSelfTuning()
+                .build(100, 20);
+        try {
+            assertFalse(defaultPool.isSelfTuning());
+            assertEquals(Runtime.getRuntime().availableProcessors() * 6, defaultPool.getCorePoolSize());
+            assertTrue(tuned.isSelfTuning());
+        } finally {
+            defaultPool.shutdownNow();
+            tuned.shutdownNow();
+        }
+    }
+    
     private void sleep(long millis) {
         try {
             Thread.sleep(millis);
@@ -130,4 +229,12 @@ class ThreadPoolBuilderTest {
         }
     }
     
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.base.utils.juc;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author : wh
+ * @date : 2025/7/12
+ * @description:
+ */
+class ThreadPoolRegistryTest {
+    
+    @Test
+    @DisplayName("构建的线程池按线程名前缀注册，终止后移除")
+    void testRegisterAndUnregister() throws Exception {
+        ThreadPoolExecutor executor = ThreadPoolBuilder.cpuBoundBuilder()
+                .setThreadNamePrefix("registry-test-")
+                .build();
+        assertSame(executor, ThreadPoolRegistry.get("registry-test-"));
+        assertTrue(ThreadPoolRegistry.getAll().containsKey("registry-test-"));
+        
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertNull(ThreadPoolRegistry.get("registry-test-"));
+    }
+    
+    @Test
+    @DisplayName("按名称调整线程数，扩容与缩容都不会出现 core > max")
+    void testResize() {
+        ThreadPoolExecutor executor = ThreadPoolBuilder.ioBoundBuilder()
+                .setThreadNamePrefix("resize-test-")
+                .build(1, 1);
+        try {
+            int core = executor.getMaximumPoolSize() + 10;
+            ThreadPoolRegistry.resize("resize-test-", core, core + 5);
+            assertEquals(core, executor.getCorePoolSize());
+            assertEquals(core + 5, executor.getMaximumPoolSize());
+            
+            ThreadPoolRegistry.resize("resize-test-", 1, 2);
+            assertEquals(1, executor.getCorePoolSize());
+            assertEquals(2, executor.getMaximumPoolSize());
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("手动调整后停止自动调优")
+    void testResizeStopsSelfTuning() {
+        InstrumentedThreadPoolExecutor executor = (InstrumentedThreadPoolExecutor) ThreadPoolBuilder.ioBoundBuilder()
+                .setThreadNamePrefix("resize-tuning-test-")
+                .enableSelfTuning(1, 8)
+                .build(1, 1);
+        try {
+            assertEquals(PoolSizeTuner.isSupported(), executor.isSelfTuning());
+            ThreadPoolRegistry.resize("resize-tuning-test-", 3, 3);
+            assertFalse(executor.isSelfTuning());
+            assertEquals(3, executor.getCorePoolSize());
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("非法参数与未知线程池")
+    void testInvalidResize() {
+        assertThrows(IllegalArgumentException.class, () -> ThreadPoolRegistry.resize("not-exists-", 1, 1));
+        ThreadPoolExecutor executor = ThreadPoolBuilder.cpuBoundBuilder()
+                .setThreadNamePrefix("invalid-resize-test-")
+                .build();
+        try {
+            assertThrows(IllegalArgumentException.class, () -> ThreadPoolRegistry.resize("invalid-resize-test-", 5, 4));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
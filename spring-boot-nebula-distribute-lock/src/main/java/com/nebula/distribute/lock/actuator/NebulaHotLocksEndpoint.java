@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.actuator;
+
+import com.nebula.distribute.lock.core.LockStatistics;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * @author : wh
+ * @date : 2025/7/26
+ * @description: 查看竞争最激烈的分布式锁。
+ * <p>
+ * GET /actuator/nebulahotlocks?top=10 按累计等待时间倒序返回锁名模板，
+ * DELETE /actuator/nebulahotlocks 清空统计。
+ */
+@Endpoint(id = "nebulahotlocks")
+public class NebulaHotLocksEndpoint {
+    
+    private static final int DEFAULT_TOP = 10;
+    
+    private final LockStatistics statistics;
+    
+    public NebulaHotLocksEndpoint(LockStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
+    @ReadOperation
+    public List<LockStatistics.LockStats> hotLocks(@Nullable Integer top) {
+        return statistics.top(top == null || top <= 0 ? DEFAULT_TOP : top);
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
@@ -17,6 +17,7 @@
  
 package com.nebula.distribute.lock.annotation;
 
+import com.nebula.distribute.lock.core.LockMode;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -27,7 +28,10 @@ import java.util.concurrent.TimeUnit;
 /**
  * @author : wh
  * @date : 2024/3/13 13:49
- * @description:
+ * @description: 分布式锁注解。
+ * <p>
+ * 方法返回 CompletableFuture、CompletionStage 或 Reactor Mono 时自动使用异步锁：等待锁不占用线程，
+ * 返回结果完成（Mono 为每次订阅）后才释放锁。异步方法不支持 lockNames，shareResult 对其不生效
  */
 @Target({ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
@@ -49,16 +53,28 @@ public @interface NebulaDistributedLock {
      */
     String lockNamePost() default "";
     
+    /**
+     * 批量锁名，SpEL 表达式，结果为集合或数组，如 {@code #orders.![id]}。
+     * 设置后集合中每个元素（拼接 lockNamePre 和分隔符后）都是一把锁，一次性原子地全部获取，此时忽略 lockName 和 lockNamePost。
+     * 批量锁不支持看门狗和 shareResult，始终在 outTime 后自动过期；tryLock 为 false 时一直等待
+     */
+    String lockNames() default "";
+    
     /**
      * 锁前后缀拼接分隔符
      */
     String separator() default "_";
     
     /**
-     * 是否使用公平锁
+     * 是否使用公平锁（仅 EXCLUSIVE 模式生效）
      */
     boolean fairLock() default false;
     
+    /**
+     * 锁模式。READ 允许多个读者同时进入，WRITE 与所有读者、写者互斥，适合读多写少的共享状态
+     */
+    LockMode mode() default LockMode.EXCLUSIVE;
+    
     /**
      * 是否使用尝试锁
      */
@@ -70,7 +86,9 @@ public @interface NebulaDistributedLock {
     long tryWaitTime() default 30L;
     
     /**
-     * 锁超时时间，超时自动释放锁
+     * 锁超时时间，超时自动释放锁。
+     * 设为 {@link com.nebula.distribute.lock.core.NebulaDistributedLockTemplate#AUTO_OUT_TIME} 时按该锁最近的持锁时间自动估算，
+     * 仅在 watchDogEnabled = false 时生效
      */
     long outTime() default 20L;
     
@@ -86,4 +104,17 @@ public @interface NebulaDistributedLock {
      */
     boolean watchDogEnabled() default true;
     
+    /**
+     * 是否共享执行结果（single-flight）。
+     * 开启后，同一个 JVM 内锁名相同的并发调用只有一个真正执行方法，其余调用等待并直接拿到它的返回值或异常，
+     * 适用于"加锁后重建缓存"这类重复执行没有意义的场景。返回值是同一个对象实例，调用方不应修改它
+     */
+    boolean shareResult() default false;
+    
+    /**
+     * 结果共享窗口，单位毫秒，仅在 {@link #shareResult()} 开启时生效。
+     * 0 表示只共享正在执行中的调用；大于 0 时，执行完成后的这段时间内到达的调用也直接复用该结果
+     */
+    long shareResultWindow() default 0L;
+    
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author : wh
+ * @date : 2025/8/1
+ * @description: 分布式信号量注解，限制整个集群内同时执行该方法的调用数不超过 permits，
+ * 适合保护下游脆弱接口这类需要限流而不需要严格互斥的场景。
+ * <p>
+ * 每个许可都带有 leaseTime，实例宕机后许可到期自动归还
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface NebulaDistributedSemaphore {
+    
+    /**
+     * 信号量名字，以 # 开头时作为 SpEL 表达式按方法参数求值，如 {@code #partner.code}
+     */
+    String name();
+    
+    /**
+     * 集群内最大并发数
+     */
+    int permits();
+    
+    /**
+     * 获取许可的最长等待时间，超时抛出 DistributedLockException；负数表示一直等待
+     */
+    long waitTime() default 30L;
+    
+    /**
+     * 许可的租期，超时自动归还。方法执行时间不能超过该值，否则并发数会超出 permits
+     */
+    long leaseTime() default 60L;
+    
+    /**
+     * 时间单位 默认秒
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+    
+    /**
+     * 本地预取的许可数，0 表示不预取。
+     * 大于 0 时一次从 Redis 批量获取多个许可缓存在本地，释放后的许可在本实例内复用，减少 Redis 往返；
+     * 代价是空闲许可会被本实例占用（最长 2 倍 leaseTime），其他实例可用的并发数相应减少
+     */
+    int prefetch() default 0;
+    
+}
@@ -17,17 +17,34 @@
  
 package com.nebula.distribute.lock.aop;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.nebula.distribute.lock.annotation.NebulaDistributedLock;
 import com.nebula.distribute.lock.core.DistributedLock;
+import com.nebula.distribute.lock.core.LockMode;
 import com.nebula.distribute.lock.core.NebulaDistributedLockTemplate;
 import com.nebula.distribute.lock.exception.DistributedLockException;
 import com.nebula.web.common.utils.ExpressionUtil;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -38,8 +55,23 @@ import org.springframework.util.StringUtils;
 @Slf4j
 public class NebulaDistributedLockAnnotationInterceptor implements MethodInterceptor {
     
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+            NebulaDistributedLockAnnotationInterceptor.class.getClassLoader());
+    
     private final NebulaDistributedLockTemplate lockTemplate;
     
+    /**
+     * shareResult 模式下按锁名登记的调用。执行中的调用永不过期，完成后按 shareResultWindow 过期
+     */
+    private final Cache<String, SharedCall> sharedCalls = Caffeine.newBuilder()
+            .expireAfter(new SharedCallExpiry())
+            .build();
+    
+    /**
+     * 方法到锁名模板的缓存，模板只取决于注解，与参数无关
+     */
+    private final Map<Method, String> lockNamePatterns = new ConcurrentHashMap<>();
+    
     public NebulaDistributedLockAnnotationInterceptor(NebulaDistributedLockTemplate lockTemplate) {
         if (lockTemplate == null) {
             throw new IllegalArgumentException("DistributedLockTemplate cannot be null");
@@ -58,6 +90,13 @@ public class NebulaDistributedLockAnnotationInterceptor implements MethodInterce
         }
         
         Object[] args = methodInvocation.getArguments();
+        boolean async = isAsync(method.getReturnType());
+        if (StringUtils.hasText(annotation.lockNames())) {
+            if (async) {
+                throw new DistributedLockException("lockNames is not supported on asynchronous method: " + method);
+            }
+            return invokeLockAll(methodInvocation, annotation, method, args);
+        }
         String lockName = getLockName(annotation, args, method);
         if (!StringUtils.hasText(lockName)) {
             throw new DistributedLockException("Lock name cannot be empty");
@@ -65,20 +104,41 @@ public class NebulaDistributedLockAnnotationInterceptor implements MethodInterce
         if (log.isDebugEnabled()) {
             log.debug("Using distributed lock: {}", lockName);
         }
+        if (async) {
+            return invokeAsync(methodInvocation, annotation, lockName);
+        }
+        if (annotation.shareResult()) {
+            return invokeShared(methodInvocation, annotation, lockName);
+        }
+        return invokeLocked(methodInvocation, annotation, lockName);
+    }
+    
+    private Object invokeLocked(MethodInvocation methodInvocation, NebulaDistributedLock annotation, String lockName) throws Throwable {
         boolean fairLock = annotation.fairLock();
         boolean watchDogEnabled = annotation.watchDogEnabled();
         try {
+            DistributedLock<Object> distributedLock = createDistributedLock(methodInvocation, lockName,
+                    getLockNamePattern(annotation, methodInvocation.getMethod()));
+            LockMode mode = annotation.mode();
             if (annotation.tryLock()) {
+                if (mode != LockMode.EXCLUSIVE) {
+                    return lockTemplate.tryLock(distributedLock, mode, annotation.tryWaitTime(), annotation.outTime(),
+                            annotation.timeUnit(), fairLock, watchDogEnabled);
+                }
                 return lockTemplate.tryLock(
-                        createDistributedLock(methodInvocation, lockName),
+                        distributedLock,
                         annotation.tryWaitTime(),
                         annotation.outTime(),
                         annotation.timeUnit(),
                         fairLock,
                         watchDogEnabled);
             } else {
+                if (mode != LockMode.EXCLUSIVE) {
+                    return lockTemplate.lock(distributedLock, mode, annotation.outTime(), annotation.timeUnit(),
+                            fairLock, watchDogEnabled);
+                }
                 return lockTemplate.lock(
-                        createDistributedLock(methodInvocation, lockName),
+                        distributedLock,
                         annotation.outTime(),
                         annotation.timeUnit(),
                         fairLock,
@@ -91,10 +151,142 @@ public class NebulaDistributedLockAnnotationInterceptor implements MethodInterce
         
     }
     
+    /**
+     * 返回 CompletableFuture、CompletionStage 或 Mono 的方法使用异步锁，等待锁期间不占用线程，返回结果完成后才释放锁
+     */
+    private boolean isAsync(Class<?> returnType) {
+        return returnType == CompletableFuture.class || returnType == CompletionStage.class
+                || REACTOR_PRESENT && ReactiveLockSupport.isMono(returnType);
+    }
+    
+    /**
+     * Mono 每次订阅都会重新执行，原始调用的拦截器链只能走一次，因此每次订阅都从克隆的调用继续，
+     * 保证后续的拦截器（事务、数据源切换等）在重订阅时同样生效
+     */
+    private Object invokeAsync(MethodInvocation methodInvocation, NebulaDistributedLock annotation, String lockName) {
+        Class<?> returnType = methodInvocation.getMethod().getReturnType();
+        if (REACTOR_PRESENT && ReactiveLockSupport.isMono(returnType)) {
+            if (!(methodInvocation instanceof ProxyMethodInvocation proxyInvocation)) {
+                throw new DistributedLockException("Mono method requires a ProxyMethodInvocation to be re-subscribable: "
+                        + methodInvocation.getMethod());
+            }
+            return ReactiveLockSupport.defer(() -> lockAsync(proxyInvocation.invocableClone(), annotation, lockName, true));
+        }
+        return lockAsync(methodInvocation, annotation, lockName, false).toCompletableFuture();
+    }
+    
+    private CompletionStage<Object> lockAsync(MethodInvocation methodInvocation, NebulaDistributedLock annotation,
+                                              String lockName, boolean mono) {
+        DistributedLock<Object> target = createDistributedLock(methodInvocation, lockName,
+                getLockNamePattern(annotation, methodInvocation.getMethod()));
+        DistributedLock<CompletionStage<Object>> distributedLock = new DistributedLock<>() {
+            
+            @Override
+            @SuppressWarnings("unchecked")
+            public CompletionStage<Object> process() {
+                Object result = target.process();
+                if (result == null) {
+                    return null;
+                }
+                return mono ? ReactiveLockSupport.toStage(result) : (CompletionStage<Object>) result;
+            }
+            
+            @Override
+            public String lockName() {
+                return target.lockName();
+            }
+            
+            @Override
+            public String lockNamePattern() {
+                return target.lockNamePattern();
+            }
+        };
+        if (annotation.tryLock()) {
+            return lockTemplate.tryLockAsync(distributedLock, annotation.mode(), annotation.tryWaitTime(),
+                    annotation.outTime(), annotation.timeUnit(), annotation.fairLock(), annotation.watchDogEnabled());
+        }
+        return lockTemplate.lockAsync(distributedLock, annotation.mode(), annotation.outTime(), annotation.timeUnit(),
+                annotation.fairLock(), annotation.watchDogEnabled());
+    }
+    
+    /**
+     * 批量锁：表达式结果为空集合时没有需要保护的资源，直接执行方法
+     */
+    private Object invokeLockAll(MethodInvocation methodInvocation, NebulaDistributedLock annotation, Method method, Object[] args) throws Throwable {
+        List<String> lockNames = getLockNames(annotation, method, args);
+        if (lockNames.isEmpty()) {
+            return methodInvocation.proceed();
+        }
+        String pattern = getLockNamePattern(annotation, method);
+        if (log.isDebugEnabled()) {
+            log.debug("Using {} distributed locks: {}", lockNames.size(), pattern);
+        }
+        try {
+            return lockTemplate.lockAll(
+                    lockNames,
+                    createDistributedLock(methodInvocation, pattern, pattern),
+                    annotation.tryLock() ? annotation.tryWaitTime() : -1L,
+                    annotation.outTime(),
+                    annotation.timeUnit());
+        } catch (DistributedLockException e) {
+            log.error("Failed to acquire distributed locks: {}", pattern, e);
+            throw e;
+        }
+    }
+    
+    /**
+     * single-flight：锁名相同的并发调用只执行一次，其余调用等待并复用结果或异常。
+     * 同一线程重入（执行中的方法再次调用自身）时直接执行，避免等待自己造成死锁
+     */
+    private Object invokeShared(MethodInvocation methodInvocation, NebulaDistributedLock annotation, String lockName) throws Throwable {
+        SharedCall call = new SharedCall(TimeUnit.MILLISECONDS.toNanos(Math.max(0L, annotation.shareResultWindow())));
+        SharedCall existing = sharedCalls.asMap().putIfAbsent(lockName, call);
+        if (existing != null) {
+            if (existing.owner == Thread.currentThread()) {
+                return invokeLocked(methodInvocation, annotation, lockName);
+            }
+            log.debug("Sharing in-flight result for lock: {}", lockName);
+            return awaitShared(existing, annotation, lockName);
+        }
+        try {
+            Object result = invokeLocked(methodInvocation, annotation, lockName);
+            call.future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            call.owner = null;
+            if (call.windowNanos > 0 && !call.future.isCompletedExceptionally()) {
+                // 重新写入以触发 expireAfterUpdate，从此刻起计算共享窗口；异常只共享给执行中的等待者，不在窗口内缓存
+                sharedCalls.asMap().replace(lockName, call, call);
+            } else {
+                sharedCalls.asMap().remove(lockName, call);
+            }
+        }
+    }
+    
+    private Object awaitShared(SharedCall call, NebulaDistributedLock annotation, String lockName) throws Throwable {
+        try {
+            if (annotation.tryLock()) {
+                return call.future.get(annotation.tryWaitTime(), annotation.timeUnit());
+            }
+            return call.future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for shared result of lock: {}", lockName);
+            throw new DistributedLockException("Failed to acquire lock: " + lockName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DistributedLockException("Interrupted while waiting for shared result: " + lockName, e);
+        }
+    }
+    
     /**
      * 创建分布式锁对象，保留原始异常类型
      */
-    private DistributedLock<Object> createDistributedLock(MethodInvocation methodInvocation, String lockName) {
+    private DistributedLock<Object> createDistributedLock(MethodInvocation methodInvocation, String lockName, String lockNamePattern) {
         return new DistributedLock<>() {
             
             @Override
@@ -117,6 +309,11 @@ public class NebulaDistributedLockAnnotationInterceptor implements MethodInterce
             public String lockName() {
                 return lockName;
             }
+            
+            @Override
+            public String lockNamePattern() {
+                return lockNamePattern;
+            }
         };
         
     }
@@ -151,6 +348,52 @@ public class NebulaDistributedLockAnnotationInterceptor implements MethodInterce
         
     }
     
+    /**
+     * 获取锁名模板：固定锁名直接使用，否则用未解析的前后缀（批量锁为 lockNames 表达式）拼接，如 {@code order_#orderId}
+     */
+    private String getLockNamePattern(NebulaDistributedLock annotation, Method method) {
+        return lockNamePatterns.computeIfAbsent(method, m -> {
+            boolean multi = StringUtils.hasText(annotation.lockNames());
+            if (!multi && StringUtils.hasText(annotation.lockName())) {
+                return annotation.lockName();
+            }
+            String post = multi ? annotation.lockNames() : annotation.lockNamePost();
+            if (!StringUtils.hasText(annotation.lockNamePre())) {
+                return post;
+            }
+            if (!StringUtils.hasText(post)) {
+                return annotation.lockNamePre();
+            }
+            return annotation.lockNamePre() + annotation.separator() + post;
+        });
+    }
+    
+    /**
+     * 解析批量锁名，每个元素前拼接 lockNamePre 和分隔符，null 元素忽略
+     */
+    private List<String> getLockNames(NebulaDistributedLock annotation, Method method, Object[] args) {
+        Object result = ExpressionUtil.parse(annotation.lockNames(), method, args);
+        Collection<?> keys;
+        if (result == null) {
+            return List.of();
+        } else if (result instanceof Collection<?> c) {
+            keys = c;
+        } else if (result instanceof Object[] array) {
+            keys = Arrays.asList(array);
+        } else {
+            keys = List.of(result);
+        }
+        String lockNamePre = resolveLockPart(annotation.lockNamePre(), method, args);
+        List<String> lockNames = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            if (key == null) {
+                continue;
+            }
+            lockNames.add(StringUtils.hasText(lockNamePre) ? lockNamePre + annotation.separator() + key : key.toString());
+        }
+        return lockNames;
+    }
+    
     /**
      * 解析锁名的一部分（前缀或后缀）。
      * SpEL 表达式每次调用都要重新求值：解析结果依赖方法参数（如订单号），
@@ -170,4 +413,35 @@ public class NebulaDistributedLockAnnotationInterceptor implements MethodInterce
         Object result = ExpressionUtil.parse(expression, method, args);
         return result != null ? result.toString() : "";
     }
-}
\ No newline at end of file
+    
+    private static final class SharedCall {
+        
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        
+        private final long windowNanos;
+        
+        private volatile Thread owner = Thread.currentThread();
+        
+        private SharedCall(long windowNanos) {
+            this.windowNanos = windowNanos;
+        }
+    }
+    
+    private static final class SharedCallExpiry implements Expiry<String, SharedCall> {
+        
+        @Override
+        public long expireAfterCreate(String key, SharedCall value, long currentTime) {
+            return Long.MAX_VALUE;
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, SharedCall value, long currentTime, long currentDuration) {
+            return value.future.isDone() ? value.windowNanos : currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, SharedCall value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.aop;
+
+import com.nebula.distribute.lock.annotation.NebulaDistributedSemaphore;
+import com.nebula.distribute.lock.core.DistributedLock;
+import com.nebula.distribute.lock.core.NebulaDistributedSemaphoreTemplate;
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import com.nebula.web.common.utils.ExpressionUtil;
+import java.lang.reflect.Method;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * @author : wh
+ * @date : 2025/8/1
+ * @description:
+ */
+@Slf4j
+public class NebulaDistributedSemaphoreAnnotationInterceptor implements MethodInterceptor {
+    
+    private final NebulaDistributedSemaphoreTemplate semaphoreTemplate;
+    
+    public NebulaDistributedSemaphoreAnnotationInterceptor(NebulaDistributedSemaphoreTemplate semaphoreTemplate) {
+        if (semaphoreTemplate == null) {
+            throw new IllegalArgumentException("DistributedSemaphoreTemplate cannot be null");
+        }
+        this.semaphoreTemplate = semaphoreTemplate;
+    }
+    
+    @Nullable
+    @Override
+    public Object invoke(@NonNull MethodInvocation methodInvocation) throws Throwable {
+        Method method = methodInvocation.getMethod();
+        NebulaDistributedSemaphore annotation = method.getAnnotation(NebulaDistributedSemaphore.class);
+        if (annotation == null) {
+            return methodInvocation.proceed();
+        }
+        String name = getName(annotation, method, methodInvocation.getArguments());
+        if (!StringUtils.hasText(name)) {
+            throw new DistributedLockException("Semaphore name cannot be empty");
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Using distributed semaphore: {} (permits: {})", name, annotation.permits());
+        }
+        return semaphoreTemplate.execute(createTask(methodInvocation, name, annotation.name()), annotation.permits(),
+                annotation.waitTime(), annotation.leaseTime(), annotation.timeUnit(), annotation.prefetch());
+    }
+    
+    /**
+     * 信号量名字支持 SpEL，每次调用按参数重新求值
+     */
+    private String getName(NebulaDistributedSemaphore annotation, Method method, Object[] args) {
+        String name = annotation.name();
+        if (ExpressionUtil.isEl(name)) {
+            Object result = ExpressionUtil.parse(name, method, args);
+            return result != null ? result.toString() : null;
+        }
+        return name;
+    }
+    
+    /**
+     * 保留方法抛出的原始异常类型
+     */
+    private DistributedLock<Object> createTask(MethodInvocation methodInvocation, String name, String namePattern) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public Object process() {
+                try {
+                    return methodInvocation.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new DistributedLockException("Error executing semaphore method: " + name, e);
+                }
+            }
+            
+            @Override
+            public String lockName() {
+                return name;
+            }
+            
+            @Override
+            public String lockNamePattern() {
+                return namePattern;
+            }
+        };
+    }
+}
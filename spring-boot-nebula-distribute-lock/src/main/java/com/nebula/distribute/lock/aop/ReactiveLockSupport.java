@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.aop;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author : wh
+ * @date : 2025/7/29
+ * @description: Reactor 适配，只有 classpath 中存在 Reactor 时才会被加载
+ */
+final class ReactiveLockSupport {
+    
+    private ReactiveLockSupport() {
+    }
+    
+    static boolean isMono(Class<?> returnType) {
+        return returnType == Mono.class;
+    }
+    
+    /**
+     * 订阅时才加锁，每次订阅都会重新加锁并执行，lockedStage 每次调用都需要使用新的方法调用
+     */
+    static Mono<Object> defer(Supplier<CompletionStage<Object>> lockedStage) {
+        return Mono.defer(() -> Mono.fromCompletionStage(lockedStage.get()));
+    }
+    
+    @SuppressWarnings("unchecked")
+    static CompletionStage<Object> toStage(Object mono) {
+        return ((Mono<Object>) mono).toFuture();
+    }
+}
@@ -18,13 +18,36 @@
 package com.nebula.distribute.lock.autoconfigure;
 
 import com.nebula.aop.base.NebulaBaseAnnotationAdvisor;
+import com.nebula.distribute.lock.actuator.NebulaHotLocksEndpoint;
 import com.nebula.distribute.lock.annotation.NebulaDistributedLock;
+import com.nebula.distribute.lock.annotation.NebulaDistributedSemaphore;
 import com.nebula.distribute.lock.aop.NebulaDistributedLockAnnotationInterceptor;
+import com.nebula.distribute.lock.aop.NebulaDistributedSemaphoreAnnotationInterceptor;
+import com.nebula.distribute.lock.core.AbstractDistributedLockTemplate;
+import com.nebula.distribute.lock.core.AdaptiveLeaseEstimator;
+import com.nebula.distribute.lock.core.DistributedLockMetricsRecorder;
+import com.nebula.distribute.lock.core.LocalDistributedLockTemplate;
+import com.nebula.distribute.lock.core.LocalDistributedSemaphoreTemplate;
+import com.nebula.distribute.lock.core.LockStatistics;
 import com.nebula.distribute.lock.core.NebulaDistributedLockTemplate;
+import com.nebula.distribute.lock.core.NebulaDistributedSemaphoreTemplate;
 import com.nebula.distribute.lock.core.RedissonDistributedLockTemplate;
+import com.nebula.distribute.lock.core.RedissonDistributedSemaphoreTemplate;
+import com.nebula.distribute.lock.metrics.MicrometerDistributedLockMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RedissonClient;
 import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -33,23 +56,117 @@ import org.springframework.core.annotation.Order;
 /**
  * @author : wh
  * @date : 2024/3/15 13:39
- * @description:
+ * @description: 排在 redisson-spring-boot-starter 之后，保证判断是否存在 RedissonClient 时它已经注册
  */
-@Configuration(proxyBeanMethods = false)
+@Slf4j
+@AutoConfiguration(afterName = {
+        "org.redisson.spring.starter.RedissonAutoConfigurationV2",
+        "org.redisson.spring.starter.RedissonAutoConfiguration"})
+@EnableConfigurationProperties(NebulaDistributedLockProperties.class)
 public class NebulaDistributedLockAutoConfiguration {
     
     @Bean
     @ConditionalOnBean(RedissonClient.class)
-    public RedissonDistributedLockTemplate redissonDistributedLockTemplate(RedissonClient redissonClient) {
-        return new RedissonDistributedLockTemplate(redissonClient);
+    @ConditionalOnMissingBean(NebulaDistributedLockTemplate.class)
+    @ConditionalOnProperty(name = "nebula.distribute-lock.type", havingValue = "redisson", matchIfMissing = true)
+    public RedissonDistributedLockTemplate redissonDistributedLockTemplate(RedissonClient redissonClient,
+                                                                           NebulaDistributedLockProperties properties,
+                                                                           ObjectProvider<DistributedLockMetricsRecorder> metricsRecorder) {
+        RedissonDistributedLockTemplate template = new RedissonDistributedLockTemplate(redissonClient, properties.isLocalFirst());
+        configure(template, properties, metricsRecorder);
+        return template;
+    }
+    
+    /**
+     * 显式配置 type=local，或者未配置 type 且没有 RedissonClient 时使用进程内锁。
+     * 显式配置 type=redisson 却没有 RedissonClient 时启动失败，避免多实例部署悄悄失去跨实例互斥
+     */
+    @Bean
+    @ConditionalOnMissingBean(NebulaDistributedLockTemplate.class)
+    public LocalDistributedLockTemplate localDistributedLockTemplate(NebulaDistributedLockProperties properties,
+                                                                     ObjectProvider<DistributedLockMetricsRecorder> metricsRecorder) {
+        NebulaDistributedLockProperties.Type type = properties.getType();
+        if (type == NebulaDistributedLockProperties.Type.REDISSON) {
+            throw new IllegalStateException("nebula.distribute-lock.type is redisson but no RedissonClient bean is available");
+        }
+        if (type == null) {
+            log.warn("No RedissonClient bean found, falling back to in-JVM locks; locks are NOT shared across instances. "
+                    + "Set nebula.distribute-lock.type=local to silence this warning");
+        }
+        LocalDistributedLockTemplate template = new LocalDistributedLockTemplate();
+        configure(template, properties, metricsRecorder);
+        return template;
     }
     
     @Bean
-    @ConditionalOnBean(RedissonClient.class)
     @Order(Ordered.HIGHEST_PRECEDENCE)
     public Advisor distributedLockAnnotationAdvisor(NebulaDistributedLockTemplate nebulaDistributedLockTemplate) {
         NebulaDistributedLockAnnotationInterceptor interceptor = new NebulaDistributedLockAnnotationInterceptor(nebulaDistributedLockTemplate);
-        return new NebulaBaseAnnotationAdvisor(interceptor, NebulaDistributedLock.class);
+        NebulaBaseAnnotationAdvisor advisor = new NebulaBaseAnnotationAdvisor(interceptor, NebulaDistributedLock.class);
+        // 切面排序只看 Advisor 自身的 getOrder()，@Order 对实现了 Ordered 的 Bean 不生效
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+    
+    @Bean
+    @ConditionalOnBean(RedissonClient.class)
+    @ConditionalOnMissingBean(NebulaDistributedSemaphoreTemplate.class)
+    @ConditionalOnProperty(name = "nebula.distribute-lock.type", havingValue = "redisson", matchIfMissing = true)
+    public RedissonDistributedSemaphoreTemplate redissonDistributedSemaphoreTemplate(RedissonClient redissonClient) {
+        return new RedissonDistributedSemaphoreTemplate(redissonClient);
+    }
+    
+    /**
+     * 与锁一样，type=local 或没有 RedissonClient 时使用进程内信号量，保证注解始终生效
+     */
+    @Bean
+    @ConditionalOnMissingBean(NebulaDistributedSemaphoreTemplate.class)
+    public LocalDistributedSemaphoreTemplate localDistributedSemaphoreTemplate() {
+        return new LocalDistributedSemaphoreTemplate();
+    }
+    
+    /**
+     * 信号量切面在锁切面之后执行：方法同时加锁和限流时，先拿到锁再占用许可，避免排队等锁时白白占着许可
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public Advisor distributedSemaphoreAnnotationAdvisor(NebulaDistributedSemaphoreTemplate nebulaDistributedSemaphoreTemplate) {
+        NebulaDistributedSemaphoreAnnotationInterceptor interceptor = new NebulaDistributedSemaphoreAnnotationInterceptor(nebulaDistributedSemaphoreTemplate);
+        NebulaBaseAnnotationAdvisor advisor = new NebulaBaseAnnotationAdvisor(interceptor, NebulaDistributedSemaphore.class);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+    
+    private static void configure(AbstractDistributedLockTemplate template, NebulaDistributedLockProperties properties,
+                                  ObjectProvider<DistributedLockMetricsRecorder> metricsRecorder) {
+        NebulaDistributedLockProperties.AdaptiveLease adaptiveLease = properties.getAdaptiveLease();
+        template.setLeaseEstimator(new AdaptiveLeaseEstimator(adaptiveLease.getPercentile(), adaptiveLease.getSafetyFactor(),
+                adaptiveLease.getMinLease(), adaptiveLease.getMaxLease()));
+        metricsRecorder.ifAvailable(template::setMetricsRecorder);
+    }
+    
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class DistributedLockMetricsConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public DistributedLockMetricsRecorder micrometerDistributedLockMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new MicrometerDistributedLockMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        }
+    }
+    
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class HotLocksEndpointConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public NebulaHotLocksEndpoint nebulaHotLocksEndpoint(ObjectProvider<AbstractDistributedLockTemplate> template) {
+            AbstractDistributedLockTemplate lockTemplate = template.getIfAvailable();
+            return new NebulaHotLocksEndpoint(lockTemplate == null ? new LockStatistics() : lockTemplate.getStatistics());
+        }
     }
     
 }
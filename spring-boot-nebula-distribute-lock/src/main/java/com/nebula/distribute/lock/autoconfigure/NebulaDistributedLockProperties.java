@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.autoconfigure;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author : wh
+ * @date : 2025/7/25
+ * @description:
+ */
+@ConfigurationProperties(prefix = "nebula.distribute-lock")
+@Data
+public class NebulaDistributedLockProperties {
+    
+    /**
+     * 锁实现：redisson 为基于 Redis 的分布式锁；local 为进程内实现，适用于单节点部署和测试环境。
+     * 未配置时有 RedissonClient 则使用 redisson，否则回退到 local 并打印 WARN；显式配置 redisson 但没有 RedissonClient 时启动失败。
+     * <p>YAML 示例：{@code nebula.distribute-lock.type: local}
+     */
+    private Type type;
+    
+    /**
+     * 是否先在 JVM 内排队：同一个 JVM 内竞争同一把锁的线程先竞争本地公平锁，只有本地获胜者才去 Redis 加锁，
+     * Redis 的访问次数从与线程数成正比降为与实例数成正比。
+     * <p>YAML 示例：{@code nebula.distribute-lock.local-first: true}
+     */
+    private boolean localFirst = false;
+    
+    /**
+     * 自适应 lease（outTime = AUTO_OUT_TIME）的估算参数
+     */
+    private AdaptiveLease adaptiveLease = new AdaptiveLease();
+    
+    @Data
+    public static class AdaptiveLease {
+        
+        /**
+         * 取最近持锁时间的哪个分位数
+         */
+        private double percentile = 0.99;
+        
+        /**
+         * 分位数之上的安全系数
+         */
+        private double safetyFactor = 2.0;
+        
+        /**
+         * lease 下限
+         */
+        private Duration minLease = Duration.ofSeconds(1);
+        
+        /**
+         * lease 上限，样本不足时也使用该值
+         */
+        private Duration maxLease = Duration.ofSeconds(60);
+    }
+    
+    public enum Type {
+        
+        REDISSON,
+        
+        LOCAL
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.nebula.base.utils.juc.ThreadPoolBuilder;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author : wh
+ * @date : 2025/7/31
+ * @description: 锁模板的公共部分：加锁统计与指标、自适应 lease、异步执行线程池，以及默认参数的重载方法。
+ */
+public abstract class AbstractDistributedLockTemplate implements NebulaDistributedLockTemplate {
+    
+    private final LockStatistics statistics = new LockStatistics();
+    
+    private volatile DistributedLockMetricsRecorder metricsRecorder = DistributedLockMetricsRecorder.NOOP;
+    
+    private volatile AdaptiveLeaseEstimator leaseEstimator = new AdaptiveLeaseEstimator();
+    
+    /**
+     * 异步加锁时等待锁、执行业务逻辑的线程池，未设置时使用 {@link #defaultAsyncExecutor()}
+     */
+    private volatile Executor asyncExecutor;
+    
+    public void setMetricsRecorder(DistributedLockMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder == null ? DistributedLockMetricsRecorder.NOOP : metricsRecorder;
+    }
+    
+    public void setLeaseEstimator(AdaptiveLeaseEstimator leaseEstimator) {
+        if (leaseEstimator == null) {
+            throw new IllegalArgumentException("leaseEstimator cannot be null");
+        }
+        this.leaseEstimator = leaseEstimator;
+    }
+    
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        if (asyncExecutor == null) {
+            throw new IllegalArgumentException("asyncExecutor cannot be null");
+        }
+        this.asyncExecutor = asyncExecutor;
+    }
+    
+    /**
+     * 进程内按锁名模板累计的加锁统计
+     */
+    public LockStatistics getStatistics() {
+        return statistics;
+    }
+    
+    @Override
+    public <T> T lock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        return lock(distributedLock, DEFAULT_OUT_TIME, DEFAULT_TIME_UNIT, fairLock, watchDogEnabled);
+    }
+    
+    @Override
+    public <T> T lock(DistributedLock<T> distributedLock, long outTime, TimeUnit timeUnit,
+                      boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        return lock(distributedLock, LockMode.EXCLUSIVE, outTime, timeUnit, fairLock, watchDogEnabled);
+    }
+    
+    @Override
+    public <T> T tryLock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        return tryLock(distributedLock, DEFAULT_TRY_OUT_TIME, DEFAULT_OUT_TIME, DEFAULT_TIME_UNIT, fairLock, watchDogEnabled);
+    }
+    
+    @Override
+    public <T> T tryLock(DistributedLock<T> distributedLock, long tryOutTime, long outTime,
+                         TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        return tryLock(distributedLock, LockMode.EXCLUSIVE, tryOutTime, outTime, timeUnit, fairLock, watchDogEnabled);
+    }
+    
+    /**
+     * 旧接口委托到按模式加锁，子类必须实现，避免与接口默认实现互相调用
+     */
+    @Override
+    public abstract <T> T lock(DistributedLock<T> distributedLock, LockMode mode, long outTime, TimeUnit timeUnit,
+                               boolean fairLock, boolean watchDogEnabled) throws Throwable;
+    
+    @Override
+    public abstract <T> T tryLock(DistributedLock<T> distributedLock, LockMode mode, long tryOutTime, long outTime,
+                                  TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable;
+    
+    protected Executor asyncExecutor() {
+        Executor executor = asyncExecutor;
+        return executor != null ? executor : defaultAsyncExecutor();
+    }
+    
+    /**
+     * 默认的异步执行器，所有模板共用，首次使用时创建。
+     * 进程内锁等待期间会占用线程，不能使用 {@link java.util.concurrent.ForkJoinPool#commonPool()}，
+     * 否则锁竞争会拖慢整个进程的并行流和 CompletableFuture；JDK 21+ 使用虚拟线程，等待几乎没有开销
+     */
+    static Executor defaultAsyncExecutor() {
+        return DefaultAsyncExecutorHolder.EXECUTOR;
+    }
+    
+    private static final class DefaultAsyncExecutorHolder {
+        
+        private static final Executor EXECUTOR = ThreadPoolBuilder.virtualThreadBuilder()
+                .setThreadNamePrefix("nebula-lock-async-")
+                .setDaemon(true)
+                .build();
+    }
+    
+    /**
+     * {@link #AUTO_OUT_TIME} 对应的 lease（毫秒）
+     */
+    protected long autoLeaseMillis(String pattern) {
+        return leaseEstimator.leaseMillis(pattern);
+    }
+    
+    /**
+     * 记录加锁成功
+     * @return 拿到锁的时间点，用于计算持锁时间
+     */
+    protected long recordAcquired(String pattern, long start) {
+        long now = System.nanoTime();
+        statistics.recordAcquired(pattern, now - start);
+        metricsRecorder.recordAcquired(pattern, now - start);
+        return now;
+    }
+    
+    protected void recordReleased(String pattern, long acquiredAt) {
+        long holdNanos = System.nanoTime() - acquiredAt;
+        leaseEstimator.record(pattern, holdNanos);
+        statistics.recordReleased(pattern, holdNanos);
+        metricsRecorder.recordReleased(pattern, holdNanos);
+    }
+    
+    protected void recordTimeout(String pattern, long start) {
+        long waitNanos = System.nanoTime() - start;
+        statistics.recordTimeout(pattern, waitNanos);
+        metricsRecorder.recordTimeout(pattern, waitNanos);
+    }
+    
+    protected void recordFailure(String pattern) {
+        statistics.recordFailure(pattern);
+        metricsRecorder.recordFailure(pattern);
+    }
+    
+    protected void recordLeaseExpired(String pattern) {
+        statistics.recordLeaseExpired(pattern);
+        metricsRecorder.recordLeaseExpired(pattern);
+    }
+    
+    protected static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
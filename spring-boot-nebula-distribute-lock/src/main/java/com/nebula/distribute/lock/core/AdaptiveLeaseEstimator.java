@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @author : wh
+ * @date : 2025/7/30
+ * @description: 根据最近的持锁时间估算 lease。
+ * <p>
+ * 每个锁名模板保留最近 {@link #WINDOW_SIZE} 次持锁时间，lease = 指定分位数 × 安全系数，并限制在 [minLease, maxLease] 之间。
+ * 样本不足 {@link #MIN_SAMPLES} 个时使用 maxLease。lease 短，持锁进程崩溃后其他节点能更快拿到锁；
+ * 又因为跟随实际持锁时间，正常执行时很少出现 lease 提前过期。
+ * <p>
+ * 只有使用过 {@link NebulaDistributedLockTemplate#AUTO_OUT_TIME} 的锁名模板才会记录样本。
+ */
+public class AdaptiveLeaseEstimator {
+    
+    static final int WINDOW_SIZE = 128;
+    
+    static final int MIN_SAMPLES = 10;
+    
+    /**
+     * 每新增多少个样本重新计算一次分位数
+     */
+    private static final int RECOMPUTE_INTERVAL = 16;
+    
+    private static final int MAX_PATTERNS = 1024;
+    
+    private final double percentile;
+    
+    private final double safetyFactor;
+    
+    private final long minLeaseNanos;
+    
+    private final long maxLeaseNanos;
+    
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    
+    public AdaptiveLeaseEstimator() {
+        this(0.99, 2.0, Duration.ofSeconds(1), Duration.ofSeconds(60));
+    }
+    
+    public AdaptiveLeaseEstimator(double percentile, double safetyFactor, Duration minLease, Duration maxLease) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]");
+        }
+        if (safetyFactor < 1) {
+            throw new IllegalArgumentException("safetyFactor must be >= 1");
+        }
+        if (minLease == null || maxLease == null || minLease.isNegative() || minLease.isZero() || maxLease.compareTo(minLease) < 0) {
+            throw new IllegalArgumentException("minLease must be positive and not greater than maxLease");
+        }
+        this.percentile = percentile;
+        this.safetyFactor = safetyFactor;
+        this.minLeaseNanos = minLease.toNanos();
+        this.maxLeaseNanos = maxLease.toNanos();
+    }
+    
+    /**
+     * 记录一次持锁时间，没有使用过自适应 lease 的锁名模板直接忽略
+     */
+    public void record(String lockNamePattern, long holdNanos) {
+        Window window = windows.get(lockNamePattern);
+        if (window != null) {
+            window.add(holdNanos);
+        }
+    }
+    
+    /**
+     * 当前建议的 lease（毫秒）
+     */
+    public long leaseMillis(String lockNamePattern) {
+        Window window = windows.get(lockNamePattern);
+        if (window == null) {
+            if (windows.size() >= MAX_PATTERNS) {
+                return maxLeaseNanos / 1_000_000;
+            }
+            window = windows.computeIfAbsent(lockNamePattern, k -> new Window());
+        }
+        return Math.max(1, window.leaseNanos() / 1_000_000);
+    }
+    
+    private final class Window {
+        
+        private final long[] samples = new long[WINDOW_SIZE];
+        
+        private int count;
+        
+        private int next;
+        
+        private int sinceRecompute;
+        
+        private long leaseNanos = maxLeaseNanos;
+        
+        synchronized void add(long holdNanos) {
+            samples[next] = holdNanos;
+            next = (next + 1) % WINDOW_SIZE;
+            if (count < WINDOW_SIZE) {
+                count++;
+            }
+            if (++sinceRecompute >= RECOMPUTE_INTERVAL || count == MIN_SAMPLES) {
+                recompute();
+            }
+        }
+        
+        synchronized long leaseNanos() {
+            return leaseNanos;
+        }
+        
+        private void recompute() {
+            sinceRecompute = 0;
+            if (count < MIN_SAMPLES) {
+                leaseNanos = maxLeaseNanos;
+                return;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(percentile * count) - 1);
+            long lease = (long) (sorted[Math.max(0, index)] * safetyFactor);
+            leaseNanos = Math.max(minLeaseNanos, Math.min(maxLeaseNanos, lease));
+        }
+    }
+}
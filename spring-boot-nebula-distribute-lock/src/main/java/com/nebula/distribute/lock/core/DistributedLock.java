@@ -30,4 +30,13 @@ public interface DistributedLock<T> {
     T process();
     
     String lockName();
+    
+    /**
+     * 锁名模板，用作监控标签。
+     * 解析后的锁名通常带有业务主键（如订单号），直接作为标签会导致指标数量无限增长，
+     * 注解方式加锁时返回注解上未解析的前后缀模板
+     */
+    default String lockNamePattern() {
+        return lockName();
+    }
 }
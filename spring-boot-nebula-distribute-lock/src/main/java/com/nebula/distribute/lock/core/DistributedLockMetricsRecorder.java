@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+/**
+ * @author : wh
+ * @date : 2025/7/26
+ * @description: 分布式锁的指标记录器，屏蔽具体的监控实现。
+ * <p>
+ * 所有方法的第一个参数是锁名模板（见 {@link DistributedLock#lockNamePattern()}），而不是解析后的锁名，
+ * 用来保证监控标签的数量有限。
+ */
+public interface DistributedLockMetricsRecorder {
+    
+    /**
+     * 不做任何记录的实现，未引入 Micrometer 时使用
+     */
+    DistributedLockMetricsRecorder NOOP = new DistributedLockMetricsRecorder() {
+    };
+    
+    /**
+     * 成功加锁，waitNanos 为从开始加锁到拿到锁的等待时间
+     */
+    default void recordAcquired(String lockNamePattern, long waitNanos) {
+    }
+    
+    /**
+     * 释放锁，holdNanos 为持有锁的时间
+     */
+    default void recordReleased(String lockNamePattern, long holdNanos) {
+    }
+    
+    /**
+     * 尝试锁在等待时间内没有拿到锁
+     */
+    default void recordTimeout(String lockNamePattern, long waitNanos) {
+    }
+    
+    /**
+     * 加锁过程中被中断或出现异常
+     */
+    default void recordFailure(String lockNamePattern) {
+    }
+    
+    /**
+     * 业务逻辑执行完之前锁的 lease 已经过期，互斥可能已被破坏
+     */
+    default void recordLeaseExpired(String lockNamePattern) {
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/7/31
+ * @description: 进程内的锁实现，用于单节点部署和测试环境，不依赖 Redis。
+ * 支持 lease 过期、公平获取、读写锁、批量锁和异步锁，语义与 {@link RedissonDistributedLockTemplate} 保持一致。
+ * 开启看门狗时锁不设置 lease，进程退出即释放。
+ */
+@Slf4j
+public class LocalDistributedLockTemplate extends AbstractDistributedLockTemplate {
+    
+    /**
+     * 只使用弱引用回收，不能按容量淘汰：本地锁的状态就在对象里，淘汰一个被持有的锁会破坏互斥
+     */
+    private final Cache<String, LocalLeaseLock> locks = Caffeine.newBuilder()
+            .weakValues()
+            .build();
+    
+    @Override
+    public <T> T lock(DistributedLock<T> distributedLock, LockMode mode, long outTime, TimeUnit timeUnit,
+                      boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return lock(distributedLock, mode, leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
+        return doLock(distributedLock, mode, -1, leaseNanos(outTime, timeUnit, watchDogEnabled), fairLock);
+    }
+    
+    @Override
+    public <T> T tryLock(DistributedLock<T> distributedLock, LockMode mode, long tryOutTime, long outTime,
+                         TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return tryLock(distributedLock, mode, timeUnit.toMillis(tryOutTime), leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
+        return doLock(distributedLock, mode, Math.max(0, timeUnit.toNanos(tryOutTime)),
+                leaseNanos(outTime, timeUnit, watchDogEnabled), fairLock);
+    }
+    
+    @Override
+    public <T> T lockAll(Collection<String> lockNames, DistributedLock<T> distributedLock,
+                         long tryOutTime, long outTime, TimeUnit timeUnit) throws Throwable {
+        if (lockNames == null || lockNames.isEmpty()) {
+            throw new IllegalArgumentException("lockNames cannot be empty");
+        }
+        if (outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return lockAll(lockNames, distributedLock, tryOutTime < 0 ? tryOutTime : timeUnit.toMillis(tryOutTime),
+                    leaseMillis, TimeUnit.MILLISECONDS);
+        }
+        if (outTime <= 0) {
+            throw new IllegalArgumentException("outTime must be positive for lockAll");
+        }
+        // 所有调用方按相同顺序加锁，不会互相死锁
+        List<String> names = new ArrayList<>(new TreeSet<>(lockNames));
+        String lockName = distributedLock.lockName();
+        String pattern = distributedLock.lockNamePattern();
+        Object owner = Thread.currentThread();
+        long leaseNanos = timeUnit.toNanos(outTime);
+        long start = System.nanoTime();
+        long deadline = start + timeUnit.toNanos(tryOutTime);
+        List<LocalLeaseLock> held = new ArrayList<>(names.size());
+        try {
+            for (String name : names) {
+                LocalLeaseLock lock = getLock(name);
+                long waitNanos = tryOutTime < 0 ? -1 : Math.max(0, deadline - System.nanoTime());
+                if (!lock.acquire(owner, false, false, leaseNanos, waitNanos)) {
+                    releaseAll(held, owner);
+                    recordTimeout(pattern, start);
+                    log.warn("Failed to acquire {} locks: {}, held by another owner: {}", names.size(), lockName, name);
+                    throw new DistributedLockException("Failed to acquire lock: " + name);
+                }
+                held.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseAll(held, owner);
+            recordFailure(pattern);
+            log.warn("Lock acquisition interrupted: {}", lockName, e);
+            throw new DistributedLockException("Lock acquisition interrupted: " + lockName, e);
+        }
+        long acquiredAt = recordAcquired(pattern, start);
+        log.debug("{} locks acquired: {}", names.size(), lockName);
+        try {
+            return distributedLock.process();
+        } catch (Throwable e) {
+            log.error("Error while executing locked process: {}", lockName, e);
+            throw e;
+        } finally {
+            recordReleased(pattern, acquiredAt);
+            long expired = names.size() - releaseAll(held, owner);
+            if (expired > 0) {
+                recordLeaseExpired(pattern);
+                log.warn("{} of {} locks in {} expired before business logic finished; mutual exclusion may have been broken. "
+                        + "Consider a longer lease time.", expired, names.size(), lockName);
+            }
+        }
+    }
+    
+    @Override
+    public <T> CompletionStage<T> lockAsync(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode,
+                                            long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return lockAsync(distributedLock, mode, leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
+        return doLockAsync(distributedLock, mode, -1, leaseNanos(outTime, timeUnit, watchDogEnabled), fairLock);
+    }
+    
+    @Override
+    public <T> CompletionStage<T> tryLockAsync(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode, long tryOutTime,
+                                               long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return tryLockAsync(distributedLock, mode, timeUnit.toMillis(tryOutTime), leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
+        return doLockAsync(distributedLock, mode, Math.max(0, timeUnit.toNanos(tryOutTime)),
+                leaseNanos(outTime, timeUnit, watchDogEnabled), fairLock);
+    }
+    
+    private <T> T doLock(DistributedLock<T> distributedLock, LockMode mode, long waitNanos,
+                         long leaseNanos, boolean fairLock) throws Throwable {
+        String lockName = distributedLock.lockName();
+        String pattern = distributedLock.lockNamePattern();
+        LocalLeaseLock lock = getLock(lockName);
+        Object owner = Thread.currentThread();
+        boolean shared = mode == LockMode.READ;
+        long start = System.nanoTime();
+        try {
+            if (!lock.acquire(owner, shared, fairLock, leaseNanos, waitNanos)) {
+                recordTimeout(pattern, start);
+                log.warn("Failed to acquire lock: {} after {}ms", lockName, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                throw new DistributedLockException("Failed to acquire lock: " + lockName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recordFailure(pattern);
+            log.warn("Lock acquisition interrupted: {}", lockName, e);
+            throw new DistributedLockException("Lock acquisition interrupted: " + lockName, e);
+        }
+        long acquiredAt = recordAcquired(pattern, start);
+        log.debug("Lock acquired: {}", lockName);
+        try {
+            return distributedLock.process();
+        } catch (Throwable e) {
+            log.error("Error while executing locked process: {}", lockName, e);
+            throw e;
+        } finally {
+            recordReleased(pattern, acquiredAt);
+            release(lock, owner, shared, lockName, pattern);
+        }
+    }
+    
+    /**
+     * 先在调用线程上尝试立即获取，拿不到时才占用 asyncExecutor 的线程等待
+     */
+    private <T> CompletionStage<T> doLockAsync(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode,
+                                               long waitNanos, long leaseNanos, boolean fairLock) {
+        String lockName = distributedLock.lockName();
+        String pattern = distributedLock.lockNamePattern();
+        LocalLeaseLock lock = getLock(lockName);
+        // 异步锁不绑定线程，每次调用使用独立的持有者，因此不可重入
+        Object owner = new Object();
+        boolean shared = mode == LockMode.READ;
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> acquired = tryAcquireNow(lock, owner, shared, fairLock, leaseNanos);
+        if (!acquired.isCompletedExceptionally() && !acquired.join() && waitNanos != 0) {
+            acquired = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return lock.acquire(owner, shared, fairLock, leaseNanos, waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+            }, asyncExecutor());
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        acquired.whenCompleteAsync((ok, error) -> {
+            if (error != null) {
+                recordFailure(pattern);
+                log.error("Error while acquiring lock: {}", lockName, error);
+                result.completeExceptionally(new DistributedLockException("Error while acquiring lock: " + lockName, unwrap(error)));
+                return;
+            }
+            if (!Boolean.TRUE.equals(ok)) {
+                recordTimeout(pattern, start);
+                log.warn("Failed to acquire lock: {}", lockName);
+                result.completeExceptionally(new DistributedLockException("Failed to acquire lock: " + lockName));
+                return;
+            }
+            long acquiredAt = recordAcquired(pattern, start);
+            log.debug("Lock acquired: {}", lockName);
+            CompletionStage<T> stage;
+            try {
+                stage = distributedLock.process();
+            } catch (Throwable e) {
+                stage = CompletableFuture.failedFuture(e);
+            }
+            if (stage == null) {
+                stage = CompletableFuture.completedFuture(null);
+            }
+            stage.whenComplete((value, failure) -> {
+                recordReleased(pattern, acquiredAt);
+                release(lock, owner, shared, lockName, pattern);
+                if (failure != null) {
+                    result.completeExceptionally(unwrap(failure));
+                } else {
+                    result.complete(value);
+                }
+            });
+        }, asyncExecutor());
+        return result;
+    }
+    
+    private static CompletableFuture<Boolean> tryAcquireNow(LocalLeaseLock lock, Object owner, boolean shared,
+                                                            boolean fairLock, long leaseNanos) {
+        try {
+            return CompletableFuture.completedFuture(lock.acquire(owner, shared, fairLock, leaseNanos, 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private void release(LocalLeaseLock lock, Object owner, boolean shared, String lockName, String pattern) {
+        if (lock.release(owner, shared)) {
+            log.debug("Lock released: {}", lockName);
+        } else {
+            recordLeaseExpired(pattern);
+            log.warn("Lock {} expired before business logic finished; mutual exclusion may have been broken. "
+                    + "Consider a longer lease time or enabling the watch-dog.", lockName);
+        }
+    }
+    
+    /**
+     * @return 成功释放的锁数量，其余的已因 lease 过期被释放
+     */
+    private static int releaseAll(List<LocalLeaseLock> held, Object owner) {
+        int released = 0;
+        for (int i = held.size() - 1; i >= 0; i--) {
+            if (held.get(i).release(owner, false)) {
+                released++;
+            }
+        }
+        held.clear();
+        return released;
+    }
+    
+    private static long leaseNanos(long outTime, TimeUnit timeUnit, boolean watchDogEnabled) {
+        return watchDogEnabled ? 0 : Math.max(0, timeUnit.toNanos(outTime));
+    }
+    
+    private LocalLeaseLock getLock(String lockName) {
+        return locks.get(lockName, k -> new LocalLeaseLock());
+    }
+}
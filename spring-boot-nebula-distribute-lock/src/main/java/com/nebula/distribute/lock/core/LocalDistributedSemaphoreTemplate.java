@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/8/1
+ * @description: 进程内的信号量实现，用于单节点部署和测试环境，不依赖 Redis。
+ * 许可只在当前 JVM 内计数，没有租期（进程退出即释放），也不做预取，leaseTime 和 prefetch 只做参数校验
+ */
+@Slf4j
+public class LocalDistributedSemaphoreTemplate implements NebulaDistributedSemaphoreTemplate {
+    
+    /**
+     * 只使用弱引用回收：持有或等待许可的线程引用着信号量，按容量淘汰会让并发数超出 permits
+     */
+    private final Cache<String, ResizableSemaphore> semaphores = Caffeine.newBuilder()
+            .weakValues()
+            .build();
+    
+    @Override
+    public <T> T execute(DistributedLock<T> task, int permits, long waitTime, long leaseTime,
+                         TimeUnit timeUnit, int prefetch) throws Throwable {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        if (leaseTime <= 0) {
+            throw new IllegalArgumentException("leaseTime must be positive");
+        }
+        if (prefetch < 0) {
+            throw new IllegalArgumentException("prefetch cannot be negative");
+        }
+        String name = task.lockName();
+        ResizableSemaphore semaphore = semaphores.get(name, k -> new ResizableSemaphore(permits));
+        semaphore.resize(permits);
+        boolean acquired;
+        try {
+            if (waitTime < 0) {
+                semaphore.acquire();
+                acquired = true;
+            } else {
+                acquired = semaphore.tryAcquire(waitTime, timeUnit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Semaphore acquisition interrupted: {}", name, e);
+            throw new DistributedLockException("Semaphore acquisition interrupted: " + name, e);
+        }
+        if (!acquired) {
+            log.warn("Failed to acquire semaphore: {} after {} {}", name, waitTime, timeUnit);
+            throw new DistributedLockException("Failed to acquire semaphore: " + name);
+        }
+        try {
+            return task.process();
+        } catch (Throwable e) {
+            log.error("Error while executing semaphore process: {}", name, e);
+            throw e;
+        } finally {
+            semaphore.release();
+        }
+    }
+    
+    /**
+     * 以最后一次传入的 permits 为准调整许可总数，与 Redisson 实现的 setPermits 语义一致
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        
+        private volatile int configuredPermits;
+        
+        private ResizableSemaphore(int permits) {
+            super(permits);
+            this.configuredPermits = permits;
+        }
+        
+        void resize(int permits) {
+            if (permits == configuredPermits) {
+                return;
+            }
+            synchronized (this) {
+                int delta = permits - configuredPermits;
+                if (delta > 0) {
+                    release(delta);
+                } else if (delta < 0) {
+                    reducePermits(-delta);
+                }
+                configuredPermits = permits;
+            }
+        }
+    }
+}
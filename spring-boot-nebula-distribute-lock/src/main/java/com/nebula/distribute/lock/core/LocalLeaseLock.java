@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author : wh
+ * @date : 2025/7/31
+ * @description: 带 lease 的进程内读写锁。持有者以任意对象标识（同步调用为线程，异步调用为独立的 owner），
+ * 同一持有者可重入；lease 到期后锁被视为已释放，与 Redis 锁的过期语义一致。
+ * 公平获取按到达顺序排队，非公平获取可以插队。
+ */
+final class LocalLeaseLock {
+    
+    private final ReentrantLock mutex = new ReentrantLock();
+    
+    private final Condition changed = mutex.newCondition();
+    
+    /**
+     * 公平获取的排队凭证，只有队首可以拿锁
+     */
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    
+    private final Map<Object, Hold> readers = new HashMap<>();
+    
+    private Hold writer;
+    
+    /**
+     * 获取锁
+     * @param owner 持有者
+     * @param shared 是否为共享（读）锁
+     * @param fair 是否公平获取
+     * @param leaseNanos lease 时间，0 表示不过期
+     * @param waitNanos 最长等待时间，负数表示一直等待
+     * @return 是否获取成功
+     */
+    boolean acquire(Object owner, boolean shared, boolean fair, long leaseNanos, long waitNanos) throws InterruptedException {
+        mutex.lockInterruptibly();
+        try {
+            long now = System.nanoTime();
+            purge(now);
+            if (isHeldBy(owner, shared)) {
+                grant(owner, shared, leaseNanos, now);
+                return true;
+            }
+            Object ticket = null;
+            if (fair) {
+                ticket = new Object();
+                queue.addLast(ticket);
+            }
+            try {
+                long deadline = now + waitNanos;
+                while (true) {
+                    if ((ticket == null || queue.peekFirst() == ticket) && isAvailable(shared)) {
+                        grant(owner, shared, leaseNanos, now);
+                        return true;
+                    }
+                    long parkNanos = nearestExpiry(now);
+                    if (waitNanos >= 0) {
+                        long remaining = deadline - now;
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        parkNanos = Math.min(parkNanos, remaining);
+                    }
+                    if (parkNanos == Long.MAX_VALUE) {
+                        changed.await();
+                    } else {
+                        changed.awaitNanos(parkNanos);
+                    }
+                    now = System.nanoTime();
+                    purge(now);
+                }
+            } finally {
+                if (ticket != null) {
+                    queue.remove(ticket);
+                    // 队首变化后需要唤醒下一个排队者
+                    changed.signalAll();
+                }
+            }
+        } finally {
+            mutex.unlock();
+        }
+    }
+    
+    /**
+     * 释放一次持有
+     * @return false 表示锁已不被该持有者持有（lease 已过期）
+     */
+    boolean release(Object owner, boolean shared) {
+        mutex.lock();
+        try {
+            purge(System.nanoTime());
+            Hold hold = shared ? readers.get(owner) : (writer != null && writer.owner == owner ? writer : null);
+            if (hold == null) {
+                return false;
+            }
+            if (--hold.count == 0) {
+                if (shared) {
+                    readers.remove(owner);
+                } else {
+                    writer = null;
+                }
+                changed.signalAll();
+            }
+            return true;
+        } finally {
+            mutex.unlock();
+        }
+    }
+    
+    private boolean isHeldBy(Object owner, boolean shared) {
+        boolean writeHeld = writer != null && writer.owner == owner;
+        // 与 Redisson 一致，持有写锁时可以再获取读锁
+        return shared ? writeHeld || readers.containsKey(owner) : writeHeld;
+    }
+    
+    private boolean isAvailable(boolean shared) {
+        return writer == null && (shared || readers.isEmpty());
+    }
+    
+    private void grant(Object owner, boolean shared, long leaseNanos, long now) {
+        Hold hold;
+        if (shared) {
+            hold = readers.computeIfAbsent(owner, Hold::new);
+        } else {
+            if (writer == null) {
+                writer = new Hold(owner);
+            }
+            hold = writer;
+        }
+        hold.count++;
+        // 重入时刷新 lease，与 Redis 锁重入时重置过期时间一致
+        hold.leased = leaseNanos > 0;
+        hold.expiresAt = now + leaseNanos;
+    }
+    
+    private void purge(long now) {
+        boolean released = false;
+        if (writer != null && writer.isExpired(now)) {
+            writer = null;
+            released = true;
+        }
+        released |= readers.values().removeIf(hold -> hold.isExpired(now));
+        if (released) {
+            changed.signalAll();
+        }
+    }
+    
+    private long nearestExpiry(long now) {
+        long nearest = Long.MAX_VALUE;
+        if (writer != null && writer.leased) {
+            nearest = writer.expiresAt - now;
+        }
+        for (Hold hold : readers.values()) {
+            if (hold.leased) {
+                nearest = Math.min(nearest, hold.expiresAt - now);
+            }
+        }
+        return Math.max(nearest, 1);
+    }
+    
+    private static final class Hold {
+        
+        private final Object owner;
+        
+        private int count;
+        
+        private boolean leased;
+        
+        private long expiresAt;
+        
+        private Hold(Object owner) {
+            this.owner = owner;
+        }
+        
+        private boolean isExpired(long now) {
+            return leased && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author : wh
+ * @date : 2025/7/25
+ * @description: 按锁名隔离的 JVM 本地公平锁。
+ * <p>
+ * 值为弱引用：只要还有线程在等待或持有，锁对象就不会被回收；没有线程引用后自动清理，不需要显式删除。
+ * 每个锁名一把独立的锁，而不是按哈希分段共用，不相关的锁名之间不会互相阻塞，也不会因为同一线程嵌套持有
+ * 多个锁名而产生分段之间的加锁顺序死锁。
+ */
+class LocalLockTable {
+    
+    private final Cache<String, ReentrantLock> locks = Caffeine.newBuilder()
+            .weakValues()
+            .build();
+    
+    ReentrantLock get(String lockName) {
+        return locks.get(lockName, k -> new ReentrantLock(true));
+    }
+}
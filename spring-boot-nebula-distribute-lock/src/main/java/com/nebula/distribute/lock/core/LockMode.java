@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+/**
+ * @author : wh
+ * @date : 2025/7/28
+ * @description: 分布式锁模式
+ */
+public enum LockMode {
+    
+    /**
+     * 互斥锁，对应 Redisson {@code RLock}，可选公平锁
+     */
+    EXCLUSIVE,
+    
+    /**
+     * 读锁，对应 {@code RReadWriteLock#readLock()}，多个读锁可以同时持有，与写锁互斥
+     */
+    READ,
+    
+    /**
+     * 写锁，对应 {@code RReadWriteLock#writeLock()}，与所有读锁、写锁互斥
+     */
+    WRITE
+}
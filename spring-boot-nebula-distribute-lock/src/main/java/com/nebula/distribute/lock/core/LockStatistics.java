@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+
+/**
+ * @author : wh
+ * @date : 2025/7/26
+ * @description: 进程内按锁名模板累计的加锁统计，用于找出竞争最激烈的锁。
+ * <p>
+ * 不依赖 Micrometer，始终开启。锁名模板超过 {@link #MAX_PATTERNS} 个后，新的模板统一计入 {@link #OVERFLOW_PATTERN}。
+ */
+public class LockStatistics implements DistributedLockMetricsRecorder {
+    
+    static final int MAX_PATTERNS = 1024;
+    
+    static final String OVERFLOW_PATTERN = "_other";
+    
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+    
+    @Override
+    public void recordAcquired(String lockNamePattern, long waitNanos) {
+        Counters c = counters(lockNamePattern);
+        c.acquired.increment();
+        c.totalWaitNanos.add(waitNanos);
+        c.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+    
+    @Override
+    public void recordReleased(String lockNamePattern, long holdNanos) {
+        Counters c = counters(lockNamePattern);
+        c.totalHoldNanos.add(holdNanos);
+        c.maxHoldNanos.accumulateAndGet(holdNanos, Math::max);
+    }
+    
+    @Override
+    public void recordTimeout(String lockNamePattern, long waitNanos) {
+        Counters c = counters(lockNamePattern);
+        c.timeouts.increment();
+        c.totalWaitNanos.add(waitNanos);
+    }
+    
+    @Override
+    public void recordFailure(String lockNamePattern) {
+        counters(lockNamePattern).failures.increment();
+    }
+    
+    @Override
+    public void recordLeaseExpired(String lockNamePattern) {
+        counters(lockNamePattern).leaseExpired.increment();
+    }
+    
+    /**
+     * 按累计等待时间倒序返回前 n 个锁名模板
+     */
+    public List<LockStats> top(int n) {
+        List<LockStats> all = new ArrayList<>(counters.size());
+        counters.forEach((pattern, c) -> all.add(new LockStats(pattern, c)));
+        all.sort(Comparator.comparingLong(LockStats::getTotalWaitNanos).reversed());
+        return all.size() > n ? new ArrayList<>(all.subList(0, n)) : all;
+    }
+    
+    public void reset() {
+        counters.clear();
+    }
+    
+    private Counters counters(String lockNamePattern) {
+        Counters c = counters.get(lockNamePattern);
+        if (c != null) {
+            return c;
+        }
+        if (counters.size() >= MAX_PATTERNS) {
+            return counters.computeIfAbsent(OVERFLOW_PATTERN, k -> new Counters());
+        }
+        return counters.computeIfAbsent(lockNamePattern, k -> new Counters());
+    }
+    
+    private static final class Counters {
+        
+        private final LongAdder acquired = new LongAdder();
+        
+        private final LongAdder timeouts = new LongAdder();
+        
+        private final LongAdder failures = new LongAdder();
+        
+        private final LongAdder leaseExpired = new LongAdder();
+        
+        private final LongAdder totalWaitNanos = new LongAdder();
+        
+        private final LongAdder totalHoldNanos = new LongAdder();
+        
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        
+        private final AtomicLong maxHoldNanos = new AtomicLong();
+    }
+    
+    /**
+     * 某个锁名模板的统计快照
+     */
+    @Getter
+    public static class LockStats {
+        
+        private final String lockNamePattern;
+        
+        private final long acquired;
+        
+        private final long timeouts;
+        
+        private final long failures;
+        
+        private final long leaseExpired;
+        
+        private final long totalWaitNanos;
+        
+        private final long maxWaitNanos;
+        
+        private final long totalHoldNanos;
+        
+        private final long maxHoldNanos;
+        
+        private LockStats(String lockNamePattern, Counters c) {
+            this.lockNamePattern = lockNamePattern;
+            this.acquired = c.acquired.sum();
+            this.timeouts = c.timeouts.sum();
+            this.failures = c.failures.sum();
+            this.leaseExpired = c.leaseExpired.sum();
+            this.totalWaitNanos = c.totalWaitNanos.sum();
+            this.maxWaitNanos = c.maxWaitNanos.get();
+            this.totalHoldNanos = c.totalHoldNanos.sum();
+            this.maxHoldNanos = c.maxHoldNanos.get();
+        }
+    }
+}
@@ -17,6 +17,14 @@
  
 package com.nebula.distribute.lock.core;
 
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -34,6 +42,12 @@ public interface NebulaDistributedLockTemplate {
      * 默认尝试加锁时间
      */
     long DEFAULT_TRY_OUT_TIME = 30;
+    /**
+     * 自适应锁超时时间：作为 outTime 传入且未启用看门狗时，lease 按该锁名模板最近的持锁时间估算，
+     * 见 {@link AdaptiveLeaseEstimator}。
+     * 不使用 -1：outTime = -1 沿用 Redisson 的语义，表示不设置 lease、由看门狗续期
+     */
+    long AUTO_OUT_TIME = Long.MIN_VALUE;
     /**
      * 默认时间单位
      */
@@ -47,7 +61,7 @@ public interface NebulaDistributedLockTemplate {
     /**
      * 加锁
      * @param distributedLock
-     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效）
+     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效），{@link #AUTO_OUT_TIME} 表示自适应
      * @param timeUnit 时间单位
      * @param fairLock 是否使用公平锁
      * @param watchDogEnabled 是否启用看门狗自动续期
@@ -57,6 +71,24 @@ public interface NebulaDistributedLockTemplate {
      */
     <T> T lock(DistributedLock<T> distributedLock, long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable;
     
+    /**
+     * 按指定模式加锁。
+     * 默认实现委托给 {@link #lock(DistributedLock, long, TimeUnit, boolean, boolean)}，兼容只实现了旧接口的第三方实现：
+     * READ、WRITE 退化为同名的独占锁，互斥只会更强，读读之间不再并发
+     * @param distributedLock
+     * @param mode 锁模式，READ、WRITE 使用读写锁
+     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效），{@link #AUTO_OUT_TIME} 表示自适应
+     * @param timeUnit 时间单位
+     * @param fairLock 是否使用公平锁（仅 EXCLUSIVE 模式生效）
+     * @param watchDogEnabled 是否启用看门狗自动续期
+     * @param <T>
+     * @return
+     * @throws Throwable 锁获取或执行业务逻辑过程中抛出的异常
+     */
+    default <T> T lock(DistributedLock<T> distributedLock, LockMode mode, long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        return lock(distributedLock, outTime, timeUnit, fairLock, watchDogEnabled);
+    }
+    
     /**
      * 尝试加锁（使用默认超时时间）
      */
@@ -66,7 +98,7 @@ public interface NebulaDistributedLockTemplate {
      * 尝试加锁
      * @param distributedLock
      * @param tryOutTime 尝试获取锁时间
-     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效）
+     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效），{@link #AUTO_OUT_TIME} 表示自适应
      * @param timeUnit 时间单位
      * @param fairLock 是否使用公平锁
      * @param watchDogEnabled 是否启用看门狗自动续期
@@ -76,4 +108,158 @@ public interface NebulaDistributedLockTemplate {
      */
     <T> T tryLock(DistributedLock<T> distributedLock, long tryOutTime, long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable;
     
+    /**
+     * 按指定模式尝试加锁。
+     * 默认实现委托给 {@link #tryLock(DistributedLock, long, long, TimeUnit, boolean, boolean)}，READ、WRITE 退化为同名的独占锁
+     * @param distributedLock
+     * @param mode 锁模式，READ、WRITE 使用读写锁
+     * @param tryOutTime 尝试获取锁时间
+     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效），{@link #AUTO_OUT_TIME} 表示自适应
+     * @param timeUnit 时间单位
+     * @param fairLock 是否使用公平锁（仅 EXCLUSIVE 模式生效）
+     * @param watchDogEnabled 是否启用看门狗自动续期
+     * @param <T>
+     * @return
+     * @throws Throwable 锁获取或执行业务逻辑过程中抛出的异常
+     */
+    default <T> T tryLock(DistributedLock<T> distributedLock, LockMode mode, long tryOutTime, long outTime, TimeUnit timeUnit, boolean fairLock,
+                          boolean watchDogEnabled) throws Throwable {
+        return tryLock(distributedLock, tryOutTime, outTime, timeUnit, fairLock, watchDogEnabled);
+    }
+    
+    /**
+     * 异步加锁：等待锁期间不占用线程，distributedLock 返回的 CompletionStage 完成后释放锁。
+     * 锁不绑定调用线程，加锁、执行、解锁可能发生在不同线程上。
+     * 默认实现在后台线程上同步加锁并等待 CompletionStage 完成，等待期间占用该线程，实现类应覆盖为真正的异步加锁
+     * @param distributedLock 返回异步结果的业务逻辑
+     * @param mode 锁模式
+     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效），{@link #AUTO_OUT_TIME} 表示自适应
+     * @param timeUnit 时间单位
+     * @param fairLock 是否使用公平锁（仅 EXCLUSIVE 模式生效）
+     * @param watchDogEnabled 是否启用看门狗自动续期
+     * @param <T>
+     * @return 业务结果；加锁失败时以 {@link com.nebula.distribute.lock.exception.DistributedLockException} 异常完成
+     */
+    default <T> CompletionStage<T> lockAsync(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode, long outTime, TimeUnit timeUnit, boolean fairLock,
+                                             boolean watchDogEnabled) {
+        return CompletableFuture.supplyAsync(() -> lockJoining(distributedLock, mode, false, 0L, outTime, timeUnit, fairLock, watchDogEnabled),
+                AbstractDistributedLockTemplate.defaultAsyncExecutor());
+    }
+    
+    /**
+     * 异步尝试加锁，tryOutTime 内没有拿到锁时以 {@link com.nebula.distribute.lock.exception.DistributedLockException} 异常完成。
+     * 默认实现与 {@link #lockAsync} 相同，在后台线程上同步尝试加锁
+     * @param distributedLock 返回异步结果的业务逻辑
+     * @param mode 锁模式
+     * @param tryOutTime 尝试获取锁时间
+     * @param outTime 锁超时时间（仅当 watchDogEnabled=false 时生效），{@link #AUTO_OUT_TIME} 表示自适应
+     * @param timeUnit 时间单位
+     * @param fairLock 是否使用公平锁（仅 EXCLUSIVE 模式生效）
+     * @param watchDogEnabled 是否启用看门狗自动续期
+     * @param <T>
+     * @return 业务结果
+     */
+    default <T> CompletionStage<T> tryLockAsync(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode, long tryOutTime, long outTime, TimeUnit timeUnit,
+                                                boolean fairLock, boolean watchDogEnabled) {
+        return CompletableFuture.supplyAsync(() -> lockJoining(distributedLock, mode, true, tryOutTime, outTime, timeUnit, fairLock, watchDogEnabled),
+                AbstractDistributedLockTemplate.defaultAsyncExecutor());
+    }
+    
+    /**
+     * 批量加锁：所有锁要么全部获取成功，要么一把都不持有。
+     * 锁名会去重并排序；批量锁不支持看门狗，始终在 outTime 后自动过期。
+     * 默认实现按排序后的顺序逐个嵌套加锁，所有调用方加锁顺序一致，不会互相死锁；任意一把拿不到时已持有的锁随之释放。
+     * tryOutTime 是所有锁共享的总等待时间
+     * @param lockNames 锁名集合
+     * @param distributedLock 业务逻辑，lockName() 仅用于日志
+     * @param tryOutTime 最长等待时间，小于 0 表示一直等待
+     * @param outTime 锁超时时间，{@link #AUTO_OUT_TIME} 表示自适应
+     * @param timeUnit 时间单位
+     * @param <T>
+     * @return
+     * @throws Throwable 锁获取或执行业务逻辑过程中抛出的异常
+     */
+    default <T> T lockAll(Collection<String> lockNames, DistributedLock<T> distributedLock, long tryOutTime, long outTime, TimeUnit timeUnit) throws Throwable {
+        if (lockNames == null || lockNames.isEmpty()) {
+            throw new IllegalArgumentException("lockNames cannot be empty");
+        }
+        if (outTime <= 0 && outTime != AUTO_OUT_TIME) {
+            throw new IllegalArgumentException("outTime must be positive for lockAll");
+        }
+        List<String> names = new ArrayList<>(new TreeSet<>(lockNames));
+        long deadline = tryOutTime < 0 ? 0L : System.nanoTime() + timeUnit.toNanos(tryOutTime);
+        long leaseNanos = outTime > 0 ? timeUnit.toNanos(outTime) : outTime;
+        return lockEach(names, 0, distributedLock, tryOutTime >= 0, deadline, leaseNanos);
+    }
+    
+    private <T> T lockEach(List<String> names, int index, DistributedLock<T> distributedLock, boolean timed, long deadline,
+                           long leaseNanos) throws Throwable {
+        if (index == names.size()) {
+            return distributedLock.process();
+        }
+        String name = names.get(index);
+        DistributedLock<T> next = new DistributedLock<>() {
+            
+            @Override
+            public T process() {
+                try {
+                    return lockEach(names, index + 1, distributedLock, timed, deadline, leaseNanos);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new DistributedLockException("Error executing locked method: " + distributedLock.lockName(), e);
+                }
+            }
+            
+            @Override
+            public String lockName() {
+                return name;
+            }
+            
+            @Override
+            public String lockNamePattern() {
+                return distributedLock.lockNamePattern();
+            }
+        };
+        if (!timed) {
+            return lock(next, leaseNanos, TimeUnit.NANOSECONDS, false, false);
+        }
+        return tryLock(next, Math.max(0L, deadline - System.nanoTime()), leaseNanos, TimeUnit.NANOSECONDS, false, false);
+    }
+    
+    /**
+     * 同步加锁并在锁内等待业务返回的 CompletionStage 完成，供异步方法的默认实现使用
+     */
+    private <T> T lockJoining(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode, boolean tryLock, long tryOutTime, long outTime,
+                              TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) {
+        DistributedLock<T> joining = new DistributedLock<>() {
+            
+            @Override
+            public T process() {
+                CompletionStage<T> stage = distributedLock.process();
+                return stage == null ? null : stage.toCompletableFuture().join();
+            }
+            
+            @Override
+            public String lockName() {
+                return distributedLock.lockName();
+            }
+            
+            @Override
+            public String lockNamePattern() {
+                return distributedLock.lockNamePattern();
+            }
+        };
+        try {
+            if (tryLock) {
+                return tryLock(joining, mode, tryOutTime, outTime, timeUnit, fairLock, watchDogEnabled);
+            }
+            return lock(joining, mode, outTime, timeUnit, fairLock, watchDogEnabled);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CompletionException(e);
+        }
+    }
+    
 }
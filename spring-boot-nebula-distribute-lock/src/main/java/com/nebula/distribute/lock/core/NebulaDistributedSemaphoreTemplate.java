@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author : wh
+ * @date : 2025/8/1
+ * @description: 分布式信号量，限制集群内同一资源的并发数
+ */
+public interface NebulaDistributedSemaphoreTemplate {
+    
+    /**
+     * 获取一个许可后执行业务逻辑，执行完成后归还许可
+     * @param task 业务逻辑，lockName 为信号量名字
+     * @param permits 集群内最大并发数
+     * @param waitTime 最长等待时间，负数表示一直等待
+     * @param leaseTime 许可租期，超时自动归还
+     * @param timeUnit 时间单位
+     * @param prefetch 本地预取的许可数，0 表示不预取
+     * @throws com.nebula.distribute.lock.exception.DistributedLockException 等待超时或获取许可出错
+     */
+    <T> T execute(DistributedLock<T> task, int permits, long waitTime, long leaseTime,
+                  TimeUnit timeUnit, int prefetch) throws Throwable;
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+/**
+ * @author : wh
+ * @date : 2025/7/27
+ * @description: 通过一次 Lua 脚本原子地获取或释放多把锁。
+ * <p>
+ * 数据结构与 Redisson 的 {@code RLock} 一致：锁名对应一个 hash，field 为 {@code 客户端id:线程id}，value 为重入次数，
+ * 因此同名的单个 {@code RLock} 能正确识别这些锁已被占用，同一线程也可以重入。
+ * 释放时向 Redisson 的解锁频道发布消息，唤醒正在等待单个锁的客户端。
+ * <p>
+ * Lua 脚本要求所有 key 在同一节点上，Redis Cluster 下需要用 hash tag（如 {@code order:{batch}:1}）保证锁名落在同一个 slot。
+ */
+class RedisMultiLock {
+    
+    /**
+     * 任意一把锁被其他线程持有则返回该锁名，否则全部加锁（重入次数加一）并设置过期时间，返回 nil
+     */
+    private static final String ACQUIRE_SCRIPT =
+            "for i, key in ipairs(KEYS) do "
+                    + "if redis.call('exists', key) == 1 and redis.call('hexists', key, ARGV[1]) == 0 then "
+                    + "return key; "
+                    + "end; "
+                    + "end; "
+                    + "for i, key in ipairs(KEYS) do "
+                    + "redis.call('hincrby', key, ARGV[1], 1); "
+                    + "redis.call('pexpire', key, ARGV[2]); "
+                    + "end; "
+                    + "return nil;";
+    
+    /**
+     * 释放当前线程持有的锁，重入次数归零时删除并发布解锁消息；返回已经不被当前线程持有（lease 过期）的锁数量
+     */
+    private static final String RELEASE_SCRIPT =
+            "local expired = 0; "
+                    + "for i, key in ipairs(KEYS) do "
+                    + "if redis.call('hexists', key, ARGV[1]) == 0 then "
+                    + "expired = expired + 1; "
+                    + "else "
+                    + "local counter = redis.call('hincrby', key, ARGV[1], -1); "
+                    + "if counter > 0 then "
+                    + "redis.call('pexpire', key, ARGV[2]); "
+                    + "else "
+                    + "redis.call('del', key); "
+                    + "redis.call('publish', ARGV[i + 2], 0); "
+                    + "end; "
+                    + "end; "
+                    + "end; "
+                    + "return expired;";
+    
+    private final RedissonClient redisson;
+    
+    RedisMultiLock(RedissonClient redisson) {
+        this.redisson = redisson;
+    }
+    
+    /**
+     * 尝试一次性获取全部锁
+     * @return 成功返回 null，失败返回第一个被占用的锁名
+     */
+    String tryAcquire(List<String> lockNames, String owner, long leaseMillis) {
+        return redisson.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT,
+                RScript.ReturnType.VALUE, new ArrayList<>(lockNames), owner, String.valueOf(leaseMillis));
+    }
+    
+    /**
+     * 释放全部锁
+     * @return lease 已经过期、不再被 owner 持有的锁数量
+     */
+    long release(List<String> lockNames, String owner, long leaseMillis) {
+        Object[] args = new Object[lockNames.size() + 2];
+        args[0] = owner;
+        args[1] = String.valueOf(leaseMillis);
+        for (int i = 0; i < lockNames.size(); i++) {
+            args[i + 2] = channelName(lockNames.get(i));
+        }
+        Long expired = redisson.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT,
+                RScript.ReturnType.INTEGER, new ArrayList<>(lockNames), args);
+        return expired == null ? 0 : expired;
+    }
+    
+    /**
+     * 当前线程在 Redisson 锁 hash 中的 field，格式与 Redisson 一致
+     */
+    String owner() {
+        return redisson.getId() + ":" + Thread.currentThread().getId();
+    }
+    
+    /**
+     * 与 Redisson 单个锁订阅的解锁频道保持一致
+     */
+    static String channelName(String lockName) {
+        if (lockName.contains("{")) {
+            return "redisson_lock__channel:" + lockName;
+        }
+        return "redisson_lock__channel:{" + lockName + "}";
+    }
+}
@@ -20,8 +20,15 @@ package com.nebula.distribute.lock.core;
 import com.nebula.distribute.lock.exception.DistributedLockException;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
@@ -32,74 +39,298 @@ import org.redisson.api.RedissonClient;
  * @description:
  */
 @Slf4j
-@RequiredArgsConstructor
-public class RedissonDistributedLockTemplate implements NebulaDistributedLockTemplate {
+public class RedissonDistributedLockTemplate extends AbstractDistributedLockTemplate {
     
     private final RedissonClient redisson;
     
+    /**
+     * 是否先在 JVM 内按锁名排队，只有本地获胜者才访问 Redis
+     */
+    private final boolean localFirst;
+    
+    private final LocalLockTable localLocks = new LocalLockTable();
+    
+    /**
+     * 批量锁重试的最小、最大退避时间（毫秒）
+     */
+    private static final long MIN_BACKOFF_MILLIS = 10;
+    
+    private static final long MAX_BACKOFF_MILLIS = 200;
+    
+    /**
+     * 异步加锁使用的虚拟线程 id。Redisson 以 {@code 客户端id:线程id} 识别锁的持有者，
+     * 异步锁不绑定真实线程，使用负数避免与真实线程 id 冲突
+     */
+    private static final AtomicLong ASYNC_OWNER_IDS = new AtomicLong();
+    
+    private final RedisMultiLock multiLock;
+    
     private final Cache<String, RLock> lockCache = Caffeine.newBuilder()
             .maximumSize(10000)
             .weakValues()
             .build();
     
-    @Override
-    public <T> T lock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) throws Throwable {
-        return lock(distributedLock, DEFAULT_OUT_TIME, DEFAULT_TIME_UNIT, fairLock, watchDogEnabled);
+    public RedissonDistributedLockTemplate(RedissonClient redisson) {
+        this(redisson, false);
+    }
+    
+    public RedissonDistributedLockTemplate(RedissonClient redisson, boolean localFirst) {
+        this.redisson = redisson;
+        this.localFirst = localFirst;
+        this.multiLock = new RedisMultiLock(redisson);
     }
     
     @Override
-    public <T> T lock(DistributedLock<T> distributedLock, long outTime, TimeUnit timeUnit,
+    public <T> T lock(DistributedLock<T> distributedLock, LockMode mode, long outTime, TimeUnit timeUnit,
                       boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return lock(distributedLock, mode, leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
         String lockName = distributedLock.lockName();
-        RLock lock = getLock(lockName, fairLock);
-        acquireLock(lock, lockName, watchDogEnabled, outTime, timeUnit);
-        log.debug("Lock acquired: {}", lockName);
+        String pattern = distributedLock.lockNamePattern();
+        RLock lock = getLock(lockName, mode, fairLock);
+        ReentrantLock localLock = useLocalLock(mode) ? localLocks.get(lockName) : null;
+        long start = System.nanoTime();
+        if (localLock != null) {
+            localLock.lock();
+        }
         try {
-            return distributedLock.process();
-        } catch (Throwable e) {
-            log.error("Error while executing locked process: {}", lockName, e);
-            throw e;
+            try {
+                acquireLock(lock, lockName, watchDogEnabled, outTime, timeUnit);
+            } catch (Throwable e) {
+                recordFailure(pattern);
+                throw e;
+            }
+            long acquiredAt = recordAcquired(pattern, start);
+            log.debug("Lock acquired: {}", lockName);
+            try {
+                return distributedLock.process();
+            } catch (Throwable e) {
+                log.error("Error while executing locked process: {}", lockName, e);
+                throw e;
+            } finally {
+                recordReleased(pattern, acquiredAt);
+                tryUnlock(lock, lockName, pattern);
+            }
         } finally {
-            tryUnlock(lock, lockName);
+            if (localLock != null) {
+                localLock.unlock();
+            }
         }
     }
     
     @Override
-    public <T> T tryLock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) throws Throwable {
-        return tryLock(distributedLock, DEFAULT_TRY_OUT_TIME, DEFAULT_OUT_TIME, DEFAULT_TIME_UNIT, fairLock, watchDogEnabled);
-    }
-    
-    @Override
-    public <T> T tryLock(DistributedLock<T> distributedLock, long tryOutTime, long outTime,
+    public <T> T tryLock(DistributedLock<T> distributedLock, LockMode mode, long tryOutTime, long outTime,
                          TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return tryLock(distributedLock, mode, timeUnit.toMillis(tryOutTime), leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
         String lockName = distributedLock.lockName();
-        RLock lock = getLock(lockName, fairLock);
+        String pattern = distributedLock.lockNamePattern();
+        RLock lock = getLock(lockName, mode, fairLock);
+        ReentrantLock localLock = useLocalLock(mode) ? localLocks.get(lockName) : null;
+        long start = System.nanoTime();
+        boolean acquired = false;
         try {
             log.debug("Trying to acquire lock: {} (wait: {}s, timeout: {}s, watchDog: {})",
                     lockName, tryOutTime, outTime, watchDogEnabled);
-            boolean acquired = tryAcquireLock(lock, lockName, watchDogEnabled, tryOutTime, outTime, timeUnit);
-            if (acquired) {
-                log.debug("Lock acquired: {}", lockName);
-                try {
-                    return distributedLock.process();
-                } catch (Throwable e) {
-                    log.error("Error while executing locked process: {}", lockName, e);
-                    throw e;
-                } finally {
-                    tryUnlock(lock, lockName);
-                }
-            } else {
-                log.warn("Failed to acquire lock: {} after {}s", lockName, tryOutTime);
+            long deadline = start + timeUnit.toNanos(tryOutTime);
+            if (localLock != null && !localLock.tryLock(tryOutTime, timeUnit)) {
+                recordTimeout(pattern, start);
+                log.warn("Failed to acquire local lock: {} after {}s", lockName, tryOutTime);
                 throw new DistributedLockException("Failed to acquire lock: " + lockName);
             }
+            try {
+                // 本地排队消耗的时间从 Redis 的等待时间中扣除
+                long waitTime = localLock == null ? tryOutTime
+                        : Math.max(0, timeUnit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                acquired = tryAcquireLock(lock, lockName, watchDogEnabled, waitTime, outTime, timeUnit);
+                if (acquired) {
+                    long acquiredAt = recordAcquired(pattern, start);
+                    log.debug("Lock acquired: {}", lockName);
+                    try {
+                        return distributedLock.process();
+                    } catch (Throwable e) {
+                        log.error("Error while executing locked process: {}", lockName, e);
+                        throw e;
+                    } finally {
+                        recordReleased(pattern, acquiredAt);
+                        tryUnlock(lock, lockName, pattern);
+                    }
+                } else {
+                    recordTimeout(pattern, start);
+                    log.warn("Failed to acquire lock: {} after {}s", lockName, tryOutTime);
+                    throw new DistributedLockException("Failed to acquire lock: " + lockName);
+                }
+            } finally {
+                if (localLock != null) {
+                    localLock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!acquired) {
+                recordFailure(pattern);
+            }
+            log.warn("Lock acquisition interrupted: {}", lockName, e);
+            throw new DistributedLockException("Lock acquisition interrupted: " + lockName, e);
+        } catch (DistributedLockException e) {
+            throw e;
+        } catch (Exception e) {
+            if (!acquired) {
+                recordFailure(pattern);
+            }
+            log.error("Error while acquiring lock: {}", lockName, e);
+            throw new DistributedLockException("Error while acquiring lock: " + lockName, e);
+        }
+    }
+    
+    @Override
+    public <T> T lockAll(Collection<String> lockNames, DistributedLock<T> distributedLock,
+                         long tryOutTime, long outTime, TimeUnit timeUnit) throws Throwable {
+        if (lockNames == null || lockNames.isEmpty()) {
+            throw new IllegalArgumentException("lockNames cannot be empty");
+        }
+        if (outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return lockAll(lockNames, distributedLock, tryOutTime < 0 ? tryOutTime : timeUnit.toMillis(tryOutTime),
+                    leaseMillis, TimeUnit.MILLISECONDS);
+        }
+        if (outTime <= 0) {
+            throw new IllegalArgumentException("outTime must be positive for lockAll");
+        }
+        // 排序保证所有调用方以相同的顺序看到这些锁，日志和冲突锁名也更稳定
+        List<String> names = new ArrayList<>(new TreeSet<>(lockNames));
+        String lockName = distributedLock.lockName();
+        String pattern = distributedLock.lockNamePattern();
+        String owner = multiLock.owner();
+        long leaseMillis = timeUnit.toMillis(outTime);
+        long start = System.nanoTime();
+        long deadline = tryOutTime < 0 ? Long.MAX_VALUE : start + timeUnit.toNanos(tryOutTime);
+        long backoff = MIN_BACKOFF_MILLIS;
+        try {
+            String conflict;
+            while ((conflict = multiLock.tryAcquire(names, owner, leaseMillis)) != null) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (tryOutTime >= 0 && remainingMillis <= 0) {
+                    recordTimeout(pattern, start);
+                    log.warn("Failed to acquire {} locks: {}, held by another owner: {}", names.size(), lockName, conflict);
+                    throw new DistributedLockException("Failed to acquire lock: " + conflict);
+                }
+                Thread.sleep(Math.min(backoff, remainingMillis));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            recordFailure(pattern);
             log.warn("Lock acquisition interrupted: {}", lockName, e);
             throw new DistributedLockException("Lock acquisition interrupted: " + lockName, e);
+        } catch (DistributedLockException e) {
+            throw e;
         } catch (Exception e) {
+            recordFailure(pattern);
             log.error("Error while acquiring lock: {}", lockName, e);
             throw new DistributedLockException("Error while acquiring lock: " + lockName, e);
         }
+        long acquiredAt = recordAcquired(pattern, start);
+        log.debug("{} locks acquired: {}", names.size(), lockName);
+        try {
+            return distributedLock.process();
+        } catch (Throwable e) {
+            log.error("Error while executing locked process: {}", lockName, e);
+            throw e;
+        } finally {
+            recordReleased(pattern, acquiredAt);
+            long expired = multiLock.release(names, owner, leaseMillis);
+            if (expired > 0) {
+                recordLeaseExpired(pattern);
+                log.warn("{} of {} locks in {} expired before business logic finished; mutual exclusion may have been broken. "
+                        + "Consider a longer lease time.", expired, names.size(), lockName);
+            }
+        }
+    }
+    
+    @Override
+    public <T> CompletionStage<T> lockAsync(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode,
+                                            long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return lockAsync(distributedLock, mode, leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
+        RLock lock = getLock(distributedLock.lockName(), mode, fairLock);
+        long ownerId = -ASYNC_OWNER_IDS.incrementAndGet();
+        long start = System.nanoTime();
+        CompletionStage<Boolean> acquired = (watchDogEnabled ? lock.lockAsync(ownerId) : lock.lockAsync(outTime, timeUnit, ownerId))
+                .thenApply(v -> Boolean.TRUE);
+        return processAsync(distributedLock, lock, ownerId, start, acquired);
+    }
+    
+    @Override
+    public <T> CompletionStage<T> tryLockAsync(DistributedLock<CompletionStage<T>> distributedLock, LockMode mode, long tryOutTime,
+                                               long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) {
+        if (!watchDogEnabled && outTime == AUTO_OUT_TIME) {
+            long leaseMillis = autoLeaseMillis(distributedLock.lockNamePattern());
+            return tryLockAsync(distributedLock, mode, timeUnit.toMillis(tryOutTime), leaseMillis, TimeUnit.MILLISECONDS, fairLock, false);
+        }
+        RLock lock = getLock(distributedLock.lockName(), mode, fairLock);
+        long ownerId = -ASYNC_OWNER_IDS.incrementAndGet();
+        long start = System.nanoTime();
+        CompletionStage<Boolean> acquired = lock.tryLockAsync(tryOutTime, watchDogEnabled ? -1 : outTime, timeUnit, ownerId);
+        return processAsync(distributedLock, lock, ownerId, start, acquired);
+    }
+    
+    private <T> CompletionStage<T> processAsync(DistributedLock<CompletionStage<T>> distributedLock, RLock lock, long ownerId,
+                                                long start, CompletionStage<Boolean> acquired) {
+        String lockName = distributedLock.lockName();
+        String pattern = distributedLock.lockNamePattern();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        acquired.whenCompleteAsync((ok, error) -> {
+            if (error != null) {
+                recordFailure(pattern);
+                log.error("Error while acquiring lock: {}", lockName, error);
+                result.completeExceptionally(new DistributedLockException("Error while acquiring lock: " + lockName, unwrap(error)));
+                return;
+            }
+            if (!Boolean.TRUE.equals(ok)) {
+                recordTimeout(pattern, start);
+                log.warn("Failed to acquire lock: {}", lockName);
+                result.completeExceptionally(new DistributedLockException("Failed to acquire lock: " + lockName));
+                return;
+            }
+            long acquiredAt = recordAcquired(pattern, start);
+            log.debug("Lock acquired: {}", lockName);
+            CompletionStage<T> stage;
+            try {
+                stage = distributedLock.process();
+            } catch (Throwable e) {
+                stage = CompletableFuture.failedFuture(e);
+            }
+            if (stage == null) {
+                stage = CompletableFuture.completedFuture(null);
+            }
+            stage.whenComplete((value, failure) -> {
+                recordReleased(pattern, acquiredAt);
+                lock.unlockAsync(ownerId).whenComplete((v, unlockError) -> {
+                    if (unlockError == null) {
+                        log.debug("Lock released: {}", lockName);
+                    } else if (unwrap(unlockError) instanceof IllegalMonitorStateException) {
+                        recordLeaseExpired(pattern);
+                        log.warn("Lock {} expired before business logic finished; mutual exclusion may have been broken. "
+                                + "Consider a longer lease time or enabling the watch-dog.", lockName);
+                    } else {
+                        log.error("Error while releasing lock: {}", lockName, unlockError);
+                    }
+                    if (failure != null) {
+                        result.completeExceptionally(unwrap(failure));
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            });
+        }, asyncExecutor());
+        return result;
     }
     
     private void acquireLock(RLock lock, String lockName, boolean watchDogEnabled,
@@ -126,11 +357,12 @@ public class RedissonDistributedLockTemplate implements NebulaDistributedLockTem
      * 当锁因 lease 过期被 Redis 自动释放时，isHeldByCurrentThread() 返回 false，
      * 此时跳过 unlock() 是正确的行为。
      */
-    private void tryUnlock(RLock lock, String lockName) {
+    private void tryUnlock(RLock lock, String lockName, String pattern) {
         if (lock.isHeldByCurrentThread()) {
             lock.unlock();
             log.debug("Lock released: {}", lockName);
         } else {
+            recordLeaseExpired(pattern);
             log.warn("Lock {} expired before business logic finished; mutual exclusion may have been broken. "
                     + "Consider a longer lease time or enabling the watch-dog.", lockName);
         }
@@ -139,8 +371,21 @@ public class RedissonDistributedLockTemplate implements NebulaDistributedLockTem
     /**
      * 获取锁对象，使用 Caffeine 缓存提高性能并防止内存泄漏
      */
-    private RLock getLock(String lockName, boolean fairLock) {
-        String cacheKey = (fairLock ? "fair:" : "unfair:") + lockName;
-        return lockCache.get(cacheKey, k -> fairLock ? redisson.getFairLock(lockName) : redisson.getLock(lockName));
+    private RLock getLock(String lockName, LockMode mode, boolean fairLock) {
+        return switch (mode) {
+            case READ -> lockCache.get("read:" + lockName, k -> redisson.getReadWriteLock(lockName).readLock());
+            case WRITE -> lockCache.get("write:" + lockName, k -> redisson.getReadWriteLock(lockName).writeLock());
+            case EXCLUSIVE -> {
+                String cacheKey = (fairLock ? "fair:" : "unfair:") + lockName;
+                yield lockCache.get(cacheKey, k -> fairLock ? redisson.getFairLock(lockName) : redisson.getLock(lockName));
+            }
+        };
+    }
+    
+    /**
+     * 本地排队只用于互斥锁：读锁本来就允许并发，按锁名串行会抵消读写锁的意义
+     */
+    private boolean useLocalLock(LockMode mode) {
+        return localFirst && mode == LockMode.EXCLUSIVE;
     }
 }
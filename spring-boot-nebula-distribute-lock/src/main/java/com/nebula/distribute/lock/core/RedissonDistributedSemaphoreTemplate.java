@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RPermitExpirableSemaphore;
+import org.redisson.api.RedissonClient;
+
+/**
+ * @author : wh
+ * @date : 2025/8/1
+ * @description: 基于 Redisson {@link RPermitExpirableSemaphore} 的分布式信号量。
+ * <p>
+ * 开启预取时，一次批量获取的许可租期为 2 倍 leaseTime，剩余租期不少于 leaseTime 的许可才会在本地复用，
+ * 保证每次调用拿到的许可都至少有完整的 leaseTime；剩余租期不足的许可在下一次获取或归还时还给 Redis
+ */
+@Slf4j
+public class RedissonDistributedSemaphoreTemplate implements NebulaDistributedSemaphoreTemplate {
+    
+    private final RedissonClient redisson;
+    
+    private final Cache<String, RPermitExpirableSemaphore> semaphoreCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .weakValues()
+            .build();
+    
+    /**
+     * 本实例最近一次写入 Redis 的许可总数，只在变化时重新设置
+     */
+    private final Cache<String, Integer> configuredPermits = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .build();
+    
+    /**
+     * 被淘汰的信号量把空闲许可还给 Redis，否则这些许可要等租期到了才会回到集群
+     */
+    private final Cache<String, PermitPool> permitPools;
+    
+    public RedissonDistributedSemaphoreTemplate(RedissonClient redisson) {
+        this(redisson, 10000, ForkJoinPool.commonPool());
+    }
+    
+    RedissonDistributedSemaphoreTemplate(RedissonClient redisson, long maxPermitPools, Executor cacheExecutor) {
+        this.redisson = redisson;
+        this.permitPools = Caffeine.newBuilder()
+                .maximumSize(maxPermitPools)
+                .executor(cacheExecutor)
+                .<String, PermitPool>removalListener((name, pool, cause) -> {
+                    if (name != null && pool != null) {
+                        releaseStale(getSemaphore(name), name, pool.drain());
+                    }
+                })
+                .build();
+    }
+    
+    @Override
+    public <T> T execute(DistributedLock<T> task, int permits, long waitTime, long leaseTime,
+                         TimeUnit timeUnit, int prefetch) throws Throwable {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        if (leaseTime <= 0) {
+            throw new IllegalArgumentException("leaseTime must be positive");
+        }
+        if (prefetch < 0) {
+            throw new IllegalArgumentException("prefetch cannot be negative");
+        }
+        String name = task.lockName();
+        RPermitExpirableSemaphore semaphore = getSemaphore(name, permits);
+        long waitNanos = waitTime < 0 ? -1 : timeUnit.toNanos(waitTime);
+        long leaseNanos = timeUnit.toNanos(leaseTime);
+        Permit permit;
+        try {
+            permit = prefetch > 0 ? acquirePrefetched(semaphore, name, waitNanos, leaseNanos, prefetch)
+                    : acquire(semaphore, waitNanos, leaseNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Semaphore acquisition interrupted: {}", name, e);
+            throw new DistributedLockException("Semaphore acquisition interrupted: " + name, e);
+        } catch (Exception e) {
+            log.error("Error while acquiring semaphore: {}", name, e);
+            throw new DistributedLockException("Error while acquiring semaphore: " + name, e);
+        }
+        if (permit == null) {
+            log.warn("Failed to acquire semaphore: {} after {} {}", name, waitTime, timeUnit);
+            throw new DistributedLockException("Failed to acquire semaphore: " + name);
+        }
+        log.debug("Semaphore permit acquired: {} ({})", name, permit.id);
+        try {
+            return task.process();
+        } catch (Throwable e) {
+            log.error("Error while executing semaphore process: {}", name, e);
+            throw e;
+        } finally {
+            release(semaphore, name, permit, leaseNanos, prefetch);
+        }
+    }
+    
+    /**
+     * 归还本地缓存的全部空闲许可，应用关闭时由 Spring 自动调用
+     */
+    public void shutdown() {
+        permitPools.asMap().forEach((name, pool) -> releaseStale(getSemaphore(name), name, pool.drain()));
+        permitPools.invalidateAll();
+    }
+    
+    private Permit acquire(RPermitExpirableSemaphore semaphore, long waitNanos, long permitLeaseNanos) throws InterruptedException {
+        long start = System.nanoTime();
+        String id = waitNanos < 0 ? semaphore.acquire(permitLeaseNanos, TimeUnit.NANOSECONDS)
+                : semaphore.tryAcquire(waitNanos, permitLeaseNanos, TimeUnit.NANOSECONDS);
+        return id == null ? null : new Permit(id, start + permitLeaseNanos);
+    }
+    
+    /**
+     * 优先使用本地空闲许可；没有时先不等待地批量获取 prefetch 个，拿不到再按 waitTime 等待单个许可
+     */
+    private Permit acquirePrefetched(RPermitExpirableSemaphore semaphore, String name, long waitNanos,
+                                     long leaseNanos, int prefetch) throws InterruptedException {
+        PermitPool pool = permitPools.get(name, k -> new PermitPool());
+        List<String> stale = new ArrayList<>();
+        Permit permit = pool.poll(leaseNanos, stale);
+        releaseStale(semaphore, name, stale);
+        if (permit != null) {
+            return permit;
+        }
+        long permitLeaseNanos = 2 * leaseNanos;
+        if (prefetch > 1) {
+            long start = System.nanoTime();
+            List<String> ids = semaphore.tryAcquire(prefetch, 0, permitLeaseNanos, TimeUnit.NANOSECONDS);
+            if (ids != null && !ids.isEmpty()) {
+                List<String> rejected = new ArrayList<>();
+                for (int i = 1; i < ids.size(); i++) {
+                    if (!pool.offer(new Permit(ids.get(i), start + permitLeaseNanos))) {
+                        rejected.add(ids.get(i));
+                    }
+                }
+                // 批量获取期间本地池已被淘汰
+                releaseStale(semaphore, name, rejected);
+                log.debug("Prefetched {} semaphore permits: {}", ids.size(), name);
+                return new Permit(ids.get(0), start + permitLeaseNanos);
+            }
+        }
+        return acquire(semaphore, waitNanos, permitLeaseNanos);
+    }
+    
+    private void release(RPermitExpirableSemaphore semaphore, String name, Permit permit, long leaseNanos, int prefetch) {
+        if (prefetch > 0) {
+            PermitPool pool = permitPools.get(name, k -> new PermitPool());
+            if (permit.remainingNanos() >= leaseNanos && pool.offer(permit, prefetch)) {
+                log.debug("Semaphore permit returned to local pool: {} ({})", name, permit.id);
+                return;
+            }
+        }
+        try {
+            if (semaphore.tryRelease(permit.id)) {
+                log.debug("Semaphore permit released: {} ({})", name, permit.id);
+            } else {
+                log.warn("Semaphore {} permit expired before business logic finished; concurrency may have exceeded permits. "
+                        + "Consider a longer lease time.", name);
+            }
+        } catch (Exception e) {
+            log.error("Error while releasing semaphore: {}", name, e);
+        }
+    }
+    
+    private void releaseStale(RPermitExpirableSemaphore semaphore, String name, List<String> stale) {
+        if (stale.isEmpty()) {
+            return;
+        }
+        try {
+            semaphore.tryRelease(stale);
+            log.debug("Released {} stale prefetched permits: {}", stale.size(), name);
+        } catch (Exception e) {
+            log.error("Error while releasing semaphore: {}", name, e);
+        }
+    }
+    
+    private RPermitExpirableSemaphore getSemaphore(String name, int permits) {
+        RPermitExpirableSemaphore semaphore = getSemaphore(name);
+        Integer previous = configuredPermits.asMap().put(name, permits);
+        if (!Objects.equals(previous, permits)) {
+            // 以最后一次设置的总数为准，修改注解上的 permits 后重新发布即可生效
+            semaphore.setPermits(permits);
+        }
+        return semaphore;
+    }
+    
+    private RPermitExpirableSemaphore getSemaphore(String name) {
+        return semaphoreCache.get(name, redisson::getPermitExpirableSemaphore);
+    }
+    
+    private static final class Permit {
+        
+        private final String id;
+        
+        private final long expiresAt;
+        
+        private Permit(String id, long expiresAt) {
+            this.id = id;
+            this.expiresAt = expiresAt;
+        }
+        
+        private long remainingNanos() {
+            return expiresAt - System.nanoTime();
+        }
+    }
+    
+    /**
+     * 本实例持有的空闲许可。从缓存淘汰后关闭，之后归还的许可直接还给 Redis
+     */
+    private static final class PermitPool {
+        
+        private final ArrayDeque<Permit> idle = new ArrayDeque<>();
+        
+        private boolean closed;
+        
+        /**
+         * 取出一个剩余租期不少于 minRemainingNanos 的许可，租期不足的许可放入 stale 由调用方归还
+         */
+        synchronized Permit poll(long minRemainingNanos, List<String> stale) {
+            Permit permit;
+            while ((permit = idle.pollFirst()) != null) {
+                if (permit.remainingNanos() >= minRemainingNanos) {
+                    return permit;
+                }
+                stale.add(permit.id);
+            }
+            return null;
+        }
+        
+        synchronized boolean offer(Permit permit) {
+            if (closed) {
+                return false;
+            }
+            idle.addLast(permit);
+            return true;
+        }
+        
+        synchronized boolean offer(Permit permit, int capacity) {
+            if (closed || idle.size() >= capacity) {
+                return false;
+            }
+            idle.addFirst(permit);
+            return true;
+        }
+        
+        synchronized List<String> drain() {
+            List<String> ids = new ArrayList<>(idle.size());
+            for (Permit permit : idle) {
+                ids.add(permit.id);
+            }
+            idle.clear();
+            closed = true;
+            return ids;
+        }
+    }
+}
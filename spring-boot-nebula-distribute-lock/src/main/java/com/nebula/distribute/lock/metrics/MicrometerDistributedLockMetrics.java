@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.metrics;
+
+import com.nebula.distribute.lock.core.DistributedLockMetricsRecorder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author : wh
+ * @date : 2025/7/26
+ * @description: 基于 Micrometer 的分布式锁指标，所有指标以 {@code lock=锁名模板} 作为标签。
+ * <ul>
+ *     <li>nebula.lock.wait：加锁等待时间（直方图）</li>
+ *     <li>nebula.lock.hold：持有锁的时间（直方图）</li>
+ *     <li>nebula.lock.timeouts：尝试锁超时次数</li>
+ *     <li>nebula.lock.failures：加锁被中断或出错的次数</li>
+ *     <li>nebula.lock.lease.expired：业务执行完之前 lease 已过期的次数</li>
+ * </ul>
+ * 与 {@code LockStatistics} 一样，锁名模板超过 {@link #MAX_PATTERNS} 个后，新的模板统一计入 {@link #OVERFLOW_PATTERN}，
+ * 避免锁名模板误带业务主键时指标无限增长
+ */
+public class MicrometerDistributedLockMetrics implements DistributedLockMetricsRecorder {
+    
+    static final String PREFIX = "nebula.lock.";
+    
+    static final int MAX_PATTERNS = 1024;
+    
+    static final String OVERFLOW_PATTERN = "_other";
+    
+    private final MeterRegistry registry;
+    
+    private final Set<String> patterns = ConcurrentHashMap.newKeySet();
+    
+    public MicrometerDistributedLockMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public void recordAcquired(String lockNamePattern, long waitNanos) {
+        timer("wait", "Time spent waiting for the lock", lockNamePattern).record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void recordReleased(String lockNamePattern, long holdNanos) {
+        timer("hold", "Time the lock was held", lockNamePattern).record(holdNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void recordTimeout(String lockNamePattern, long waitNanos) {
+        counter("timeouts", "tryLock calls that gave up waiting", lockNamePattern).increment();
+    }
+    
+    @Override
+    public void recordFailure(String lockNamePattern) {
+        counter("failures", "Lock acquisitions that were interrupted or failed", lockNamePattern).increment();
+    }
+    
+    @Override
+    public void recordLeaseExpired(String lockNamePattern) {
+        counter("lease.expired", "Leases that expired before the locked code finished", lockNamePattern).increment();
+    }
+    
+    private Timer timer(String name, String description, String lockNamePattern) {
+        return Timer.builder(PREFIX + name)
+                .tag("lock", tagValue(lockNamePattern))
+                .description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+    
+    private Counter counter(String name, String description, String lockNamePattern) {
+        return Counter.builder(PREFIX + name)
+                .tag("lock", tagValue(lockNamePattern))
+                .description(description)
+                .register(registry);
+    }
+    
+    private String tagValue(String lockNamePattern) {
+        if (patterns.contains(lockNamePattern)) {
+            return lockNamePattern;
+        }
+        if (patterns.size() >= MAX_PATTERNS) {
+            return OVERFLOW_PATTERN;
+        }
+        patterns.add(lockNamePattern);
+        return lockNamePattern;
+    }
+}
@@ -19,17 +19,31 @@ package com.nebula.distribute.lock.aop;
 
 import com.nebula.distribute.lock.annotation.NebulaDistributedLock;
 import com.nebula.distribute.lock.core.DistributedLock;
+import com.nebula.distribute.lock.core.LockMode;
 import com.nebula.distribute.lock.core.NebulaDistributedLockTemplate;
 import com.nebula.distribute.lock.exception.DistributedLockException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -212,8 +226,229 @@ class NebulaDistributedLockAnnotationInterceptorTest {
                 anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
     }
     
+    @Test
+    void lockNamePatternUsesUnresolvedTemplate() throws Throwable {
+        MethodInvocation invocation = mockMethodInvocation(TestService.class.getMethod("spelLockMethod", String.class), new Object[]{"100"});
+        MethodInvocation staticInvocation = mockMethodInvocation(TestService.class.getMethod("staticLockMethod", String.class), new Object[]{"arg1"});
+        
+        interceptor.invoke(invocation);
+        interceptor.invoke(staticInvocation);
+        
+        verify(lockTemplate).lock(argThat(lock -> "order_100".equals(lock.lockName()) && "order_#orderId".equals(lock.lockNamePattern())),
+                anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+        verify(lockTemplate).lock(argThat(lock -> "order-create".equals(lock.lockNamePattern())),
+                anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+    }
+    
+    @Test
+    void lockNamesExpressionCallsLockAll() throws Throwable {
+        MethodInvocation invocation = mockMethodInvocation(TestService.class.getMethod("batchLockMethod", List.class),
+                new Object[]{List.of("1", "2")});
+        
+        interceptor.invoke(invocation);
+        
+        verify(lockTemplate).lockAll(eq(List.of("order_1", "order_2")),
+                argThat(lock -> "order_#orderIds".equals(lock.lockNamePattern())),
+                eq(-1L), eq(20L), eq(TimeUnit.SECONDS));
+        verify(lockTemplate, never()).lock(any(DistributedLock.class), anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+    }
+    
+    @Test
+    void emptyLockNamesProceedsWithoutLocking() throws Throwable {
+        MethodInvocation invocation = mockMethodInvocation(TestService.class.getMethod("batchLockMethod", List.class),
+                new Object[]{List.of()});
+        
+        assertEquals("proceed-result", interceptor.invoke(invocation));
+        
+        verify(lockTemplate, never()).lockAll(anyList(), any(DistributedLock.class), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+    
+    @Test
+    void readModeCallsModeAwareLock() throws Throwable {
+        MethodInvocation invocation = mockMethodInvocation(TestService.class.getMethod("readLockMethod"), new Object[]{});
+        MethodInvocation writeInvocation = mockMethodInvocation(TestService.class.getMethod("writeTryLockMethod"), new Object[]{});
+        
+        interceptor.invoke(invocation);
+        interceptor.invoke(writeInvocation);
+        
+        verify(lockTemplate).lock(any(DistributedLock.class), eq(LockMode.READ), eq(20L), eq(TimeUnit.SECONDS), eq(false), eq(true));
+        verify(lockTemplate).tryLock(any(DistributedLock.class), eq(LockMode.WRITE), eq(30L), eq(20L), eq(TimeUnit.SECONDS), eq(false), eq(true));
+        verify(lockTemplate, never()).lock(any(DistributedLock.class), anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+    }
+    
+    @Test
+    void completableFutureMethodUsesAsyncLock() throws Throwable {
+        MethodInvocation invocation = mockMethodInvocation(TestService.class.getMethod("asyncMethod"), new Object[]{});
+        when(invocation.proceed()).thenReturn(CompletableFuture.completedFuture("async"));
+        mockLockAsyncRunsProcess();
+        
+        Object result = interceptor.invoke(invocation);
+        
+        assertInstanceOf(CompletableFuture.class, result);
+        assertEquals("async", ((CompletableFuture<?>) result).join());
+        verify(lockTemplate).lockAsync(any(), eq(LockMode.EXCLUSIVE), eq(20L), eq(TimeUnit.SECONDS), eq(false), eq(true));
+        verify(lockTemplate, never()).lock(any(DistributedLock.class), anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+    }
+    
+    @Test
+    void monoMethodLocksOnSubscribe() throws Throwable {
+        ProxyMethodInvocation invocation = mock(ProxyMethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(TestService.class.getMethod("monoMethod"));
+        when(invocation.getArguments()).thenReturn(new Object[]{});
+        when(invocation.invocableClone()).thenReturn(invocation);
+        when(invocation.proceed()).thenReturn(Mono.just("mono"));
+        mockLockAsyncRunsProcess();
+        
+        Object result = interceptor.invoke(invocation);
+        
+        assertInstanceOf(Mono.class, result);
+        verify(lockTemplate, never()).lockAsync(any(), any(), anyLong(), any(), anyBoolean(), anyBoolean());
+        assertEquals("mono", ((Mono<?>) result).block());
+        verify(lockTemplate).lockAsync(any(), eq(LockMode.EXCLUSIVE), eq(20L), eq(TimeUnit.SECONDS), eq(false), eq(true));
+    }
+    
+    @Test
+    void monoResubscribeRunsDownstreamAdvisorsAgain() {
+        mockLockAsyncRunsProcess();
+        AtomicInteger targetCalls = new AtomicInteger();
+        AtomicInteger downstreamCalls = new AtomicInteger();
+        ProxyFactory factory = new ProxyFactory((ReactiveService) () -> {
+            targetCalls.incrementAndGet();
+            return Mono.just("mono");
+        });
+        factory.addInterface(ReactiveService.class);
+        factory.addAdvice(interceptor);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            downstreamCalls.incrementAndGet();
+            return invocation.proceed();
+        });
+        ReactiveService proxy = (ReactiveService) factory.getProxy();
+        
+        Mono<String> mono = proxy.monoMethod();
+        assertEquals("mono", mono.block());
+        assertEquals("mono", mono.block());
+        
+        assertEquals(2, targetCalls.get());
+        assertEquals(2, downstreamCalls.get());
+        verify(lockTemplate, times(2)).lockAsync(any(), eq(LockMode.EXCLUSIVE), eq(20L), eq(TimeUnit.SECONDS), eq(false), eq(true));
+    }
+    
+    @Test
+    void monoMethodRequiresProxyMethodInvocation() throws Throwable {
+        MethodInvocation invocation = mockMethodInvocation(TestService.class.getMethod("monoMethod"), new Object[]{});
+        
+        assertThrows(DistributedLockException.class, () -> interceptor.invoke(invocation));
+        verify(invocation, never()).proceed();
+    }
+    
+    @Test
+    void shareResultConcurrentCallersExecuteOnce() throws Throwable {
+        Method method = TestService.class.getMethod("sharedWindowMethod", String.class);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        mockLockRunsProcess();
+        
+        MethodInvocation leader = mockMethodInvocation(method, new Object[]{"1"});
+        when(leader.proceed()).thenAnswer(invocationOnMock -> {
+            executions.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "shared";
+        });
+        
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> invokeQuietly(leader)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 4; i++) {
+                MethodInvocation follower = mockMethodInvocation(method, new Object[]{"1"});
+                lenient().when(follower.proceed()).thenAnswer(invocationOnMock -> {
+                    executions.incrementAndGet();
+                    return "duplicate";
+                });
+                futures.add(executor.submit(() -> invokeQuietly(follower)));
+            }
+            release.countDown();
+            for (Future<Object> future : futures) {
+                assertEquals("shared", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        verify(lockTemplate, times(1)).lock(any(DistributedLock.class), anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+    }
+    
+    @Test
+    void shareResultWithoutWindowExecutesSequentialCallsAgain() throws Throwable {
+        Method method = TestService.class.getMethod("sharedMethod");
+        mockLockRunsProcess();
+        
+        interceptor.invoke(mockMethodInvocation(method, new Object[]{}));
+        interceptor.invoke(mockMethodInvocation(method, new Object[]{}));
+        
+        verify(lockTemplate, times(2)).lock(any(DistributedLock.class), anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+    }
+    
+    @Test
+    void shareResultWindowReusesCompletedResult() throws Throwable {
+        Method method = TestService.class.getMethod("sharedWindowMethod", String.class);
+        mockLockRunsProcess();
+        
+        MethodInvocation first = mockMethodInvocation(method, new Object[]{"2"});
+        MethodInvocation second = mockMethodInvocation(method, new Object[]{"2"});
+        MethodInvocation otherKey = mockMethodInvocation(method, new Object[]{"3"});
+        
+        assertEquals("proceed-result", interceptor.invoke(first));
+        assertEquals("proceed-result", interceptor.invoke(second));
+        interceptor.invoke(otherKey);
+        
+        verify(second, never()).proceed();
+        verify(otherKey).proceed();
+    }
+    
+    @Test
+    void shareResultWindowDoesNotCacheException() throws Throwable {
+        Method method = TestService.class.getMethod("sharedWindowMethod", String.class);
+        mockLockRunsProcess();
+        
+        MethodInvocation failing = mockMethodInvocation(method, new Object[]{"4"});
+        when(failing.proceed()).thenThrow(new IllegalStateException("boom"));
+        MethodInvocation retry = mockMethodInvocation(method, new Object[]{"4"});
+        
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> interceptor.invoke(failing));
+        assertEquals("boom", e.getMessage());
+        assertEquals("proceed-result", interceptor.invoke(retry));
+        verify(retry).proceed();
+    }
+    
     // --- Helper ---
     
+    private void mockLockRunsProcess() throws Throwable {
+        lenient().doAnswer(invocationOnMock -> {
+            DistributedLock<?> lock = invocationOnMock.getArgument(0);
+            return lock.process();
+        }).when(lockTemplate).lock(any(DistributedLock.class), anyLong(), any(TimeUnit.class), anyBoolean(), anyBoolean());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void mockLockAsyncRunsProcess() {
+        lenient().when(lockTemplate.lockAsync(any(), any(), anyLong(), any(), anyBoolean(), anyBoolean())).thenAnswer(invocationOnMock -> {
+            DistributedLock<CompletionStage<Object>> lock = invocationOnMock.getArgument(0);
+            return lock.process();
+        });
+    }
+    
+    private Object invokeQuietly(MethodInvocation invocation) {
+        try {
+            return interceptor.invoke(invocation);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
     private MethodInvocation mockMethodInvocation(Method method, Object[] args) throws Throwable {
         MethodInvocation invocation = mock(MethodInvocation.class);
         lenient().when(invocation.getMethod()).thenReturn(method);
@@ -224,6 +459,12 @@ class NebulaDistributedLockAnnotationInterceptorTest {
     
     // --- Test service with annotated methods ---
     
+    interface ReactiveService {
+        
+        @NebulaDistributedLock(lockName = "mono")
+        Mono<String> monoMethod();
+    }
+    
     private static class TestService {
         
         public String noLockMethod(String arg) {
@@ -285,6 +526,41 @@ class NebulaDistributedLockAnnotationInterceptorTest {
             return "spel";
         }
         
+        @NebulaDistributedLock(lockName = "shared", shareResult = true)
+        public String sharedMethod() {
+            return "shared";
+        }
+        
+        @NebulaDistributedLock(lockNamePre = "cache", lockNamePost = "#key", shareResult = true, shareResultWindow = 60000L)
+        public String sharedWindowMethod(String key) {
+            return "shared-window";
+        }
+        
+        @NebulaDistributedLock(lockNamePre = "order", lockNames = "#orderIds")
+        public String batchLockMethod(List<String> orderIds) {
+            return "batch";
+        }
+        
+        @NebulaDistributedLock(lockName = "config", mode = LockMode.READ)
+        public String readLockMethod() {
+            return "read";
+        }
+        
+        @NebulaDistributedLock(lockName = "config", mode = LockMode.WRITE, tryLock = true)
+        public String writeTryLockMethod() {
+            return "write";
+        }
+        
+        @NebulaDistributedLock(lockName = "async")
+        public CompletableFuture<String> asyncMethod() {
+            return CompletableFuture.completedFuture("async");
+        }
+        
+        @NebulaDistributedLock(lockName = "mono")
+        public Mono<String> monoMethod() {
+            return Mono.just("mono");
+        }
+        
         @NebulaDistributedLock(lockNamePre = "a", lockNamePost = "b", separator = "_custom_sep_")
         public String customSeparatorMethod() {
             return "custom-sep";
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.autoconfigure;
+
+import com.nebula.distribute.lock.core.DistributedLock;
+import com.nebula.distribute.lock.core.LocalDistributedLockTemplate;
+import com.nebula.distribute.lock.core.LocalDistributedSemaphoreTemplate;
+import com.nebula.distribute.lock.core.NebulaDistributedLockTemplate;
+import com.nebula.distribute.lock.core.NebulaDistributedSemaphoreTemplate;
+import com.nebula.distribute.lock.core.RedissonDistributedLockTemplate;
+import com.nebula.distribute.lock.core.RedissonDistributedSemaphoreTemplate;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class NebulaDistributedLockAutoConfigurationTest {
+    
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(NebulaDistributedLockAutoConfiguration.class));
+    
+    @Test
+    void usesLocalTemplateWhenConfigured() {
+        contextRunner.withPropertyValues("nebula.distribute-lock.type=local")
+                .withBean(RedissonClient.class, () -> mock(RedissonClient.class))
+                .run(context -> {
+                    assertThat(context).getBean(NebulaDistributedLockTemplate.class).isInstanceOf(LocalDistributedLockTemplate.class);
+                    assertThat(context).getBean(NebulaDistributedSemaphoreTemplate.class).isInstanceOf(LocalDistributedSemaphoreTemplate.class);
+                });
+    }
+    
+    @Test
+    void fallsBackToLocalTemplateWhenTypeUnsetWithoutRedisson() {
+        contextRunner.run(context -> {
+            assertThat(context).getBean(NebulaDistributedLockTemplate.class).isInstanceOf(LocalDistributedLockTemplate.class);
+            assertThat(context).getBean(NebulaDistributedSemaphoreTemplate.class).isInstanceOf(LocalDistributedSemaphoreTemplate.class);
+            assertThat(context).hasBean("distributedSemaphoreAnnotationAdvisor");
+        });
+    }
+    
+    @Test
+    void usesRedissonTemplateWhenTypeUnsetWithRedisson() {
+        contextRunner.withBean(RedissonClient.class, () -> mock(RedissonClient.class))
+                .run(context -> {
+                    assertThat(context).getBean(NebulaDistributedLockTemplate.class).isInstanceOf(RedissonDistributedLockTemplate.class);
+                    assertThat(context).getBean(NebulaDistributedSemaphoreTemplate.class).isInstanceOf(RedissonDistributedSemaphoreTemplate.class);
+                });
+    }
+    
+    @Test
+    void backsOffWhenUserDefinesLockTemplate() {
+        contextRunner.withBean(RedissonClient.class, () -> mock(RedissonClient.class))
+                .withBean(CustomLockTemplate.class)
+                .run(context -> {
+                    assertThat(context).hasSingleBean(NebulaDistributedLockTemplate.class);
+                    assertThat(context).getBean(NebulaDistributedLockTemplate.class).isInstanceOf(CustomLockTemplate.class);
+                    assertThat(context).hasBean("distributedLockAnnotationAdvisor");
+                });
+    }
+    
+    @Test
+    void failsWhenRedissonConfiguredWithoutClient() {
+        contextRunner.withPropertyValues("nebula.distribute-lock.type=redisson")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("no RedissonClient"));
+    }
+    
+    static class CustomLockTemplate implements NebulaDistributedLockTemplate {
+        
+        @Override
+        public <T> T lock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) {
+            return distributedLock.process();
+        }
+        
+        @Override
+        public <T> T lock(DistributedLock<T> distributedLock, long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) {
+            return distributedLock.process();
+        }
+        
+        @Override
+        public <T> T tryLock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) {
+            return distributedLock.process();
+        }
+        
+        @Override
+        public <T> T tryLock(DistributedLock<T> distributedLock, long tryOutTime, long outTime, TimeUnit timeUnit, boolean fairLock,
+                             boolean watchDogEnabled) {
+            return distributedLock.process();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLeaseEstimatorTest {
+    
+    private final AdaptiveLeaseEstimator estimator =
+            new AdaptiveLeaseEstimator(0.99, 2.0, Duration.ofMillis(10), Duration.ofSeconds(60));
+    
+    @Test
+    void usesMaxLeaseUntilEnoughSamples() {
+        assertEquals(60_000, estimator.leaseMillis("order_#id"));
+        for (int i = 0; i < AdaptiveLeaseEstimator.MIN_SAMPLES - 1; i++) {
+            estimator.record("order_#id", TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertEquals(60_000, estimator.leaseMillis("order_#id"));
+    }
+    
+    @Test
+    void leaseFollowsHighPercentileTimesSafetyFactor() {
+        estimator.leaseMillis("order_#id");
+        for (int i = 0; i < AdaptiveLeaseEstimator.MIN_SAMPLES; i++) {
+            estimator.record("order_#id", TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertEquals(200, estimator.leaseMillis("order_#id"));
+        
+        // 窗口滚动后，新的持锁时间生效
+        for (int i = 0; i < AdaptiveLeaseEstimator.WINDOW_SIZE; i++) {
+            estimator.record("order_#id", TimeUnit.MILLISECONDS.toNanos(300));
+        }
+        assertEquals(600, estimator.leaseMillis("order_#id"));
+    }
+    
+    @Test
+    void leaseIsClampedToBounds() {
+        AdaptiveLeaseEstimator bounded = new AdaptiveLeaseEstimator(0.99, 2.0, Duration.ofSeconds(1), Duration.ofSeconds(5));
+        bounded.leaseMillis("fast");
+        bounded.leaseMillis("slow");
+        for (int i = 0; i < AdaptiveLeaseEstimator.MIN_SAMPLES; i++) {
+            bounded.record("fast", TimeUnit.MILLISECONDS.toNanos(1));
+            bounded.record("slow", TimeUnit.SECONDS.toNanos(10));
+        }
+        assertEquals(1000, bounded.leaseMillis("fast"));
+        assertEquals(5000, bounded.leaseMillis("slow"));
+    }
+    
+    @Test
+    void ignoresPatternsThatNeverAskedForALease() {
+        for (int i = 0; i < AdaptiveLeaseEstimator.MIN_SAMPLES; i++) {
+            estimator.record("other", TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertEquals(60_000, estimator.leaseMillis("other"));
+    }
+    
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLeaseEstimator(0, 2.0, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLeaseEstimator(0.99, 0.5, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLeaseEstimator(0.99, 2.0, Duration.ofSeconds(5), Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalDistributedLockTemplateTest {
+    
+    private final LocalDistributedLockTemplate template = new LocalDistributedLockTemplate();
+    
+    @Test
+    void lockIsReentrantForSameThread() throws Throwable {
+        String result = template.lock(lock("order", () -> {
+            try {
+                return template.tryLock(lock("order", () -> "inner"), 0, 1, TimeUnit.SECONDS, false, false);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }), 1, TimeUnit.SECONDS, false, false);
+        
+        assertEquals("inner", result);
+    }
+    
+    @Test
+    void tryLockTimesOutWhileHeldByAnotherThread() throws Throwable {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> call(() -> template.lock(lock("order", () -> {
+            locked.countDown();
+            await(release);
+            return "holder";
+        }), false, true)));
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+        
+        assertThrows(DistributedLockException.class,
+                () -> template.tryLock(lock("order", () -> "other"), 50, 1000, TimeUnit.MILLISECONDS, false, false));
+        
+        release.countDown();
+        assertEquals("holder", holder.get(1, TimeUnit.SECONDS));
+        assertEquals("other", template.tryLock(lock("order", () -> "other"), 50, 1000, TimeUnit.MILLISECONDS, false, false));
+        assertEquals(1, template.getStatistics().top(1).get(0).getTimeouts());
+    }
+    
+    @Test
+    void expiredLeaseReleasesLock() throws Throwable {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> call(() -> template.lock(lock("order", () -> {
+            locked.countDown();
+            await(release);
+            return "holder";
+        }), 50, TimeUnit.MILLISECONDS, false, false)));
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+        
+        assertEquals("other", template.tryLock(lock("order", () -> "other"), 1000, 1000, TimeUnit.MILLISECONDS, true, false));
+        
+        release.countDown();
+        assertEquals("holder", holder.get(1, TimeUnit.SECONDS));
+        assertEquals(1, template.getStatistics().top(1).get(0).getLeaseExpired());
+    }
+    
+    @Test
+    void readLocksAreSharedAndWriteLockIsExclusive() throws Throwable {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(() -> call(() -> template.lock(lock("config", () -> {
+            locked.countDown();
+            await(release);
+            return "reader";
+        }), LockMode.READ, 1, TimeUnit.SECONDS, false, false)));
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+        
+        assertEquals("read", template.tryLock(lock("config", () -> "read"), LockMode.READ, 0, 1, TimeUnit.SECONDS, false, false));
+        assertThrows(DistributedLockException.class,
+                () -> template.tryLock(lock("config", () -> "write"), LockMode.WRITE, 50, 1000, TimeUnit.MILLISECONDS, false, false));
+        
+        release.countDown();
+        assertEquals("reader", reader.get(1, TimeUnit.SECONDS));
+        assertEquals("write", template.tryLock(lock("config", () -> "write"), LockMode.WRITE, 0, 1, TimeUnit.SECONDS, false, false));
+    }
+    
+    @Test
+    void lockAllReleasesAcquiredLocksOnConflict() throws Throwable {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> call(() -> template.lock(lock("order_2", () -> {
+            locked.countDown();
+            await(release);
+            return "holder";
+        }), 1, TimeUnit.SECONDS, false, false)));
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+        
+        DistributedLockException e = assertThrows(DistributedLockException.class,
+                () -> template.lockAll(List.of("order_2", "order_1"), lock("orders", () -> "all"), 50, 1000, TimeUnit.MILLISECONDS));
+        assertTrue(e.getMessage().endsWith("order_2"));
+        // order_1 先拿到，失败后必须回滚
+        assertEquals("one", template.tryLock(lock("order_1", () -> "one"), 0, 1, TimeUnit.SECONDS, false, false));
+        
+        release.countDown();
+        assertEquals("holder", holder.get(1, TimeUnit.SECONDS));
+        assertEquals("all", template.lockAll(List.of("order_2", "order_1"), lock("orders", () -> "all"), 0, 1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void asyncLockIsHeldUntilStageCompletes() throws Throwable {
+        CompletableFuture<String> business = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        CompletionStage<String> first = template.lockAsync(lock("order", () -> {
+            started.incrementAndGet();
+            return business;
+        }), LockMode.EXCLUSIVE, 1, TimeUnit.SECONDS, false, false);
+        CompletionStage<String> second = template.lockAsync(lock("order", () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        }), LockMode.EXCLUSIVE, 1, TimeUnit.SECONDS, false, false);
+        
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(1, started.get());
+        
+        business.complete("first");
+        assertEquals("first", first.toCompletableFuture().get(1, TimeUnit.SECONDS));
+        assertEquals("second", second.toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void asyncWaitDoesNotUseCommonPool() throws Throwable {
+        CompletableFuture<String> business = new CompletableFuture<>();
+        CompletionStage<String> first = template.lockAsync(lock("order", () -> business), LockMode.EXCLUSIVE, 1, TimeUnit.SECONDS, false, false);
+        CompletionStage<String> second = template.lockAsync(lock("order", () -> CompletableFuture.completedFuture(Thread.currentThread().getName())),
+                LockMode.EXCLUSIVE, 1, TimeUnit.SECONDS, false, false);
+        
+        business.complete("first");
+        assertEquals("first", first.toCompletableFuture().get(1, TimeUnit.SECONDS));
+        assertTrue(second.toCompletableFuture().get(1, TimeUnit.SECONDS).startsWith("nebula-lock-async-"));
+    }
+    
+    private static <T> DistributedLock<T> lock(String name, Supplier<T> process) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public T process() {
+                return process.get();
+            }
+            
+            @Override
+            public String lockName() {
+                return name;
+            }
+        };
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static <T> T call(LockCall<T> call) {
+        try {
+            return call.call();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private interface LockCall<T> {
+        
+        T call() throws Throwable;
+    }
+}
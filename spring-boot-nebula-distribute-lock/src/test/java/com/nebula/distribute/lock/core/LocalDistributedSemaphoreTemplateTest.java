@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalDistributedSemaphoreTemplateTest {
+    
+    private final LocalDistributedSemaphoreTemplate template = new LocalDistributedSemaphoreTemplate();
+    
+    @Test
+    void limitsConcurrencyToPermits() throws Throwable {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> holder = executor.submit(() -> {
+                try {
+                    return template.execute(task("partner", () -> {
+                        inside.countDown();
+                        await(finish);
+                        return "first";
+                    }), 1, 1, 10, TimeUnit.SECONDS, 0);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+            
+            assertThrows(DistributedLockException.class,
+                    () -> template.execute(task("partner", () -> "second"), 1, 50, 10, TimeUnit.MILLISECONDS, 0));
+            assertEquals("other", template.execute(task("other", () -> "other"), 1, 0, 10, TimeUnit.SECONDS, 0));
+            
+            finish.countDown();
+            assertEquals("first", holder.get(5, TimeUnit.SECONDS));
+            assertEquals("third", template.execute(task("partner", () -> "third"), 1, 0, 10, TimeUnit.SECONDS, 0));
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void permitsFollowLatestConfiguration() throws Throwable {
+        CountDownLatch finish = new CountDownLatch(1);
+        CountDownLatch inside = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> {
+                    try {
+                        return template.execute(task("partner", () -> {
+                            inside.countDown();
+                            return await(finish);
+                        }), 2, 1, 10, TimeUnit.SECONDS, 0);
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+            
+            // 2 个许可都被占用，调到 3 后多出一个
+            assertEquals("ok", template.execute(task("partner", () -> "ok"), 3, 0, 10, TimeUnit.SECONDS, 0));
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> template.execute(task("partner", () -> "ok"), 0, 1, 10, TimeUnit.SECONDS, 0));
+        assertThrows(IllegalArgumentException.class, () -> template.execute(task("partner", () -> "ok"), 3, 1, 0, TimeUnit.SECONDS, 0));
+        assertThrows(IllegalArgumentException.class, () -> template.execute(task("partner", () -> "ok"), 3, 1, 10, TimeUnit.SECONDS, -1));
+    }
+    
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static <T> DistributedLock<T> task(String name, Supplier<T> process) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public T process() {
+                return process.get();
+            }
+            
+            @Override
+            public String lockName() {
+                return name;
+            }
+        };
+    }
+}
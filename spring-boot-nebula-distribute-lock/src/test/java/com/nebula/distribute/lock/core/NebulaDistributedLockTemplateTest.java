@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 只实现旧接口的第三方实现，依赖接口默认方法保持可用
+ */
+class NebulaDistributedLockTemplateTest {
+    
+    private final LegacyLockTemplate template = new LegacyLockTemplate();
+    
+    @Test
+    void exclusiveModeDelegatesToLegacyMethods() throws Throwable {
+        assertEquals("order_1", template.lock(lock("order_1"), LockMode.EXCLUSIVE, 20, TimeUnit.SECONDS, false, false));
+        assertEquals("lock:20", template.lastCall);
+        
+        assertEquals("order_1", template.tryLock(lock("order_1"), LockMode.EXCLUSIVE, 5, 20, TimeUnit.SECONDS, false, true));
+        assertEquals("tryLock:5:20", template.lastCall);
+    }
+    
+    @Test
+    void readWriteModesFallBackToExclusiveLock() throws Throwable {
+        assertEquals("config", template.lock(lock("config"), LockMode.READ, 20, TimeUnit.SECONDS, false, false));
+        assertEquals("lock:20", template.lastCall);
+        
+        assertEquals("config", template.tryLock(lock("config"), LockMode.WRITE, 5, 20, TimeUnit.SECONDS, false, false));
+        assertEquals("tryLock:5:20", template.lastCall);
+    }
+    
+    @Test
+    void lockAllLocksSortedNamesOneByOne() throws Throwable {
+        assertEquals("batch", template.lockAll(List.of("order_2", "order_1", "order_2"), lock("batch"), 5, 20, TimeUnit.SECONDS));
+        assertEquals(List.of("order_1", "order_2"), template.locked);
+        
+        template.locked.clear();
+        assertEquals("batch", template.lockAll(List.of("order_3"), lock("batch"), -1, 20, TimeUnit.SECONDS));
+        assertEquals(List.of("order_3"), template.locked);
+        assertEquals("lock:" + TimeUnit.SECONDS.toNanos(20), template.lastCall);
+        
+        assertThrows(IllegalArgumentException.class, () -> template.lockAll(List.of(), lock("batch"), 5, 20, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void lockAllReleasesHeldLocksWhenOneIsUnavailable() {
+        template.unavailable = "order_2";
+        
+        assertThrows(DistributedLockException.class,
+                () -> template.lockAll(List.of("order_1", "order_2"), lock("batch"), 5, 20, TimeUnit.SECONDS));
+        assertEquals(List.of("order_1"), template.locked);
+        assertEquals(0, template.held);
+    }
+    
+    @Test
+    void asyncMethodsRunSynchronousLockInBackground() {
+        assertEquals("order_1", template.lockAsync(asyncLock("order_1"), LockMode.EXCLUSIVE, 20, TimeUnit.SECONDS, false, false)
+                .toCompletableFuture().join());
+        assertEquals("lock:20", template.lastCall);
+        
+        assertEquals("order_1", template.tryLockAsync(asyncLock("order_1"), LockMode.READ, 5, 20, TimeUnit.SECONDS, false, false)
+                .toCompletableFuture().join());
+        assertEquals("tryLock:5:20", template.lastCall);
+        
+        template.unavailable = "order_2";
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> template.tryLockAsync(asyncLock("order_2"), LockMode.EXCLUSIVE, 5, 20, TimeUnit.SECONDS, false, false)
+                        .toCompletableFuture().join());
+        assertInstanceOf(DistributedLockException.class, e.getCause());
+    }
+    
+    private static DistributedLock<String> lock(String name) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public String process() {
+                return name;
+            }
+            
+            @Override
+            public String lockName() {
+                return name;
+            }
+        };
+    }
+    
+    private static DistributedLock<CompletionStage<String>> asyncLock(String name) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public CompletionStage<String> process() {
+                return CompletableFuture.completedFuture(name);
+            }
+            
+            @Override
+            public String lockName() {
+                return name;
+            }
+        };
+    }
+    
+    private static class LegacyLockTemplate implements NebulaDistributedLockTemplate {
+        
+        private final List<String> locked = new ArrayList<>();
+        
+        private volatile String lastCall;
+        
+        private volatile String unavailable;
+        
+        private int held;
+        
+        @Override
+        public <T> T lock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+            return lock(distributedLock, DEFAULT_OUT_TIME, DEFAULT_TIME_UNIT, fairLock, watchDogEnabled);
+        }
+        
+        @Override
+        public <T> T lock(DistributedLock<T> distributedLock, long outTime, TimeUnit timeUnit, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+            lastCall = "lock:" + outTime;
+            return locked(distributedLock);
+        }
+        
+        @Override
+        public <T> T tryLock(DistributedLock<T> distributedLock, boolean fairLock, boolean watchDogEnabled) throws Throwable {
+            return tryLock(distributedLock, DEFAULT_TRY_OUT_TIME, DEFAULT_OUT_TIME, DEFAULT_TIME_UNIT, fairLock, watchDogEnabled);
+        }
+        
+        @Override
+        public <T> T tryLock(DistributedLock<T> distributedLock, long tryOutTime, long outTime, TimeUnit timeUnit, boolean fairLock,
+                             boolean watchDogEnabled) throws Throwable {
+            lastCall = "tryLock:" + tryOutTime + ":" + outTime;
+            if (distributedLock.lockName().equals(unavailable)) {
+                throw new DistributedLockException("Failed to acquire lock: " + unavailable);
+            }
+            return locked(distributedLock);
+        }
+        
+        private <T> T locked(DistributedLock<T> distributedLock) {
+            locked.add(distributedLock.lockName());
+            held++;
+            try {
+                return distributedLock.process();
+            } finally {
+                held--;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用 luaj 真正执行 {@link RedisMultiLock} 的 Lua 脚本，redis.call 由内存中的 hash 模拟
+ */
+class RedisMultiLockTest {
+    
+    private final Map<String, Map<String, Long>> hashes = new HashMap<>();
+    
+    private final Map<String, Long> expireMillis = new HashMap<>();
+    
+    private final List<String> published = new ArrayList<>();
+    
+    private RedisMultiLock multiLock;
+    
+    @BeforeEach
+    void setUp() {
+        RScript script = mock(RScript.class, invocation -> {
+            Object[] args = invocation.getRawArguments();
+            @SuppressWarnings("unchecked")
+            List<Object> keys = (List<Object>) args[3];
+            return eval((String) args[1], keys, (Object[]) args[4]);
+        });
+        RedissonClient redisson = mock(RedissonClient.class);
+        when(redisson.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        multiLock = new RedisMultiLock(redisson);
+    }
+    
+    @Test
+    void acquireLocksAllKeysWithLease() {
+        assertNull(multiLock.tryAcquire(List.of("order_1", "order_2"), "c:1", 20000));
+        
+        assertEquals(Map.of("c:1", 1L), hashes.get("order_1"));
+        assertEquals(Map.of("c:1", 1L), hashes.get("order_2"));
+        assertEquals(20000L, expireMillis.get("order_1"));
+        assertEquals(20000L, expireMillis.get("order_2"));
+    }
+    
+    @Test
+    void acquireFailsWithoutTouchingAnyKeyWhenOneIsHeldByOthers() {
+        hashes.put("order_2", new HashMap<>(Map.of("c:2", 1L)));
+        
+        assertEquals("order_2", multiLock.tryAcquire(List.of("order_1", "order_2", "order_3"), "c:1", 20000));
+        
+        assertFalse(hashes.containsKey("order_1"));
+        assertFalse(hashes.containsKey("order_3"));
+        assertEquals(Map.of("c:2", 1L), hashes.get("order_2"));
+        assertTrue(expireMillis.isEmpty());
+    }
+    
+    @Test
+    void reentrantAcquireAndReleaseKeepsCounter() {
+        assertNull(multiLock.tryAcquire(List.of("order_1"), "c:1", 20000));
+        assertNull(multiLock.tryAcquire(List.of("order_1"), "c:1", 30000));
+        assertEquals(2L, hashes.get("order_1").get("c:1"));
+        
+        assertEquals(0, multiLock.release(List.of("order_1"), "c:1", 30000));
+        assertEquals(1L, hashes.get("order_1").get("c:1"));
+        assertTrue(published.isEmpty());
+        
+        assertEquals(0, multiLock.release(List.of("order_1"), "c:1", 30000));
+        assertFalse(hashes.containsKey("order_1"));
+        assertEquals(List.of(RedisMultiLock.channelName("order_1")), published);
+    }
+    
+    @Test
+    void releaseCountsLocksNoLongerHeld() {
+        assertNull(multiLock.tryAcquire(List.of("order_1", "order_2"), "c:1", 20000));
+        // order_2 的 lease 过期后被其他客户端拿走
+        hashes.put("order_2", new HashMap<>(Map.of("c:2", 1L)));
+        
+        assertEquals(1, multiLock.release(List.of("order_1", "order_2"), "c:1", 20000));
+        
+        assertFalse(hashes.containsKey("order_1"));
+        assertEquals(Map.of("c:2", 1L), hashes.get("order_2"));
+        assertEquals(List.of(RedisMultiLock.channelName("order_1")), published);
+    }
+    
+    private Object eval(String lua, List<Object> keys, Object[] argv) {
+        Globals globals = JsePlatform.standardGlobals();
+        globals.set("KEYS", toTable(keys.toArray()));
+        globals.set("ARGV", toTable(argv));
+        LuaTable redis = new LuaTable();
+        redis.set("call", new VarArgFunction() {
+            
+            @Override
+            public Varargs invoke(Varargs args) {
+                return redisCall(args);
+            }
+        });
+        globals.set("redis", redis);
+        LuaValue result = globals.load(lua).call();
+        if (result.isnil()) {
+            return null;
+        }
+        // Redis 把 Lua number 转成整数回复
+        return result.type() == LuaValue.TNUMBER ? (Object) result.tolong() : result.tojstring();
+    }
+    
+    private LuaValue redisCall(Varargs args) {
+        String command = args.checkjstring(1);
+        String key = args.checkjstring(2);
+        Map<String, Long> hash = hashes.get(key);
+        switch (command) {
+            case "exists":
+                return LuaValue.valueOf(hash == null ? 0 : 1);
+            case "hexists":
+                return LuaValue.valueOf(hash != null && hash.containsKey(args.checkjstring(3)) ? 1 : 0);
+            case "hincrby":
+                long value = hashes.computeIfAbsent(key, k -> new HashMap<>())
+                        .merge(args.checkjstring(3), args.checklong(4), Long::sum);
+                return LuaValue.valueOf(value);
+            case "pexpire":
+                expireMillis.put(key, Long.parseLong(args.checkjstring(3)));
+                return LuaValue.valueOf(hash == null ? 0 : 1);
+            case "del":
+                hashes.remove(key);
+                expireMillis.remove(key);
+                return LuaValue.valueOf(hash == null ? 0 : 1);
+            case "publish":
+                published.add(key);
+                return LuaValue.valueOf(0);
+            default:
+                throw new UnsupportedOperationException(command);
+        }
+    }
+    
+    private static LuaTable toTable(Object[] values) {
+        LuaTable table = new LuaTable();
+        for (int i = 0; i < values.length; i++) {
+            table.set(i + 1, LuaValue.valueOf(String.valueOf(values[i])));
+        }
+        return table;
+    }
+}
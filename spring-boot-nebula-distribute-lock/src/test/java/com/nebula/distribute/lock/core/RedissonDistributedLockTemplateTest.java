@@ -18,17 +18,39 @@
 package com.nebula.distribute.lock.core;
 
 import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
 import org.redisson.api.RLock;
+import org.redisson.api.RReadWriteLock;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.misc.CompletableFutureWrapper;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -364,4 +386,425 @@ class RedissonDistributedLockTemplateTest {
         
         verify(lock).tryLock(30L, TimeUnit.SECONDS);
     }
+    
+    @Test
+    void localFirstSerializesThreadsInJvm() throws Throwable {
+        RLock lock = createLock("myLock", redissonClient);
+        RedissonDistributedLockTemplate localFirstTemplate = new RedissonDistributedLockTemplate(redissonClient, true);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        
+        DistributedLock<String> distributedLock = new DistributedLock<>() {
+            
+            @Override
+            public String process() {
+                maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                inside.decrementAndGet();
+                return "result";
+            }
+            
+            @Override
+            public String lockName() {
+                return "myLock";
+            }
+        };
+        
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return localFirstTemplate.lock(distributedLock, 20, TimeUnit.SECONDS, false, false);
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            for (Future<String> future : futures) {
+                assertEquals("result", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(1, maxInside.get());
+        verify(lock, times(10)).lock(20L, TimeUnit.SECONDS);
+        verify(lock, times(10)).unlock();
+    }
+    
+    @Test
+    void localFirstTryLockFailsFastWithoutHittingRedis() throws Throwable {
+        RLock lock = createLock("myLock", redissonClient);
+        when(lock.tryLock(anyLong(), eq(20L), eq(TimeUnit.SECONDS))).thenReturn(true);
+        RedissonDistributedLockTemplate localFirstTemplate = new RedissonDistributedLockTemplate(redissonClient, true);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        DistributedLock<String> slow = new DistributedLock<>() {
+            
+            @Override
+            public String process() {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }
+            
+            @Override
+            public String lockName() {
+                return "myLock";
+            }
+        };
+        DistributedLock<String> fast = new DistributedLock<>() {
+            
+            @Override
+            public String process() {
+                return "fast";
+            }
+            
+            @Override
+            public String lockName() {
+                return "myLock";
+            }
+        };
+        
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> holder = executor.submit(() -> {
+                try {
+                    return localFirstTemplate.tryLock(slow, 30, 20, TimeUnit.SECONDS, false, false);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+            
+            assertThrows(DistributedLockException.class,
+                    () -> localFirstTemplate.tryLock(fast, 0, 20, TimeUnit.SECONDS, false, false));
+            
+            release.countDown();
+            assertEquals("slow", holder.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        verify(lock, times(1)).tryLock(anyLong(), eq(20L), eq(TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void statisticsRecordedByLockNamePattern() throws Throwable {
+        RLock held = createLock("order_1", redissonClient);
+        RLock busy = createLock("order_2", redissonClient);
+        RLock expired = createLock("order_3", redissonClient);
+        when(busy.tryLock(30L, 20L, TimeUnit.SECONDS)).thenReturn(false);
+        when(expired.isHeldByCurrentThread()).thenReturn(false);
+        DistributedLockMetricsRecorder recorder = mock(DistributedLockMetricsRecorder.class);
+        template.setMetricsRecorder(recorder);
+        
+        template.lock(orderLock("1"), 20, TimeUnit.SECONDS, false, false);
+        assertThrows(DistributedLockException.class, () -> template.tryLock(orderLock("2"), 30, 20, TimeUnit.SECONDS, false, false));
+        template.lock(orderLock("3"), 20, TimeUnit.SECONDS, false, false);
+        
+        List<LockStatistics.LockStats> top = template.getStatistics().top(10);
+        assertEquals(1, top.size());
+        LockStatistics.LockStats stats = top.get(0);
+        assertEquals("order_#orderId", stats.getLockNamePattern());
+        assertEquals(2, stats.getAcquired());
+        assertEquals(1, stats.getTimeouts());
+        assertEquals(1, stats.getLeaseExpired());
+        assertEquals(0, stats.getFailures());
+        verify(recorder, times(2)).recordAcquired(eq("order_#orderId"), anyLong());
+        verify(recorder, times(2)).recordReleased(eq("order_#orderId"), anyLong());
+        verify(recorder).recordTimeout(eq("order_#orderId"), anyLong());
+        verify(recorder).recordLeaseExpired("order_#orderId");
+        verify(held).unlock();
+    }
+    
+    private DistributedLock<String> orderLock(String orderId) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public String process() {
+                return orderId;
+            }
+            
+            @Override
+            public String lockName() {
+                return "order_" + orderId;
+            }
+            
+            @Override
+            public String lockNamePattern() {
+                return "order_#orderId";
+            }
+        };
+    }
+    
+    @Test
+    void lockAllAcquiresSortedDistinctKeysInOneScript() throws Throwable {
+        RScript script = mockScript();
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.VALUE), anyList(), any(Object[].class)))
+                .thenReturn(null);
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER), anyList(), any(Object[].class)))
+                .thenReturn(0L);
+        
+        String result = template.lockAll(Arrays.asList("order_3", "order_1", "order_2", "order_1"), orderLock("batch"),
+                1, 20, TimeUnit.SECONDS);
+        
+        assertEquals("batch", result);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.VALUE), keys.capture(), args.capture());
+        assertEquals(List.of("order_1", "order_2", "order_3"), keys.getValue());
+        assertEquals("client-id:" + Thread.currentThread().getId(), args.getValue()[0]);
+        assertEquals("20000", args.getValue()[1]);
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of("order_1", "order_2", "order_3")), any(Object[].class));
+        assertEquals(1, template.getStatistics().top(1).get(0).getAcquired());
+    }
+    
+    @Test
+    void lockAllTimesOutWhenAnyKeyIsHeld() throws Throwable {
+        RScript script = mockScript();
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.VALUE), anyList(), any(Object[].class)))
+                .thenReturn("order_2");
+        AtomicInteger processed = new AtomicInteger();
+        DistributedLock<String> distributedLock = new DistributedLock<>() {
+            
+            @Override
+            public String process() {
+                processed.incrementAndGet();
+                return "result";
+            }
+            
+            @Override
+            public String lockName() {
+                return "batch";
+            }
+        };
+        
+        DistributedLockException e = assertThrows(DistributedLockException.class,
+                () -> template.lockAll(List.of("order_1", "order_2"), distributedLock, 50, 20_000, TimeUnit.MILLISECONDS));
+        
+        assertTrue(e.getMessage().contains("order_2"));
+        assertEquals(0, processed.get());
+        verify(script, atLeast(2)).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.VALUE), anyList(), any(Object[].class));
+        verify(script, never()).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER), anyList(), any(Object[].class));
+        assertEquals(1, template.getStatistics().top(1).get(0).getTimeouts());
+    }
+    
+    @Test
+    void lockAllRecordsExpiredLeases() throws Throwable {
+        RScript script = mockScript();
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.VALUE), anyList(), any(Object[].class)))
+                .thenReturn(null);
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER), anyList(), any(Object[].class)))
+                .thenReturn(1L);
+        
+        template.lockAll(List.of("order_1", "order_2"), orderLock("batch"), 1, 20, TimeUnit.SECONDS);
+        
+        assertEquals(1, template.getStatistics().top(1).get(0).getLeaseExpired());
+    }
+    
+    @Test
+    void lockAllRejectsEmptyNames() {
+        assertThrows(IllegalArgumentException.class,
+                () -> template.lockAll(List.of(), orderLock("batch"), 1, 20, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void multiLockChannelMatchesRedisson() {
+        assertEquals("redisson_lock__channel:{order_1}", RedisMultiLock.channelName("order_1"));
+        assertEquals("redisson_lock__channel:order:{batch}:1", RedisMultiLock.channelName("order:{batch}:1"));
+    }
+    
+    private RScript mockScript() {
+        RScript script = mock(RScript.class);
+        when(redissonClient.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        when(redissonClient.getId()).thenReturn("client-id");
+        return script;
+    }
+    
+    @Test
+    void readModeUsesReadLockAndAllowsConcurrentReaders() throws Throwable {
+        RReadWriteLock readWriteLock = mock(RReadWriteLock.class);
+        RLock readLock = mock(RLock.class);
+        when(redissonClient.getReadWriteLock("config")).thenReturn(readWriteLock);
+        when(readWriteLock.readLock()).thenReturn(readLock);
+        when(readLock.isHeldByCurrentThread()).thenReturn(true);
+        RedissonDistributedLockTemplate localFirstTemplate = new RedissonDistributedLockTemplate(redissonClient, true);
+        CountDownLatch bothInside = new CountDownLatch(2);
+        
+        DistributedLock<Boolean> reader = new DistributedLock<>() {
+            
+            @Override
+            public Boolean process() {
+                bothInside.countDown();
+                try {
+                    return bothInside.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            
+            @Override
+            public String lockName() {
+                return "config";
+            }
+        };
+        
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return localFirstTemplate.lock(reader, LockMode.READ, 20, TimeUnit.SECONDS, false, true);
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        verify(redissonClient).getReadWriteLock("config");
+        verify(readLock, times(2)).lock();
+        verify(readLock, times(2)).unlock();
+        verify(redissonClient, never()).getLock("config");
+    }
+    
+    @Test
+    void writeModeUsesWriteLock() throws Throwable {
+        RReadWriteLock readWriteLock = mock(RReadWriteLock.class);
+        RLock writeLock = mock(RLock.class);
+        when(redissonClient.getReadWriteLock("order_config")).thenReturn(readWriteLock);
+        when(readWriteLock.writeLock()).thenReturn(writeLock);
+        when(writeLock.isHeldByCurrentThread()).thenReturn(true);
+        when(writeLock.tryLock(30L, 20L, TimeUnit.SECONDS)).thenReturn(true);
+        
+        String result = template.tryLock(orderLock("config"), LockMode.WRITE, 30, 20, TimeUnit.SECONDS, true, false);
+        
+        assertEquals("config", result);
+        verify(writeLock).tryLock(30L, 20L, TimeUnit.SECONDS);
+        verify(writeLock).unlock();
+        verify(redissonClient, never()).getFairLock(anyString());
+    }
+    
+    @Test
+    void lockAsyncReleasesWhenReturnedStageCompletes() throws Exception {
+        RLock lock = createLock("myLock", redissonClient);
+        when(lock.lockAsync(anyLong())).thenReturn(new CompletableFutureWrapper<>((Void) null));
+        when(lock.unlockAsync(anyLong())).thenReturn(new CompletableFutureWrapper<>((Void) null));
+        CompletableFuture<String> inner = new CompletableFuture<>();
+        CountDownLatch processed = new CountDownLatch(1);
+        
+        CompletionStage<String> stage = template.lockAsync(asyncLock(() -> {
+            processed.countDown();
+            return inner;
+        }), LockMode.EXCLUSIVE, 20, TimeUnit.SECONDS, false, true);
+        
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        verify(lock, never()).unlockAsync(anyLong());
+        inner.complete("done");
+        assertEquals("done", stage.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        
+        ArgumentCaptor<Long> lockOwner = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> unlockOwner = ArgumentCaptor.forClass(Long.class);
+        verify(lock).lockAsync(lockOwner.capture());
+        verify(lock).unlockAsync(unlockOwner.capture());
+        assertTrue(lockOwner.getValue() < 0);
+        assertEquals(lockOwner.getValue(), unlockOwner.getValue());
+        verify(lock, never()).lock();
+    }
+    
+    @Test
+    void tryLockAsyncFailsWithoutRunningProcess() {
+        RLock lock = createLock("myLock", redissonClient);
+        when(lock.tryLockAsync(eq(30L), eq(20L), eq(TimeUnit.SECONDS), anyLong())).thenReturn(new CompletableFutureWrapper<>(false));
+        AtomicInteger processed = new AtomicInteger();
+        
+        CompletionStage<String> stage = template.tryLockAsync(asyncLock(() -> {
+            processed.incrementAndGet();
+            return CompletableFuture.completedFuture("result");
+        }), LockMode.EXCLUSIVE, 30, 20, TimeUnit.SECONDS, false, false);
+        
+        ExecutionException e = assertThrows(ExecutionException.class, () -> stage.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DistributedLockException.class, e.getCause());
+        assertEquals(0, processed.get());
+        verify(lock, never()).unlockAsync(anyLong());
+        assertEquals(1, template.getStatistics().top(1).get(0).getTimeouts());
+    }
+    
+    @Test
+    void lockAsyncPropagatesFailureAndRecordsExpiredLease() {
+        RLock lock = createLock("myLock", redissonClient);
+        when(lock.lockAsync(eq(20L), eq(TimeUnit.SECONDS), anyLong())).thenReturn(new CompletableFutureWrapper<>((Void) null));
+        when(lock.unlockAsync(anyLong())).thenReturn(new CompletableFutureWrapper<>(new IllegalMonitorStateException("not held")));
+        
+        CompletionStage<String> stage = template.lockAsync(asyncLock(() -> CompletableFuture.failedFuture(new IllegalStateException("boom"))),
+                LockMode.EXCLUSIVE, 20, TimeUnit.SECONDS, false, false);
+        
+        ExecutionException e = assertThrows(ExecutionException.class, () -> stage.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, template.getStatistics().top(1).get(0).getLeaseExpired());
+    }
+    
+    private DistributedLock<CompletionStage<String>> asyncLock(Supplier<CompletionStage<String>> process) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public CompletionStage<String> process() {
+                return process.get();
+            }
+            
+            @Override
+            public String lockName() {
+                return "myLock";
+            }
+        };
+    }
+    
+    @Test
+    void autoOutTimeUsesEstimatedLease() throws Throwable {
+        RLock lock = createLock("order_1", redissonClient);
+        when(lock.tryLock(30_000L, 2_000L, TimeUnit.MILLISECONDS)).thenReturn(true);
+        template.setLeaseEstimator(new AdaptiveLeaseEstimator(0.99, 2.0, Duration.ofMillis(1), Duration.ofSeconds(60)));
+        
+        template.lock(orderLock("1"), NebulaDistributedLockTemplate.AUTO_OUT_TIME, TimeUnit.SECONDS, false, false);
+        verify(lock).lock(60_000L, TimeUnit.MILLISECONDS);
+        
+        AdaptiveLeaseEstimator estimator = new AdaptiveLeaseEstimator(0.99, 2.0, Duration.ofMillis(1), Duration.ofSeconds(60));
+        estimator.leaseMillis("order_#orderId");
+        for (int i = 0; i < AdaptiveLeaseEstimator.MIN_SAMPLES; i++) {
+            estimator.record("order_#orderId", TimeUnit.SECONDS.toNanos(1));
+        }
+        template.setLeaseEstimator(estimator);
+        
+        template.tryLock(orderLock("1"), 30, NebulaDistributedLockTemplate.AUTO_OUT_TIME, TimeUnit.SECONDS, false, false);
+        verify(lock).tryLock(30_000L, 2_000L, TimeUnit.MILLISECONDS);
+    }
+    
+    @Test
+    void negativeOutTimeKeepsRedissonWatchDogSemantics() throws Throwable {
+        RLock lock = createLock("order_1", redissonClient);
+        AdaptiveLeaseEstimator estimator = mock(AdaptiveLeaseEstimator.class);
+        template.setLeaseEstimator(estimator);
+        
+        template.lock(orderLock("1"), -1, TimeUnit.SECONDS, false, false);
+        
+        verify(lock).lock(-1L, TimeUnit.SECONDS);
+        verify(estimator, never()).leaseMillis(anyString());
+    }
 }
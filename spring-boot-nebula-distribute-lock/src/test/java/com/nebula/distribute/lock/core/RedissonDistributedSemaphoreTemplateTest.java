@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.core;
+
+import com.nebula.distribute.lock.exception.DistributedLockException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RPermitExpirableSemaphore;
+import org.redisson.api.RedissonClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedissonDistributedSemaphoreTemplateTest {
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private RPermitExpirableSemaphore semaphore;
+    
+    private RedissonDistributedSemaphoreTemplate template;
+    
+    @BeforeEach
+    void setUp() {
+        template = new RedissonDistributedSemaphoreTemplate(redissonClient);
+        lenient().when(redissonClient.getPermitExpirableSemaphore("partner")).thenReturn(semaphore);
+    }
+    
+    @Test
+    void acquiresAndReleasesPermit() throws Throwable {
+        when(semaphore.tryAcquire(eq(TimeUnit.SECONDS.toNanos(1)), eq(TimeUnit.SECONDS.toNanos(10)), eq(TimeUnit.NANOSECONDS)))
+                .thenReturn("p1");
+        when(semaphore.tryRelease("p1")).thenReturn(true);
+        
+        assertEquals("ok", template.execute(task("partner", () -> "ok"), 3, 1, 10, TimeUnit.SECONDS, 0));
+        
+        verify(semaphore).setPermits(3);
+        verify(semaphore).tryRelease("p1");
+    }
+    
+    @Test
+    void failsWhenNoPermitWithinWaitTime() throws Throwable {
+        when(semaphore.tryAcquire(anyLong(), anyLong(), eq(TimeUnit.NANOSECONDS))).thenReturn(null);
+        AtomicInteger calls = new AtomicInteger();
+        
+        assertThrows(DistributedLockException.class,
+                () -> template.execute(task("partner", calls::incrementAndGet), 3, 1, 10, TimeUnit.SECONDS, 0));
+        
+        assertEquals(0, calls.get());
+        verify(semaphore, never()).tryRelease(anyString());
+    }
+    
+    @Test
+    void negativeWaitTimeWaitsForPermit() throws Throwable {
+        when(semaphore.acquire(TimeUnit.SECONDS.toNanos(10), TimeUnit.NANOSECONDS)).thenReturn("p1");
+        when(semaphore.tryRelease("p1")).thenReturn(true);
+        
+        assertEquals("ok", template.execute(task("partner", () -> "ok"), 3, -1, 10, TimeUnit.SECONDS, 0));
+    }
+    
+    @Test
+    void permitsAreOnlyWrittenWhenChanged() throws Throwable {
+        when(semaphore.tryAcquire(anyLong(), anyLong(), eq(TimeUnit.NANOSECONDS))).thenReturn("p1");
+        when(semaphore.tryRelease("p1")).thenReturn(true);
+        
+        template.execute(task("partner", () -> "ok"), 3, 1, 10, TimeUnit.SECONDS, 0);
+        template.execute(task("partner", () -> "ok"), 3, 1, 10, TimeUnit.SECONDS, 0);
+        template.execute(task("partner", () -> "ok"), 5, 1, 10, TimeUnit.SECONDS, 0);
+        
+        verify(semaphore, times(1)).setPermits(3);
+        verify(semaphore, times(1)).setPermits(5);
+    }
+    
+    @Test
+    void prefetchReusesLocalPermits() throws Throwable {
+        long permitLease = TimeUnit.SECONDS.toNanos(20);
+        when(semaphore.tryAcquire(4, 0L, permitLease, TimeUnit.NANOSECONDS)).thenReturn(List.of("p1", "p2", "p3", "p4"));
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals("ok", template.execute(task("partner", () -> "ok"), 10, 1, 10, TimeUnit.SECONDS, 4));
+        }
+        
+        verify(semaphore, times(1)).tryAcquire(anyInt(), anyLong(), anyLong(), any(TimeUnit.class));
+        verify(semaphore, never()).tryRelease(anyString());
+        
+        template.shutdown();
+        verify(semaphore).tryRelease(argThat((List<String> ids) -> ids.size() == 4 && ids.containsAll(List.of("p1", "p2", "p3", "p4"))));
+    }
+    
+    @Test
+    void prefetchFallsBackToSinglePermit() throws Throwable {
+        long permitLease = TimeUnit.SECONDS.toNanos(20);
+        when(semaphore.tryAcquire(4, 0L, permitLease, TimeUnit.NANOSECONDS)).thenReturn(List.of());
+        when(semaphore.tryAcquire(TimeUnit.SECONDS.toNanos(1), permitLease, TimeUnit.NANOSECONDS)).thenReturn("p1");
+        
+        assertEquals("ok", template.execute(task("partner", () -> "ok"), 10, 1, 10, TimeUnit.SECONDS, 4));
+        
+        verify(semaphore, never()).tryRelease(anyString());
+        verify(semaphore, never()).tryRelease(anyList());
+    }
+    
+    @Test
+    void evictedPermitPoolReleasesPrefetchedPermits() throws Throwable {
+        RPermitExpirableSemaphore other = mock(RPermitExpirableSemaphore.class);
+        when(redissonClient.getPermitExpirableSemaphore("other")).thenReturn(other);
+        long permitLease = TimeUnit.SECONDS.toNanos(20);
+        when(semaphore.tryAcquire(4, 0L, permitLease, TimeUnit.NANOSECONDS)).thenReturn(List.of("p1", "p2", "p3", "p4"));
+        when(other.tryAcquire(4, 0L, permitLease, TimeUnit.NANOSECONDS)).thenReturn(List.of("o1", "o2", "o3", "o4"));
+        List<String> released = new ArrayList<>();
+        for (RPermitExpirableSemaphore s : List.of(semaphore, other)) {
+            lenient().when(s.tryRelease(anyString())).thenAnswer(invocation -> released.add(invocation.getArgument(0)));
+            lenient().when(s.tryRelease(anyList())).thenAnswer(invocation -> {
+                List<String> ids = invocation.getArgument(0);
+                released.addAll(ids);
+                return ids.size();
+            });
+        }
+        RedissonDistributedSemaphoreTemplate smallTemplate = new RedissonDistributedSemaphoreTemplate(redissonClient, 1, Runnable::run);
+        
+        smallTemplate.execute(task("partner", () -> "ok"), 10, 1, 10, TimeUnit.SECONDS, 4);
+        smallTemplate.execute(task("other", () -> "ok"), 10, 1, 10, TimeUnit.SECONDS, 4);
+        // 只能缓存一个本地池，另一个池被淘汰时已经把许可还给 Redis
+        assertEquals(4, released.size());
+        
+        smallTemplate.shutdown();
+        
+        assertEquals(8, released.size());
+        assertEquals(Set.of("p1", "p2", "p3", "p4", "o1", "o2", "o3", "o4"), new HashSet<>(released));
+    }
+    
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> template.execute(task("partner", () -> "ok"), 0, 1, 10, TimeUnit.SECONDS, 0));
+        assertThrows(IllegalArgumentException.class, () -> template.execute(task("partner", () -> "ok"), 3, 1, 0, TimeUnit.SECONDS, 0));
+        assertThrows(IllegalArgumentException.class, () -> template.execute(task("partner", () -> "ok"), 3, 1, 10, TimeUnit.SECONDS, -1));
+    }
+    
+    private static <T> DistributedLock<T> task(String name, Supplier<T> process) {
+        return new DistributedLock<>() {
+            
+            @Override
+            public T process() {
+                return process.get();
+            }
+            
+            @Override
+            public String lockName() {
+                return name;
+            }
+        };
+    }
+}
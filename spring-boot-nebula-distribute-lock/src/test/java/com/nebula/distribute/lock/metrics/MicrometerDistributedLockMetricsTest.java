@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.distribute.lock.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicrometerDistributedLockMetricsTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    
+    private final MicrometerDistributedLockMetrics metrics = new MicrometerDistributedLockMetrics(registry);
+    
+    @Test
+    void recordsByLockNamePattern() {
+        metrics.recordAcquired("order_#orderId", TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordTimeout("order_#orderId", TimeUnit.MILLISECONDS.toNanos(5));
+        
+        assertEquals(1, registry.get("nebula.lock.wait").tag("lock", "order_#orderId").timer().count());
+        assertEquals(1.0, registry.get("nebula.lock.timeouts").tag("lock", "order_#orderId").counter().count());
+    }
+    
+    @Test
+    void patternsBeyondLimitShareOverflowTag() {
+        for (int i = 0; i < MicrometerDistributedLockMetrics.MAX_PATTERNS; i++) {
+            metrics.recordFailure("order_" + i);
+        }
+        metrics.recordFailure("order_new_1");
+        metrics.recordFailure("order_new_2");
+        metrics.recordFailure("order_0");
+        
+        assertEquals(MicrometerDistributedLockMetrics.MAX_PATTERNS + 1, registry.get("nebula.lock.failures").counters().size());
+        assertEquals(2.0, registry.get("nebula.lock.failures").tag("lock", MicrometerDistributedLockMetrics.OVERFLOW_PATTERN).counter().count());
+        assertEquals(2.0, registry.get("nebula.lock.failures").tag("lock", "order_0").counter().count());
+    }
+}
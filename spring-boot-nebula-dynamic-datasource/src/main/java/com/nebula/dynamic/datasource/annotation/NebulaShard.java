@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author : wh
+ * @date : 2025/9/1
+ * @description: 按分片键分库，方法执行期间切换到分库策略计算出的数据源。
+ * <p>
+ * 与 {@link NebulaDS} 同时存在时以分片结果为准
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface NebulaShard {
+    
+    /**
+     * 分片键，以 # 开头时按 SpEL 解析方法参数，如 {@code #tenantId}、{@code #order.tenantId}
+     */
+    String key();
+    
+    /**
+     * 分库策略名：{@code nebula.dynamic-datasource.shards} 下配置的名字，或 {@link com.nebula.dynamic.datasource.shard.ShardStrategy} Bean 的名字
+     */
+    String strategy();
+    
+}
@@ -18,16 +18,48 @@
 package com.nebula.dynamic.datasource.autoconfigure;
 
 import com.nebula.dynamic.datasource.annotation.NebulaDS;
+import com.nebula.dynamic.datasource.annotation.NebulaShard;
 import com.nebula.dynamic.datasource.core.DynamicDataSourceMethodInterceptor;
+import com.nebula.dynamic.datasource.core.DynamicRoutingDataSource;
+import com.nebula.dynamic.datasource.mybatis.ReadWriteRoutingInterceptor;
+import com.nebula.dynamic.datasource.shard.HashModShardStrategy;
+import com.nebula.dynamic.datasource.shard.LookupShardStrategy;
+import com.nebula.dynamic.datasource.shard.RangeShardStrategy;
+import com.nebula.dynamic.datasource.shard.ShardMethodInterceptor;
+import com.nebula.dynamic.datasource.shard.ShardStrategy;
+import com.nebula.dynamic.datasource.web.ReadYourWritesFilter;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.ibatis.plugin.Interceptor;
 import org.springframework.aop.Advisor;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.support.ComposablePointcut;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
 import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.web.filter.OncePerRequestFilter;
 
 /**
  * @author : wh
@@ -35,15 +67,154 @@ import org.springframework.core.Ordered;
  * @description:
  */
 @AutoConfiguration(after = DataSourceAutoConfiguration.class)
+@EnableConfigurationProperties(NebulaDynamicDataSourceProperties.class)
 public class DynamicDataSourceAutoConfigure {
     
     @Bean
     public Advisor dynamicDataSourceAdvisor() {
         AnnotationMatchingPointcut classPointcut = new AnnotationMatchingPointcut(NebulaDS.class, true);
-        Pointcut methodPointcut = AnnotationMatchingPointcut.forMethodAnnotation(NebulaDS.class);
+        // forMethodAnnotation 不识别元注解，方法上的 @NebulaRead/@NebulaWrite 需要 checkInherited 才能匹配
+        Pointcut methodPointcut = new AnnotationMatchingPointcut(null, NebulaDS.class, true);
         Pointcut union = new ComposablePointcut(classPointcut).union(methodPointcut);
         DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(union, new DynamicDataSourceMethodInterceptor());
         advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
         return advisor;
     }
+    
+    /**
+     * 排在 {@link NebulaDS} 切面之内，同一方法上分片结果覆盖注解指定的数据源
+     */
+    @Bean
+    public Advisor shardAdvisor(NebulaDynamicDataSourceProperties properties, BeanFactory beanFactory,
+                                ObjectProvider<DynamicRoutingDataSource> dataSources) {
+        Map<String, ShardStrategy> strategies = new HashMap<>();
+        properties.getShards().forEach((name, shard) -> strategies.put(name, createShardStrategy(name, shard)));
+        ShardMethodInterceptor interceptor = new ShardMethodInterceptor(name -> {
+            ShardStrategy strategy = strategies.get(name);
+            if (strategy == null && beanFactory.containsBean(name)) {
+                strategy = beanFactory.getBean(name, ShardStrategy.class);
+            }
+            return strategy;
+        }, key -> isRegistered(dataSources, key));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(NebulaShard.class), interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return advisor;
+    }
+    
+    /**
+     * 启动时校验配置的分片数据源都已注册，自定义 {@link ShardStrategy} Bean 在第一次路由时校验
+     */
+    @Bean
+    public SmartInitializingSingleton shardDataSourceValidator(NebulaDynamicDataSourceProperties properties,
+                                                               ObjectProvider<DynamicRoutingDataSource> dataSources) {
+        return () -> properties.getShards().forEach((name, shard) -> {
+            Set<String> targets = new LinkedHashSet<>(shard.getDataSources());
+            targets.addAll(shard.getRanges().values());
+            targets.addAll(shard.getMapping().values());
+            for (String target : targets) {
+                if (!isRegistered(dataSources, target)) {
+                    throw new IllegalStateException("Data source " + target + " of shard " + name + " is not registered in DynamicRoutingDataSource");
+                }
+            }
+        });
+    }
+    
+    /**
+     * 把配置的 read-your-writes 窗口应用到未单独设置窗口的 DynamicRoutingDataSource
+     */
+    @Bean
+    @Conditional(OnReadYourWritesWindowCondition.class)
+    public SmartInitializingSingleton readYourWritesWindowInitializer(NebulaDynamicDataSourceProperties properties,
+                                                                      ObjectProvider<DynamicRoutingDataSource> dataSources) {
+        Duration window = properties.getReadYourWrites().getWindow();
+        return () -> dataSources.forEach(dataSource -> {
+            if (dataSource.getReadYourWritesWindow().isZero()) {
+                dataSource.setReadYourWritesWindow(window);
+            }
+        });
+    }
+    
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(OncePerRequestFilter.class)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @Conditional(OnReadYourWritesWindowCondition.class)
+    static class ReadYourWritesFilterConfiguration {
+        
+        @Bean
+        public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilterRegistration(NebulaDynamicDataSourceProperties properties) {
+            NebulaDynamicDataSourceProperties.ReadYourWrites readYourWrites = properties.getReadYourWrites();
+            FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>();
+            registration.setFilter(new ReadYourWritesFilter(readYourWrites.getWindow(), readYourWrites.getHeader(), readYourWrites.getCookie()));
+            registration.addUrlPatterns("/*");
+            registration.setName("nebulaReadYourWritesFilter");
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+            return registration;
+        }
+    }
+    
+    /**
+     * MyBatis 的自动配置会把容器中的 {@link Interceptor} 注册为插件
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Interceptor.class)
+    @ConditionalOnProperty(prefix = "nebula.dynamic-datasource", name = "auto-routing", havingValue = "true")
+    static class AutoRoutingConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public ReadWriteRoutingInterceptor readWriteRoutingInterceptor() {
+            return new ReadWriteRoutingInterceptor();
+        }
+    }
+    
+    /**
+     * read-your-writes 窗口为正数时才生效，未配置或配置为 0 表示关闭
+     */
+    static class OnReadYourWritesWindowCondition extends SpringBootCondition {
+        
+        private static final String WINDOW_PROPERTY = "nebula.dynamic-datasource.read-your-writes.window";
+        
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Duration window = Binder.get(context.getEnvironment()).bind(WINDOW_PROPERTY, Duration.class).orElse(Duration.ZERO);
+            if (window.isNegative() || window.isZero()) {
+                return ConditionOutcome.noMatch(WINDOW_PROPERTY + " is " + window + ", read-your-writes is disabled");
+            }
+            return ConditionOutcome.match(WINDOW_PROPERTY + " is " + window);
+        }
+    }
+    
+    /**
+     * 没有 DynamicRoutingDataSource 时无从校验，视为已注册
+     */
+    private static boolean isRegistered(ObjectProvider<DynamicRoutingDataSource> dataSources, String key) {
+        boolean present = false;
+        for (DynamicRoutingDataSource dataSource : dataSources) {
+            if (dataSource.containsDataSource(key)) {
+                return true;
+            }
+            present = true;
+        }
+        return !present;
+    }
+    
+    private static ShardStrategy createShardStrategy(String name, NebulaDynamicDataSourceProperties.Shard shard) {
+        switch (shard.getType()) {
+            case RANGE:
+                if (shard.getRanges().isEmpty()) {
+                    throw new IllegalArgumentException("Shard " + name + " requires ranges");
+                }
+                RangeShardStrategy.Builder builder = RangeShardStrategy.builder();
+                shard.getRanges().forEach(builder::addRange);
+                return builder.build();
+            case LOOKUP:
+                ShardStrategy fallback = shard.getDataSources().isEmpty() ? null : new HashModShardStrategy(shard.getDataSources());
+                return new LookupShardStrategy(shard.getMapping(), fallback);
+            default:
+                if (shard.getDataSources().isEmpty()) {
+                    throw new IllegalArgumentException("Shard " + name + " requires data-sources");
+                }
+                return new HashModShardStrategy(shard.getDataSources());
+        }
+    }
 }
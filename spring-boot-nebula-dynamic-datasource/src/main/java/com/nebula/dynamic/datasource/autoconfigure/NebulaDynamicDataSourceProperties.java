@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.autoconfigure;
+
+import com.nebula.dynamic.datasource.web.ReadYourWritesFilter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author : wh
+ * @date : 2025/8/29
+ * @description:
+ */
+@ConfigurationProperties(prefix = "nebula.dynamic-datasource")
+@Data
+public class NebulaDynamicDataSourceProperties {
+    
+    private ReadYourWrites readYourWrites = new ReadYourWrites();
+    
+    /**
+     * 是否开启 MyBatis 按 SQL 类型自动读写分离，标注了 {@code @NebulaRead}/{@code @NebulaWrite} 的方法仍以注解为准
+     */
+    private boolean autoRouting = false;
+    
+    /**
+     * 分库策略，key 为 {@code @NebulaShard(strategy = ...)} 引用的名字
+     */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+    
+    @Data
+    public static class ReadYourWrites {
+        
+        /**
+         * 写主库后多长时间内的读请求路由到主库，0 表示关闭。
+         * <p>YAML 示例：{@code nebula.dynamic-datasource.read-your-writes.window: 2s}
+         */
+        private Duration window = Duration.ZERO;
+        
+        /**
+         * 传播写时间的请求头/响应头
+         */
+        private String header = ReadYourWritesFilter.DEFAULT_HEADER;
+        
+        /**
+         * 传播写时间的 Cookie 名字，为空时不使用 Cookie
+         */
+        private String cookie = "";
+    }
+    
+    @Data
+    public static class Shard {
+        
+        private ShardType type = ShardType.HASH_MOD;
+        
+        /**
+         * hash-mod 的数据源，按顺序对应余数 0..n-1；lookup 中映射表没有的键也按这些数据源取模
+         */
+        private List<String> dataSources = new ArrayList<>();
+        
+        /**
+         * range 的区间：下界（包含）到数据源，YAML 示例：{@code ranges: {"[0]": ds_0, "[1000000]": ds_1}}
+         */
+        private Map<Long, String> ranges = new LinkedHashMap<>();
+        
+        /**
+         * lookup 的映射表：分片键到数据源
+         */
+        private Map<String, String> mapping = new LinkedHashMap<>();
+    }
+    
+    public enum ShardType {
+        
+        HASH_MOD,
+        
+        RANGE,
+        
+        LOOKUP
+    }
+}
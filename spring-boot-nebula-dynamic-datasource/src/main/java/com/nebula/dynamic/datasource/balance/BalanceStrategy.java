@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.util.function.Supplier;
+
+/**
+ * @author : wh
+ * @date : 2025/8/25
+ * @description: 内置的读组负载均衡策略
+ */
+public enum BalanceStrategy {
+    
+    /**
+     * 轮询
+     */
+    ROUND_ROBIN(RoundRobinBalancer::new),
+    
+    /**
+     * 按权重随机
+     */
+    WEIGHTED(WeightedBalancer::new),
+    
+    /**
+     * 最少活跃连接
+     */
+    LEAST_ACTIVE(LeastActiveBalancer::new),
+    
+    /**
+     * 连接持有耗时（借出到归还）EWMA
+     */
+    LATENCY_EWMA(LatencyEwmaBalancer::new);
+    
+    private final Supplier<ReplicaBalancer> factory;
+    
+    BalanceStrategy(Supplier<ReplicaBalancer> factory) {
+        this.factory = factory;
+    }
+    
+    /**
+     * 创建新的策略实例，有状态的策略（如轮询）每个读组各用一个
+     */
+    public ReplicaBalancer create() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author : wh
+ * @date : 2025/8/25
+ * @description: 按连接耗时 EWMA 选择：随机取两个副本，选 耗时 × (活跃连接数 + 1) 较小的一个。
+ * 随机二选一既能偏向快的副本，又不会让所有请求同时涌向同一个副本；没有样本的副本耗时记为 0，会优先被探测。
+ * <p>
+ * 耗时是连接从借出到归还的时间，包含持有连接期间执行的业务代码，而不只是 SQL 执行时间。
+ * 适合持有连接期间基本只执行查询的读路径；持有时间差异主要来自业务逻辑时，使用 {@link LeastActiveBalancer} 更合适
+ */
+public class LatencyEwmaBalancer implements ReplicaBalancer {
+    
+    @Override
+    public ReadReplica choose(List<ReadReplica> replicas) {
+        int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ReadReplica a = replicas.get(first);
+        ReadReplica b = replicas.get(second);
+        return score(a) <= score(b) ? a : b;
+    }
+    
+    private static double score(ReadReplica replica) {
+        return replica.getLatencyEwmaNanos() * (replica.getActive() + 1);
+    }
+}
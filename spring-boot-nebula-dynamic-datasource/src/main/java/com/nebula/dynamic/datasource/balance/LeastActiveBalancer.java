@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author : wh
+ * @date : 2025/8/25
+ * @description: 最少活跃连接，活跃连接数相同时随机选择，避免总是命中第一个副本
+ */
+public class LeastActiveBalancer implements ReplicaBalancer {
+    
+    @Override
+    public ReadReplica choose(List<ReadReplica> replicas) {
+        ReadReplica chosen = null;
+        int least = Integer.MAX_VALUE;
+        int ties = 0;
+        for (ReadReplica replica : replicas) {
+            int active = replica.getActive();
+            if (active < least) {
+                least = active;
+                chosen = replica;
+                ties = 1;
+            } else if (active == least && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                chosen = replica;
+            }
+        }
+        return chosen;
+    }
+}
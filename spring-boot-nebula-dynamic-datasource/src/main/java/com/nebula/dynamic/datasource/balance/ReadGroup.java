@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author : wh
+ * @date : 2025/8/25
+ * @description: 读组：一个逻辑数据源 key（如 {@link com.nebula.dynamic.datasource.DynamicConstant#READ}）对应多个只读副本，
+ * 每次获取连接时由负载均衡策略选择其中一个
+ */
+public class ReadGroup {
+    
+    private final String key;
+    
+    private final List<ReadReplica> replicas;
+    
+    private final ReplicaBalancer balancer;
+    
+    private ReadGroup(Builder builder) {
+        this.key = builder.key;
+        List<ReadReplica> replicas = new ArrayList<>(builder.replicaWeights.size());
+        builder.replicaWeights.forEach((replicaKey, weight) -> replicas.add(new ReadReplica(replicaKey, weight,
+                new ReplicaCircuitBreaker(replicaKey, builder.failureThreshold, builder.openDuration, builder.rampUp))));
+        this.replicas = List.copyOf(replicas);
+        this.balancer = builder.balancer;
+    }
+    
+    public static Builder builder(String key) {
+        return new Builder(key);
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    public List<ReadReplica> getReplicas() {
+        return replicas;
+    }
+    
+    /**
+     * 选择本次连接使用的副本，熔断中的副本不参与选择
+     * @return 没有可用副本时返回 null，由调用方回退到主库
+     */
+    public ReadReplica choose() {
+        List<ReadReplica> candidates = admittedReplicas();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.size() == 1 ? candidates.get(0) : balancer.choose(candidates);
+    }
+    
+    /**
+     * 全部副本正常时直接返回原列表，只有存在熔断副本时才复制
+     */
+    private List<ReadReplica> admittedReplicas() {
+        List<ReadReplica> admitted = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadReplica replica = replicas.get(i);
+            if (replica.getCircuitBreaker().allowRequest()) {
+                if (admitted != null) {
+                    admitted.add(replica);
+                }
+            } else if (admitted == null) {
+                admitted = new ArrayList<>(replicas.subList(0, i));
+            }
+        }
+        return admitted == null ? replicas : admitted;
+    }
+    
+    public static class Builder {
+        
+        private final String key;
+        
+        private final Map<String, Integer> replicaWeights = new LinkedHashMap<>();
+        
+        private ReplicaBalancer balancer = BalanceStrategy.ROUND_ROBIN.create();
+        
+        private int failureThreshold = 3;
+        
+        private Duration openDuration = Duration.ofSeconds(30);
+        
+        private Duration rampUp = Duration.ofSeconds(30);
+        
+        private Builder(String key) {
+            if (key == null || key.isEmpty()) {
+                throw new IllegalArgumentException("group key cannot be empty");
+            }
+            this.key = key;
+        }
+        
+        /**
+         * 添加副本，权重为 1
+         * @param replicaKey targetDataSources 中的数据源 key
+         */
+        public Builder addReplica(String replicaKey) {
+            return addReplica(replicaKey, 1);
+        }
+        
+        /**
+         * 添加副本，权重只对 {@link BalanceStrategy#WEIGHTED} 生效
+         */
+        public Builder addReplica(String replicaKey, int weight) {
+            if (replicaKey == null || replicaKey.isEmpty()) {
+                throw new IllegalArgumentException("replica key cannot be empty");
+            }
+            if (weight <= 0) {
+                throw new IllegalArgumentException("replica weight must be positive");
+            }
+            replicaWeights.put(replicaKey, weight);
+            return this;
+        }
+        
+        public Builder setStrategy(BalanceStrategy strategy) {
+            if (strategy == null) {
+                throw new IllegalArgumentException("strategy cannot be null");
+            }
+            this.balancer = strategy.create();
+            return this;
+        }
+        
+        public Builder setBalancer(ReplicaBalancer balancer) {
+            if (balancer == null) {
+                throw new IllegalArgumentException("balancer cannot be null");
+            }
+            this.balancer = balancer;
+            return this;
+        }
+        
+        /**
+         * 副本熔断参数，见 {@link ReplicaCircuitBreaker}
+         * @param failureThreshold 连续失败多少次后熔断
+         * @param openDuration 熔断持续时间
+         * @param rampUp 恢复后流量从 10% 升到 100% 的时间
+         */
+        public Builder setCircuitBreaker(int failureThreshold, Duration openDuration, Duration rampUp) {
+            if (failureThreshold <= 0) {
+                throw new IllegalArgumentException("failureThreshold must be positive");
+            }
+            if (openDuration == null || openDuration.isNegative() || rampUp == null || rampUp.isNegative()) {
+                throw new IllegalArgumentException("openDuration and rampUp cannot be negative");
+            }
+            this.failureThreshold = failureThreshold;
+            this.openDuration = openDuration;
+            this.rampUp = rampUp;
+            return this;
+        }
+        
+        public ReadGroup build() {
+            if (replicaWeights.isEmpty()) {
+                throw new IllegalArgumentException("read group " + key + " must have at least one replica");
+            }
+            return new ReadGroup(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author : wh
+ * @date : 2025/8/25
+ * @description: 读组中的一个只读副本，记录负载均衡所需的活跃连接数和连接耗时
+ */
+public class ReadReplica {
+    
+    /**
+     * 连接耗时 EWMA 的平滑系数，越大越偏向最近的样本
+     */
+    private static final double EWMA_ALPHA = 0.2;
+    
+    /**
+     * targetDataSources 中对应的数据源 key
+     */
+    private final String key;
+    
+    private final int weight;
+    
+    private final ReplicaCircuitBreaker circuitBreaker;
+    
+    private final AtomicInteger active = new AtomicInteger();
+    
+    /**
+     * 连接从借出到归还的耗时 EWMA（纳秒），包含持有连接期间的业务代码耗时，0 表示还没有样本
+     */
+    private volatile double latencyEwmaNanos;
+    
+    public ReadReplica(String key, int weight) {
+        this(key, weight, new ReplicaCircuitBreaker(key));
+    }
+    
+    public ReadReplica(String key, int weight, ReplicaCircuitBreaker circuitBreaker) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("replica key cannot be empty");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("replica weight must be positive");
+        }
+        if (circuitBreaker == null) {
+            throw new IllegalArgumentException("circuitBreaker cannot be null");
+        }
+        this.key = key;
+        this.weight = weight;
+        this.circuitBreaker = circuitBreaker;
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    public int getWeight() {
+        return weight;
+    }
+    
+    public ReplicaCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * 当前借出未归还的连接数
+     */
+    public int getActive() {
+        return active.get();
+    }
+    
+    public double getLatencyEwmaNanos() {
+        return latencyEwmaNanos;
+    }
+    
+    /**
+     * 借出一个连接
+     */
+    public void acquired() {
+        active.incrementAndGet();
+    }
+    
+    /**
+     * 归还一个连接
+     * @param holdNanos 连接从借出到归还的耗时
+     */
+    public void released(long holdNanos) {
+        active.decrementAndGet();
+        synchronized (this) {
+            double previous = latencyEwmaNanos;
+            latencyEwmaNanos = previous == 0 ? holdNanos : previous + EWMA_ALPHA * (holdNanos - previous);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return key;
+    }
+}
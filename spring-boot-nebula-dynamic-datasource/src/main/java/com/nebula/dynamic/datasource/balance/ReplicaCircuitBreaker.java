@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/8/27
+ * @description: 副本熔断器。
+ * <p>
+ * CLOSED：正常接收流量，连续失败 failureThreshold 次后熔断；
+ * OPEN：不接收流量，openDuration 后进入 HALF_OPEN，因复制延迟被摘除的副本需等健康检查确认延迟恢复；
+ * HALF_OPEN：放行的流量比例在 rampUp 时间内从 10% 线性升到 100%，之后恢复 CLOSED，期间任何一次失败都重新熔断
+ */
+@Slf4j
+public class ReplicaCircuitBreaker {
+    
+    public enum State {
+        
+        CLOSED,
+        
+        OPEN,
+        
+        HALF_OPEN
+    }
+    
+    /**
+     * HALF_OPEN 开始时放行的流量比例
+     */
+    private static final double INITIAL_ADMISSION = 0.1;
+    
+    private final String name;
+    
+    private final int failureThreshold;
+    
+    private final long openNanos;
+    
+    private final long rampUpNanos;
+    
+    private final LongSupplier clock;
+    
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    
+    private volatile State state = State.CLOSED;
+    
+    private volatile long stateChangedAt;
+    
+    /**
+     * 是否因复制延迟被摘除，此时只有健康检查能让副本恢复
+     */
+    private volatile boolean lagging;
+    
+    public ReplicaCircuitBreaker(String name) {
+        this(name, 3, Duration.ofSeconds(30), Duration.ofSeconds(30));
+    }
+    
+    public ReplicaCircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration rampUp) {
+        this(name, failureThreshold, openDuration, rampUp, System::nanoTime);
+    }
+    
+    ReplicaCircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration rampUp, LongSupplier clock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        if (openDuration == null || openDuration.isNegative() || rampUp == null || rampUp.isNegative()) {
+            throw new IllegalArgumentException("openDuration and rampUp cannot be negative");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.rampUpNanos = rampUp.toNanos();
+        this.clock = clock;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    /**
+     * 本次获取连接是否可以使用该副本
+     */
+    public boolean allowRequest() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        long elapsed = clock.getAsLong() - stateChangedAt;
+        if (current == State.OPEN) {
+            if (lagging || elapsed < openNanos) {
+                return false;
+            }
+            transition(State.OPEN, State.HALF_OPEN);
+            return ThreadLocalRandom.current().nextDouble() < INITIAL_ADMISSION;
+        }
+        if (elapsed >= rampUpNanos) {
+            transition(State.HALF_OPEN, State.CLOSED);
+            return true;
+        }
+        double admission = INITIAL_ADMISSION + (1 - INITIAL_ADMISSION) * elapsed / rampUpNanos;
+        return ThreadLocalRandom.current().nextDouble() < admission;
+    }
+    
+    public void onSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+    
+    public void onFailure() {
+        if (state == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(false);
+        }
+    }
+    
+    /**
+     * 复制延迟超过阈值，立即摘除
+     */
+    public void eject() {
+        open(true);
+    }
+    
+    /**
+     * 健康检查通过：清除延迟摘除标记，熔断已满 openDuration 时进入 HALF_OPEN 逐步恢复流量
+     */
+    public void onProbeHealthy() {
+        onSuccess();
+        lagging = false;
+        if (state == State.OPEN && clock.getAsLong() - stateChangedAt >= openNanos) {
+            transition(State.OPEN, State.HALF_OPEN);
+        }
+    }
+    
+    private synchronized void open(boolean lag) {
+        lagging = lag;
+        consecutiveFailures.set(0);
+        if (state != State.OPEN) {
+            log.warn("Replica {} is ejected ({})", name, lag ? "replication lag" : "consecutive failures");
+        }
+        state = State.OPEN;
+        stateChangedAt = clock.getAsLong();
+    }
+    
+    private synchronized void transition(State from, State to) {
+        if (state == from) {
+            state = to;
+            stateChangedAt = clock.getAsLong();
+            log.info("Replica {} circuit {} -> {}", name, from, to);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author : wh
+ * @date : 2025/8/25
+ * @description: 按权重随机，副本被选中的概率与权重成正比
+ */
+public class WeightedBalancer implements ReplicaBalancer {
+    
+    @Override
+    public ReadReplica choose(List<ReadReplica> replicas) {
+        int totalWeight = 0;
+        for (ReadReplica replica : replicas) {
+            totalWeight += replica.getWeight();
+        }
+        int offset = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (ReadReplica replica : replicas) {
+            offset -= replica.getWeight();
+            if (offset < 0) {
+                return replica;
+            }
+        }
+        return replicas.get(replicas.size() - 1);
+    }
+}
@@ -17,8 +17,8 @@
  
 package com.nebula.dynamic.datasource.core;
 
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
 
 /**
  * @author : wh
@@ -27,34 +27,143 @@ import java.util.LinkedList;
  */
 public class DynamicDataSourceContextHolder {
     
-    private static final ThreadLocal<Deque<String>> CONTEXT_HOLDER = ThreadLocal.withInitial(LinkedList::new);
+    /**
+     * 只有一层时直接保存数据源 key，嵌套切换时才升级为 {@link DataSourceStack}。
+     * 最外层清除时移除，避免在线程池（包括虚拟线程）的线程上残留导致类加载器泄漏；只读的 {@link #getDataSource()} 不创建
+     */
+    private static final ThreadLocal<Object> CONTEXT_HOLDER = new ThreadLocal<>();
+    
+    /**
+     * 当前线程（请求）最近一次写主库的时间戳（毫秒）。
+     * <p>
+     * 作用域为 {@link com.nebula.dynamic.datasource.web.ReadYourWritesFilter} 的请求，没有过滤器时（MQ 消费、定时任务等）
+     * 为最外层数据源切换：最外层 {@link #clear()} 时清除，避免残留在线程池的线程上把无关的读请求钉在主库
+     */
+    private static final ThreadLocal<Long> LAST_WRITE_TIME = new ThreadLocal<>();
+    
+    /**
+     * 写主库时的回调，用于把写时间传播到响应头或 Cookie
+     */
+    private static final ThreadLocal<LongConsumer> WRITE_LISTENER = new ThreadLocal<>();
     
     /**
      * 设置数据源
      */
     public static void setDataSource(String dataSource) {
-        CONTEXT_HOLDER.get().push(dataSource);
+        Object current = CONTEXT_HOLDER.get();
+        if (current == null) {
+            CONTEXT_HOLDER.set(dataSource);
+        } else if (current instanceof DataSourceStack) {
+            ((DataSourceStack) current).push(dataSource);
+        } else {
+            DataSourceStack stack = new DataSourceStack();
+            stack.push((String) current);
+            stack.push(dataSource);
+            CONTEXT_HOLDER.set(stack);
+        }
     }
     
     /**
      * 获取当前数据源
      */
     public static String getDataSource() {
-        Deque<String> deque = CONTEXT_HOLDER.get();
-        return deque.isEmpty() ? null : deque.peek();
+        Object current = CONTEXT_HOLDER.get();
+        if (current instanceof DataSourceStack) {
+            return ((DataSourceStack) current).peek();
+        }
+        return (String) current;
     }
     
     /**
      * 清除当前数据源（回退到上一个，如果有的话）
      */
     public static void clear() {
-        Deque<String> deque = CONTEXT_HOLDER.get();
-        if (!deque.isEmpty()) {
-            deque.pop();
+        Object current = CONTEXT_HOLDER.get();
+        if (current instanceof DataSourceStack) {
+            DataSourceStack stack = (DataSourceStack) current;
+            stack.pop();
+            if (stack.peek() != null) {
+                return;
+            }
         }
-        if (deque.isEmpty()) {
+        if (current != null) {
             CONTEXT_HOLDER.remove();
         }
+        if (WRITE_LISTENER.get() == null) {
+            LAST_WRITE_TIME.remove();
+        }
+    }
+    
+    /**
+     * 记录当前线程刚写过主库，read-your-writes 窗口内的读请求会路由到主库。
+     * 不在任何作用域内（既没有外层数据源切换，也不在 ReadYourWritesFilter 请求内）时没有后续读请求需要保护，不做记录
+     */
+    public static void markWrite() {
+        LongConsumer listener = WRITE_LISTENER.get();
+        if (listener == null && getDataSource() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        LAST_WRITE_TIME.set(now);
+        if (listener != null) {
+            listener.accept(now);
+        }
+    }
+    
+    /**
+     * 设置最近一次写主库的时间，如从上游请求头或 Cookie 中恢复
+     */
+    public static void setLastWriteTime(long epochMillis) {
+        Long current = LAST_WRITE_TIME.get();
+        if (current == null || current < epochMillis) {
+            LAST_WRITE_TIME.set(epochMillis);
+        }
+    }
+    
+    /**
+     * 获取最近一次写主库的时间，没有写过返回 0
+     */
+    public static long getLastWriteTime() {
+        Long lastWriteTime = LAST_WRITE_TIME.get();
+        return lastWriteTime == null ? 0 : lastWriteTime;
     }
     
+    public static void clearLastWriteTime() {
+        LAST_WRITE_TIME.remove();
+    }
+    
+    public static void setWriteListener(LongConsumer listener) {
+        WRITE_LISTENER.set(listener);
+    }
+    
+    public static void clearWriteListener() {
+        WRITE_LISTENER.remove();
+    }
+    
+    /**
+     * 数组实现的数据源栈，嵌套调用一般只有几层，栈内的入栈出栈不产生额外对象
+     */
+    private static final class DataSourceStack {
+        
+        private String[] elements = new String[4];
+        
+        private int size;
+        
+        void push(String dataSource) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size << 1);
+            }
+            elements[size++] = dataSource;
+        }
+        
+        String peek() {
+            return size == 0 ? null : elements[size - 1];
+        }
+        
+        void pop() {
+            if (size > 0) {
+                elements[--size] = null;
+            }
+        }
+    }
 }
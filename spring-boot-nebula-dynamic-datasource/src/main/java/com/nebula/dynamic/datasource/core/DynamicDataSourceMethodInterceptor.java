@@ -17,11 +17,15 @@
  
 package com.nebula.dynamic.datasource.core;
 
+import com.nebula.dynamic.datasource.DynamicConstant;
 import com.nebula.dynamic.datasource.annotation.NebulaDS;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.util.ClassUtils;
 
@@ -32,29 +36,56 @@ import org.springframework.util.ClassUtils;
  */
 public class DynamicDataSourceMethodInterceptor implements MethodInterceptor {
     
+    /**
+     * 方法没有标注 {@link NebulaDS} 时缓存的占位值
+     */
+    private static final String NO_DATA_SOURCE = "";
+    
+    /**
+     * (方法, 目标类) 解析出的数据源，注解解析只在第一次调用时发生
+     */
+    private final Map<MethodClassKey, String> dataSourceCache = new ConcurrentHashMap<>(256);
+    
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
-        NebulaDS ds = getDSAnnotation(invocation);
-        boolean pushed = false;
-        if (ds != null) {
-            DynamicDataSourceContextHolder.setDataSource(ds.value());
-            pushed = true;
+        String dataSource = getDataSource(invocation);
+        if (NO_DATA_SOURCE.equals(dataSource)) {
+            return invocation.proceed();
+        }
+        boolean write = DynamicConstant.WRITE.equals(dataSource);
+        DynamicDataSourceContextHolder.setDataSource(dataSource);
+        if (write) {
+            // 进入时就记录，写方法内部调用的 @NebulaRead 方法也要读到刚写的数据
+            DynamicDataSourceContextHolder.markWrite();
         }
         try {
             return invocation.proceed();
         } finally {
-            if (pushed) {
-                DynamicDataSourceContextHolder.clear();
+            if (write) {
+                // 无论成功与否都可能已经写入，从写完的时刻重新计算窗口
+                DynamicDataSourceContextHolder.markWrite();
             }
+            DynamicDataSourceContextHolder.clear();
         }
         
     }
     
-    private NebulaDS getDSAnnotation(MethodInvocation invocation) {
+    private String getDataSource(MethodInvocation invocation) {
         Method method = invocation.getMethod();
+        Class<?> targetClass = AopUtils.getTargetClass(invocation.getThis());
+        MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+        String dataSource = dataSourceCache.get(cacheKey);
+        if (dataSource == null) {
+            NebulaDS ds = getDSAnnotation(method, targetClass);
+            dataSource = ds == null ? NO_DATA_SOURCE : ds.value();
+            dataSourceCache.put(cacheKey, dataSource);
+        }
+        return dataSource;
+    }
+    
+    private NebulaDS getDSAnnotation(Method method, Class<?> targetClass) {
         NebulaDS ds = AnnotatedElementUtils.findMergedAnnotation(method, NebulaDS.class);
         if (ds == null) {
-            Class<?> targetClass = AopUtils.getTargetClass(invocation.getThis());
             Method specificMethod = ClassUtils.getMostSpecificMethod(method, targetClass);
             ds = AnnotatedElementUtils.findMergedAnnotation(specificMethod, NebulaDS.class);
             if (ds == null) {
@@ -64,4 +95,4 @@ public class DynamicDataSourceMethodInterceptor implements MethodInterceptor {
         return ds;
     }
     
-}
\ No newline at end of file
+}
@@ -17,18 +17,187 @@
  
 package com.nebula.dynamic.datasource.core;
 
+import com.nebula.dynamic.datasource.DynamicConstant;
+import com.nebula.dynamic.datasource.balance.ReadGroup;
+import com.nebula.dynamic.datasource.balance.ReadReplica;
+import com.nebula.dynamic.datasource.health.ReplicaHealthMonitor;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 
 /**
  * @author : wh
  * @date : 2025/8/21
- * @description:
+ * @description: 动态数据源。
+ * <p>
+ * 通过 {@link #addReadGroup(ReadGroup)} 可以把多个只读副本注册为同一个逻辑 key，
+ * 路由到该 key 时每次获取连接都由读组的负载均衡策略选择一个副本，副本本身仍需注册到 targetDataSources。
+ * 熔断中的副本不参与选择，全部副本不可用时回退到默认数据源（主库）；
+ * 配置 {@link ReplicaHealthMonitor} 后会在后台探测副本的可用性和复制延迟。
+ * <p>
+ * 设置 read-your-writes 窗口后，当前线程写过主库（{@link DynamicDataSourceContextHolder#markWrite()}）的窗口期内，
+ * 读请求也路由到默认数据源（主库），避免读到副本上尚未同步的旧数据
  */
-public class DynamicRoutingDataSource extends AbstractRoutingDataSource {
+@Slf4j
+public class DynamicRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    
+    /**
+     * determineCurrentLookupKey 选中的副本，由同一次 getConnection 调用取走，用于统计活跃连接和连接耗时
+     */
+    private static final ThreadLocal<ReadReplica> SELECTED_REPLICA = new ThreadLocal<>();
+    
+    private final Map<String, ReadGroup> readGroups = new ConcurrentHashMap<>();
+    
+    private ReplicaHealthMonitor healthMonitor;
+    
+    private volatile long readYourWritesWindowMillis;
+    
+    /**
+     * 注册读组，覆盖同名的读组
+     */
+    public void addReadGroup(ReadGroup readGroup) {
+        if (readGroup == null) {
+            throw new IllegalArgumentException("readGroup cannot be null");
+        }
+        readGroups.put(readGroup.getKey(), readGroup);
+    }
+    
+    public Map<String, ReadGroup> getReadGroups() {
+        return readGroups;
+    }
+    
+    /**
+     * 数据源 key 是否已注册（目标数据源或读组），必须在 {@link #afterPropertiesSet()} 之后调用
+     */
+    public boolean containsDataSource(String key) {
+        return getResolvedDataSources().containsKey(key) || readGroups.containsKey(key);
+    }
+    
+    public void setHealthMonitor(ReplicaHealthMonitor healthMonitor) {
+        this.healthMonitor = healthMonitor;
+    }
+    
+    /**
+     * 写主库后多长时间内的读请求仍路由到主库，应略大于副本的常见复制延迟；0 表示关闭
+     */
+    public void setReadYourWritesWindow(Duration window) {
+        if (window == null || window.isNegative()) {
+            throw new IllegalArgumentException("readYourWritesWindow cannot be negative");
+        }
+        this.readYourWritesWindowMillis = window.toMillis();
+    }
+    
+    public Duration getReadYourWritesWindow() {
+        return Duration.ofMillis(readYourWritesWindowMillis);
+    }
+    
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        Map<Object, DataSource> resolved = getResolvedDataSources();
+        for (ReadGroup group : readGroups.values()) {
+            for (ReadReplica replica : group.getReplicas()) {
+                if (!resolved.containsKey(replica.getKey())) {
+                    throw new IllegalArgumentException("Replica " + replica.getKey() + " of read group " + group.getKey()
+                            + " is not registered in targetDataSources");
+                }
+            }
+        }
+        if (healthMonitor != null && !readGroups.isEmpty()) {
+            healthMonitor.start(readGroups.values(), resolved::get);
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        if (healthMonitor != null) {
+            healthMonitor.stop();
+        }
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(super::getConnection);
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(() -> super.getConnection(username, password));
+    }
     
     @Override
     protected Object determineCurrentLookupKey() {
         String key = DynamicDataSourceContextHolder.getDataSource();
-        return "default".equals(key) ? null : key;
+        if (key == null || "default".equals(key)) {
+            return null;
+        }
+        ReadGroup group = readGroups.get(key);
+        if ((group != null || DynamicConstant.READ.equals(key)) && recentlyWritten()) {
+            return null;
+        }
+        if (group == null) {
+            return key;
+        }
+        ReadReplica replica = group.choose();
+        if (replica == null) {
+            log.debug("No replica available in read group {}, falling back to default data source", key);
+            return null;
+        }
+        SELECTED_REPLICA.set(replica);
+        return replica.getKey();
+    }
+    
+    private boolean recentlyWritten() {
+        long window = readYourWritesWindowMillis;
+        if (window <= 0) {
+            return false;
+        }
+        long lastWriteTime = DynamicDataSourceContextHolder.getLastWriteTime();
+        return lastWriteTime > 0 && System.currentTimeMillis() - lastWriteTime < window;
+    }
+    
+    /**
+     * 副本获取连接失败时计入熔断器，并重新选择一次（其他副本或主库）
+     */
+    private Connection connect(ConnectionSupplier supplier) throws SQLException {
+        // unwrap/isWrapperFor 等不经过 connect 的调用也会走 determineCurrentLookupKey，清掉它们残留的选择
+        SELECTED_REPLICA.remove();
+        try {
+            try {
+                return track(supplier.get());
+            } catch (SQLException e) {
+                ReadReplica failed = SELECTED_REPLICA.get();
+                if (failed == null) {
+                    throw e;
+                }
+                SELECTED_REPLICA.remove();
+                failed.getCircuitBreaker().onFailure();
+                log.warn("Failed to get connection from replica {}, retrying", failed.getKey(), e);
+                return track(supplier.get());
+            }
+        } finally {
+            SELECTED_REPLICA.remove();
+        }
+    }
+    
+    private Connection track(Connection connection) {
+        ReadReplica replica = SELECTED_REPLICA.get();
+        if (replica == null) {
+            return connection;
+        }
+        replica.getCircuitBreaker().onSuccess();
+        return ReplicaConnectionHandler.wrap(connection, replica);
+    }
+    
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        
+        Connection get() throws SQLException;
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.core;
+
+import com.nebula.dynamic.datasource.balance.ReadReplica;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author : wh
+ * @date : 2025/8/25
+ * @description: 包装读组副本的连接，close 时归还副本的活跃连接数并记录连接耗时
+ */
+final class ReplicaConnectionHandler implements InvocationHandler {
+    
+    private final Connection target;
+    
+    private final ReadReplica replica;
+    
+    private final long acquiredAt = System.nanoTime();
+    
+    private final AtomicBoolean closed = new AtomicBoolean();
+    
+    private ReplicaConnectionHandler(Connection target, ReadReplica replica) {
+        this.target = target;
+        this.replica = replica;
+    }
+    
+    static Connection wrap(Connection target, ReadReplica replica) {
+        replica.acquired();
+        return (Connection) Proxy.newProxyInstance(ReplicaConnectionHandler.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ReplicaConnectionHandler(target, replica));
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "close":
+                // 连接可能被重复关闭，只归还一次
+                if (closed.compareAndSet(false, true)) {
+                    replica.released(System.nanoTime() - acquiredAt);
+                }
+                break;
+            default:
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
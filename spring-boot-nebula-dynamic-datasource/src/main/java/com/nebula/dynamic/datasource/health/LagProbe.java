@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.health;
+
+import javax.sql.DataSource;
+
+/**
+ * @author : wh
+ * @date : 2025/8/27
+ * @description: 副本复制延迟探测
+ */
+@FunctionalInterface
+public interface LagProbe {
+    
+    /**
+     * 探测副本的复制延迟
+     * @param replica 副本数据源
+     * @return 延迟毫秒数
+     * @throws Exception 副本不可用
+     */
+    long lagMillis(DataSource replica) throws Exception;
+}
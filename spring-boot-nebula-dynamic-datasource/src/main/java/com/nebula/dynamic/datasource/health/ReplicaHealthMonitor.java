@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.health;
+
+import com.nebula.dynamic.datasource.balance.ReadGroup;
+import com.nebula.dynamic.datasource.balance.ReadReplica;
+import com.nebula.dynamic.datasource.balance.ReplicaCircuitBreaker;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author : wh
+ * @date : 2025/8/27
+ * @description: 后台定期探测读组中每个副本的可用性和复制延迟：
+ * 探测失败计入副本熔断器的失败次数，延迟超过 maxLag 立即摘除，延迟恢复后由熔断器逐步放回流量
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+    
+    private final LagProbe lagProbe;
+    
+    private final long maxLagMillis;
+    
+    private final Duration interval;
+    
+    private volatile List<ReadGroup> groups = List.of();
+    
+    private volatile Function<String, DataSource> resolver;
+    
+    private ScheduledExecutorService scheduler;
+    
+    private ReplicaHealthMonitor(Builder builder) {
+        this.lagProbe = builder.lagProbe;
+        this.maxLagMillis = builder.maxLag.toMillis();
+        this.interval = builder.interval;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * 开始定期探测
+     * @param groups 需要探测的读组
+     * @param resolver 副本 key 到数据源的映射
+     */
+    public synchronized void start(Collection<ReadGroup> groups, Function<String, DataSource> resolver) {
+        this.groups = List.copyOf(groups);
+        this.resolver = resolver;
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nebula-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::probe, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * 立即探测一轮
+     */
+    public void probe() {
+        for (ReadGroup group : groups) {
+            for (ReadReplica replica : group.getReplicas()) {
+                try {
+                    probe(replica);
+                } catch (Throwable e) {
+                    // 不能让异常终止定时任务
+                    log.error("Error while probing replica {}", replica.getKey(), e);
+                }
+            }
+        }
+    }
+    
+    private void probe(ReadReplica replica) {
+        ReplicaCircuitBreaker circuitBreaker = replica.getCircuitBreaker();
+        DataSource dataSource = resolver.apply(replica.getKey());
+        long lagMillis;
+        try {
+            lagMillis = lagProbe.lagMillis(dataSource);
+        } catch (Exception e) {
+            log.warn("Health probe failed for replica {}", replica.getKey(), e);
+            circuitBreaker.onFailure();
+            return;
+        }
+        if (lagMillis > maxLagMillis) {
+            log.warn("Replica {} is lagging {}ms behind (max {}ms)", replica.getKey(), lagMillis, maxLagMillis);
+            circuitBreaker.eject();
+        } else {
+            circuitBreaker.onProbeHealthy();
+        }
+    }
+    
+    public static class Builder {
+        
+        private LagProbe lagProbe;
+        
+        private Duration maxLag = Duration.ofSeconds(5);
+        
+        private Duration interval = Duration.ofSeconds(5);
+        
+        private Builder() {
+        }
+        
+        public Builder setLagProbe(LagProbe lagProbe) {
+            this.lagProbe = lagProbe;
+            return this;
+        }
+        
+        /**
+         * 允许的最大复制延迟，超过后摘除副本
+         */
+        public Builder setMaxLag(Duration maxLag) {
+            if (maxLag == null || maxLag.isNegative()) {
+                throw new IllegalArgumentException("maxLag cannot be negative");
+            }
+            this.maxLag = maxLag;
+            return this;
+        }
+        
+        public Builder setInterval(Duration interval) {
+            if (interval == null || interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("interval must be positive");
+            }
+            this.interval = interval;
+            return this;
+        }
+        
+        public ReplicaHealthMonitor build() {
+            if (lagProbe == null) {
+                throw new IllegalArgumentException("lagProbe cannot be null");
+            }
+            return new ReplicaHealthMonitor(this);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.health;
+
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * @author : wh
+ * @date : 2025/8/27
+ * @description: 执行一条 SQL 查询复制延迟，SQL 需返回单行单列的毫秒数，返回 NULL 视为没有延迟。
+ * <p>
+ * PostgreSQL 示例：{@code SELECT COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)}；
+ * MySQL 可查询 pt-heartbeat 等心跳表，如 {@code SELECT TIMESTAMPDIFF(MICROSECOND, MAX(ts), NOW(6)) / 1000 FROM heartbeat}
+ */
+public class SqlLagProbe implements LagProbe {
+    
+    private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 5;
+    
+    private final String lagQuery;
+    
+    private final int queryTimeoutSeconds;
+    
+    public SqlLagProbe(String lagQuery) {
+        this(lagQuery, DEFAULT_QUERY_TIMEOUT_SECONDS);
+    }
+    
+    public SqlLagProbe(String lagQuery, int queryTimeoutSeconds) {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            throw new IllegalArgumentException("lagQuery cannot be empty");
+        }
+        this.lagQuery = lagQuery;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+    
+    @Override
+    public long lagMillis(DataSource replica) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+        jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        Number lag = jdbcTemplate.queryForObject(lagQuery, Number.class);
+        return lag == null ? 0 : lag.longValue();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.mybatis;
+
+import com.nebula.dynamic.datasource.DynamicConstant;
+import com.nebula.dynamic.datasource.core.DynamicDataSourceContextHolder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @author : wh
+ * @date : 2025/8/30
+ * @description: 按 SQL 类型自动读写分离，不需要在业务方法上标注 {@code @NebulaRead}/{@code @NebulaWrite}。
+ * <p>
+ * SELECT 路由到读库，INSERT/UPDATE/DELETE 等路由到写库并记录写时间（参与 read-your-writes）。
+ * 以下情况不做自动路由：
+ * <ul>
+ *     <li>当前线程已经通过注解指定了数据源，注解优先</li>
+ *     <li>处于事务或事务同步范围内（包括 {@code Propagation.SUPPORTS}、{@code SYNCHRONIZATION_ALWAYS}），
+ *     或线程上已经绑定了连接：第一次获取的连接会绑定到线程上被后续 SQL 复用，
+ *     若先用读库连接执行 SELECT，之后的写也会落到读库</li>
+ * </ul>
+ * 因此事务范围内的 SQL 都使用默认数据源（主库），只读事务需要在事务方法上标注 {@code @NebulaRead} 才能落到读库。
+ * {@code SELECT ... FOR UPDATE} 等加锁读需要标注 {@code @NebulaWrite}
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+    
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (DynamicDataSourceContextHolder.getDataSource() != null) {
+            return invocation.proceed();
+        }
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        boolean read = ms.getSqlCommandType() == SqlCommandType.SELECT;
+        boolean route = !isConnectionBound(ms);
+        if (route) {
+            DynamicDataSourceContextHolder.setDataSource(read ? DynamicConstant.READ : DynamicConstant.WRITE);
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            if (route) {
+                DynamicDataSourceContextHolder.clear();
+            }
+            if (!read) {
+                DynamicDataSourceContextHolder.markWrite();
+            }
+        }
+    }
+    
+    private static boolean isConnectionBound(MappedStatement ms) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return true;
+        }
+        Environment environment = ms.getConfiguration().getEnvironment();
+        return environment != null && TransactionSynchronizationManager.hasResource(environment.getDataSource());
+    }
+}
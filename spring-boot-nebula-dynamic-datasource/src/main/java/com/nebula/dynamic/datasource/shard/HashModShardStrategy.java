@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.shard;
+
+import java.util.List;
+
+/**
+ * @author : wh
+ * @date : 2025/9/1
+ * @description: 取模分库：整数分片键（包括纯数字字符串）直接对数据源个数取模，其他字符串使用 {@code hashCode()}，
+ * 小数等非整数数值不能作为分片键。
+ * <p>
+ * 整数键的结果与 {@code tenantId % n} 一致，便于 DBA 离线核对数据分布；同一租户无论以 Long 还是 String 传入都落在同一个库
+ */
+public class HashModShardStrategy implements ShardStrategy {
+    
+    private final String[] dataSources;
+    
+    public HashModShardStrategy(List<String> dataSources) {
+        if (dataSources == null || dataSources.isEmpty()) {
+            throw new IllegalArgumentException("dataSources cannot be empty");
+        }
+        this.dataSources = dataSources.toArray(new String[0]);
+    }
+    
+    @Override
+    public String route(Object shardKey) {
+        return dataSources[Math.floorMod(hash(shardKey), dataSources.length)];
+    }
+    
+    private static long hash(Object shardKey) {
+        if (shardKey instanceof Long || shardKey instanceof Integer || shardKey instanceof Short || shardKey instanceof Byte) {
+            return ((Number) shardKey).longValue();
+        }
+        if (shardKey instanceof Number) {
+            throw new IllegalArgumentException("Hash-mod shard key must be an integer: " + shardKey);
+        }
+        String key = shardKey.toString();
+        if (isDigits(key)) {
+            try {
+                return Long.parseLong(key);
+            } catch (NumberFormatException e) {
+                // 超出 long 范围的数字串按普通字符串处理
+            }
+        }
+        return key.hashCode();
+    }
+    
+    /**
+     * 先扫描一遍，避免 UUID 等非数字键每次都抛 NumberFormatException
+     */
+    private static boolean isDigits(String key) {
+        int start = key.startsWith("-") ? 1 : 0;
+        if (key.length() == start) {
+            return false;
+        }
+        for (int i = start; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
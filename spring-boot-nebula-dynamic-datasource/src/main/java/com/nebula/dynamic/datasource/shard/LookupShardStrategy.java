@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.shard;
+
+import java.util.Map;
+
+/**
+ * @author : wh
+ * @date : 2025/9/1
+ * @description: 查表分库：按 {@code shardKey.toString()} 查映射表，适合把大租户单独放到一个库。
+ * 表中没有的键交给兜底策略，没有兜底策略时抛出异常
+ */
+public class LookupShardStrategy implements ShardStrategy {
+    
+    private final Map<String, String> mapping;
+    
+    private final ShardStrategy fallback;
+    
+    public LookupShardStrategy(Map<String, String> mapping) {
+        this(mapping, null);
+    }
+    
+    /**
+     * @param mapping  分片键到数据源的映射
+     * @param fallback 映射表中不存在时使用的策略，可以为 null
+     */
+    public LookupShardStrategy(Map<String, String> mapping, ShardStrategy fallback) {
+        if (mapping == null || (mapping.isEmpty() && fallback == null)) {
+            throw new IllegalArgumentException("mapping cannot be empty");
+        }
+        this.mapping = Map.copyOf(mapping);
+        this.fallback = fallback;
+    }
+    
+    @Override
+    public String route(Object shardKey) {
+        String dataSource = mapping.get(shardKey.toString());
+        if (dataSource != null) {
+            return dataSource;
+        }
+        if (fallback == null) {
+            throw new IllegalArgumentException("No data source mapped for shard key: " + shardKey);
+        }
+        return fallback.route(shardKey);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.shard;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author : wh
+ * @date : 2025/9/1
+ * @description: 范围分库：每个数据源负责从下界（包含）到下一个下界（不包含）的整数区间，最后一个区间没有上界。
+ * <p>
+ * 扩容时只需追加新的区间，已有数据不需要迁移
+ */
+public class RangeShardStrategy implements ShardStrategy {
+    
+    private final TreeMap<Long, String> lowerBounds;
+    
+    private RangeShardStrategy(Builder builder) {
+        this.lowerBounds = new TreeMap<>(builder.lowerBounds);
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    @Override
+    public String route(Object shardKey) {
+        long key = toLong(shardKey);
+        Map.Entry<Long, String> entry = lowerBounds.floorEntry(key);
+        if (entry == null) {
+            throw new IllegalArgumentException("Shard key " + key + " is below the first range " + lowerBounds.firstKey());
+        }
+        return entry.getValue();
+    }
+    
+    private static long toLong(Object shardKey) {
+        if (shardKey instanceof Number) {
+            return ((Number) shardKey).longValue();
+        }
+        try {
+            return Long.parseLong(shardKey.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Range shard key must be an integer: " + shardKey, e);
+        }
+    }
+    
+    public static class Builder {
+        
+        private final Map<Long, String> lowerBounds = new TreeMap<>();
+        
+        /**
+         * 添加区间
+         * @param lowerBound 区间下界（包含）
+         * @param dataSource 区间所在的数据源
+         */
+        public Builder addRange(long lowerBound, String dataSource) {
+            if (dataSource == null || dataSource.isEmpty()) {
+                throw new IllegalArgumentException("dataSource cannot be empty");
+            }
+            if (lowerBounds.putIfAbsent(lowerBound, dataSource) != null) {
+                throw new IllegalArgumentException("Duplicate range lower bound: " + lowerBound);
+            }
+            return this;
+        }
+        
+        public RangeShardStrategy build() {
+            if (lowerBounds.isEmpty()) {
+                throw new IllegalArgumentException("At least one range is required");
+            }
+            return new RangeShardStrategy(this);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.shard;
+
+import com.nebula.dynamic.datasource.annotation.NebulaShard;
+import com.nebula.dynamic.datasource.core.DynamicDataSourceContextHolder;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * @author : wh
+ * @date : 2025/9/1
+ * @description: 处理 {@link NebulaShard}，把分库策略计算出的数据源压入 {@link DynamicDataSourceContextHolder}
+ */
+@Slf4j
+public class ShardMethodInterceptor implements MethodInterceptor {
+    
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    
+    private static final ParameterNameDiscoverer DISCOVERER = new DefaultParameterNameDiscoverer();
+    
+    private final Function<String, ShardStrategy> strategyResolver;
+    
+    /**
+     * (方法, 目标类) 解析出的分片规则，表达式只解析一次
+     */
+    private final Map<MethodClassKey, ShardRoute> routeCache = new ConcurrentHashMap<>(64);
+    
+    /**
+     * 校验分片结果是否为已注册的数据源。AbstractRoutingDataSource 对未知 key 会静默回退到默认库，
+     * 写错的数据源名会把分片数据写进默认库
+     */
+    private final Predicate<String> dataSourceValidator;
+    
+    /**
+     * 校验通过的数据源，每个数据源只校验一次
+     */
+    private final Set<String> validatedDataSources = ConcurrentHashMap.newKeySet();
+    
+    public ShardMethodInterceptor(Function<String, ShardStrategy> strategyResolver) {
+        this(strategyResolver, dataSource -> true);
+    }
+    
+    /**
+     * @param strategyResolver    按名字查找分库策略，找不到返回 null。第一次调用时才查找，避免切面创建时提前初始化策略 Bean
+     * @param dataSourceValidator 分片结果是否为已注册的数据源
+     */
+    public ShardMethodInterceptor(Function<String, ShardStrategy> strategyResolver, Predicate<String> dataSourceValidator) {
+        if (strategyResolver == null) {
+            throw new IllegalArgumentException("strategyResolver cannot be null");
+        }
+        if (dataSourceValidator == null) {
+            throw new IllegalArgumentException("dataSourceValidator cannot be null");
+        }
+        this.strategyResolver = strategyResolver;
+        this.dataSourceValidator = dataSourceValidator;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = AopUtils.getTargetClass(invocation.getThis());
+        ShardRoute route = routeCache.computeIfAbsent(new MethodClassKey(invocation.getMethod(), targetClass),
+                key -> resolveRoute(invocation.getMethod(), targetClass));
+        if (route == null) {
+            return invocation.proceed();
+        }
+        String dataSource = route.route(invocation.getArguments());
+        if (!validatedDataSources.contains(dataSource)) {
+            if (!dataSourceValidator.test(dataSource)) {
+                throw new IllegalStateException("Shard route of " + route.method + " resolved to unknown data source: " + dataSource);
+            }
+            validatedDataSources.add(dataSource);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Shard route {} -> {}", route.method, dataSource);
+        }
+        DynamicDataSourceContextHolder.setDataSource(dataSource);
+        try {
+            return invocation.proceed();
+        } finally {
+            DynamicDataSourceContextHolder.clear();
+        }
+    }
+    
+    private ShardRoute resolveRoute(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        NebulaShard shard = AnnotatedElementUtils.findMergedAnnotation(specificMethod, NebulaShard.class);
+        if (shard == null) {
+            shard = AnnotatedElementUtils.findMergedAnnotation(method, NebulaShard.class);
+        }
+        if (shard == null) {
+            return null;
+        }
+        ShardStrategy strategy = strategyResolver.apply(shard.strategy());
+        if (strategy == null) {
+            throw new IllegalStateException("No shard strategy named '" + shard.strategy() + "' for method " + specificMethod);
+        }
+        String key = shard.key();
+        Expression expression = key.startsWith("#") ? PARSER.parseExpression(key) : null;
+        return new ShardRoute(specificMethod, key, expression, strategy);
+    }
+    
+    private static final class ShardRoute {
+        
+        private final Method method;
+        
+        private final String key;
+        
+        /**
+         * 分片键不是 SpEL 时为 null，直接使用字面值
+         */
+        private final Expression expression;
+        
+        private final ShardStrategy strategy;
+        
+        ShardRoute(Method method, String key, Expression expression, ShardStrategy strategy) {
+            this.method = method;
+            this.key = key;
+            this.expression = expression;
+            this.strategy = strategy;
+        }
+        
+        String route(Object[] args) {
+            Object shardKey = expression == null ? key
+                    : expression.getValue(new MethodBasedEvaluationContext(null, method, args, DISCOVERER));
+            if (shardKey == null) {
+                throw new IllegalArgumentException("Shard key '" + key + "' resolved to null on method " + method);
+            }
+            String dataSource = strategy.route(shardKey);
+            if (dataSource == null) {
+                throw new IllegalStateException("Shard strategy returned no data source for key " + shardKey);
+            }
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.shard;
+
+/**
+ * @author : wh
+ * @date : 2025/9/1
+ * @description: 分库策略，根据分片键计算目标数据源
+ */
+@FunctionalInterface
+public interface ShardStrategy {
+    
+    /**
+     * 计算分片键对应的数据源
+     * @param shardKey 分片键，不为 null
+     * @return DynamicRoutingDataSource 中的数据源 key
+     */
+    String route(Object shardKey);
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.web;
+
+import com.nebula.dynamic.datasource.core.DynamicDataSourceContextHolder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * @author : wh
+ * @date : 2025/8/29
+ * @description: 在请求之间传播最近一次写主库的时间，使同一用户写后的读请求在窗口期内路由到主库，即使落在其他实例上。
+ * <p>
+ * 请求进入时从请求头或 Cookie 恢复写时间，请求内写主库时把写时间写回响应头和 Cookie。
+ * 调用下游服务时转发同名请求头即可让下游也遵守该窗口
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    public static final String DEFAULT_HEADER = "X-Nebula-Last-Write";
+    
+    private final long windowMillis;
+    
+    private final String headerName;
+    
+    /**
+     * 为空时不使用 Cookie
+     */
+    private final String cookieName;
+    
+    public ReadYourWritesFilter(Duration window, String headerName, String cookieName) {
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        if (!StringUtils.hasText(headerName)) {
+            throw new IllegalArgumentException("headerName cannot be empty");
+        }
+        this.windowMillis = window.toMillis();
+        this.headerName = headerName;
+        this.cookieName = cookieName;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long lastWriteTime = resolveLastWriteTime(request);
+        long now = System.currentTimeMillis();
+        // 客户端可以伪造该值，只接受窗口范围内的时间（容忍实例之间的时钟偏差），避免读请求被长期钉在主库
+        if (lastWriteTime > 0 && Math.abs(now - lastWriteTime) < windowMillis) {
+            DynamicDataSourceContextHolder.setLastWriteTime(Math.min(lastWriteTime, now));
+        }
+        DynamicDataSourceContextHolder.setWriteListener(writeTime -> propagate(response, writeTime));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DynamicDataSourceContextHolder.clearWriteListener();
+            DynamicDataSourceContextHolder.clearLastWriteTime();
+        }
+    }
+    
+    private long resolveLastWriteTime(HttpServletRequest request) {
+        String value = request.getHeader(headerName);
+        if (!StringUtils.hasText(value) && StringUtils.hasText(cookieName) && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (cookieName.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                    break;
+                }
+            }
+        }
+        if (!StringUtils.hasText(value)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    private void propagate(HttpServletResponse response, long writeTime) {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.setHeader(headerName, String.valueOf(writeTime));
+        if (StringUtils.hasText(cookieName)) {
+            Cookie cookie = new Cookie(cookieName, String.valueOf(writeTime));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (windowMillis + 999) / 1000));
+            response.addCookie(cookie);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.autoconfigure;
+
+import com.nebula.dynamic.datasource.DynamicConstant;
+import com.nebula.dynamic.datasource.core.DynamicRoutingDataSource;
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DynamicDataSourceAutoConfigureTest {
+    
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DynamicDataSourceAutoConfigure.class))
+            .withBean(DynamicRoutingDataSource.class, () -> {
+                DynamicRoutingDataSource dataSource = new DynamicRoutingDataSource();
+                dataSource.setTargetDataSources(Map.of(DynamicConstant.WRITE, mock(DataSource.class)));
+                return dataSource;
+            });
+    
+    @Test
+    void readYourWritesDisabledByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).doesNotHaveBean(FilterRegistrationBean.class);
+            assertThat(context).doesNotHaveBean("readYourWritesWindowInitializer");
+        });
+    }
+    
+    @Test
+    void zeroWindowDisablesReadYourWrites() {
+        contextRunner
+                .withPropertyValues("nebula.dynamic-datasource.read-your-writes.window=0")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).doesNotHaveBean(FilterRegistrationBean.class);
+                    assertThat(context).doesNotHaveBean("readYourWritesWindowInitializer");
+                    assertThat(context.getBean(DynamicRoutingDataSource.class).getReadYourWritesWindow()).isZero();
+                });
+    }
+    
+    @Test
+    void positiveWindowRegistersFilterAndAppliesWindow() {
+        contextRunner
+                .withPropertyValues("nebula.dynamic-datasource.read-your-writes.window=2s")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).hasSingleBean(FilterRegistrationBean.class);
+                    assertThat(context).hasBean("readYourWritesWindowInitializer");
+                    assertThat(context.getBean(DynamicRoutingDataSource.class).getReadYourWritesWindow())
+                            .isEqualTo(Duration.ofSeconds(2));
+                });
+    }
+}
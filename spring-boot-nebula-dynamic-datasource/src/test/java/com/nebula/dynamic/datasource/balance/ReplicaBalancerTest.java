@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaBalancerTest {
+    
+    private final ReadReplica a = new ReadReplica("a", 1);
+    
+    private final ReadReplica b = new ReadReplica("b", 3);
+    
+    private final List<ReadReplica> replicas = List.of(a, b);
+    
+    @Test
+    void roundRobinAlternates() {
+        ReplicaBalancer balancer = BalanceStrategy.ROUND_ROBIN.create();
+        
+        assertSame(a, balancer.choose(replicas));
+        assertSame(b, balancer.choose(replicas));
+        assertSame(a, balancer.choose(replicas));
+    }
+    
+    @Test
+    void weightedFollowsWeights() {
+        ReplicaBalancer balancer = BalanceStrategy.WEIGHTED.create();
+        Map<ReadReplica, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 4000; i++) {
+            counts.merge(balancer.choose(replicas), 1, Integer::sum);
+        }
+        
+        double ratio = counts.get(b) / (double) counts.get(a);
+        assertTrue(ratio > 2.5 && ratio < 3.5, "ratio " + ratio);
+    }
+    
+    @Test
+    void leastActivePrefersIdleReplica() {
+        a.acquired();
+        a.acquired();
+        b.acquired();
+        
+        assertSame(b, BalanceStrategy.LEAST_ACTIVE.create().choose(replicas));
+    }
+    
+    @Test
+    void latencyEwmaPrefersFasterReplica() {
+        a.acquired();
+        a.released(1_000_000);
+        b.acquired();
+        b.released(50_000_000);
+        
+        ReplicaBalancer balancer = BalanceStrategy.LATENCY_EWMA.create();
+        for (int i = 0; i < 10; i++) {
+            assertSame(a, balancer.choose(replicas));
+        }
+    }
+    
+    @Test
+    void ewmaSmoothsSamples() {
+        a.acquired();
+        a.released(100);
+        a.acquired();
+        a.released(200);
+        
+        assertEquals(120, a.getLatencyEwmaNanos(), 0.001);
+        assertEquals(0, a.getActive());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.balance;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaCircuitBreakerTest {
+    
+    private final AtomicLong clock = new AtomicLong(1);
+    
+    private final ReplicaCircuitBreaker breaker =
+            new ReplicaCircuitBreaker("read_1", 2, Duration.ofSeconds(10), Duration.ofSeconds(10), clock::get);
+    
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(ReplicaCircuitBreaker.State.CLOSED, breaker.getState());
+        
+        breaker.onFailure();
+        assertEquals(ReplicaCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+    
+    @Test
+    void halfOpensAfterOpenDurationAndRampsUp() {
+        breaker.onFailure();
+        breaker.onFailure();
+        
+        advance(10);
+        breaker.allowRequest();
+        assertEquals(ReplicaCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        
+        advance(5);
+        int admitted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (breaker.allowRequest()) {
+                admitted++;
+            }
+        }
+        // 爬坡一半时约放行 55% 的流量
+        assertTrue(admitted > 450 && admitted < 650, "admitted " + admitted);
+        
+        advance(5);
+        assertTrue(breaker.allowRequest());
+        assertEquals(ReplicaCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+    
+    @Test
+    void failureWhileHalfOpenReopens() {
+        breaker.onFailure();
+        breaker.onFailure();
+        advance(10);
+        breaker.allowRequest();
+        
+        breaker.onFailure();
+        assertEquals(ReplicaCircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    @Test
+    void laggingReplicaWaitsForHealthyProbe() {
+        breaker.eject();
+        advance(60);
+        assertFalse(breaker.allowRequest());
+        assertEquals(ReplicaCircuitBreaker.State.OPEN, breaker.getState());
+        
+        breaker.onProbeHealthy();
+        assertEquals(ReplicaCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+    
+    private void advance(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
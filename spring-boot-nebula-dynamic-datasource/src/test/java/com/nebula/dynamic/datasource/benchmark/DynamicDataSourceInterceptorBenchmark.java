@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.benchmark;
+
+import com.nebula.dynamic.datasource.DynamicConstant;
+import com.nebula.dynamic.datasource.annotation.NebulaRead;
+import com.nebula.dynamic.datasource.autoconfigure.DynamicDataSourceAutoConfigure;
+import com.nebula.dynamic.datasource.core.DynamicDataSourceContextHolder;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.framework.ProxyFactory;
+
+/**
+ * @author : wh
+ * @date : 2025/8/30
+ * @description: 数据源切换拦截器的开销基准，对比空拦截器代理即可得到 {@code @NebulaRead} 路由本身的耗时和分配。
+ * <p>
+ * 在 IDE 中直接运行 main 方法，GC profiler 的 gc.alloc.rate.norm 为每次调用分配的字节数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicDataSourceInterceptorBenchmark {
+    
+    private UserDao direct;
+    
+    private UserDao noopProxy;
+    
+    private UserDao routingProxy;
+    
+    @Setup
+    public void setUp() {
+        direct = new UserDao();
+        noopProxy = proxy(MethodInvocation::proceed);
+        ProxyFactory factory = new ProxyFactory(direct);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(new DynamicDataSourceAutoConfigure().dynamicDataSourceAdvisor());
+        routingProxy = (UserDao) factory.getProxy();
+    }
+    
+    @Benchmark
+    public String direct() {
+        return direct.findById(1L);
+    }
+    
+    @Benchmark
+    public String noopProxy() {
+        return noopProxy.findById(1L);
+    }
+    
+    @Benchmark
+    public String routingProxy() {
+        return routingProxy.findById(1L);
+    }
+    
+    @Benchmark
+    public String contextPushPop() {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        try {
+            return DynamicDataSourceContextHolder.getDataSource();
+        } finally {
+            DynamicDataSourceContextHolder.clear();
+        }
+    }
+    
+    private UserDao proxy(MethodInterceptor interceptor) {
+        ProxyFactory factory = new ProxyFactory(direct);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(interceptor);
+        return (UserDao) factory.getProxy();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DynamicDataSourceInterceptorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+    
+    public static class UserDao {
+        
+        @NebulaRead
+        public String findById(Long id) {
+            return DynamicDataSourceContextHolder.getDataSource();
+        }
+    }
+}
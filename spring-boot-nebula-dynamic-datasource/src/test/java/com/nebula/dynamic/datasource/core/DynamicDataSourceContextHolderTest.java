@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicDataSourceContextHolderTest {
+    
+    @Test
+    void nestedDataSourcesUnwindInOrder() {
+        int depth = 20;
+        for (int i = 0; i < depth; i++) {
+            DynamicDataSourceContextHolder.setDataSource("ds" + i);
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            assertEquals("ds" + i, DynamicDataSourceContextHolder.getDataSource());
+            DynamicDataSourceContextHolder.clear();
+        }
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+        
+        DynamicDataSourceContextHolder.clear();
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+    }
+    
+    @Test
+    void lastWriteTimeIsScopedToOutermostDataSource() {
+        DynamicDataSourceContextHolder.markWrite();
+        assertEquals(0, DynamicDataSourceContextHolder.getLastWriteTime());
+        
+        DynamicDataSourceContextHolder.setDataSource("write");
+        DynamicDataSourceContextHolder.markWrite();
+        DynamicDataSourceContextHolder.setDataSource("read");
+        DynamicDataSourceContextHolder.clear();
+        assertTrue(DynamicDataSourceContextHolder.getLastWriteTime() > 0);
+        
+        DynamicDataSourceContextHolder.clear();
+        assertEquals(0, DynamicDataSourceContextHolder.getLastWriteTime());
+    }
+}
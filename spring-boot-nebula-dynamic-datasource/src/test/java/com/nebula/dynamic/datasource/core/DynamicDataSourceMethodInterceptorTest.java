@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.core;
+
+import com.nebula.dynamic.datasource.DynamicConstant;
+import com.nebula.dynamic.datasource.annotation.NebulaRead;
+import com.nebula.dynamic.datasource.annotation.NebulaWrite;
+import com.nebula.dynamic.datasource.autoconfigure.DynamicDataSourceAutoConfigure;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicDataSourceMethodInterceptorTest {
+    
+    @Test
+    void methodLevelAnnotationIsApplied() {
+        OrderService service = proxy(new OrderService());
+        
+        assertEquals(DynamicConstant.READ, service.dataSource());
+    }
+    
+    @Test
+    void readHelperInsideWriteMethodSeesTheWrite() {
+        OrderService target = new OrderService();
+        OrderService service = proxy(target);
+        target.self = service;
+        
+        assertTrue(service.createThenLoad() > 0);
+        assertEquals(0, DynamicDataSourceContextHolder.getLastWriteTime());
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+    }
+    
+    private static OrderService proxy(OrderService target) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(new DynamicDataSourceAutoConfigure().dynamicDataSourceAdvisor());
+        return (OrderService) factory.getProxy();
+    }
+    
+    public static class OrderService {
+        
+        private OrderService self;
+        
+        @NebulaWrite
+        public long createThenLoad() {
+            return self.load();
+        }
+        
+        @NebulaRead
+        public String dataSource() {
+            return DynamicDataSourceContextHolder.getDataSource();
+        }
+        
+        /**
+         * 返回读方法看到的写时间，read-your-writes 窗口内路由会据此回到主库
+         */
+        @NebulaRead
+        public long load() {
+            return DynamicDataSourceContextHolder.getLastWriteTime();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.core;
+
+import com.nebula.dynamic.datasource.DynamicConstant;
+import com.nebula.dynamic.datasource.balance.ReadGroup;
+import com.nebula.dynamic.datasource.balance.ReadReplica;
+import com.nebula.dynamic.datasource.balance.ReplicaCircuitBreaker;
+import com.nebula.dynamic.datasource.health.ReplicaHealthMonitor;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DynamicRoutingDataSourceTest {
+    
+    private final DataSource write = mock(DataSource.class);
+    
+    private final DataSource read1 = mock(DataSource.class);
+    
+    private final DataSource read2 = mock(DataSource.class);
+    
+    private final Connection writeConnection = mock(Connection.class);
+    
+    private final Connection read1Connection = mock(Connection.class);
+    
+    private final Connection read2Connection = mock(Connection.class);
+    
+    private DynamicRoutingDataSource dataSource;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        when(write.getConnection()).thenReturn(writeConnection);
+        when(read1.getConnection()).thenReturn(read1Connection);
+        when(read2.getConnection()).thenReturn(read2Connection);
+        dataSource = new DynamicRoutingDataSource();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DynamicConstant.WRITE, write);
+        targets.put("read_1", read1);
+        targets.put("read_2", read2);
+        dataSource.setTargetDataSources(targets);
+        dataSource.setDefaultTargetDataSource(write);
+        dataSource.addReadGroup(ReadGroup.builder(DynamicConstant.READ).addReplica("read_1").addReplica("read_2").build());
+        dataSource.afterPropertiesSet();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        while (DynamicDataSourceContextHolder.getDataSource() != null) {
+            DynamicDataSourceContextHolder.clear();
+        }
+        DynamicDataSourceContextHolder.clearLastWriteTime();
+    }
+    
+    @Test
+    void readGroupSpreadsConnectionsAcrossReplicas() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        first.close();
+        second.close();
+        
+        verify(read1Connection).close();
+        verify(read2Connection).close();
+        verifyNoInteractions(write);
+    }
+    
+    @Test
+    void replicaTracksActiveConnections() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        ReadReplica replica = dataSource.getReadGroups().get(DynamicConstant.READ).getReplicas().get(0);
+        
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, replica.getActive());
+        
+        connection.close();
+        connection.close();
+        assertEquals(0, replica.getActive());
+        assertTrue(replica.getLatencyEwmaNanos() > 0);
+    }
+    
+    @Test
+    void plainKeysAreNotWrapped() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.WRITE);
+        assertSame(writeConnection, dataSource.getConnection());
+        
+        DynamicDataSourceContextHolder.setDataSource("read_2");
+        assertSame(read2Connection, dataSource.getConnection());
+    }
+    
+    @Test
+    void replicaChosenOutsideGetConnectionIsNotCharged() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        assertFalse(dataSource.isWrapperFor(Runnable.class));
+        DynamicDataSourceContextHolder.clear();
+        
+        assertSame(writeConnection, dataSource.getConnection());
+        for (ReadReplica replica : dataSource.getReadGroups().get(DynamicConstant.READ).getReplicas()) {
+            assertEquals(0, replica.getActive());
+        }
+    }
+    
+    @Test
+    void ejectedReplicaIsSkipped() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        replica(0).getCircuitBreaker().eject();
+        
+        for (int i = 0; i < 3; i++) {
+            dataSource.getConnection().close();
+        }
+        
+        verify(read1, never()).getConnection();
+        verify(read2Connection, times(3)).close();
+    }
+    
+    @Test
+    void fallsBackToPrimaryWhenAllReplicasAreEjected() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        replica(0).getCircuitBreaker().eject();
+        replica(1).getCircuitBreaker().eject();
+        
+        assertSame(writeConnection, dataSource.getConnection());
+    }
+    
+    @Test
+    void connectionFailureIsRetriedOnAnotherTarget() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        when(read1.getConnection()).thenThrow(new SQLException("refused"));
+        
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        
+        verify(read2Connection).close();
+    }
+    
+    @Test
+    void healthMonitorEjectsLaggingReplica() throws Exception {
+        Map<DataSource, Long> lags = new HashMap<>();
+        lags.put(read1, 10_000L);
+        lags.put(read2, 0L);
+        ReplicaHealthMonitor monitor = ReplicaHealthMonitor.builder()
+                .setLagProbe(lags::get)
+                .setMaxLag(Duration.ofSeconds(1))
+                .setInterval(Duration.ofHours(1))
+                .build();
+        dataSource.setHealthMonitor(monitor);
+        dataSource.afterPropertiesSet();
+        try {
+            monitor.probe();
+            
+            assertEquals(ReplicaCircuitBreaker.State.OPEN, replica(0).getCircuitBreaker().getState());
+            assertEquals(ReplicaCircuitBreaker.State.CLOSED, replica(1).getCircuitBreaker().getState());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+    
+    @Test
+    void readsAfterWriteArePinnedToPrimaryWithinWindow() throws Exception {
+        dataSource.setReadYourWritesWindow(Duration.ofSeconds(5));
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.READ);
+        assertNotSame(writeConnection, dataSource.getConnection());
+        
+        DynamicDataSourceContextHolder.markWrite();
+        assertSame(writeConnection, dataSource.getConnection());
+        
+        DynamicDataSourceContextHolder.clearLastWriteTime();
+        DynamicDataSourceContextHolder.setLastWriteTime(System.currentTimeMillis() - 10_000);
+        assertNotSame(writeConnection, dataSource.getConnection());
+    }
+    
+    @Test
+    void unknownReplicaIsRejected() {
+        dataSource.addReadGroup(ReadGroup.builder("report").addReplica("report_1").build());
+        
+        assertThrows(IllegalArgumentException.class, dataSource::afterPropertiesSet);
+    }
+    
+    private ReadReplica replica(int index) {
+        return dataSource.getReadGroups().get(DynamicConstant.READ).getReplicas().get(index);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.mybatis;
+
+import com.nebula.dynamic.datasource.DynamicConstant;
+import com.nebula.dynamic.datasource.core.DynamicDataSourceContextHolder;
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingInterceptorTest {
+    
+    private final ReadWriteRoutingInterceptor interceptor = new ReadWriteRoutingInterceptor();
+    
+    private final Configuration configuration = new Configuration();
+    
+    @BeforeEach
+    void setUp() {
+        // 模拟 ReadYourWritesFilter 的请求作用域，写时间在请求结束前保留在线程上
+        DynamicDataSourceContextHolder.setWriteListener(writeTime -> {
+        });
+    }
+    
+    @AfterEach
+    void tearDown() {
+        DynamicDataSourceContextHolder.clearWriteListener();
+        DynamicDataSourceContextHolder.clearLastWriteTime();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        List.copyOf(TransactionSynchronizationManager.getResourceMap().keySet()).forEach(TransactionSynchronizationManager::unbindResource);
+    }
+    
+    @Test
+    void routesSelectToRead() throws Exception {
+        assertEquals(DynamicConstant.READ, intercept(SqlCommandType.SELECT));
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+        assertEquals(0, DynamicDataSourceContextHolder.getLastWriteTime());
+    }
+    
+    @Test
+    void routesUpdateToWriteAndMarksWrite() throws Exception {
+        assertEquals(DynamicConstant.WRITE, intercept(SqlCommandType.UPDATE));
+        assertEquals(DynamicConstant.WRITE, intercept(SqlCommandType.INSERT));
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+        assertTrue(DynamicDataSourceContextHolder.getLastWriteTime() > 0);
+    }
+    
+    @Test
+    void explicitAnnotationWins() throws Exception {
+        DynamicDataSourceContextHolder.setDataSource(DynamicConstant.WRITE);
+        try {
+            assertEquals(DynamicConstant.WRITE, intercept(SqlCommandType.SELECT));
+        } finally {
+            DynamicDataSourceContextHolder.clear();
+        }
+    }
+    
+    @Test
+    void staysOnTransactionConnectionInReadWriteTransaction() throws Exception {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        
+        assertNull(intercept(SqlCommandType.SELECT));
+        assertNull(intercept(SqlCommandType.DELETE));
+        assertTrue(DynamicDataSourceContextHolder.getLastWriteTime() > 0);
+    }
+    
+    @Test
+    void selectThenUpdateUnderSynchronizationShareBoundConnection() throws Exception {
+        // Propagation.SUPPORTS：没有实际事务，但第一次获取的连接会绑定到线程上
+        TransactionSynchronizationManager.initSynchronization();
+        
+        assertNull(intercept(SqlCommandType.SELECT));
+        assertNull(intercept(SqlCommandType.UPDATE));
+        assertTrue(DynamicDataSourceContextHolder.getLastWriteTime() > 0);
+    }
+    
+    @Test
+    void staysOnBoundConnection() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        TransactionSynchronizationManager.bindResource(dataSource, new ConnectionHolder(mock(Connection.class)));
+        
+        assertNull(intercept(SqlCommandType.SELECT));
+    }
+    
+    /**
+     * 返回执行 SQL 时线程上的数据源
+     */
+    private String intercept(SqlCommandType type) throws Exception {
+        MappedStatement ms = new MappedStatement.Builder(configuration, "test." + type,
+                new StaticSqlSource(configuration, "sql", Collections.emptyList()), type).build();
+        AtomicReference<String> seen = new AtomicReference<>();
+        Executor target = mock(Executor.class);
+        Answer<Object> capture = invocation -> {
+            seen.set(DynamicDataSourceContextHolder.getDataSource());
+            return null;
+        };
+        when(target.query(any(), any(), any(), any())).thenAnswer(capture);
+        when(target.update(any(), any())).thenAnswer(capture);
+        Executor executor = (Executor) interceptor.plugin(target);
+        if (type == SqlCommandType.SELECT) {
+            executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        } else {
+            executor.update(ms, null);
+        }
+        return seen.get();
+    }
+}
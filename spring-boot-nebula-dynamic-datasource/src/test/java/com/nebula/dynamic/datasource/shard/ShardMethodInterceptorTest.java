@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.shard;
+
+import com.nebula.dynamic.datasource.annotation.NebulaShard;
+import com.nebula.dynamic.datasource.annotation.NebulaWrite;
+import com.nebula.dynamic.datasource.autoconfigure.DynamicDataSourceAutoConfigure;
+import com.nebula.dynamic.datasource.autoconfigure.NebulaDynamicDataSourceProperties;
+import com.nebula.dynamic.datasource.core.DynamicDataSourceContextHolder;
+import com.nebula.dynamic.datasource.core.DynamicRoutingDataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ShardMethodInterceptorTest {
+    
+    @Test
+    void routesBySpelKeyAndOverridesNebulaDs() {
+        TenantDao dao = proxy(new NebulaDynamicDataSourceProperties(), new DefaultListableBeanFactory());
+        
+        assertEquals("ds_2", dao.findByTenant(6L));
+        assertEquals("ds_1", dao.save(new Order(5L)));
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+    }
+    
+    @Test
+    void resolvesStrategyFromProperties() {
+        NebulaDynamicDataSourceProperties properties = new NebulaDynamicDataSourceProperties();
+        NebulaDynamicDataSourceProperties.Shard shard = new NebulaDynamicDataSourceProperties.Shard();
+        shard.setType(NebulaDynamicDataSourceProperties.ShardType.RANGE);
+        shard.getRanges().put(0L, "ds_old");
+        shard.getRanges().put(100L, "ds_new");
+        properties.getShards().put("tenant", shard);
+        
+        TenantDao dao = proxy(properties, new DefaultListableBeanFactory());
+        
+        assertEquals("ds_new", dao.findByTenant(150L));
+    }
+    
+    @Test
+    void failsFastOnNullKey() {
+        TenantDao dao = proxy(new NebulaDynamicDataSourceProperties(), new DefaultListableBeanFactory());
+        
+        assertThrows(IllegalArgumentException.class, () -> dao.findByTenant(null));
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+    }
+    
+    @Test
+    void failsOnUnknownDataSource() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("tenant", new HashModShardStrategy(List.of("ds_0", "ds_9")));
+        TenantDao dao = proxy(new NebulaDynamicDataSourceProperties(), beanFactory);
+        
+        assertEquals("ds_0", dao.findByTenant(2L));
+        assertThrows(IllegalStateException.class, () -> dao.findByTenant(3L));
+        assertNull(DynamicDataSourceContextHolder.getDataSource());
+    }
+    
+    @Test
+    void validatesConfiguredShardsAtStartup() {
+        NebulaDynamicDataSourceProperties properties = new NebulaDynamicDataSourceProperties();
+        NebulaDynamicDataSourceProperties.Shard shard = new NebulaDynamicDataSourceProperties.Shard();
+        shard.setType(NebulaDynamicDataSourceProperties.ShardType.LOOKUP);
+        shard.getMapping().put("42", "ds_vip");
+        shard.setDataSources(List.of("ds_0", "ds_1"));
+        properties.getShards().put("tenant", shard);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("dataSource", routingDataSource());
+        
+        SmartInitializingSingleton validator = new DynamicDataSourceAutoConfigure()
+                .shardDataSourceValidator(properties, beanFactory.getBeanProvider(DynamicRoutingDataSource.class));
+        
+        assertThrows(IllegalStateException.class, validator::afterSingletonsInstantiated);
+    }
+    
+    private TenantDao proxy(NebulaDynamicDataSourceProperties properties, DefaultListableBeanFactory beanFactory) {
+        if (properties.getShards().isEmpty() && !beanFactory.containsBean("tenant")) {
+            beanFactory.registerSingleton("tenant", new HashModShardStrategy(List.of("ds_0", "ds_1", "ds_2", "ds_3")));
+        }
+        beanFactory.registerSingleton("dataSource", routingDataSource());
+        DynamicDataSourceAutoConfigure configure = new DynamicDataSourceAutoConfigure();
+        ProxyFactory factory = new ProxyFactory(new TenantDao());
+        factory.setProxyTargetClass(true);
+        // 按切面 order 从外到内添加，与容器中的顺序一致
+        factory.addAdvisor(configure.dynamicDataSourceAdvisor());
+        factory.addAdvisor(configure.shardAdvisor(properties, beanFactory, beanFactory.getBeanProvider(DynamicRoutingDataSource.class)));
+        return (TenantDao) factory.getProxy();
+    }
+    
+    private static DynamicRoutingDataSource routingDataSource() {
+        DynamicRoutingDataSource dataSource = new DynamicRoutingDataSource();
+        Map<Object, Object> targets = new HashMap<>();
+        for (String key : List.of("ds_0", "ds_1", "ds_2", "ds_3", "ds_old", "ds_new")) {
+            targets.put(key, mock(DataSource.class));
+        }
+        dataSource.setTargetDataSources(targets);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+    
+    public static class TenantDao {
+        
+        @NebulaShard(key = "#tenantId", strategy = "tenant")
+        public String findByTenant(Long tenantId) {
+            return DynamicDataSourceContextHolder.getDataSource();
+        }
+        
+        @NebulaWrite
+        @NebulaShard(key = "#order.tenantId", strategy = "tenant")
+        public String save(Order order) {
+            return DynamicDataSourceContextHolder.getDataSource();
+        }
+    }
+    
+    public static class Order {
+        
+        private final Long tenantId;
+        
+        Order(Long tenantId) {
+            this.tenantId = tenantId;
+        }
+        
+        public Long getTenantId() {
+            return tenantId;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.shard;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardStrategyTest {
+    
+    @Test
+    void hashModUsesIntegerValueDirectly() {
+        HashModShardStrategy strategy = new HashModShardStrategy(List.of("ds_0", "ds_1", "ds_2", "ds_3"));
+        
+        assertEquals("ds_3", strategy.route(7L));
+        assertEquals("ds_1", strategy.route(-3));
+        assertEquals(strategy.route("tenant-a"), strategy.route("tenant-a"));
+        assertEquals(strategy.route(42L), strategy.route("42"));
+        assertEquals(strategy.route(-3), strategy.route("-3"));
+        assertThrows(IllegalArgumentException.class, () -> strategy.route(4.2));
+    }
+    
+    @Test
+    void rangeRoutesToFloorLowerBound() {
+        RangeShardStrategy strategy = RangeShardStrategy.builder()
+                .addRange(0, "ds_0")
+                .addRange(1_000_000, "ds_1")
+                .build();
+        
+        assertEquals("ds_0", strategy.route(999_999L));
+        assertEquals("ds_1", strategy.route(1_000_000));
+        assertEquals("ds_1", strategy.route("5000000"));
+        assertThrows(IllegalArgumentException.class, () -> strategy.route(-1));
+        assertThrows(IllegalArgumentException.class, () -> RangeShardStrategy.builder().addRange(0, "ds_0").addRange(0, "ds_1"));
+    }
+    
+    @Test
+    void lookupFallsBackWhenKeyNotMapped() {
+        LookupShardStrategy strategy = new LookupShardStrategy(Map.of("42", "ds_vip"), new HashModShardStrategy(List.of("ds_0", "ds_1")));
+        
+        assertEquals("ds_vip", strategy.route(42L));
+        assertEquals("ds_1", strategy.route(43L));
+        assertThrows(IllegalArgumentException.class, () -> new LookupShardStrategy(Map.of("42", "ds_vip")).route(43L));
+    }
+}
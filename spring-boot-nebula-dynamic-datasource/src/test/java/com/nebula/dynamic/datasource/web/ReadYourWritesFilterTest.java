@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.dynamic.datasource.web;
+
+import com.nebula.dynamic.datasource.core.DynamicDataSourceContextHolder;
+import jakarta.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+    
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5), ReadYourWritesFilter.DEFAULT_HEADER, "nebula_lw");
+    
+    @Test
+    void restoresRecentWriteTimeFromHeader() throws Exception {
+        long writeTime = System.currentTimeMillis() - 1000;
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReadYourWritesFilter.DEFAULT_HEADER, String.valueOf(writeTime));
+        AtomicLong seen = new AtomicLong();
+        
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(DynamicDataSourceContextHolder.getLastWriteTime()));
+        
+        assertEquals(writeTime, seen.get());
+        assertEquals(0, DynamicDataSourceContextHolder.getLastWriteTime());
+    }
+    
+    @Test
+    void ignoresStaleOrForgedWriteTime() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("nebula_lw", String.valueOf(System.currentTimeMillis() + 3_600_000)));
+        AtomicLong seen = new AtomicLong(-1);
+        
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(DynamicDataSourceContextHolder.getLastWriteTime()));
+        
+        assertEquals(0, seen.get());
+    }
+    
+    @Test
+    void propagatesWriteTimeToResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> DynamicDataSourceContextHolder.markWrite());
+        
+        String header = response.getHeader(ReadYourWritesFilter.DEFAULT_HEADER);
+        assertNotNull(header);
+        Cookie cookie = response.getCookie("nebula_lw");
+        assertNotNull(cookie);
+        assertEquals(header, cookie.getValue());
+        assertEquals(5, cookie.getMaxAge());
+    }
+}
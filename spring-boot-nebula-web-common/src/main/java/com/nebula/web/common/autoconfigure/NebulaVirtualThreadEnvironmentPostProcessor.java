@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.web.common.autoconfigure;
+
+import com.nebula.base.utils.juc.ThreadPoolBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * @author : wh
+ * @date : 2025/7/8
+ * @description: 将 {@code spring.threads.virtual.enabled} 同步给 {@link ThreadPoolBuilder}。
+ * <p>
+ * 在 Environment 准备好、任何 Bean 创建之前执行，保证工具类内置的默认线程池首次初始化时
+ * 就能读取到 application.yml 中的虚拟线程开关。
+ */
+public class NebulaVirtualThreadEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Boolean enabled = environment.getProperty(ThreadPoolBuilder.VIRTUAL_THREAD_ENABLED_PROPERTY, Boolean.class);
+        if (enabled != null) {
+            ThreadPoolBuilder.setVirtualThreadEnabled(enabled);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+ 
+package com.nebula.web.boot.actuator;
+
+import com.nebula.base.utils.juc.InstrumentedThreadPoolExecutor;
+import com.nebula.base.utils.juc.ThreadPoolRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import lombok.Getter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * @author : wh
+ * @date : 2025/7/12
+ * @description: 查看与在线调整 {@link ThreadPoolRegistry} 中的线程池。
+ * <p>
+ * GET /actuator/nebulathreadpools 查看所有线程池，
+ * POST /actuator/nebulathreadpools/{name} 传入 corePoolSize、maximumPoolSize 调整线程数。
+ */
+@Endpoint(id = "nebulathreadpools")
+public class NebulaThreadPoolEndpoint {
+    
+    @ReadOperation
+    public Map<String, PoolDescriptor> pools() {
+        Map<String, PoolDescriptor> pools = new LinkedHashMap<>();
+        ThreadPoolRegistry.getAll().forEach((name, executor) -> pools.put(name, new PoolDescriptor(executor)));
+        return pools;
+    }
+    
+    @ReadOperation
+    public PoolDescriptor pool(@Selector String name) {
+        ThreadPoolExecutor executor = ThreadPoolRegistry.get(name);
+        return executor == null ? null : new PoolDescriptor(executor);
+    }
+    
+    @WriteOperation
+    public PoolDescriptor resize(@Selector String name, int corePoolSize, int maximumPoolSize) {
+        ThreadPoolRegistry.resize(name, corePoolSize, maximumPoolSize);
+        return new PoolDescriptor(ThreadPoolRegistry.get(name));
+    }
+    
+    @Getter
+    public static class PoolDescriptor {
+        
+        private final int corePoolSize;
+        
+        private final int maximumPoolSize;
+        
+        private final int poolSize;
+        
+        private final int activeCount;
+        
+        private final int queueSize;
+        
+        private final int queueRemainingCapacity;
+        
+        private final long completedTaskCount;
+        
+        private final long rejectedCount;
+        
+        private final boolean selfTuning;
+        
+        private final double blockingRatio;
+        
+        PoolDescriptor(ThreadPoolExecutor executor) {
+            this.corePoolSize = executor.getCorePoolSize();
+            this.maximumPoolSize = executor.getMaximumPoolSize();
+            this.poolSize = executor.getPoolSize();
+            this.activeCount = executor.getActiveCount();
+            this.queueSize = executor.getQueue().size();
+            this.queueRemainingCapacity = executor.getQueue().remainingCapacity();
+            this.completedTaskCount = executor.getCompletedTaskCount();
+            InstrumentedThreadPoolExecutor instrumented = executor instanceof InstrumentedThreadPoolExecutor i ? i : null;
+            this.rejectedCount = instrumented != null ? instrumented.getRejectedCount() : -1;
+            this.selfTuning = instrumented != null && instrumented.isSelfTuning();
+            this.blockingRatio = instrumented != null ? instrumented.getBlockingRatio() : -1;
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.nebula.web.boot.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nebula.alert.feishu.FeiShuRoot;
+import com.nebula.web.boot.actuator.NebulaThreadPoolEndpoint;
 import com.nebula.web.boot.monitor.DefaultNebulaErrorMonitor;
 import com.nebula.web.boot.monitor.FeishuAlertChannel;
 import com.nebula.web.boot.monitor.LocalAlertLimiter;
@@ -29,6 +30,7 @@ import com.nebula.web.boot.monitor.RedisAlertLimiter;
 import com.nebula.web.boot.annotation.NebulaResponseBodyAdvice;
 import com.nebula.web.boot.filter.RepeatableReadFilter;
 import java.time.Duration;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -108,6 +110,13 @@ public class NebulaWebAutoConfiguration {
         }
     }
     
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnAvailableEndpoint
+    public NebulaThreadPoolEndpoint nebulaThreadPoolEndpoint() {
+        return new NebulaThreadPoolEndpoint();
+    }
+    
     @ConditionalOnProperty(name = "nebula.web.monitor.type")
     @ConditionalOnMissingBean(NebulaErrorMonitor.class)
     @Bean